@@ -29,4 +29,8 @@ public class NodeHealthInfo {
     public Boolean needReboot = false;
     @Schema(name = "Used DB connection", description = "Current total number of DB connections")
     public Integer usedDbConnections = 0;
+    @Schema(name = "Open shards", description = "Current number of open shard databases")
+    public Integer openShards = 0;
+    @Schema(name = "Used shard DB connections", description = "Current total number of active shard DB connections")
+    public Integer usedShardDbConnections = 0;
 }
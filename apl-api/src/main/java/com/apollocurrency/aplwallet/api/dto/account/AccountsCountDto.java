@@ -22,6 +22,7 @@ import java.util.List;
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class AccountsCountDto extends BaseDTO {
+    public int height;
     public long totalSupply;
     public long totalNumberOfAccounts;
     public int numberOfTopAccounts;
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManagerImpl;
+import com.apollocurrency.aplwallet.apl.core.db.cdi.transaction.JdbiHandleFactory;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import com.apollocurrency.aplwallet.apl.util.FileUtils;
+import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
+import com.apollocurrency.aplwallet.apl.util.env.config.ChainUtils;
+import com.apollocurrency.aplwallet.apl.util.env.config.ChainsConfigLoader;
+import com.apollocurrency.aplwallet.apl.util.env.config.PropertiesConfigLoader;
+import com.apollocurrency.aplwallet.apl.util.injectable.DbProperties;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.enterprise.inject.Disposes;
+import javax.enterprise.inject.Produces;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Produces the minimal set of beans required by the benchmarked core classes, which are still looking up
+ * their dependencies through {@link javax.enterprise.inject.spi.CDI}.
+ * Configuration is loaded from the default resources of the active chain, database is an embedded H2
+ * file database created in the temporary directory for each benchmark fork.
+ */
+@Slf4j
+public class BenchmarkBeanProducer {
+    private static final String DB_FILE_NAME = "apl-bench";
+
+    @Produces
+    @Singleton
+    public PropertiesHolder propertiesHolder() {
+        Properties properties = new PropertiesConfigLoader(null, false, null,
+            Constants.APPLICATION_DIR_NAME + ".properties", List.of()).load();
+        PropertiesHolder propertiesHolder = new PropertiesHolder();
+        propertiesHolder.init(properties);
+        return propertiesHolder;
+    }
+
+    @Produces
+    @Singleton
+    public BlockchainConfig blockchainConfig(PropertiesHolder propertiesHolder) {
+        Chain chain = ChainUtils.getActiveChain(new ChainsConfigLoader().load());
+        return new BlockchainConfig(chain, propertiesHolder);
+    }
+
+    @Produces
+    @Singleton
+    public DatabaseManager databaseManager(PropertiesHolder propertiesHolder, BlockchainConfig blockchainConfig) {
+        Path dbDir;
+        try {
+            dbDir = Files.createTempDirectory(DB_FILE_NAME);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create benchmark db directory", e);
+        }
+        DbProperties dbProperties = new DbProperties()
+            .dbType("h2")
+            .dbDir(dbDir.toAbsolutePath().toString())
+            .dbFileName(DB_FILE_NAME)
+            .dbParams("")
+            .dbUsername("sa")
+            .dbPassword("sa")
+            .maxConnections(propertiesHolder.getIntProperty("apl.maxDbConnections", 30))
+            .loginTimeout(10)
+            .maxMemoryRows(100000)
+            .defaultLockTimeout(10 * 1000)
+            .chainId(blockchainConfig.getChain().getChainId());
+        log.info("Benchmark db is created in {}", dbDir);
+        return new DatabaseManagerImpl(dbProperties, propertiesHolder, new JdbiHandleFactory());
+    }
+
+    public void shutdown(@Disposes DatabaseManager databaseManager) {
+        databaseManager.shutdown();
+        Path dbDir = Path.of(databaseManager.getBaseDbProperties().getDbDir());
+        FileUtils.clearDirectorySilently(dbDir);
+        FileUtils.deleteFileIfExistsQuietly(dbDir);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.util.cdi.AplContainer;
+
+/**
+ * Minimal CDI container for the benchmarks, which touch the core classes depending on
+ * {@link javax.enterprise.inject.spi.CDI} lookups. Should be started once per benchmark trial.
+ */
+public final class BenchmarkContainer {
+    private static final String CONTAINER_ID = "BENCH-APL-CDI";
+
+    private BenchmarkContainer() {
+    }
+
+    public static AplContainer start() {
+        return AplContainer.builder()
+            .containerId(CONTAINER_ID)
+            .disableDiscovery()
+            .beanClasses(BenchmarkBeanProducer.class)
+            .build();
+    }
+}
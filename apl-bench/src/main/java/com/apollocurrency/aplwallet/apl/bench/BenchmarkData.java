@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.account.dao.AccountTable;
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.app.Transaction;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic fixture generator for the benchmarks: the same seed always produces the same accounts,
+ * keys and transactions, so results of the different releases are comparable.
+ */
+public final class BenchmarkData {
+    public static final long SEED = 42L;
+    private static final int ACCOUNTS_BATCH_SIZE = 1000;
+
+    private BenchmarkData() {
+    }
+
+    public static byte[] keySeed(int index) {
+        return Crypto.getKeySeed("apl-bench secret phrase " + index);
+    }
+
+    public static List<byte[]> randomBytes(int count, int size) {
+        Random random = new Random(SEED);
+        List<byte[]> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            result.add(bytes);
+        }
+        return result;
+    }
+
+    /**
+     * Generate signed ordinary payments between the fixture accounts
+     *
+     * @param count     number of transactions to generate
+     * @param timestamp epoch time of the first transaction
+     * @return transactions ordered by timestamp
+     */
+    public static List<Transaction> generatePayments(int count, int timestamp) {
+        Random random = new Random(SEED);
+        List<Transaction> transactions = new ArrayList<>(count);
+        int senders = Math.min(count, 100);
+        for (int i = 0; i < count; i++) {
+            byte[] keySeed = keySeed(i % senders);
+            try {
+                transactions.add(Transaction.newTransactionBuilder(Crypto.getPublicKey(keySeed),
+                    (1 + random.nextInt(10_000)) * Constants.ONE_APL, Constants.ONE_APL, (short) 1440,
+                    Attachment.ORDINARY_PAYMENT, timestamp + i)
+                    .recipientId(random.nextLong())
+                    .ecBlockHeight(0)
+                    .ecBlockId(0)
+                    .build(keySeed));
+            } catch (AplException.NotValidException e) {
+                throw new IllegalStateException("Unable to generate benchmark transaction", e);
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Fill account table with the random accounts
+     *
+     * @param dataSource   target data source
+     * @param accountTable account table to fill
+     * @param count        number of accounts to save
+     * @return ids of the saved accounts
+     */
+    public static long[] generateAccounts(TransactionalDataSource dataSource, AccountTable accountTable, int count) {
+        Random random = new Random(SEED);
+        long[] ids = new long[count];
+        try (Connection con = dataSource.begin()) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = random.nextLong();
+                long balance = (1 + random.nextInt(1_000_000)) * Constants.ONE_APL;
+                accountTable.save(con, new Account(ids[i], balance, balance, 0, 0, random.nextInt(1_000_000)));
+                if ((i + 1) % ACCOUNTS_BATCH_SIZE == 0) {
+                    dataSource.commit(false);
+                }
+            }
+            dataSource.commit();
+        } catch (SQLException e) {
+            dataSource.rollback();
+            throw new IllegalStateException("Unable to generate benchmark accounts", e);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.account.dao.AccountTable;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.CsvExportData;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvEscaper;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvEscaperImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvReaderImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvWriter;
+import com.apollocurrency.aplwallet.apl.core.shard.helper.csv.CsvWriterImpl;
+import com.apollocurrency.aplwallet.apl.util.FileUtils;
+import com.apollocurrency.aplwallet.apl.util.cdi.AplContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export of the derived table into the csv file and its import back, as performed by the sharding
+ * and by the shard import
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+    private static final String TABLE_NAME = "account";
+    private static final String EXPORT_SQL = "SELECT * FROM account WHERE latest = TRUE ORDER BY db_id";
+    private static final Set<String> EXCLUDED_COLUMNS = Set.of("DB_ID", "LATEST", "DELETED");
+
+    @Param({"10000"})
+    private int accounts;
+
+    private AplContainer container;
+    private TransactionalDataSource dataSource;
+    private CsvEscaper translator;
+    private Path importDir;
+    private Path exportDir;
+    private int exportCounter;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        container = BenchmarkContainer.start();
+        dataSource = container.getContainer().select(DatabaseManager.class).get().getDataSource();
+        BlockchainConfig blockchainConfig = container.getContainer().select(BlockchainConfig.class).get();
+        // blockchain is not used by the account table itself
+        BenchmarkData.generateAccounts(dataSource, new AccountTable(null, blockchainConfig), accounts);
+        translator = new CsvEscaperImpl();
+        importDir = Files.createTempDirectory("apl-bench-csv-import");
+        exportDir = Files.createTempDirectory("apl-bench-csv-export");
+        try (Connection con = dataSource.getConnection();
+             CsvWriter csvWriter = new CsvWriterImpl(importDir, EXCLUDED_COLUMNS, translator)) {
+            csvWriter.write(con, TABLE_NAME, EXPORT_SQL, null);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearExportDir() {
+        FileUtils.clearDirectorySilently(exportDir);
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.shutdown();
+        FileUtils.clearDirectorySilently(importDir);
+        FileUtils.deleteFileIfExistsQuietly(importDir);
+        FileUtils.deleteFileIfExistsQuietly(exportDir);
+    }
+
+    @Benchmark
+    public CsvExportData export() throws SQLException {
+        try (Connection con = dataSource.getConnection();
+             CsvWriter csvWriter = new CsvWriterImpl(exportDir, EXCLUDED_COLUMNS, translator)) {
+            return csvWriter.write(con, TABLE_NAME + exportCounter++, EXPORT_SQL, null);
+        }
+    }
+
+    @Benchmark
+    public int read(Blackhole blackhole) throws SQLException {
+        int rows = 0;
+        try (CsvReaderImpl csvReader = new CsvReaderImpl(importDir, translator);
+             ResultSet rs = csvReader.read(TABLE_NAME, null, null)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    blackhole.consume(rs.getObject(i));
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.account.dao.AccountTable;
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.util.cdi.AplContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity lookup by key on the embedded H2 database, measured on the account table, which is the most
+ * frequently read derived table during block and transaction validation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityDbTableBenchmark {
+    @Param({"100000"})
+    private int accounts;
+
+    private AplContainer container;
+    private AccountTable accountTable;
+    private long[] accountIds;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        container = BenchmarkContainer.start();
+        DatabaseManager databaseManager = container.getContainer().select(DatabaseManager.class).get();
+        BlockchainConfig blockchainConfig = container.getContainer().select(BlockchainConfig.class).get();
+        // blockchain is not used by the account table itself
+        accountTable = new AccountTable(null, blockchainConfig);
+        accountIds = BenchmarkData.generateAccounts(databaseManager.getDataSource(), accountTable, accounts);
+        random = new Random(BenchmarkData.SEED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.shutdown();
+    }
+
+    @Benchmark
+    public Account get() {
+        return accountTable.get(AccountTable.newKey(nextAccountId()));
+    }
+
+    @Benchmark
+    public Account getAtHeight() {
+        return accountTable.get(AccountTable.newKey(nextAccountId()), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Account getMissing() {
+        return accountTable.get(AccountTable.newKey(random.nextLong()));
+    }
+
+    private long nextAccountId() {
+        return accountIds[random.nextInt(accountIds.length)];
+    }
+}
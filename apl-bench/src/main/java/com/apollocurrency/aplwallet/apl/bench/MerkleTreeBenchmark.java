@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.shard.hash.MerkleRootAccumulator;
+import com.apollocurrency.aplwallet.apl.core.shard.hash.MerkleTree;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merkle tree building over the block signatures, as performed by the shard hash calculation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MerkleTreeBenchmark {
+    private static final int LEAF_SIZE = 64;
+
+    @Param({"1000", "100000"})
+    private int leaves;
+
+    private List<byte[]> data;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkData.randomBytes(leaves, LEAF_SIZE);
+    }
+
+    @Benchmark
+    public byte[] buildFromList() {
+        return new MerkleTree(Crypto.sha256(), data).getRoot().getValue();
+    }
+
+    @Benchmark
+    public byte[] appendLeaves() {
+        MerkleTree tree = new MerkleTree(Crypto.sha256());
+        for (byte[] leaf : data) {
+            tree.appendLeaf(leaf);
+        }
+        return tree.getRoot().getValue();
+    }
+
+    @Benchmark
+    public byte[] accumulateLeaves() {
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(Crypto.sha256());
+        for (byte[] leaf : data) {
+            accumulator.appendLeaf(leaf);
+        }
+        return accumulator.getRoot();
+    }
+}
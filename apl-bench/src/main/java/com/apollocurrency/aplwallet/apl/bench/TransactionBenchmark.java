@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.bench;
+
+import com.apollocurrency.aplwallet.apl.core.app.Transaction;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transaction parsing and serialization. Transaction caches its bytes after the first serialization,
+ * so the serialization cost is measured together with parsing and is the difference between
+ * {@link #parseBytesAndGetBytes()} and {@link #parseBytes()}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionBenchmark {
+    private Transaction transaction;
+    private byte[] transactionBytes;
+    private JSONObject transactionJson;
+
+    @Setup
+    public void setUp() {
+        transaction = BenchmarkData.generatePayments(1, 1000).get(0);
+        transactionBytes = transaction.getBytes();
+        // parse json string to get the same value types as for json received from peers
+        transactionJson = (JSONObject) JSONValue.parse(transaction.getJSONObject().toJSONString());
+    }
+
+    @Benchmark
+    public Transaction parseBytes() throws AplException.NotValidException {
+        return Transaction.newTransactionBuilder(transactionBytes).build();
+    }
+
+    @Benchmark
+    public byte[] parseBytesAndGetBytes() throws AplException.NotValidException {
+        return Transaction.newTransactionBuilder(transactionBytes).build().getBytes();
+    }
+
+    @Benchmark
+    public Transaction parseJson() throws AplException.NotValidException {
+        return Transaction.newTransactionBuilder(transactionJson).build();
+    }
+
+    @Benchmark
+    public JSONObject getJSONObject() {
+        return transaction.getJSONObject();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.bench.BenchmarkContainer;
+import com.apollocurrency.aplwallet.apl.bench.BenchmarkData;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.cdi.AplContainer;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the blocks received from peers and their json serialization for the peers and API.
+ * Placed into the core package to access the package-private {@link BlockImpl#parseBlock(JSONObject)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockBenchmark {
+    @Param({"10", "255"})
+    private int transactions;
+
+    private AplContainer container;
+    private Block block;
+    private JSONObject blockJson;
+
+    @Setup
+    public void setUp() {
+        container = BenchmarkContainer.start();
+        List<Transaction> blockTransactions = BenchmarkData.generatePayments(transactions, 1000);
+        MessageDigest digest = Crypto.sha256();
+        long totalAmountATM = 0;
+        long totalFeeATM = 0;
+        int payloadLength = 0;
+        for (Transaction transaction : blockTransactions) {
+            digest.update(transaction.getBytes());
+            totalAmountATM += transaction.getAmountATM();
+            totalFeeATM += transaction.getFeeATM();
+            payloadLength += transaction.getFullSize();
+        }
+        byte[] keySeed = BenchmarkData.keySeed(0);
+        block = new BlockImpl(Block.REGULAR_BLOCK_VERSION, 1000 + transactions, 1L, totalAmountATM, totalFeeATM,
+            payloadLength, digest.digest(), Crypto.getPublicKey(keySeed), BenchmarkData.randomBytes(1, 32).get(0),
+            new byte[32], 0, blockTransactions, keySeed);
+        // parse json string to get the same value types as for json received from peers
+        blockJson = (JSONObject) JSONValue.parse(block.getJSONObject().toJSONString());
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.shutdown();
+    }
+
+    @Benchmark
+    public Block parseBlock() throws AplException.NotValidException {
+        return BlockImpl.parseBlock(blockJson);
+    }
+
+    @Benchmark
+    public JSONObject getJSONObject() {
+        return block.getJSONObject();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.crypto;
+
+import com.apollocurrency.aplwallet.apl.bench.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Signature creation and verification, which are performed for each transaction and block received from peers.
+ * Placed into the crypto package to access the package-private {@link Curve25519}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+    private static final int SIGNATURES_COUNT = 256;
+
+    @Param({"200"})
+    private int messageSize;
+
+    private byte[] keySeed;
+    private byte[] publicKey;
+    private byte[] message;
+    private byte[] signature;
+    private byte[] v;
+    private byte[] h;
+    private byte[][] publicKeys;
+    private List<byte[]> messages;
+    private byte[][] signatures;
+    private final AtomicInteger nextSignature = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        keySeed = BenchmarkData.keySeed(0);
+        publicKey = Crypto.getPublicKey(keySeed);
+        message = BenchmarkData.randomBytes(1, messageSize).get(0);
+        signature = Crypto.sign(message, keySeed);
+        v = Arrays.copyOfRange(signature, 0, Curve25519.KEY_SIZE);
+        h = Arrays.copyOfRange(signature, Curve25519.KEY_SIZE, 2 * Curve25519.KEY_SIZE);
+
+        publicKeys = new byte[SIGNATURES_COUNT][];
+        messages = BenchmarkData.randomBytes(SIGNATURES_COUNT, messageSize);
+        signatures = new byte[SIGNATURES_COUNT][];
+        for (int i = 0; i < SIGNATURES_COUNT; i++) {
+            byte[] seed = BenchmarkData.keySeed(i);
+            publicKeys[i] = Crypto.getPublicKey(seed);
+            signatures[i] = Crypto.sign(messages.get(i), seed);
+        }
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        return Crypto.sign(message, keySeed);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return Crypto.verify(signature, message, publicKey);
+    }
+
+    /**
+     * Curve part of the {@link #verify()} without canonical checks and hashing
+     */
+    @Benchmark
+    public byte[] curve25519Verify() {
+        byte[] y = new byte[Curve25519.KEY_SIZE];
+        Curve25519.verify(y, v, h, publicKey);
+        return y;
+    }
+
+    /**
+     * Same as the {@link #curve25519Verify()} using the {@link Curve25519Verifier}
+     */
+    @Benchmark
+    public byte[] curve25519VerifierVerify() {
+        byte[] y = new byte[Curve25519.KEY_SIZE];
+        Curve25519Verifier.verify(y, v, h, publicKey);
+        return y;
+    }
+
+    /**
+     * Verifications per second of the different signatures on all the available cores,
+     * as during the validation of the received blocks and transactions
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(Threads.MAX)
+    public boolean verifyThroughput() {
+        int i = Math.floorMod(nextSignature.getAndIncrement(), SIGNATURES_COUNT);
+        return Crypto.verify(signatures[i], messages.get(i), publicKeys[i]);
+    }
+
+    @Benchmark
+    public byte[] publicKey() {
+        return Crypto.getPublicKey(keySeed);
+    }
+}
@@ -6,6 +6,7 @@ package com.apollocurrency.aplwallet.apl.core.account.dao;
 
 import com.apollocurrency.aplwallet.apl.core.account.model.AccountAsset;
 import com.apollocurrency.aplwallet.apl.core.db.DbClause;
+import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.LinkKeyFactory;
 import com.apollocurrency.aplwallet.apl.core.db.derived.VersionedDeletableEntityDbTable;
@@ -17,6 +18,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 
 import static com.apollocurrency.aplwallet.apl.core.app.CollectionUtil.toList;
@@ -28,9 +30,14 @@ import static com.apollocurrency.aplwallet.apl.core.app.CollectionUtil.toList;
 public class AccountAssetTable extends VersionedDeletableEntityDbTable<AccountAsset> {
 
     private static final LinkKeyFactory<AccountAsset> accountAssetDbKeyFactory = new AccountAssetDbKeyFactory();
+    private static final int CACHE_SIZE = 20_000;
+    private static final String MERGE_SQL = "MERGE INTO account_asset "
+        + "(account_id, asset_id, quantity, unconfirmed_quantity, height, latest, deleted) "
+        + "KEY (account_id, asset_id, height) VALUES (?, ?, ?, ?, ?, TRUE, FALSE)";
 
     public AccountAssetTable() {
         super("account_asset", accountAssetDbKeyFactory);
+        enableCache(CACHE_SIZE, AccountAsset::getHeight, AccountAsset::new);
     }
 
     public static DbKey newKey(long idA, long idB) {
@@ -45,20 +52,33 @@ public class AccountAssetTable extends VersionedDeletableEntityDbTable<AccountAs
     @Override
     public void save(Connection con, AccountAsset accountAsset) throws SQLException {
         try (
-            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement("MERGE INTO account_asset "
-                + "(account_id, asset_id, quantity, unconfirmed_quantity, height, latest, deleted) "
-                + "KEY (account_id, asset_id, height) VALUES (?, ?, ?, ?, ?, TRUE, FALSE)")
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL)
         ) {
-            int i = 0;
-            pstmt.setLong(++i, accountAsset.getAccountId());
-            pstmt.setLong(++i, accountAsset.getAssetId());
-            pstmt.setLong(++i, accountAsset.getQuantityATU());
-            pstmt.setLong(++i, accountAsset.getUnconfirmedQuantityATU());
-            pstmt.setInt(++i, accountAsset.getHeight());
+            setMergeParameters(pstmt, accountAsset);
             pstmt.executeUpdate();
         }
     }
 
+    @Override
+    protected AccountAsset saveForCache(Connection con, AccountAsset accountAsset, DbKey dbKey) throws SQLException {
+        try (
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL, Statement.RETURN_GENERATED_KEYS)
+        ) {
+            setMergeParameters(pstmt, accountAsset);
+            pstmt.executeUpdate();
+            return toSavedVersion(new AccountAsset(accountAsset), dbKey, getGeneratedDbId(pstmt));
+        }
+    }
+
+    private void setMergeParameters(PreparedStatement pstmt, AccountAsset accountAsset) throws SQLException {
+        int i = 0;
+        pstmt.setLong(++i, accountAsset.getAccountId());
+        pstmt.setLong(++i, accountAsset.getAssetId());
+        pstmt.setLong(++i, accountAsset.getQuantityATU());
+        pstmt.setLong(++i, accountAsset.getUnconfirmedQuantityATU());
+        pstmt.setInt(++i, accountAsset.getHeight());
+    }
+
     @Override
     public String defaultSort() {
         return " ORDER BY quantity DESC, account_id, asset_id ";
@@ -88,6 +108,22 @@ public class AccountAssetTable extends VersionedDeletableEntityDbTable<AccountAs
         return toList(getManyBy(new DbClause.LongClause("account_id", accountId), height, from, to));
     }
 
+    public List<AccountAsset> getByAccountIds(List<Long> accountIds, long assetId) {
+        return toList(getManyBy(new DbClause.LongListClause("account_id", accountIds).and(new DbClause.LongClause("asset_id", assetId)), 0, -1));
+    }
+
+    public List<AccountAsset> getByAccountIds(List<Long> accountIds, long assetId, int height) {
+        return toList(getManyBy(new DbClause.LongListClause("account_id", accountIds).and(new DbClause.LongClause("asset_id", assetId)), height, 0, -1));
+    }
+
+    public DbIterator<AccountAsset> getByAssetIdInAccountOrder(long assetId) {
+        return getManyBy(new DbClause.LongClause("asset_id", assetId), 0, -1, " ORDER BY account_id ");
+    }
+
+    public DbIterator<AccountAsset> getByAssetIdInAccountOrder(long assetId, int height) {
+        return getManyBy(new DbClause.LongClause("asset_id", assetId), height, 0, -1, " ORDER BY account_id ");
+    }
+
     public List<AccountAsset> getByAssetId(long assetId, int from, int to) {
         return toList(getManyBy(new DbClause.LongClause("asset_id", assetId), from, to, " ORDER BY quantity DESC, account_id "));
     }
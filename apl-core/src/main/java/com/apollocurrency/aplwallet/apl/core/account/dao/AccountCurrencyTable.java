@@ -18,6 +18,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 /**
  * @author al
@@ -34,9 +36,14 @@ public class AccountCurrencyTable extends VersionedDeletableEntityDbTable<Accoun
             return accountCurrency.getDbKey();
         }
     };
+    private static final int CACHE_SIZE = 20_000;
+    private static final String MERGE_SQL = "MERGE INTO account_currency "
+        + "(account_id, currency_id, units, unconfirmed_units, height, latest, deleted) "
+        + "KEY (account_id, currency_id, height) VALUES (?, ?, ?, ?, ?, TRUE, FALSE)";
 
     public AccountCurrencyTable() {
         super("account_currency", accountCurrencyDbKeyFactory, false);
+        enableCache(CACHE_SIZE, AccountCurrency::getHeight, AccountCurrency::new);
     }
 
     public static DbKey newKey(long idA, long idB) {
@@ -51,18 +58,33 @@ public class AccountCurrencyTable extends VersionedDeletableEntityDbTable<Accoun
     @Override
     public void save(Connection con, AccountCurrency accountCurrency) throws SQLException {
         try (
-            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement("MERGE INTO account_currency " + "(account_id, currency_id, units, unconfirmed_units, height, latest, deleted) " + "KEY (account_id, currency_id, height) VALUES (?, ?, ?, ?, ?, TRUE, FALSE)")
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL)
         ) {
-            int i = 0;
-            pstmt.setLong(++i, accountCurrency.getAccountId());
-            pstmt.setLong(++i, accountCurrency.getCurrencyId());
-            pstmt.setLong(++i, accountCurrency.getUnits());
-            pstmt.setLong(++i, accountCurrency.getUnconfirmedUnits());
-            pstmt.setInt(++i, accountCurrency.getHeight());
+            setMergeParameters(pstmt, accountCurrency);
             pstmt.executeUpdate();
         }
     }
 
+    @Override
+    protected AccountCurrency saveForCache(Connection con, AccountCurrency accountCurrency, DbKey dbKey) throws SQLException {
+        try (
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL, Statement.RETURN_GENERATED_KEYS)
+        ) {
+            setMergeParameters(pstmt, accountCurrency);
+            pstmt.executeUpdate();
+            return toSavedVersion(new AccountCurrency(accountCurrency), dbKey, getGeneratedDbId(pstmt));
+        }
+    }
+
+    private void setMergeParameters(PreparedStatement pstmt, AccountCurrency accountCurrency) throws SQLException {
+        int i = 0;
+        pstmt.setLong(++i, accountCurrency.getAccountId());
+        pstmt.setLong(++i, accountCurrency.getCurrencyId());
+        pstmt.setLong(++i, accountCurrency.getUnits());
+        pstmt.setLong(++i, accountCurrency.getUnconfirmedUnits());
+        pstmt.setInt(++i, accountCurrency.getHeight());
+    }
+
     @Override
     public String defaultSort() {
         return " ORDER BY units DESC, account_id, currency_id ";
@@ -76,6 +98,14 @@ public class AccountCurrencyTable extends VersionedDeletableEntityDbTable<Accoun
         return getManyBy(new DbClause.LongClause("account_id", accountId), height, from, to);
     }
 
+    public DbIterator<AccountCurrency> getByAccounts(List<Long> accountIds, long currencyId) {
+        return getManyBy(new DbClause.LongListClause("account_id", accountIds).and(new DbClause.LongClause("currency_id", currencyId)), 0, -1);
+    }
+
+    public DbIterator<AccountCurrency> getByAccounts(List<Long> accountIds, long currencyId, int height) {
+        return getManyBy(new DbClause.LongListClause("account_id", accountIds).and(new DbClause.LongClause("currency_id", currencyId)), height, 0, -1);
+    }
+
     public DbIterator<AccountCurrency> getByCurrency(long currencyId, int from, int to) {
         return getManyBy(new DbClause.LongClause("currency_id", currencyId), from, to);
     }
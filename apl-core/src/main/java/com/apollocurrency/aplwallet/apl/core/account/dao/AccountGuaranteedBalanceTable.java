@@ -8,11 +8,13 @@ import com.apollocurrency.aplwallet.apl.core.account.model.AccountGuaranteedBala
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.LongKeyFactory;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionCallback;
 import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.derived.DerivedDbTable;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -24,6 +26,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Additions to the account balances by height, sums of additions are served from the in-memory
+ * {@link GuaranteedBalanceIndex}, which is loaded from the table on the first request and then follows changes made
+ * through this table. Changes of not yet committed db transaction are visible only to the thread of that transaction,
+ * other threads query db, rollback of the db transaction drops the index to be reloaded.
+ */
+@Slf4j
 @Singleton
 public class AccountGuaranteedBalanceTable extends DerivedDbTable {
 
@@ -42,6 +51,12 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable {
     };
     private final BlockchainConfig blockchainConfig;
     private final int batchCommitSize;
+    private final GuaranteedBalanceIndex index = new GuaranteedBalanceIndex();
+    private final ThreadLocal<IndexChanges> indexChanges = new ThreadLocal<>();
+    // db transaction, which changed the table and is not completed yet
+    private IndexChanges changedBy;
+    private TransactionalDataSource indexedDataSource;
+    private boolean indexLoaded;
 
     @Inject
     public AccountGuaranteedBalanceTable(BlockchainConfig blockchainConfig, PropertiesHolder propertiesHolder) {
@@ -65,11 +80,45 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable {
             int count;
             do {
                 count = pstmtDelete.executeUpdate();
+                addTrimmedRows(count);
                 dataSource.commit(false);
             } while (count >= batchCommitSize);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
+        synchronized (this) {
+            if (prepareIndexChange(dataSource)) {
+                index.trim(height - blockchainConfig.getGuaranteedBalanceConfirmations());
+            }
+        }
+    }
+
+    @Override
+    public int rollback(int height) {
+        int rc = super.rollback(height);
+        synchronized (this) {
+            TransactionalDataSource dataSource = databaseManager.getDataSource();
+            if (prepareIndexChange(dataSource)) {
+                index.rollback(height);
+            }
+        }
+        return rc;
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        synchronized (this) {
+            TransactionalDataSource dataSource = databaseManager.getDataSource();
+            if (prepareIndexChange(dataSource)) {
+                index.clear();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clearCache() {
+        dropIndex();
     }
 
     @Override
@@ -79,6 +128,13 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable {
 
     public Long getSumOfAdditions(long accountId, int height, int currentHeight) {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
+        synchronized (this) {
+            if (isIndexAvailable(dataSource)) {
+                Long sum = index.getSum(accountId, height, currentHeight);
+                // SUM over no rows is NULL, which is read as 0
+                return sum == null ? 0L : sum;
+            }
+        }
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT SUM (" + ADDITIONS_COLUMN_NAME + ") AS " + ADDITIONS_COLUMN_NAME + " "
                  + "FROM account_guaranteed_balance WHERE account_id = ? AND height > ? AND height <= ?")) {
@@ -98,8 +154,21 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable {
 
     public Map<Long, Long> getLessorsAdditions(List<Long> lessors, int height, int blockchainHeight) {
         Map<Long, Long> lessorsAdditions = new HashMap<>();
-        Long[] lessorIds = lessors.toArray(new Long[]{});
         TransactionalDataSource dataSource = databaseManager.getDataSource();
+        synchronized (this) {
+            if (isIndexAvailable(dataSource)) {
+                int fromHeight = height - blockchainConfig.getGuaranteedBalanceConfirmations();
+                int toHeight = height < blockchainHeight ? height : Integer.MAX_VALUE;
+                for (Long lessorId : lessors) {
+                    Long sum = index.getSum(lessorId, fromHeight, toHeight);
+                    if (sum != null) {
+                        lessorsAdditions.put(lessorId, sum);
+                    }
+                }
+                return lessorsAdditions;
+            }
+        }
+        Long[] lessorIds = lessors.toArray(new Long[]{});
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT account_id, SUM (additions) AS " + ADDITIONS_COLUMN_NAME + " "
                  + "FROM account_guaranteed_balance, TABLE (id BIGINT=?) T WHERE account_id = T.id AND height > ? "
@@ -150,5 +219,152 @@ public class AccountGuaranteedBalanceTable extends DerivedDbTable {
         } catch (SQLException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
+        synchronized (this) {
+            if (prepareIndexChange(dataSource)) {
+                index.add(accountId, blockchainHeight, amountATM);
+            }
+        }
+    }
+
+    /**
+     * Batch version of the {@link #addToGuaranteedBalanceATM(long, long, int)}
+     *
+     * @param amountsATM amounts to add by account ids, non-positive amounts are skipped
+     */
+    public void addToGuaranteedBalancesATM(Map<Long, Long> amountsATM, int blockchainHeight) {
+        Map<Long, Long> additions = new HashMap<>();
+        amountsATM.forEach((accountId, amountATM) -> {
+            if (amountATM > 0) {
+                additions.put(accountId, amountATM);
+            }
+        });
+        if (additions.isEmpty()) {
+            return;
+        }
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmtSelect = con.prepareStatement("SELECT account_id, additions FROM account_guaranteed_balance "
+                 + "WHERE height = ?");
+             @DatabaseSpecificDml(DmlMarker.MERGE)
+             PreparedStatement pstmtUpdate = con.prepareStatement("MERGE INTO account_guaranteed_balance (account_id, "
+                 + " additions, height) KEY (account_id, height) VALUES(?, ?, ?)")) {
+            Map<Long, Long> totalAdditions = new HashMap<>(additions);
+            pstmtSelect.setInt(1, blockchainHeight);
+            try (ResultSet rs = pstmtSelect.executeQuery()) {
+                while (rs.next()) {
+                    long accountId = rs.getLong("account_id");
+                    Long amountATM = totalAdditions.get(accountId);
+                    if (amountATM != null) {
+                        totalAdditions.put(accountId, Math.addExact(amountATM, rs.getLong(ADDITIONS_COLUMN_NAME)));
+                    }
+                }
+            }
+            for (Map.Entry<Long, Long> entry : totalAdditions.entrySet()) {
+                pstmtUpdate.setLong(1, entry.getKey());
+                pstmtUpdate.setLong(2, entry.getValue());
+                pstmtUpdate.setInt(3, blockchainHeight);
+                pstmtUpdate.addBatch();
+            }
+            pstmtUpdate.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        synchronized (this) {
+            if (prepareIndexChange(dataSource)) {
+                additions.forEach((accountId, amountATM) -> index.add(accountId, blockchainHeight, amountATM));
+            }
+        }
+    }
+
+    /**
+     * Load the index, when it is not loaded yet
+     *
+     * @return true, when index is up to date for the current thread
+     */
+    private boolean isIndexAvailable(TransactionalDataSource dataSource) {
+        if (indexedDataSource != dataSource) {
+            dropIndex();
+            indexedDataSource = dataSource;
+        }
+        if (changedBy != null && changedBy != indexChanges.get()) {
+            // index contains changes not committed yet
+            return false;
+        }
+        if (!indexLoaded) {
+            loadIndex(dataSource);
+        }
+        return true;
+    }
+
+    /**
+     * Register the change of the table by the current thread
+     *
+     * @return true, when index should be changed too
+     */
+    private boolean prepareIndexChange(TransactionalDataSource dataSource) {
+        if (indexedDataSource != dataSource) {
+            dropIndex();
+            indexedDataSource = dataSource;
+        }
+        if (dataSource.isInTransaction()) {
+            IndexChanges changes = indexChanges.get();
+            if (changes == null) {
+                changes = new IndexChanges();
+                indexChanges.set(changes);
+                dataSource.registerCallback(changes);
+            }
+            if (changedBy != null && changedBy != changes) {
+                log.debug("Concurrent change of the {}, drop index", TABLE_NAME);
+                dropIndex();
+            }
+            changedBy = changes;
+        }
+        return indexLoaded;
+    }
+
+    private void loadIndex(TransactionalDataSource dataSource) {
+        long start = System.currentTimeMillis();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT account_id, additions, height FROM account_guaranteed_balance ORDER BY height")) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.add(rs.getLong("account_id"), rs.getInt("height"), rs.getLong(ADDITIONS_COLUMN_NAME));
+                }
+            }
+        } catch (SQLException e) {
+            index.clear();
+            throw new RuntimeException(e.toString(), e);
+        }
+        indexLoaded = true;
+        log.debug("Loaded {} index of {} accounts in {} ms", TABLE_NAME, index.size(), System.currentTimeMillis() - start);
+    }
+
+    private void dropIndex() {
+        index.clear();
+        indexLoaded = false;
+    }
+
+    private synchronized void onTransactionEnd(IndexChanges changes, boolean committed) {
+        if (indexChanges.get() == changes) {
+            indexChanges.remove();
+        }
+        if (changedBy == changes) {
+            changedBy = null;
+            if (!committed) {
+                dropIndex();
+            }
+        }
+    }
+
+    private class IndexChanges implements TransactionCallback {
+        @Override
+        public void commit() {
+            onTransactionEnd(this, true);
+        }
+
+        @Override
+        public void rollback() {
+            onTransactionEnd(this, false);
+        }
     }
 }
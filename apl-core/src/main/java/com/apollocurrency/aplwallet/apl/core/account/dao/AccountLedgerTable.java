@@ -87,6 +87,7 @@ public class AccountLedgerTable extends DerivedDbTable<LedgerEntry> {
             int trimmed;
             do {
                 trimmed = pstmt.executeUpdate();
+                addTrimmedRows(trimmed);
                 dataSource.commit(false);
             } while (trimmed >= propertiesHolder.BATCH_COMMIT_SIZE());
         } catch (SQLException e) {
@@ -94,6 +95,33 @@ public class AccountLedgerTable extends DerivedDbTable<LedgerEntry> {
         }
     }
 
+    /**
+     * Insert entries into the table using a single batch
+     *
+     * @param ledgerEntries Ledger entries in the insert order
+     */
+    public void insert(List<LedgerEntry> ledgerEntries) {
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement stmt = prepareInsert(con)) {
+            for (LedgerEntry ledgerEntry : ledgerEntries) {
+                setInsertParameters(stmt, ledgerEntry);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (final ResultSet rs = stmt.getGeneratedKeys()) {
+                for (LedgerEntry ledgerEntry : ledgerEntries) {
+                    if (!rs.next()) {
+                        break;
+                    }
+                    ledgerEntry.setLedgerId(rs.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
     /**
      * Save the ledger entry
      *
@@ -101,24 +129,8 @@ public class AccountLedgerTable extends DerivedDbTable<LedgerEntry> {
      * @throws SQLException Database error occurred
      */
     private void save(Connection con, LedgerEntry ledgerEntry) throws SQLException {
-        try (final PreparedStatement stmt = con.prepareStatement("INSERT INTO account_ledger " +
-            "(account_id, event_type, event_id, holding_type, holding_id, change, balance, block_id, height, timestamp) " +
-            "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
-            int i = 0;
-            stmt.setLong(++i, ledgerEntry.getAccountId());
-            stmt.setByte(++i, (byte) ledgerEntry.getEvent().getCode());
-            stmt.setLong(++i, ledgerEntry.getEventId());
-            if (ledgerEntry.getHolding() != null) {
-                stmt.setByte(++i, (byte) ledgerEntry.getHolding().getCode());
-            } else {
-                stmt.setByte(++i, (byte) -1);
-            }
-            DbUtils.setLong(stmt, ++i, ledgerEntry.getHoldingId());
-            stmt.setLong(++i, ledgerEntry.getChange());
-            stmt.setLong(++i, ledgerEntry.getBalance());
-            stmt.setLong(++i, ledgerEntry.getBlockId());
-            stmt.setInt(++i, ledgerEntry.getHeight());
-            stmt.setInt(++i, ledgerEntry.getTimestamp());
+        try (final PreparedStatement stmt = prepareInsert(con)) {
+            setInsertParameters(stmt, ledgerEntry);
             stmt.executeUpdate();
             try (final ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
@@ -128,6 +140,30 @@ public class AccountLedgerTable extends DerivedDbTable<LedgerEntry> {
         }
     }
 
+    private PreparedStatement prepareInsert(Connection con) throws SQLException {
+        return con.prepareStatement("INSERT INTO account_ledger " +
+            "(account_id, event_type, event_id, holding_type, holding_id, change, balance, block_id, height, timestamp) " +
+            "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private void setInsertParameters(PreparedStatement stmt, LedgerEntry ledgerEntry) throws SQLException {
+        int i = 0;
+        stmt.setLong(++i, ledgerEntry.getAccountId());
+        stmt.setByte(++i, (byte) ledgerEntry.getEvent().getCode());
+        stmt.setLong(++i, ledgerEntry.getEventId());
+        if (ledgerEntry.getHolding() != null) {
+            stmt.setByte(++i, (byte) ledgerEntry.getHolding().getCode());
+        } else {
+            stmt.setByte(++i, (byte) -1);
+        }
+        DbUtils.setLong(stmt, ++i, ledgerEntry.getHoldingId());
+        stmt.setLong(++i, ledgerEntry.getChange());
+        stmt.setLong(++i, ledgerEntry.getBalance());
+        stmt.setLong(++i, ledgerEntry.getBlockId());
+        stmt.setInt(++i, ledgerEntry.getHeight());
+        stmt.setInt(++i, ledgerEntry.getTimestamp());
+    }
+
     public int getTrimKeep() {
         return trimKeep;
     }
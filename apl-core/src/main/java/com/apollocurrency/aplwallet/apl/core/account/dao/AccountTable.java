@@ -8,6 +8,7 @@ import com.apollocurrency.aplwallet.apl.core.account.model.Account;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.CollectionUtil;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.db.DbClause;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.db.LongKeyFactory;
@@ -45,6 +46,11 @@ public class AccountTable extends VersionedDeletableEntityDbTable<Account> {
             return account.getDbKey();
         }
     };
+    private static final int CACHE_SIZE = 50_000;
+    private static final String MERGE_SQL = "MERGE INTO account (id, "
+        + "balance, unconfirmed_balance, forged_balance, "
+        + "active_lessee_id, has_control_phasing, height, latest, deleted) "
+        + "KEY (id, height) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, FALSE)";
     private final BlockchainConfig blockchainConfig;
 
     @Inject
@@ -52,6 +58,7 @@ public class AccountTable extends VersionedDeletableEntityDbTable<Account> {
     public AccountTable(Blockchain blockchain, BlockchainConfig blockchainConfig/*, @Named("CREATOR_ID")long creatorId*/) {
         super("account", accountDbKeyFactory, false);
         this.blockchainConfig = Objects.requireNonNull(blockchainConfig, "blockchainConfig is NULL.");
+        enableCache(CACHE_SIZE, Account::getHeight, Account::new);
     }
 
     public static DbKey newKey(long id) {
@@ -70,23 +77,58 @@ public class AccountTable extends VersionedDeletableEntityDbTable<Account> {
     @Override
     public void save(Connection con, Account account) throws SQLException {
         try (
-            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement("MERGE INTO account (id, "
-                + "balance, unconfirmed_balance, forged_balance, "
-                + "active_lessee_id, has_control_phasing, height, latest, deleted) "
-                + "KEY (id, height) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, FALSE)")
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL)
         ) {
-            int i = 0;
-            pstmt.setLong(++i, account.getId());
-            pstmt.setLong(++i, account.getBalanceATM());
-            pstmt.setLong(++i, account.getUnconfirmedBalanceATM());
-            pstmt.setLong(++i, account.getForgedBalanceATM());
-            DbUtils.setLongZeroToNull(pstmt, ++i, account.getActiveLesseeId());
-            pstmt.setBoolean(++i, account.getControls().contains(AccountControlType.PHASING_ONLY));
-            pstmt.setInt(++i, account.getHeight());
+            setMergeParameters(pstmt, account);
             pstmt.executeUpdate();
         }
     }
 
+    @Override
+    protected Account saveForCache(Connection con, Account account, DbKey dbKey) throws SQLException {
+        try (
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL, Statement.RETURN_GENERATED_KEYS)
+        ) {
+            setMergeParameters(pstmt, account);
+            pstmt.executeUpdate();
+            Account saved = new Account(account);
+            saved.setPublicKey(null); // public key is stored separately and not loaded with the account
+            return toSavedVersion(saved, dbKey, getGeneratedDbId(pstmt));
+        }
+    }
+
+    @Override
+    protected void saveAll(Connection con, List<Account> accounts) throws SQLException {
+        try (
+            @DatabaseSpecificDml(DmlMarker.MERGE) final PreparedStatement pstmt = con.prepareStatement(MERGE_SQL)
+        ) {
+            for (Account account : accounts) {
+                setMergeParameters(pstmt, account);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void setMergeParameters(PreparedStatement pstmt, Account account) throws SQLException {
+        int i = 0;
+        pstmt.setLong(++i, account.getId());
+        pstmt.setLong(++i, account.getBalanceATM());
+        pstmt.setLong(++i, account.getUnconfirmedBalanceATM());
+        pstmt.setLong(++i, account.getForgedBalanceATM());
+        DbUtils.setLongZeroToNull(pstmt, ++i, account.getActiveLesseeId());
+        pstmt.setBoolean(++i, account.getControls().contains(AccountControlType.PHASING_ONLY));
+        pstmt.setInt(++i, account.getHeight());
+    }
+
+    public List<Account> getByIds(List<Long> ids) {
+        return toList(getManyBy(new DbClause.LongListClause("id", ids), 0, -1));
+    }
+
+    public List<Account> getByIds(List<Long> ids, int height) {
+        return toList(getManyBy(new DbClause.LongListClause("id", ids), height, 0, -1));
+    }
+
     public List<Account> selectAllForKey(Long id) throws SQLException {
         try (Connection con = getDatabaseManager().getDataSource().getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT * from account where id = ? order by db_id DESC")) {
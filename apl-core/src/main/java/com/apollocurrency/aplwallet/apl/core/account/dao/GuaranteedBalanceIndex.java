@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.account.dao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * <p>In-memory copy of the account_guaranteed_balance table, which keeps additions of each account ordered by height
+ * together with their prefix sums, so that the sum of additions over any range of heights takes two binary searches
+ * instead of the SUM query.</p>
+ * <p>Prefix sums are allowed to overflow: difference of two prefix sums is still exact, when the sum of additions over
+ * the range fits into long.</p>
+ * <p>Not thread safe, access is synchronized by {@link AccountGuaranteedBalanceTable}</p>
+ */
+class GuaranteedBalanceIndex {
+    private final Map<Long, Additions> accounts = new HashMap<>();
+    // accounts which have additions at the given height, used to find accounts affected by rollback and trim
+    private final NavigableMap<Integer, Set<Long>> accountsByHeight = new TreeMap<>();
+
+    /**
+     * Add amount to the additions of the account at the given height
+     */
+    void add(long accountId, int height, long amount) {
+        accounts.computeIfAbsent(accountId, k -> new Additions()).add(height, amount);
+        accountsByHeight.computeIfAbsent(height, h -> new HashSet<>()).add(accountId);
+    }
+
+    /**
+     * @return sum of the account additions at heights greater than fromHeight and not greater than toHeight
+     * or null, when account has no additions at these heights
+     */
+    Long getSum(long accountId, int fromHeight, int toHeight) {
+        Additions additions = accounts.get(accountId);
+        return additions == null ? null : additions.getSum(fromHeight, toHeight);
+    }
+
+    /**
+     * Remove additions at heights above the given one
+     */
+    void rollback(int height) {
+        NavigableMap<Integer, Set<Long>> removed = accountsByHeight.tailMap(height, false);
+        forEachAccount(removed.values(), additions -> additions.removeAbove(height));
+        removed.clear();
+    }
+
+    /**
+     * Remove additions at heights below the given one
+     */
+    void trim(int height) {
+        NavigableMap<Integer, Set<Long>> removed = accountsByHeight.headMap(height, false);
+        forEachAccount(removed.values(), additions -> additions.removeBelow(height));
+        removed.clear();
+    }
+
+    void clear() {
+        accounts.clear();
+        accountsByHeight.clear();
+    }
+
+    int size() {
+        return accounts.size();
+    }
+
+    private void forEachAccount(Collection<Set<Long>> accountIds, Consumer<Additions> action) {
+        for (Set<Long> ids : accountIds) {
+            for (Long accountId : ids) {
+                Additions additions = accounts.get(accountId);
+                if (additions != null) {
+                    action.accept(additions);
+                    if (additions.isEmpty()) {
+                        accounts.remove(accountId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Additions of the single account in the ascending order of heights, elements before start are trimmed
+     */
+    private static class Additions {
+        private int[] heights = new int[4];
+        private long[] prefixSums = new long[4];
+        private int start;
+        private int end;
+        // prefix sum of the trimmed additions
+        private long base;
+
+        void add(int height, long amount) {
+            int index = indexAbove(height - 1);
+            if (index < end && heights[index] == height) {
+                addToSums(index, amount);
+                return;
+            }
+            if (ensureCapacity()) {
+                index = indexAbove(height - 1);
+            }
+            System.arraycopy(heights, index, heights, index + 1, end - index);
+            System.arraycopy(prefixSums, index, prefixSums, index + 1, end - index);
+            end++;
+            heights[index] = height;
+            prefixSums[index] = prefixSum(index - 1);
+            addToSums(index, amount);
+        }
+
+        Long getSum(int fromHeight, int toHeight) {
+            int from = indexAbove(fromHeight);
+            int to = indexAbove(toHeight);
+            if (from >= to) {
+                return null;
+            }
+            return prefixSum(to - 1) - prefixSum(from - 1);
+        }
+
+        void removeAbove(int height) {
+            end = indexAbove(height);
+        }
+
+        void removeBelow(int height) {
+            int newStart = indexAbove(height - 1);
+            base = prefixSum(newStart - 1);
+            start = newStart;
+        }
+
+        boolean isEmpty() {
+            return start == end;
+        }
+
+        private void addToSums(int index, long amount) {
+            for (int i = index; i < end; i++) {
+                prefixSums[i] += amount;
+            }
+        }
+
+        private long prefixSum(int index) {
+            return index < start ? base : prefixSums[index];
+        }
+
+        // index of the first addition above the given height
+        private int indexAbove(int height) {
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (heights[mid] <= height) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // return true, when additions were moved
+        private boolean ensureCapacity() {
+            if (end < heights.length) {
+                return false;
+            }
+            int size = end - start;
+            if (size * 2 <= heights.length) {
+                // reuse space of the trimmed additions
+                System.arraycopy(heights, start, heights, 0, size);
+                System.arraycopy(prefixSums, start, prefixSums, 0, size);
+            } else {
+                heights = Arrays.copyOfRange(heights, start, start + size * 2);
+                prefixSums = Arrays.copyOfRange(prefixSums, start, start + size * 2);
+            }
+            start = 0;
+            end = size;
+            return true;
+        }
+    }
+}
@@ -98,6 +98,17 @@ public class Account extends VersionedDeletableEntity {
         this.activeLesseeId = activeLesseeId;
     }
 
+    public Account(Account account) {
+        super(account);
+        this.id = account.id;
+        this.publicKey = account.publicKey;
+        this.balanceATM = account.balanceATM;
+        this.unconfirmedBalanceATM = account.unconfirmedBalanceATM;
+        this.forgedBalanceATM = account.forgedBalanceATM;
+        this.activeLesseeId = account.activeLesseeId;
+        this.controls = account.controls;
+    }
+
     public boolean addToForgedBalanceATM(long amountATM) {
         if (amountATM == 0) {
             return false;
@@ -34,6 +34,14 @@ public final class AccountAsset extends VersionedDeletableEntity {
         this.unconfirmedQuantityATU = unconfirmedQuantityATU;
     }
 
+    public AccountAsset(AccountAsset accountAsset) {
+        super(accountAsset);
+        this.accountId = accountAsset.accountId;
+        this.assetId = accountAsset.assetId;
+        this.quantityATU = accountAsset.quantityATU;
+        this.unconfirmedQuantityATU = accountAsset.unconfirmedQuantityATU;
+    }
+
     public AccountAsset(ResultSet rs, DbKey dbKey) throws SQLException {
         super(rs);
         this.accountId = rs.getLong("account_id");
@@ -34,6 +34,14 @@ public final class AccountCurrency extends VersionedDeletableEntity {
         this.unconfirmedUnits = unconfirmedQuantityATU;
     }
 
+    public AccountCurrency(AccountCurrency accountCurrency) {
+        super(accountCurrency);
+        this.accountId = accountCurrency.accountId;
+        this.currencyId = accountCurrency.currencyId;
+        this.units = accountCurrency.units;
+        this.unconfirmedUnits = accountCurrency.unconfirmedUnits;
+    }
+
     public AccountCurrency(ResultSet rs, DbKey dbKey) throws SQLException {
         super(rs);
         this.accountId = rs.getLong("account_id");
@@ -46,6 +46,11 @@ public interface AccountAssetService {
 
     long getAssetBalanceATU(long accountId, long assetId, int height);
 
+    /**
+     * @return non-deleted asset balances of the given accounts at the given height, in no particular order
+     */
+    List<AccountAsset> getAssetsByAccounts(List<Long> accountIds, long assetId, int height);
+
     long getUnconfirmedAssetBalanceATU(Account account, long assetId);
 
     void addToAssetBalanceATU(Account account, LedgerEvent event, long eventId, long assetId, long quantityATU);
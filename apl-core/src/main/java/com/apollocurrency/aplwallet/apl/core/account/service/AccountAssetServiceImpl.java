@@ -13,7 +13,9 @@ import com.apollocurrency.aplwallet.apl.core.account.model.AccountAsset;
 import com.apollocurrency.aplwallet.apl.core.account.model.LedgerEntry;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventBinding;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventType;
+import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.db.service.BlockChainInfoService;
 import com.apollocurrency.aplwallet.apl.core.monetary.service.AssetDividendService;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.ColoredCoinsDividendPayment;
@@ -23,7 +25,9 @@ import lombok.extern.slf4j.Slf4j;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.apollocurrency.aplwallet.apl.core.account.observer.events.AccountEventBinding.literal;
 
@@ -33,6 +37,7 @@ import static com.apollocurrency.aplwallet.apl.core.account.observer.events.Acco
 @Slf4j
 @Singleton
 public class AccountAssetServiceImpl implements AccountAssetService {
+    private static final int DIVIDEND_PAYMENT_BATCH_SIZE = 500;
 
     private final AccountAssetTable accountAssetTable;
     private final AccountService accountService;
@@ -76,6 +81,15 @@ public class AccountAssetServiceImpl implements AccountAssetService {
         return accountAssetTable.getByAssetId(assetId, height, from, to);
     }
 
+    private DbIterator<AccountAsset> getAssetsByAssetIdInAccountOrder(long assetId, int height) {
+        if (height < 0 || blockChainInfoService.doesNotExceed(height)) {
+            return accountAssetTable.getByAssetIdInAccountOrder(assetId);
+        }
+        checkAvailable(height);
+
+        return accountAssetTable.getByAssetIdInAccountOrder(assetId, height);
+    }
+
     @Override
     public List<AccountAsset> getAssetsByAccount(Account account, int from, int to) {
         return accountAssetTable.getByAccountId(account.getId(), from, to);
@@ -170,6 +184,15 @@ public class AccountAssetServiceImpl implements AccountAssetService {
         return accountAsset == null ? 0 : accountAsset.getQuantityATU();
     }
 
+    @Override
+    public List<AccountAsset> getAssetsByAccounts(List<Long> accountIds, long assetId, int height) {
+        if (height < 0 || blockChainInfoService.doesNotExceed(height)) {
+            return DbUtils.selectByChunks(accountIds, chunk -> accountAssetTable.getByAccountIds(chunk, assetId));
+        }
+        checkAvailable(height);
+        return DbUtils.selectByChunks(accountIds, chunk -> accountAssetTable.getByAccountIds(chunk, assetId, height));
+    }
+
     @Override
     public long getUnconfirmedAssetBalanceATU(Account account, long assetId) {
         AccountAsset accountAsset = accountAssetTable.get(AccountAssetTable.newKey(account.getId(), assetId));
@@ -283,17 +306,25 @@ public class AccountAssetServiceImpl implements AccountAssetService {
         log.trace(">> payDividends(..), account={}, transactionId={}, attachment={}",
             account, transactionId, attachment);
         long totalDividend = 0;
-        List<AccountAsset> accountAssets = getAssetsByAssetId(attachment.getAssetId(), attachment.getHeight());
         final long amountATMPerATU = attachment.getAmountATMPerATU();
         long numAccounts = 0;
-        for (final AccountAsset accountAsset : accountAssets) {
-            if (accountAsset.getAccountId() != account.getId() && accountAsset.getQuantityATU() != 0) {
-                long dividend = Math.multiplyExact(accountAsset.getQuantityATU(), amountATMPerATU);
-                accountService.addToBalanceAndUnconfirmedBalanceATM(accountService.getAccount(accountAsset.getAccountId()), LedgerEvent.ASSET_DIVIDEND_PAYMENT, transactionId, dividend);
-                totalDividend += dividend;
-                numAccounts += 1;
+        // holders are streamed in the account order and paid by batches
+        Map<Long, Long> dividends = new LinkedHashMap<>();
+        try (DbIterator<AccountAsset> accountAssets = getAssetsByAssetIdInAccountOrder(attachment.getAssetId(), attachment.getHeight())) {
+            for (final AccountAsset accountAsset : accountAssets) {
+                if (accountAsset.getAccountId() != account.getId() && accountAsset.getQuantityATU() != 0) {
+                    long dividend = Math.multiplyExact(accountAsset.getQuantityATU(), amountATMPerATU);
+                    dividends.put(accountAsset.getAccountId(), dividend);
+                    totalDividend += dividend;
+                    numAccounts += 1;
+                    if (dividends.size() == DIVIDEND_PAYMENT_BATCH_SIZE) {
+                        accountService.addToBalanceAndUnconfirmedBalanceATM(LedgerEvent.ASSET_DIVIDEND_PAYMENT, transactionId, dividends);
+                        dividends.clear();
+                    }
+                }
             }
         }
+        accountService.addToBalanceAndUnconfirmedBalanceATM(LedgerEvent.ASSET_DIVIDEND_PAYMENT, transactionId, dividends);
         accountService.addToBalanceATM(account, LedgerEvent.ASSET_DIVIDEND_PAYMENT, transactionId, -totalDividend);
         assetDividendService.addAssetDividend(transactionId, attachment, totalDividend, numAccounts);
     }
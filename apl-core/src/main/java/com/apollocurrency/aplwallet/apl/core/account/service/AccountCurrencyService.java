@@ -55,6 +55,11 @@ public interface AccountCurrencyService {
 
     long getCurrencyUnits(long accountId, long currencyId, int height);
 
+    /**
+     * @return non-deleted currency balances of the given accounts at the given height, in no particular order
+     */
+    List<AccountCurrency> getCurrenciesByAccounts(List<Long> accountIds, long currencyId, int height);
+
     long getUnconfirmedCurrencyUnits(Account account, long currencyId);
 
     long getUnconfirmedCurrencyUnits(long accountId, long currencyId);
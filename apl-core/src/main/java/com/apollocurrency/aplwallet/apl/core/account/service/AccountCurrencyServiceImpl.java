@@ -14,6 +14,7 @@ import com.apollocurrency.aplwallet.apl.core.account.model.LedgerEntry;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventBinding;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventType;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.db.service.BlockChainInfoService;
 
 import javax.enterprise.event.Event;
@@ -161,6 +162,15 @@ public class AccountCurrencyServiceImpl implements AccountCurrencyService {
         }
     }
 
+    @Override
+    public List<AccountCurrency> getCurrenciesByAccounts(List<Long> accountIds, long currencyId, int height) {
+        if (height < 0 || blockChainInfoService.doesNotExceed(height)) {
+            return DbUtils.selectByChunks(accountIds, chunk -> toList(accountCurrencyTable.getByAccounts(chunk, currencyId)));
+        }
+        blockChainInfoService.checkAvailable(height, accountCurrencyTable.isMultiversion());
+        return DbUtils.selectByChunks(accountIds, chunk -> toList(accountCurrencyTable.getByAccounts(chunk, currencyId, height)));
+    }
+
     @Override
     public long getCurrencyUnits(Account account, long currencyId) {
         return getCurrencyUnits(account.getId(), currencyId);
@@ -15,7 +15,7 @@ import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEv
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
-import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.event.Event;
@@ -23,7 +23,10 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -68,20 +71,24 @@ public class AccountLedgerServiceImpl implements AccountLedgerService {
     private final AccountLedgerTable accountLedgerTable;
 
     /**
-     * Pending ledger entries
+     * Pending ledger entries in the log order, keyed by account, event, holding and holding identifier
      */
-    @Getter
-    private final List<LedgerEntry> pendingEntries = new ArrayList<>();
+    private final Map<LedgerEntry, LedgerEntry> pendingEntries = new LinkedHashMap<>();
 
-    private Event<LedgerEntry> accountLedgerEntryEvent;
+    /**
+     * Pending ledger entries of the same account balance in the log order
+     */
+    private final Map<BalanceKey, List<LedgerEntry>> pendingBalances = new HashMap<>();
+
+    private Event<List<LedgerEntry>> accountLedgerEntriesEvent;
 
     @Inject
-    public AccountLedgerServiceImpl(AccountLedgerTable accountLedgerTable, Blockchain blockchain, BlockchainProcessor blockchainProcessor, PropertiesHolder propertiesHolder, BlockchainConfig blockchainConfig, Event<LedgerEntry> accountLedgerEntryEvent) {
+    public AccountLedgerServiceImpl(AccountLedgerTable accountLedgerTable, Blockchain blockchain, BlockchainProcessor blockchainProcessor, PropertiesHolder propertiesHolder, BlockchainConfig blockchainConfig, Event<List<LedgerEntry>> accountLedgerEntriesEvent) {
         this.accountLedgerTable = accountLedgerTable;
         this.blockchain = blockchain;
         this.blockchainProcessor = blockchainProcessor;
         this.blockchainConfig = blockchainConfig;
-        this.accountLedgerEntryEvent = accountLedgerEntryEvent;
+        this.accountLedgerEntriesEvent = accountLedgerEntriesEvent;
 
         List<String> ledgerAccounts = propertiesHolder.getStringListProperty("apl.ledgerAccounts");
         ledgerEnabled = !ledgerAccounts.isEmpty();
@@ -165,25 +172,24 @@ public class AccountLedgerServiceImpl implements AccountLedgerService {
             throw new IllegalStateException("Not in transaction");
         }
         //
-        // Combine multiple ledger entries
+        // Combine multiple ledger entries, later entries of the same balance are adjusted
+        // to exclude the change which is moved to the end of the log
         //
-        int index = pendingEntries.indexOf(ledgerEntry);
-        if (index >= 0) {
-            LedgerEntry existingEntry = pendingEntries.remove(index);
+        List<LedgerEntry> balanceEntries = pendingBalances.computeIfAbsent(new BalanceKey(ledgerEntry), k -> new ArrayList<>());
+        LedgerEntry existingEntry = pendingEntries.remove(ledgerEntry);
+        if (existingEntry != null) {
+            int index = balanceEntries.indexOf(existingEntry);
+            balanceEntries.remove(index);
             ledgerEntry.updateChange(existingEntry.getChange());
             long adjustedBalance = existingEntry.getBalance() - existingEntry.getChange();
-            for (; index < pendingEntries.size(); index++) {
-                existingEntry = pendingEntries.get(index);
-                if (existingEntry.getAccountId() == ledgerEntry.getAccountId() &&
-                    existingEntry.getHolding() == ledgerEntry.getHolding() &&
-                    ((existingEntry.getHoldingId() == null && ledgerEntry.getHoldingId() == null) ||
-                        (existingEntry.getHoldingId() != null && existingEntry.getHoldingId().equals(ledgerEntry.getHoldingId())))) {
-                    adjustedBalance += existingEntry.getChange();
-                    existingEntry.setBalance(adjustedBalance);
-                }
+            for (; index < balanceEntries.size(); index++) {
+                LedgerEntry laterEntry = balanceEntries.get(index);
+                adjustedBalance += laterEntry.getChange();
+                laterEntry.setBalance(adjustedBalance);
             }
         }
-        pendingEntries.add(ledgerEntry);
+        pendingEntries.put(ledgerEntry, ledgerEntry);
+        balanceEntries.add(ledgerEntry);
     }
 
     /**
@@ -191,11 +197,12 @@ public class AccountLedgerServiceImpl implements AccountLedgerService {
      */
     @Override
     public void commitEntries() {
-        for (LedgerEntry ledgerEntry : pendingEntries) {
-            accountLedgerTable.insert(ledgerEntry);
-            accountLedgerEntryEvent.select(AccountLedgerEventBinding.literal(AccountLedgerEventType.ADD_ENTRY)).fire(ledgerEntry);
+        if (!pendingEntries.isEmpty()) {
+            List<LedgerEntry> entries = getPendingEntries();
+            accountLedgerTable.insert(entries);
+            accountLedgerEntriesEvent.select(AccountLedgerEventBinding.literal(AccountLedgerEventType.ADD_ENTRIES)).fire(entries);
         }
-        pendingEntries.clear();
+        clearEntries();
     }
 
     /**
@@ -204,6 +211,16 @@ public class AccountLedgerServiceImpl implements AccountLedgerService {
     @Override
     public void clearEntries() {
         pendingEntries.clear();
+        pendingBalances.clear();
+    }
+
+    /**
+     * Return pending ledger entries
+     *
+     * @return Pending ledger entries in the log order
+     */
+    public List<LedgerEntry> getPendingEntries() {
+        return new ArrayList<>(pendingEntries.values());
     }
 
     /**
@@ -243,4 +260,19 @@ public class AccountLedgerServiceImpl implements AccountLedgerService {
         return accountLedgerTable.getEntries(accountId, event, eventId, holding, holdingId, firstIndex, lastIndex, includePrivate);
     }
 
+    /**
+     * Account balance affected by ledger entries
+     */
+    @Value
+    private static class BalanceKey {
+        long accountId;
+        LedgerHolding holding;
+        Long holdingId;
+
+        BalanceKey(LedgerEntry ledgerEntry) {
+            this.accountId = ledgerEntry.getAccountId();
+            this.holding = ledgerEntry.getHolding();
+            this.holdingId = ledgerEntry.getHoldingId();
+        }
+    }
 }
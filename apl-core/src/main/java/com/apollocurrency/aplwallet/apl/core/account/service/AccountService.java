@@ -16,6 +16,7 @@ import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.crypto.Crypto;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author andrew.zinchenko@gmail.com
@@ -48,6 +49,14 @@ public interface AccountService {
 
     Account getAccount(long id, int height);
 
+    /**
+     * Bulk version of the {@link #getAccount(long, int)}, which does not create accounts from the public keys.
+     * Any number of ids is accepted, they are selected by chunks.
+     *
+     * @return accounts found at the given height, in no particular order
+     */
+    List<Account> getAccounts(List<Long> ids, int height);
+
     Account getAccount(byte[] publicKey);
 
     Account getAccount(Account account);
@@ -94,6 +103,14 @@ public interface AccountService {
 
     void addToBalanceAndUnconfirmedBalanceATM(Account account, LedgerEvent event, long eventId, long amountATM, long feeATM);
 
+    /**
+     * Bulk version of the {@link #addToBalanceAndUnconfirmedBalanceATM(Account, LedgerEvent, long, long)}, which loads
+     * and saves accounts by batches
+     *
+     * @param amountsATM amounts to add by account ids, accounts are changed and ledger entries are logged in the iteration order
+     */
+    void addToBalanceAndUnconfirmedBalanceATM(LedgerEvent event, long eventId, Map<Long, Long> amountsATM);
+
     void addToUnconfirmedBalanceATM(Account account, LedgerEvent event, long eventId, long amountATM);
 
     long getTotalAmountOnTopAccounts(int numberOfTopAccounts);
@@ -21,6 +21,7 @@ import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.db.DbClause;
 import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
 import com.apollocurrency.aplwallet.apl.core.db.service.BlockChainInfoService;
 import com.apollocurrency.aplwallet.apl.core.model.AplWalletKey;
 import com.apollocurrency.aplwallet.apl.core.model.ApolloFbWallet;
@@ -36,9 +37,12 @@ import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.core.account.observer.events.AccountEventBinding.literal;
@@ -118,6 +122,15 @@ public class AccountServiceImpl implements AccountService {
         return accountTable.get(account.getDbKey());
     }
 
+    @Override
+    public List<Account> getAccounts(List<Long> ids, int height) {
+        if (height < 0 || blockChainInfoService.doesNotExceed(height)) {
+            return DbUtils.selectByChunks(ids, accountTable::getByIds);
+        }
+        checkAvailable(height);
+        return DbUtils.selectByChunks(ids, chunk -> accountTable.getByIds(chunk, height));
+    }
+
     private Account getAccount(DbKey dbKey, int height) {
         if (height < 0 || blockChainInfoService.doesNotExceed(height)) {
             return accountTable.get(dbKey);
@@ -194,11 +207,7 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public void update(Account account) {
         account.setHeight(blockChainInfoService.getHeight());
-        if (account.getBalanceATM() == 0
-            && account.getUnconfirmedBalanceATM() == 0
-            && account.getForgedBalanceATM() == 0
-            && account.getActiveLesseeId() == 0
-            && account.getControls().isEmpty()) {
+        if (isEmpty(account)) {
             accountTable.delete(account, blockChainInfoService.getHeight());
         } else {
             accountTable.insert(account);
@@ -212,6 +221,14 @@ public class AccountServiceImpl implements AccountService {
         }
     }
 
+    private static boolean isEmpty(Account account) {
+        return account.getBalanceATM() == 0
+            && account.getUnconfirmedBalanceATM() == 0
+            && account.getForgedBalanceATM() == 0
+            && account.getActiveLesseeId() == 0
+            && account.getControls().isEmpty();
+    }
+
     public String stringAcount(Account acc) {
         return "{id=" + acc.getId() + ",balance=" + acc.getBalanceATM() + ",fb=" + acc.getForgedBalanceATM() + ",uncbalance=" + acc.getUnconfirmedBalanceATM() + ",height=" + acc.getHeight() + ",dbId=" + acc.getDbId() + ",latest=" + acc.isLatest() + ",deleted=" + acc.isDeleted() + "}";
     }
@@ -428,6 +445,60 @@ public class AccountServiceImpl implements AccountService {
         addToBalanceAndUnconfirmedBalanceATM(account, event, eventId, amountATM, 0);
     }
 
+    @Override
+    public void addToBalanceAndUnconfirmedBalanceATM(LedgerEvent event, long eventId, Map<Long, Long> amountsATM) {
+        List<Long> accountIds = new ArrayList<>();
+        amountsATM.forEach((accountId, amountATM) -> {
+            if (amountATM != 0) {
+                accountIds.add(accountId);
+            }
+        });
+        int height = blockChainInfoService.getHeight();
+        List<Account> changedAccounts = new ArrayList<>(accountIds.size());
+        List<Account> savedAccounts = new ArrayList<>(accountIds.size());
+        Map<Long, Account> accounts = DbUtils.selectByChunks(accountIds, accountTable::getByIds).stream()
+            .collect(Collectors.toMap(Account::getId, Function.identity()));
+        for (Long accountId : accountIds) {
+            Account account = accounts.get(accountId);
+            if (account == null) {
+                // not saved account with the public key only is saved in the same batch to keep ledger entries in order
+                account = getAccount(accountId);
+            }
+            long amountATM = amountsATM.get(accountId);
+            account.setBalanceATM(Math.addExact(account.getBalanceATM(), amountATM));
+            account.setUnconfirmedBalanceATM(Math.addExact(account.getUnconfirmedBalanceATM(), amountATM));
+            AccountService.checkBalance(account.getId(), account.getBalanceATM(), account.getUnconfirmedBalanceATM());
+            account.setHeight(height);
+            changedAccounts.add(account);
+            if (isEmpty(account)) {
+                accountTable.delete(account, height);
+            } else {
+                savedAccounts.add(account);
+            }
+        }
+        accountTable.insertAll(savedAccounts);
+        Map<Long, Long> guaranteedAmountsATM = new HashMap<>();
+        changedAccounts.forEach(account -> guaranteedAmountsATM.put(account.getId(), amountsATM.get(account.getId())));
+        accountGuaranteedBalanceTable.addToGuaranteedBalancesATM(guaranteedAmountsATM, height);
+
+        Event<Account> balanceEvent = accountEvent.select(literal(AccountEventType.BALANCE));
+        Event<Account> unconfirmedBalanceEvent = accountEvent.select(literal(AccountEventType.UNCONFIRMED_BALANCE));
+        Event<LedgerEntry> entryEvent = logLedgerEvent.select(AccountLedgerEventBinding.literal(AccountLedgerEventType.LOG_ENTRY));
+        Event<LedgerEntry> unconfirmedEntryEvent = logLedgerEvent.select(AccountLedgerEventBinding.literal(AccountLedgerEventType.LOG_UNCONFIRMED_ENTRY));
+        Block lastBlock = blockChainInfoService.getLastBlock();
+        for (Account account : changedAccounts) {
+            balanceEvent.fire(account);
+            unconfirmedBalanceEvent.fire(account);
+            if (event != null) {
+                long amountATM = amountsATM.get(account.getId());
+                unconfirmedEntryEvent.fire(new LedgerEntry(event, eventId, account.getId(), LedgerHolding.UNCONFIRMED_APL_BALANCE,
+                    null, amountATM, account.getUnconfirmedBalanceATM(), lastBlock));
+                entryEvent.fire(new LedgerEntry(event, eventId, account.getId(), LedgerHolding.APL_BALANCE,
+                    null, amountATM, account.getBalanceATM(), lastBlock));
+            }
+        }
+    }
+
     @Override
     public void addToUnconfirmedBalanceATM(Account account, LedgerEvent event, long eventId, long amountATM, long feeATM) {
         if (amountATM == 0 && feeATM == 0) {
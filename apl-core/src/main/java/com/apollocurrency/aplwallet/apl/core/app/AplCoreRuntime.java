@@ -4,20 +4,25 @@
 package com.apollocurrency.aplwallet.apl.core.app;
 
 import com.apollocurrency.aplwallet.apl.core.app.mint.MintWorker;
+import com.apollocurrency.aplwallet.apl.core.cache.BlockCacheConfig;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.shard.ShardManagement;
 import com.apollocurrency.aplwallet.apl.core.task.TaskDispatchManager;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
 import com.apollocurrency.aplwallet.apl.util.env.RuntimeEnvironment;
 import com.apollocurrency.aplwallet.apl.util.env.RuntimeMode;
 import com.apollocurrency.aplwallet.apl.util.env.RuntimeParams;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import com.apollocurrency.aplwallet.apl.util.task.Task;
 import com.apollocurrency.aplwallet.apl.util.task.TaskDispatcher;
+import com.google.common.cache.CacheStats;
 import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Singleton;
 import java.lang.management.ManagementFactory;
@@ -43,6 +48,8 @@ public class AplCoreRuntime {
     private final DatabaseManager databaseManager;
     private final AplAppStatus aplAppStatus;
     private final PeersService peers;
+    private final TransactionSignatureVerifier signatureVerifier;
+    private final InMemoryCacheManager cacheManager; // null, when caches are not configured
     private RuntimeMode runtimeMode;
     //TODO: may be it is better to take below variables from here instead of getting it from CDI
     // in every class?
@@ -60,6 +67,9 @@ public class AplCoreRuntime {
         this.databaseManager = CDI.current().select(DatabaseManager.class).get();
         this.aplAppStatus = CDI.current().select(AplAppStatus.class).get();
         this.peers = CDI.current().select(PeersService.class).get();
+        this.signatureVerifier = CDI.current().select(TransactionSignatureVerifier.class).get();
+        Instance<InMemoryCacheManager> cacheManagerInstance = CDI.current().select(InMemoryCacheManager.class);
+        this.cacheManager = cacheManagerInstance.isResolvable() ? cacheManagerInstance.get() : null;
 
     }
 
@@ -145,6 +155,17 @@ public class AplCoreRuntime {
                 threadAwaitingConnections);
         }
         sb.append("Used DB connections: ").append(usedConnections);
+        if (databaseManager instanceof ShardManagement) {
+            sb.append("\nShard data sources: ").append(((ShardManagement) databaseManager).getShardDataSourcePoolStats());
+        }
+        sb.append("\nVerified signatures: ").append(signatureVerifier.getVerifiedSignatures())
+            .append(", average speed per s: ").append(signatureVerifier.getVerifiedSignaturesPerSecond());
+        CacheStats blockCacheStats = cacheManager != null ? cacheManager.getStats(BlockCacheConfig.BLOCK_CACHE_NAME) : null;
+        if (blockCacheStats != null) {
+            sb.append("\nBlock cache: requests ").append(blockCacheStats.requestCount())
+                .append(", hit rate ").append(String.format("%.2f", blockCacheStats.hitRate()))
+                .append(", evictions ").append(blockCacheStats.evictionCount());
+        }
         Runtime runtime = Runtime.getRuntime();
         sb.append("\nRuntime total memory :").append(String.format(" %,d KB", (runtime.totalMemory() / 1024)));
         sb.append("\nRuntime free  memory :").append(String.format(" %,d KB", (runtime.freeMemory() / 1024)));
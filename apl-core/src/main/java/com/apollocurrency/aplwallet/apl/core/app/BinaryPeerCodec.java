@@ -0,0 +1,215 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.crypto.Convert;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.ParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Converts blocks and transactions to the body of the
+ * {@link com.apollocurrency.aplwallet.apl.core.peer.BinaryPeerMessage} and back.</p>
+ * <p>Blocks and transactions are written in their signed byte form returned by {@link Block#getBytes()}
+ * and {@link Transaction#getBytes()}, prunable attachments, which are not the part of transaction bytes,
+ * follow transaction bytes as json. Each part is prefixed by its length:</p>
+ * <pre>
+ * transaction: [int bytesLength][transaction bytes][int prunableLength][prunable attachments json, utf-8]
+ * transactions: [int count]{transaction}
+ * blocks: [int count]{[int bytesLength][block bytes]transactions}
+ * </pre>
+ */
+public final class BinaryPeerCodec {
+
+    private BinaryPeerCodec() {
+    }
+
+    public static byte[] writeBlocks(List<? extends Block> blocks) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(outputStream)) {
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                writeBytes(out, block.getBytes());
+                writeTransactions(out, block.getOrLoadTransactions());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write blocks", e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    public static byte[] writeTransactions(List<? extends Transaction> transactions) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(outputStream)) {
+            writeTransactions(out, transactions);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write transactions", e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Split the body into the not yet parsed blocks, so that each of them can be parsed and verified separately
+     *
+     * @param body      binary body of the peer message
+     * @param maxBlocks max number of blocks, which body may contain
+     * @return blocks data in the order of writing
+     * @throws AplException.NotValidException when body is malformed
+     */
+    public static List<BlockData> readBlocks(byte[] body, int maxBlocks) throws AplException.NotValidException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            int count = readCount(buffer, maxBlocks);
+            List<BlockData> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] blockBytes = readBytes(buffer);
+                blocks.add(new BlockData(blockBytes, readTransactions(buffer)));
+            }
+            checkFullyRead(buffer);
+            return blocks;
+        } catch (BufferUnderflowException e) {
+            throw new AplException.NotValidException("Blocks body is truncated", e);
+        }
+    }
+
+    /**
+     * Split the body into the not yet parsed transactions, so that each of them can be parsed and validated separately
+     *
+     * @param body binary body of the peer message
+     * @return transactions data in the order of writing
+     * @throws AplException.NotValidException when body is malformed
+     */
+    public static List<TransactionData> readTransactions(byte[] body) throws AplException.NotValidException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            List<TransactionData> transactions = readTransactions(buffer);
+            checkFullyRead(buffer);
+            return transactions;
+        } catch (BufferUnderflowException e) {
+            throw new AplException.NotValidException("Transactions body is truncated", e);
+        }
+    }
+
+    private static void writeTransactions(DataOutputStream out, List<? extends Transaction> transactions) throws IOException {
+        out.writeInt(transactions.size());
+        for (Transaction transaction : transactions) {
+            writeBytes(out, transaction.bytes());
+            JSONObject prunableAttachments = transaction.getPrunableAttachmentJSON();
+            writeBytes(out, prunableAttachments == null ? new byte[0] : prunableAttachments.toJSONString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static List<TransactionData> readTransactions(ByteBuffer buffer) throws AplException.NotValidException {
+        // each transaction takes at least two lengths
+        int count = readCount(buffer, buffer.remaining() / (Integer.BYTES * 2));
+        List<TransactionData> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = readBytes(buffer);
+            byte[] prunableAttachments = readBytes(buffer);
+            transactions.add(new TransactionData(bytes, prunableAttachments));
+        }
+        return transactions;
+    }
+
+    private static int readCount(ByteBuffer buffer, int maxCount) throws AplException.NotValidException {
+        int count = buffer.getInt();
+        if (count < 0 || count > maxCount) {
+            throw new AplException.NotValidException("Invalid number of entries: " + count + ", max " + maxCount);
+        }
+        return count;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) throws AplException.NotValidException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new AplException.NotValidException("Invalid length: " + length + ", remaining " + buffer.remaining());
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void checkFullyRead(ByteBuffer buffer) throws AplException.NotValidException {
+        if (buffer.hasRemaining()) {
+            throw new AplException.NotValidException("Body too long, " + buffer.remaining() + " extra bytes");
+        }
+    }
+
+    /**
+     * Block bytes and transactions received from peer, which are not parsed yet
+     */
+    public static class BlockData {
+        private final byte[] bytes;
+        private final List<TransactionData> transactions;
+
+        BlockData(byte[] bytes, List<TransactionData> transactions) {
+            this.bytes = bytes;
+            this.transactions = transactions;
+        }
+
+        /**
+         * @return block with not verified block and transaction signatures
+         * @throws AplException.NotValidException when block or any of its transactions is malformed
+         */
+        public BlockImpl parse() throws AplException.NotValidException {
+            List<Transaction> blockTransactions = new ArrayList<>(transactions.size());
+            for (TransactionData transactionData : transactions) {
+                blockTransactions.add(transactionData.parse());
+            }
+            return BlockImpl.parseBlock(bytes, blockTransactions);
+        }
+    }
+
+    /**
+     * Transaction bytes and prunable attachments received from peer, which are not parsed yet
+     */
+    public static class TransactionData {
+        private final byte[] bytes;
+        private final byte[] prunableAttachments;
+
+        TransactionData(byte[] bytes, byte[] prunableAttachments) {
+            this.bytes = bytes;
+            this.prunableAttachments = prunableAttachments;
+        }
+
+        /**
+         * @return transaction with not verified signature
+         * @throws AplException.NotValidException when transaction bytes or prunable attachments are malformed
+         */
+        public TransactionImpl parse() throws AplException.NotValidException {
+            JSONObject prunableAttachmentsJson = null;
+            if (prunableAttachments.length > 0) {
+                try {
+                    prunableAttachmentsJson = (JSONObject) JSONValue.parseWithException(new String(prunableAttachments, StandardCharsets.UTF_8));
+                } catch (ParseException | ClassCastException e) {
+                    throw new AplException.NotValidException("Invalid prunable attachments json", e);
+                }
+            }
+            return TransactionImpl.parseTransaction(bytes, prunableAttachmentsJson);
+        }
+
+        @Override
+        public String toString() {
+            return "TransactionData{bytes=" + Convert.toHexString(bytes)
+                + ", prunableAttachments=" + new String(prunableAttachments, StandardCharsets.UTF_8) + '}';
+        }
+    }
+}
@@ -79,6 +79,8 @@ public final class BlockImpl implements Block {
     private volatile long generatorId;
     private volatile byte[] bytes = null;
     private volatile boolean hasValidSignature = false;
+    // block, which was copied, transactions are loaded into it to be shared with other copies
+    private final BlockImpl source;
 
     BlockImpl(byte[] generatorPublicKey, byte[] generationSignature) {
         this(-1, 0, 0, 0, 0, 0, new byte[32], generatorPublicKey, generationSignature, new byte[64],
@@ -152,6 +154,39 @@ public final class BlockImpl implements Block {
         if (blockTransactions != null) {
             this.blockTransactions = Collections.unmodifiableList(blockTransactions);
         }
+        this.source = null;
+    }
+
+    /**
+     * Create a copy of the block, which can be changed without affecting the copied block. Block transactions and
+     * byte arrays are shared, transactions loaded by the copy are loaded into the copied block too.
+     *
+     * @param block block to copy
+     */
+    public BlockImpl(BlockImpl block) {
+        this.version = block.version;
+        this.timestamp = block.timestamp;
+        this.previousBlockId = block.previousBlockId;
+        this.previousBlockHash = block.previousBlockHash;
+        this.totalAmountATM = block.totalAmountATM;
+        this.totalFeeATM = block.totalFeeATM;
+        this.payloadLength = block.payloadLength;
+        this.generationSignature = block.generationSignature;
+        this.payloadHash = block.payloadHash;
+        this.timeout = block.timeout;
+        this.generatorPublicKey = block.generatorPublicKey;
+        this.blockTransactions = block.blockTransactions;
+        this.blockSignature = block.blockSignature;
+        this.cumulativeDifficulty = block.cumulativeDifficulty;
+        this.baseTarget = block.baseTarget;
+        this.nextBlockId = block.nextBlockId;
+        this.height = block.height;
+        this.id = block.id;
+        this.stringId = block.stringId;
+        this.generatorId = block.generatorId;
+        this.bytes = block.bytes;
+        this.hasValidSignature = block.hasValidSignature;
+        this.source = block.source != null ? block.source : block;
     }
 
     static BlockImpl parseBlock(JSONObject blockData) throws AplException.NotValidException {
@@ -173,12 +208,8 @@ public final class BlockImpl implements Block {
             for (Object transactionData : (JSONArray) blockData.get("transactions")) {
                 blockTransactions.add(TransactionImpl.parseTransaction((JSONObject) transactionData));
             }
-            BlockImpl block = new BlockImpl(version, timestamp, previousBlock, totalAmountATM, totalFeeATM, payloadLength, payloadHash, generatorPublicKey,
+            return new BlockImpl(version, timestamp, previousBlock, totalAmountATM, totalFeeATM, payloadLength, payloadHash, generatorPublicKey,
                 generationSignature, blockSignature, previousBlockHash, timeout, blockTransactions);
-            if (!block.checkSignature()) {
-                throw new AplException.NotValidException("Invalid block signature");
-            }
-            return block;
         } catch (RuntimeException e) {
             LOG.debug("Failed to parse block: " + blockData.toJSONString());
             LOG.debug("Exception: " + e.getMessage());
@@ -186,6 +217,54 @@ public final class BlockImpl implements Block {
         }
     }
 
+    /**
+     * Parse block from the bytes returned by {@link BlockImpl#getBytes()}
+     *
+     * @param blockBytes        signed block bytes
+     * @param blockTransactions already parsed transactions of the block
+     * @return parsed block, signatures are not verified
+     * @throws AplException.NotValidException when block bytes are malformed
+     */
+    static BlockImpl parseBlock(byte[] blockBytes, List<Transaction> blockTransactions) throws AplException.NotValidException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(blockBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int version = buffer.getInt();
+            int timestamp = buffer.getInt();
+            long previousBlock = buffer.getLong();
+            int transactionsCount = buffer.getInt();
+            if (transactionsCount != blockTransactions.size()) {
+                throw new AplException.NotValidException("Block declares " + transactionsCount + " transactions, got " + blockTransactions.size());
+            }
+            long totalAmountATM = buffer.getLong();
+            long totalFeeATM = buffer.getLong();
+            int payloadLength = buffer.getInt();
+            byte[] payloadHash = new byte[32];
+            buffer.get(payloadHash);
+            byte[] generatorPublicKey = new byte[32];
+            buffer.get(generatorPublicKey);
+            byte[] generationSignature = new byte[32];
+            buffer.get(generationSignature);
+            byte[] previousBlockHash = new byte[32];
+            buffer.get(previousBlockHash);
+            if (version == 1) {
+                previousBlockHash = null;
+            }
+            int timeout = !requireTimeout(version) ? 0 : buffer.getInt();
+            byte[] blockSignature = new byte[64];
+            buffer.get(blockSignature);
+            if (buffer.hasRemaining()) {
+                throw new AplException.NotValidException("Block bytes too long, " + buffer.remaining() + " extra bytes");
+            }
+            return new BlockImpl(version, timestamp, previousBlock, totalAmountATM, totalFeeATM, payloadLength, payloadHash, generatorPublicKey,
+                generationSignature, blockSignature, previousBlockHash, timeout, blockTransactions);
+        } catch (RuntimeException e) {
+            LOG.debug("Failed to parse block bytes: " + Convert.toHexString(blockBytes));
+            LOG.debug("Exception: " + e.getMessage());
+            throw e;
+        }
+    }
+
     static boolean requireTimeout(int version) {
         return Block.ADAPTIVE_BLOCK_VERSION == version || Block.INSTANT_BLOCK_VERSION == version;
     }
@@ -269,6 +348,9 @@ public final class BlockImpl implements Block {
 
     @Override
     public List<Transaction> getOrLoadTransactions() {
+        if (this.blockTransactions == null && source != null) {
+            this.blockTransactions = source.getOrLoadTransactions();
+        }
         if (this.blockTransactions == null) {
             List<Transaction> transactions = Collections.unmodifiableList(lookupBlockchain().getBlockTransactions(getId()));
             for (Transaction transaction : transactions) {
@@ -423,10 +505,16 @@ public final class BlockImpl implements Block {
         return checkSignature() && lookupAccountService().setOrVerifyPublicKey(getGeneratorId(), getGeneratorPublicKey());
     }
 
-    private boolean checkSignature() {
-        if (!hasValidSignature) {
-            byte[] data = Arrays.copyOf(bytes(), bytes.length - 64);
-            hasValidSignature = blockSignature != null && Crypto.verify(blockSignature, data, getGeneratorPublicKey());
+    /**
+     * Verify block signature without touching the database, positive result is cached
+     *
+     * @return true if signature is valid
+     */
+    boolean checkSignature() {
+        if (!hasValidSignature && blockSignature != null) {
+            MessageDigest digest = Crypto.sha256();
+            digest.update(bytes(), 0, bytes.length - 64);
+            hasValidSignature = Crypto.verifyHash(blockSignature, digest.digest(), getGeneratorPublicKey());
         }
         return hasValidSignature;
     }
@@ -25,6 +25,7 @@ import com.apollocurrency.aplwallet.apl.core.converter.IteratorToStreamConverter
 import com.apollocurrency.aplwallet.apl.core.db.BlockDao;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
+import com.apollocurrency.aplwallet.apl.core.db.ShardDataSourceIterator;
 import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.cdi.Transactional;
 import com.apollocurrency.aplwallet.apl.core.db.dao.ShardDao;
@@ -40,9 +41,14 @@ import com.apollocurrency.aplwallet.apl.core.transaction.PrunableTransaction;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.AplException;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.Connection;
@@ -52,10 +58,17 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -66,6 +79,10 @@ public class BlockchainImpl implements Blockchain {
      * Specify offset from current height to retrieve block generators [currentHeight - offset; currentHeight] for further tracking generator hitTime
      */
     private static final int MAX_BLOCK_GENERATOR_OFFSET = 10_000;
+    /**
+     * Max number of cached account transaction counts for full shard dbs
+     */
+    private static final int SHARD_TRANSACTION_COUNT_CACHE_SIZE = 100_000;
     private final BlockDao blockDao;
     private final TransactionDao transactionDao;
     private final BlockchainConfig blockchainConfig;
@@ -77,6 +94,10 @@ public class BlockchainImpl implements Blockchain {
     private final ShardDao shardDao;
     private final ShardRecoveryDao shardRecoveryDao;
     private final IteratorToStreamConverter<Block> blockConverter = new IteratorToStreamConverter<>();
+    private final Cache<ShardTransactionCountKey, Integer> shardTransactionCounts = CacheBuilder.newBuilder()
+        .maximumSize(SHARD_TRANSACTION_COUNT_CACHE_SIZE)
+        .build();
+    private final ExecutorService shardQueryExecutor;
 
     private final AtomicReference<Block> lastBlock;
     private final AtomicReference<Block> shardInitialBlock;
@@ -97,6 +118,16 @@ public class BlockchainImpl implements Blockchain {
         this.shardRecoveryDao = shardRecoveryDao;
         this.lastBlock = new AtomicReference<>();
         this.shardInitialBlock = new AtomicReference<>();
+        int shardQueryThreads = propertiesHolder.getIntProperty("apl.shardQueryThreads", 0);
+        if (shardQueryThreads <= 0) {
+            shardQueryThreads = Runtime.getRuntime().availableProcessors();
+        }
+        this.shardQueryExecutor = Executors.newFixedThreadPool(shardQueryThreads, new NamedThreadFactory("BlockchainImpl:shardQuery", true));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shardQueryExecutor.shutdownNow();
     }
 
     @Override
@@ -114,6 +145,7 @@ public class BlockchainImpl implements Blockchain {
     public void update() {
         this.lastBlock.set(findLastBlock());
         this.shardInitialBlock.set(findFirstBlock());
+        shardTransactionCounts.invalidateAll();
         ((ShardManagement) this.databaseManager).initFullShards(
             shardDao.getAllCompletedShards().stream().map(Shard::getShardId).collect(Collectors.toList()));
     }
@@ -148,9 +180,7 @@ public class BlockchainImpl implements Blockchain {
         if (block.getId() == blockId) {
             return block;
         }
-        TransactionalDataSource dataSource = getDataSourceWithSharding(blockId);
-
-        return blockDao.findBlock(blockId, dataSource);
+        return queryWithSharding(blockIndexService.getShardIdByBlockId(blockId), dataSource -> blockDao.findBlock(blockId, dataSource));
     }
 
     @Transactional(readOnly = true)
@@ -196,13 +226,11 @@ public class BlockchainImpl implements Blockchain {
         } else {
             // loop over ONE or SEVERAL available shards
             for (Shard shard: foundShards) {
-                // get shard data source trying to fetch records
-                TransactionalDataSource dataSource =
-                    ((ShardManagement) databaseManager).getOrInitFullShardDataSourceById(shard.getShardId());
                 // make select on blocks from shard
-                log.trace("getBlocksStream -> getBlocks( from={}, to={} ): shardIds={}",
-                    calculatedFrom, calculatedTo, dataSource.getDbIdentity());
-                DbIterator<Block> iterator = blockDao.getBlocks(dataSource, calculatedFrom, calculatedTo, timestamp);
+                log.trace("getBlocksStream -> getBlocks( from={}, to={} ): shardId={}",
+                    calculatedFrom, calculatedTo, shard.getShardId());
+                DbIterator<Block> iterator = queryWithSharding(shard.getShardId(),
+                    dataSource -> blockDao.getBlocks(dataSource, calculatedFrom, calculatedTo, timestamp));
                 Stream<Block> toCompose = blockConverter.apply(iterator); // create a stream from list
                 if (allSourcesStream == null) {
                     allSourcesStream = toCompose; // assign first stream
@@ -339,29 +367,33 @@ public class BlockchainImpl implements Blockchain {
             return Collections.emptyList();
         }
         List<Block> result = new ArrayList<>();
-        TransactionalDataSource dataSource;
 //        long time = System.currentTimeMillis();
         Integer fromBlockHeight = getBlockHeight(blockId);
         if (fromBlockHeight != null) {
             int prevSize;
+            Long shardId;
+            boolean mainDb;
             do {
-                dataSource = getDataSourceWithShardingByHeight(fromBlockHeight + 1); //should return datasource, where such block exist or default datasource
-//                log.info("Datasource - {}", dataSource.getUrl());
+                shardId = blockIndexService.getShardIdByBlockHeight(fromBlockHeight + 1); //should return shard, where such block exist or null for default datasource
                 prevSize = result.size();
-                try (Connection con = dataSource.getConnection()) { //get blocks and transactions in one connectiщn
-                    blockDao.getBlocksAfter(fromBlockHeight, blockIdList, result, con, prevSize);
-                    for (int i = prevSize; i < result.size(); i++) {
-                        Block block = result.get(i);
-                        List<Transaction> blockTransactions = transactionDao.findBlockTransactions(con, block.getId());
-                        block.setTransactions(blockTransactions);
+                int height = fromBlockHeight;
+                mainDb = queryWithSharding(shardId, dataSource -> {
+                    try (Connection con = dataSource.getConnection()) { //get blocks and transactions in one connection
+                        blockDao.getBlocksAfter(height, blockIdList, result, con, prevSize);
+                        for (int i = prevSize; i < result.size(); i++) {
+                            Block block = result.get(i);
+                            List<Transaction> blockTransactions = transactionDao.findBlockTransactions(con, block.getId());
+                            block.setTransactions(blockTransactions);
+                        }
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e.toString(), e);
                     }
-                    if (result.size() - 1 >= 0) {
-                        fromBlockHeight = getBlockHeight(blockIdList.get(result.size() - 1));
-                    }
-                } catch (SQLException e) {
-                    throw new RuntimeException(e.toString(), e);
+                    return dataSource == databaseManager.getDataSource();
+                });
+                if (result.size() - 1 >= 0) {
+                    fromBlockHeight = getBlockHeight(blockIdList.get(result.size() - 1));
                 }
-            } while (result.size() != prevSize && dataSource != databaseManager.getDataSource() && getDataSourceWithShardingByHeight(fromBlockHeight + 1) != dataSource);
+            } while (result.size() != prevSize && !mainDb && !Objects.equals(blockIndexService.getShardIdByBlockHeight(fromBlockHeight + 1), shardId));
         }
 //        log.info("GetAfterBlock time {}", System.currentTimeMillis() - time);
         return result;
@@ -395,8 +427,7 @@ public class BlockchainImpl implements Blockchain {
         if (height == block.getHeight()) {
             return block;
         }
-        TransactionalDataSource dataSource = getDataSourceWithShardingByHeight(height);
-        return blockDao.findBlockAtHeight(height, dataSource);
+        return queryWithSharding(blockIndexService.getShardIdByBlockHeight(height), dataSource -> blockDao.findBlockAtHeight(height, dataSource));
     }
 
 
@@ -456,8 +487,8 @@ public class BlockchainImpl implements Blockchain {
 
     @Override
     public Transaction findTransaction(long transactionId, int height) {
-        TransactionalDataSource datasource = getDatasourceWithShardingByTransactionId(transactionId);
-        return transactionDao.findTransaction(transactionId, height, datasource);
+        return queryWithSharding(transactionIndexDao.getShardIdByTransactionId(transactionId),
+            dataSource -> transactionDao.findTransaction(transactionId, height, dataSource));
     }
 
     @Transactional(readOnly = true)
@@ -474,8 +505,8 @@ public class BlockchainImpl implements Blockchain {
 
     @Override
     public Transaction findTransactionByFullHash(byte[] fullHash, int height) {
-        TransactionalDataSource dataSource = getDatasourceWithShardingByTransactionId(Convert.fullHashToId(fullHash));
-        return transactionDao.findTransactionByFullHash(fullHash, height, dataSource);
+        return queryWithSharding(transactionIndexDao.getShardIdByTransactionId(Convert.fullHashToId(fullHash)),
+            dataSource -> transactionDao.findTransactionByFullHash(fullHash, height, dataSource));
     }
 
     @Override
@@ -588,76 +619,162 @@ public class BlockchainImpl implements Blockchain {
         if (limit > 500) { // warn for too big values
             log.warn("Computed limit is BIGGER then 500 = {} !!", limit);
         }
+        AccountTransactionsFilter filter = new AccountTransactionsFilter(accountId, numberOfConfirmations, type, subtype,
+            blockTimestamp, withMessage, phasedOnly, nonPhasedOnly, includeExpiredPrunable, executedOnly, includePrivate,
+            height, prunableExpiration);
 
         // start fetch from main db
         TransactionalDataSource currentDataSource = databaseManager.getDataSource();
-        List<Transaction> transactions = transactionDao.getTransactions(
-            currentDataSource,
-            accountId, numberOfConfirmations, type, subtype,
-            blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-            from, to, includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-        int foundCount = transactionDao.getTransactionCountByFilter(currentDataSource,
-            accountId, numberOfConfirmations, type, subtype,
-            blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-            includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-        log.trace("getTx() 2. fetched from mainDb, fetch=[{}] / foundCount={}, initLimit={}, accountId={}, type={}, subtype={}",
-            transactions.size(), foundCount, limit, accountId, type, subtype);
+        List<Transaction> transactions = fetchTransactions(currentDataSource, filter, from, to);
+        log.trace("getTx() 2. fetched from mainDb, fetch=[{}], initLimit={}, accountId={}, type={}, subtype={}",
+            transactions.size(), limit, accountId, type, subtype);
 
         // check if all Txs are fetched from main db, continue inside shard dbs otherwise
         if (transactions.size() < limit) {
-            // not all requested Tx were fetched from main, loop over shards
-            if (transactions.size() > 0) {
-                to -= (transactions.size() + from); // decrease limit by really fetched records
-                from = 0; // set to zero for shard db
-            } else {
-                from -= foundCount;
-                to -= foundCount;
-            }
-            // loop over all shard in descent order and fetch left Tx number
-            Iterator<TransactionalDataSource> fullDataSources = ((ShardManagement) databaseManager).getAllFullDataSourcesIterator();
-            while (fullDataSources.hasNext()) {
-                TransactionalDataSource dataSource = fullDataSources.next();
-                // count Tx records before fetch Tx records
-                foundCount = transactionDao.getTransactionCountByFilter(dataSource,
-                    accountId, numberOfConfirmations, type, subtype,
-                    blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-                    includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-                log.trace("countTx 3. DS={}, from={} to={}, foundCount={} (skip='{}')\naccountId={}, type={}, subtype={}",
-                    dataSource.getDbIdentity(), from, to, foundCount, (foundCount <= 0),
-                    accountId, type, subtype);
-                if (foundCount == 0) {
-                    continue; // skip shard without any suitable records
-                }
-                // because count is > 0 then try to fetch Tx records from shard db
-                List<Transaction> fetchedTxs = transactionDao.getTransactions(
-                    dataSource,
-                    accountId, numberOfConfirmations, type, subtype,
-                    blockTimestamp, withMessage, phasedOnly, nonPhasedOnly,
-                    from, to, includeExpiredPrunable, executedOnly, includePrivate, height, prunableExpiration);
-                log.trace("getTx() 4. DS={} fetched [{}] (foundCount={}) from={}, to={}", dataSource.getDbIdentity(),
-                    fetchedTxs.size(), foundCount, from, to);
-                if (fetchedTxs.isEmpty()) {
-                    to -= foundCount;
-                    from -= foundCount;
-                } else {
-                    to -= (fetchedTxs.size() + from);
-                    from = 0;
-                }
-                transactions.addAll(fetchedTxs);
-                if (transactions.size() >= limit) { // by default, size of fetched transactions should be equal to initialLimit, but when error occurred this check allow to avoid fetching all txs
-                    break;
-                }
-            }
+            // main db is exhausted, so its matched records count is known without query, when something was fetched
+            int foundCount = transactions.isEmpty() ? countTransactions(currentDataSource, filter) : from + transactions.size();
+            int shardFrom = Math.max(0, from - foundCount);
+            int shardTo = to == Integer.MAX_VALUE ? to : to - foundCount;
+            transactions.addAll(fetchShardTransactions(filter, shardFrom, shardTo));
         }
         log.trace("Tx number Requested / Loaded : [{}] / [{}] = in {} ms", limit, transactions.size(), System.currentTimeMillis() - start);
         return transactions;
     }
 
+    /**
+     * Fetch account transactions from full shard dbs, as if all shards were a single table ordered from the latest shard
+     * to the earliest one. Shards without account transactions are skipped using cached per-shard counts, required
+     * shards are counted and fetched in parallel, fetched pages are merged in shard order.
+     *
+     * @param filter account transactions filter
+     * @param from   index of the first transaction among all shards, inclusive
+     * @param to     index of the last transaction among all shards, inclusive, {@link Integer#MAX_VALUE} means no limit
+     * @return ordered transactions from shard dbs
+     */
+    private List<Transaction> fetchShardTransactions(AccountTransactionsFilter filter, int from, int to) {
+        // do not open shards, which are known to have no account transactions, to keep opened shards in the pool
+        List<Long> shardIds = shardDao.getAllCompletedShards().stream()
+            .map(Shard::getShardId)
+            .filter(shardId -> !isEmptyForAccount(shardId, filter.getAccountId()))
+            .collect(Collectors.toList());
+        // keep shard data sources leased until all the tasks are completed
+        try (ShardDataSourceIterator iterator = ((ShardManagement) databaseManager).getFullDataSourcesIterator(shardIds)) {
+            List<TransactionalDataSource> dataSources = new ArrayList<>();
+            iterator.forEachRemaining(dataSources::add);
+            return fetchShardTransactions(dataSources, filter, from, to);
+        }
+    }
+
+    private List<Transaction> fetchShardTransactions(List<TransactionalDataSource> dataSources, AccountTransactionsFilter filter, int from, int to) {
+        if (dataSources.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Callable<Integer>> countTasks = dataSources.stream()
+            .map(dataSource -> (Callable<Integer>) () -> getShardTransactionCount(dataSource, filter))
+            .collect(Collectors.toList());
+        List<Integer> counts = invokeAll(countTasks);
+
+        List<Callable<List<Transaction>>> fetchTasks = new ArrayList<>();
+        long offset = 0; // number of matched transactions in previous shards
+        for (int i = 0; i < dataSources.size() && offset <= to; i++) {
+            int count = counts.get(i);
+            long shardFrom = Math.max(from, offset) - offset;
+            long shardTo = Math.min(to, offset + count - 1) - offset;
+            offset += count;
+            log.trace("getTx() 3. DS={}, foundCount={}, shardFrom={}, shardTo={}, skip='{}'",
+                dataSources.get(i).getDbIdentity(), count, shardFrom, shardTo, shardFrom > shardTo);
+            if (shardFrom <= shardTo) {
+                TransactionalDataSource dataSource = dataSources.get(i);
+                fetchTasks.add(() -> fetchTransactions(dataSource, filter, (int) shardFrom, (int) shardTo));
+            }
+        }
+        List<Transaction> transactions = new ArrayList<>();
+        invokeAll(fetchTasks).forEach(transactions::addAll);
+        return transactions;
+    }
+
+    private int getShardTransactionCount(TransactionalDataSource dataSource, AccountTransactionsFilter filter) {
+        Optional<Long> shardId = dataSource.getDbIdentity();
+        if (shardId.isEmpty()) {
+            return countTransactions(dataSource, filter);
+        }
+        AccountTransactionsFilter anyTransactionFilter = AccountTransactionsFilter.anyTransaction(filter.getAccountId());
+        int accountTransactionCount = getCachedShardTransactionCount(shardId.get(), dataSource, anyTransactionFilter);
+        if (accountTransactionCount == 0 || filter.isAnyTransaction()) {
+            return accountTransactionCount;
+        }
+        if (filter.isTimeDependent()) {
+            return countTransactions(dataSource, filter);
+        }
+        return getCachedShardTransactionCount(shardId.get(), dataSource, filter);
+    }
+
+    private boolean isEmptyForAccount(long shardId, long accountId) {
+        AccountTransactionsFilter filter = AccountTransactionsFilter.anyTransaction(accountId);
+        Integer count = shardTransactionCounts.getIfPresent(shardTransactionCountKey(shardId, filter));
+        return count != null && count == 0;
+    }
+
+    /**
+     * Full shard db content does not change, so matched records count can be cached for filters which do not depend on time
+     */
+    private int getCachedShardTransactionCount(long shardId, TransactionalDataSource dataSource, AccountTransactionsFilter filter) {
+        try {
+            return shardTransactionCounts.get(shardTransactionCountKey(shardId, filter), () -> countTransactions(dataSource, filter));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().toString(), e.getCause());
+        }
+    }
+
+    private ShardTransactionCountKey shardTransactionCountKey(long shardId, AccountTransactionsFilter filter) {
+        return new ShardTransactionCountKey(shardId, filter.getAccountId(), filter.getType(), filter.getSubtype(),
+            filter.getBlockTimestamp(), filter.isPhasedOnly(), filter.isNonPhasedOnly(), filter.isExecutedOnly(), filter.isIncludePrivate());
+    }
+
+    private int countTransactions(TransactionalDataSource dataSource, AccountTransactionsFilter filter) {
+        return transactionDao.getTransactionCountByFilter(dataSource,
+            filter.getAccountId(), filter.getNumberOfConfirmations(), filter.getType(), filter.getSubtype(),
+            filter.getBlockTimestamp(), filter.isWithMessage(), filter.isPhasedOnly(), filter.isNonPhasedOnly(),
+            filter.isIncludeExpiredPrunable(), filter.isExecutedOnly(), filter.isIncludePrivate(), filter.getHeight(),
+            filter.getPrunableExpiration());
+    }
+
+    private List<Transaction> fetchTransactions(TransactionalDataSource dataSource, AccountTransactionsFilter filter, int from, int to) {
+        return transactionDao.getTransactions(dataSource,
+            filter.getAccountId(), filter.getNumberOfConfirmations(), filter.getType(), filter.getSubtype(),
+            filter.getBlockTimestamp(), filter.isWithMessage(), filter.isPhasedOnly(), filter.isNonPhasedOnly(),
+            from, to, filter.isIncludeExpiredPrunable(), filter.isExecutedOnly(), filter.isIncludePrivate(), filter.getHeight(),
+            filter.getPrunableExpiration());
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        if (tasks.size() == 1) {
+            try {
+                return List.of(tasks.get(0).call());
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : shardQueryExecutor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while querying shard dbs", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().toString(), e.getCause());
+        }
+        return results;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<Transaction> getBlockTransactions(long blockId) {
-        TransactionalDataSource dataSource = getDataSourceWithSharding(blockId);
-        return transactionDao.findBlockTransactions(blockId, dataSource);
+        return queryWithSharding(blockIndexService.getShardIdByBlockId(blockId), dataSource -> transactionDao.findBlockTransactions(blockId, dataSource));
     }
 
     @Override
@@ -724,31 +841,69 @@ public class BlockchainImpl implements Blockchain {
         return timeService.getEpochTime() > tx.getExpiration();
     }
 
-    private TransactionalDataSource getDataSourceWithSharding(long blockId) {
-        Long shardId = blockIndexService.getShardIdByBlockId(blockId);
-        return getShardDataSourceOrDefault(shardId);
-    }
-
-    private TransactionalDataSource getShardDataSourceOrDefault(Long shardId) {
-        TransactionalDataSource dataSource = null;
+    /**
+     * Run query on the full shard data source or on the main data source, when shard is not full or not specified.
+     * Shard data source is leased during the query, so that it is not closed by the shard pool. Query, which returns
+     * open iterator, keeps the data source connection active, that prevents closing after the lease release.
+     */
+    private <T> T queryWithSharding(Long shardId, Function<TransactionalDataSource, T> query) {
         if (shardId != null) {
-            dataSource = ((ShardManagement) databaseManager).getOrInitFullShardDataSourceById(shardId);
+            try (ShardDataSourceIterator iterator = ((ShardManagement) databaseManager).getFullDataSourcesIterator(List.of(shardId))) {
+                if (iterator.hasNext()) {
+                    return query.apply(iterator.next());
+                }
+            }
         }
-        if (dataSource == null) {
-            dataSource = databaseManager.getDataSource();
+        return query.apply(databaseManager.getDataSource());
+    }
+
+
+    /**
+     * Parameters of the account transactions query
+     */
+    @Value
+    private static class AccountTransactionsFilter {
+        long accountId;
+        int numberOfConfirmations;
+        byte type;
+        byte subtype;
+        int blockTimestamp;
+        boolean withMessage;
+        boolean phasedOnly;
+        boolean nonPhasedOnly;
+        boolean includeExpiredPrunable;
+        boolean executedOnly;
+        boolean includePrivate;
+        int height;
+        int prunableExpiration;
+
+        static AccountTransactionsFilter anyTransaction(long accountId) {
+            return new AccountTransactionsFilter(accountId, 0, (byte) -1, (byte) -1, 0, false, false, false, false, false, true, Integer.MAX_VALUE, 0);
         }
-        return dataSource;
 
-    }
+        boolean isAnyTransaction() {
+            return type < 0 && blockTimestamp <= 0 && !withMessage && !phasedOnly && !nonPhasedOnly && !executedOnly && includePrivate
+                && height == Integer.MAX_VALUE;
+        }
 
-    private TransactionalDataSource getDataSourceWithShardingByHeight(int blockHeight) {
-        Long shardId = blockIndexService.getShardIdByBlockHeight(blockHeight);
-        return getShardDataSourceOrDefault(shardId);
+        /**
+         * @return true when matched records depend on the current height or epoch time
+         */
+        boolean isTimeDependent() {
+            return withMessage || height != Integer.MAX_VALUE;
+        }
     }
 
-    private TransactionalDataSource getDatasourceWithShardingByTransactionId(long transactionId) {
-        Long shardId = transactionIndexDao.getShardIdByTransactionId(transactionId);
-        return getShardDataSourceOrDefault(shardId);
+    @Value
+    private static class ShardTransactionCountKey {
+        long shardId;
+        long accountId;
+        byte type;
+        byte subtype;
+        int blockTimestamp;
+        boolean phasedOnly;
+        boolean nonPhasedOnly;
+        boolean executedOnly;
+        boolean includePrivate;
     }
-
 }
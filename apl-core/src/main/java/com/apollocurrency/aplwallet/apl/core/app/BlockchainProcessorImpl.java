@@ -33,9 +33,7 @@ import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfigUpdater;
 import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManagerImpl;
-import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.DerivedTablesRegistry;
-import com.apollocurrency.aplwallet.apl.core.db.FilteringIterator;
 import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.dao.ShardDao;
 import com.apollocurrency.aplwallet.apl.core.db.derived.DerivedTableInterface;
@@ -44,6 +42,7 @@ import com.apollocurrency.aplwallet.apl.core.db.model.OptionDAO;
 import com.apollocurrency.aplwallet.apl.core.files.shards.ShardsDownloadService;
 import com.apollocurrency.aplwallet.apl.core.files.statcheck.FileDownloadDecision;
 import com.apollocurrency.aplwallet.apl.core.message.PrunableMessageService;
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryPeerMessage;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerNotConnectedException;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
@@ -154,6 +153,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
     private final ShardsDownloadService shardDownloader;
     private final ShardDao shardDao;
     private final PrunableMessageService prunableMessageService;
+    private final TransactionSignatureVerifier signatureVerifier;
     private PeersService peers;
     private BlockchainConfigUpdater blockchainConfigUpdater;
     private FullTextSearchService fullTextSearchProvider;
@@ -185,7 +185,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                                    ShardImporter importer, PrunableMessageService prunableMessageService,
                                    TaskDispatchManager taskDispatchManager, Event<List<Transaction>> txEvent,
                                    Event<BlockchainConfig> blockchainEvent,
-                                   ShardDao shardDao) {
+                                   ShardDao shardDao, TransactionSignatureVerifier signatureVerifier) {
         this.validator = validator;
         this.blockEvent = blockEvent;
         this.ledgerEvent = ledgerEvent;
@@ -207,6 +207,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         this.txEvent = txEvent;
         this.shardDao = shardDao;
         this.blockchainEvent = blockchainEvent;
+        this.signatureVerifier = signatureVerifier;
 
         configureBackgroundTasks();
 
@@ -348,10 +349,11 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
             // peer block is the next block in our blockchain
             if (peerBlockPreviousBlockId == lastBlock.getId()) {
                 log.debug("push peer last block");
-                Block block = BlockImpl.parseBlock(request);
+                Block block = parsePeerBlock(request);
+                verifyPeerBlockSignatures(block);
                 pushBlock(block);
             } else if (peerBlockPreviousBlockId == lastBlock.getPreviousBlockId()) { //peer block is a candidate to replace our last block
-                Block block = BlockImpl.parseBlock(request);
+                Block block = parsePeerBlock(request);
                 //try to replace our last block by peer block only when timestamp of peer block is less than timestamp of our block or when
                 // timestamps are equal but timeout of peer block is greater, so that peer block is better.
                 if (((block.getTimestamp() < lastBlock.getTimestamp()
@@ -364,6 +366,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                             Convert2.rsAccount(lb.getGeneratorId()));
                         return; // blockchain changed, ignore the block
                     }
+                    verifyPeerBlockSignatures(block);
                     Block previousBlock = lookupBlockhain().getBlock(lastBlock.getPreviousBlockId());
                     lastBlock = popOffToCommonBlock(previousBlock).get(0);
                     try {
@@ -386,6 +389,25 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         }
     }
 
+    private void verifyPeerBlockSignatures(Block block) throws AplException.NotValidException {
+        int failed = signatureVerifier.verify(List.of(block));
+        if (failed > 0) {
+            throw new AplException.NotValidException("Peer block " + block.getStringId() + " has " + failed + " invalid signatures");
+        }
+    }
+
+    private Block parsePeerBlock(JSONObject request) throws AplException.NotValidException {
+        byte[] body = BinaryPeerMessage.getBody(request);
+        if (body == null) {
+            return BlockImpl.parseBlock(request);
+        }
+        List<BinaryPeerCodec.BlockData> blocksData = BinaryPeerCodec.readBlocks(body, 1);
+        if (blocksData.isEmpty()) {
+            throw new AplException.NotValidException("Peer block is missing in the binary body");
+        }
+        return blocksData.get(0).parse();
+    }
+
     @Override
     public List<Block> popOffTo(int height) {
         if (height <= 0) {
@@ -570,6 +592,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
             //blockchainEvent.select(BlockchainEventType.literal(BlockchainEventType.SHUTDOWN)).fire(blockchainConfig);//TODO: Is this event necessary at this point?
             suspendBlockchainDownloading();
             Tasks.shutdownExecutor("BlockchainProcessorNetworkService", networkService, 5);
+            signatureVerifier.shutdown();
             log.info("BlchProcImpl shutdown finished");
         } catch (Exception ex) {
             log.error(ex.getMessage(), ex);
@@ -690,10 +713,11 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                 block.setPrevious(previousLastBlock);
                 log.trace("fire block on = {}, id = '{}', '{}'", block.getHeight(), block.getId(), BlockEventType.BEFORE_BLOCK_ACCEPT.name());
                 blockEvent.select(literal(BlockEventType.BEFORE_BLOCK_ACCEPT)).fire(block);
-                lookupTransactionProcessor().requeueAllUnconfirmedTransactions();
+                lookupTransactionProcessor().undoUnconfirmedTransactions(block);
                 addBlock(block);
 
                 accept(block, validPhasedTransactions, invalidPhasedTransactions, duplicates);
+                lookupTransactionProcessor().reapplyUnconfirmedTransactions(block);
 
                 blockchain.commit(block);
                 dataSource.commit(false);
@@ -1156,12 +1180,9 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         Map<TransactionType, Map<String, Integer>> duplicates, Block previousBlock, int blockTimestamp, int limit) {
 
         List<UnconfirmedTransaction> orderedUnconfirmedTransactions = new ArrayList<>();
-        DbIterator<UnconfirmedTransaction> allUnconfirmedTransactions = lookupTransactionProcessor().getAllUnconfirmedTransactions();
-        try (FilteringIterator<UnconfirmedTransaction> unconfirmedTransactions = new FilteringIterator<>(
-            allUnconfirmedTransactions,
-            transaction -> referencedTransactionService.hasAllReferencedTransactions(
-                transaction.getTransaction(), previousBlock.getHeight() + 1))) {
-            for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactions) {
+        for (UnconfirmedTransaction unconfirmedTransaction : lookupTransactionProcessor().getAllUnconfirmedTransactions()) {
+            if (referencedTransactionService.hasAllReferencedTransactions(
+                unconfirmedTransaction.getTransaction(), previousBlock.getHeight() + 1)) {
                 orderedUnconfirmedTransactions.add(unconfirmedTransaction);
             }
         }
@@ -1234,7 +1255,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
         for (UnconfirmedTransaction unconfirmedTransaction : sortedTransactions) {
             Transaction transaction = unconfirmedTransaction.getTransaction();
             blockTransactions.add(transaction);
-            digest.update(transaction.getBytes());
+            digest.update(transaction.bytes());
             totalAmountATM += transaction.getAmountATM();
             totalFeeATM += transaction.getFeeATM();
             payloadLength += transaction.getFullSize();
@@ -1983,7 +2004,6 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
          */
         private void downloadBlockchain(final Peer feederPeer, final Block commonBlock, final int startHeight) throws InterruptedException {
             log.debug("Downloading blockchain from: {} at height: {}", feederPeer.getHostWithPort(), startHeight);
-            Map<Long, PeerBlock> blockMap = new HashMap<>();
             //
             // Break the download into multiple segments.  The first block in each segment
             // is the common block for that segment.
@@ -1992,8 +2012,15 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
             int segSize = Constants.MAX_AUTO_ROLLBACK / 20;
             int stop = chainBlockIds.size() - 1;
             for (int start = 0; start < stop; start += segSize) {
-                getList.add(new GetNextBlocksTask(chainBlockIds, start, Math.min(start + segSize, stop), startHeight, blockchainConfig));
+                getList.add(new GetNextBlocksTask(chainBlockIds, start, Math.min(start + segSize, stop), startHeight, blockchainConfig, signatureVerifier));
             }
+            //
+            // Downloaded segments are pushed in chain order as soon as all previous segments
+            // are available, so pushing overlaps with download, parsing and signature verification
+            // of the later segments
+            //
+            DownloadedBlocksPusher blocksPusher = new DownloadedBlocksPusher(chainBlockIds, commonBlock, startHeight,
+                lookupBlockhain(), BlockchainProcessorImpl.this, lookupTransactionProcessor(), globalSync, BlockchainProcessorImpl.this::pushBlock);
             int nextPeerIndex = ThreadLocalRandom.current().nextInt(connectedPublicPeers.size());
             long maxResponseTime = 0;
             Peer slowestPeer = null;
@@ -2050,15 +2077,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
 //                        nextBlocks.getPeer().deactivate();
                         continue;
                     }
-                    Peer peer = nextBlocks.getPeer();
-                    int index = nextBlocks.getStart() + 1;
-                    for (Block block : blockList) {
-                        if (block.getId() != chainBlockIds.get(index)) {
-                            break;
-                        }
-                        blockMap.put(block.getId(), new PeerBlock(peer, block));
-                        index++;
-                    }
+                    int index = blocksPusher.addBlocks(nextBlocks.getPeer(), blockList, nextBlocks.getStart());
                     if (index > nextBlocks.getStop()) {
                         it.remove();
                     } else {
@@ -2068,6 +2087,7 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                         maxResponseTime = nextBlocks.getResponseTime();
                         slowestPeer = nextBlocks.getPeer();
                     }
+                    blocksPusher.pushAvailable();
                 }
 
             }
@@ -2076,94 +2096,9 @@ public class BlockchainProcessorImpl implements BlockchainProcessor {
                 slowestPeer.deactivate("This peer is slowest");
             }
             //
-            // Add the new blocks to the blockchain.  We will stop if we encounter
-            // a missing block (this will happen if an invalid block is encountered
-            // when downloading the blocks)
+            // Add the rest of the new blocks to the blockchain
             //
-//TODO: check do we need this lock
-// Maybe better to find another sync solution
-            globalSync.writeLock();
-            try {
-                List<Block> forkBlocks = new ArrayList<>();
-                for (int index = 1; index < chainBlockIds.size() && lookupBlockhain().getHeight() - startHeight < Constants.MAX_AUTO_ROLLBACK; index++) {
-                    PeerBlock peerBlock = blockMap.get(chainBlockIds.get(index));
-                    if (peerBlock == null) {
-                        break;
-                    }
-                    Block block = peerBlock.getBlock();
-                    if (lookupBlockhain().getLastBlock().getId() == block.getPreviousBlockId()) {
-                        try {
-                            pushBlock(block);
-                        } catch (BlockNotAcceptedException e) {
-                            peerBlock.getPeer().blacklist(e);
-                        }
-                    } else {
-                        forkBlocks.add(block);
-                    }
-                }
-                //
-                // Process a fork
-                //
-                int myForkSize = lookupBlockhain().getHeight() - startHeight;
-                if (!forkBlocks.isEmpty() && myForkSize < Constants.MAX_AUTO_ROLLBACK) {
-                    log.debug("Will process a fork of {} blocks, mine is {}, feed peer addr: {}", forkBlocks.size(), myForkSize, feederPeer.getHost());
-                    processFork(feederPeer, forkBlocks, commonBlock);
-                }
-            } finally {
-                globalSync.writeUnlock();
-            }
-
-        }
-
-        private void processFork(final Peer peer, final List<Block> forkBlocks, final Block commonBlock) {
-
-            BigInteger curCumulativeDifficulty = lookupBlockhain().getLastBlock().getCumulativeDifficulty();
-
-            List<Block> myPoppedOffBlocks = popOffToCommonBlock(commonBlock);
-
-            int pushedForkBlocks = 0;
-            if (lookupBlockhain().getLastBlock().getId() == commonBlock.getId()) {
-                for (Block block : forkBlocks) {
-                    if (lookupBlockhain().getLastBlock().getId() == block.getPreviousBlockId()) {
-                        try {
-                            pushBlock(block);
-                            pushedForkBlocks += 1;
-                        } catch (BlockNotAcceptedException e) {
-                            peer.blacklist(e);
-                            break;
-                        }
-                    }
-                }
-            }
-
-            if (pushedForkBlocks > 0 && lookupBlockhain().getLastBlock().getCumulativeDifficulty().compareTo(curCumulativeDifficulty) < 0) {
-                log.debug("Pop off caused by peer {}, blacklisting", peer.getHost());
-                peer.blacklist("Pop off");
-                List<Block> peerPoppedOffBlocks = popOffToCommonBlock(commonBlock);
-                pushedForkBlocks = 0;
-                for (Block block : peerPoppedOffBlocks) {
-                    lookupTransactionProcessor().processLater(block.getOrLoadTransactions());
-                }
-            }
-
-            if (pushedForkBlocks == 0) {
-                log.debug("Didn't accept any blocks, pushing back my previous blocks");
-                for (int i = myPoppedOffBlocks.size() - 1; i >= 0; i--) {
-                    Block block = myPoppedOffBlocks.remove(i);
-                    try {
-                        pushBlock(block);
-                    } catch (BlockNotAcceptedException e) {
-                        log.error("Popped off block no longer acceptable: " + block.getJSONObject().toJSONString(), e);
-                        break;
-                    }
-                }
-            } else {
-                log.debug("Switched to peer's fork, peer addr: {}", peer.getHost());
-                for (Block block : myPoppedOffBlocks) {
-                    lookupTransactionProcessor().processLater(block.getOrLoadTransactions());
-                }
-            }
-
+            blocksPusher.pushRemaining(feederPeer);
         }
     }
 
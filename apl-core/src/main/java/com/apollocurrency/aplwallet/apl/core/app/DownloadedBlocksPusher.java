@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects blocks downloaded by segments and pushes them to the blockchain in chain order.
+ * When the downloaded chain continues our last block, segments are pushed as soon as all
+ * previous segments are available, so pushing overlaps with download of the later segments.
+ * Otherwise blocks are processed as a fork after download.
+ */
+@Slf4j
+class DownloadedBlocksPusher {
+
+    /**
+     * Push of a single block to the blockchain
+     */
+    @FunctionalInterface
+    interface BlockPusher {
+        void pushBlock(Block block) throws BlockchainProcessor.BlockNotAcceptedException;
+    }
+
+    private final List<Long> chainBlockIds;
+    private final Block commonBlock;
+    private final int startHeight;
+    private final Blockchain blockchain;
+    private final BlockchainProcessor blockchainProcessor;
+    private final TransactionProcessor transactionProcessor;
+    private final GlobalSync globalSync;
+    private final BlockPusher blockPusher;
+    private final Map<Long, PeerBlock> blockMap = new HashMap<>();
+    private final boolean pipelined;
+    private int nextPushIndex = 1;
+
+    /**
+     * @param chainBlockIds ids of the downloaded chain, the first one is the common block id
+     * @param commonBlock   common block
+     * @param startHeight   height of the block from which we started to download blockchain
+     */
+    DownloadedBlocksPusher(List<Long> chainBlockIds, Block commonBlock, int startHeight, Blockchain blockchain,
+                           BlockchainProcessor blockchainProcessor, TransactionProcessor transactionProcessor,
+                           GlobalSync globalSync, BlockPusher blockPusher) {
+        this.chainBlockIds = chainBlockIds;
+        this.commonBlock = commonBlock;
+        this.startHeight = startHeight;
+        this.blockchain = blockchain;
+        this.blockchainProcessor = blockchainProcessor;
+        this.transactionProcessor = transactionProcessor;
+        this.globalSync = globalSync;
+        this.blockPusher = blockPusher;
+        this.pipelined = blockchain.getLastBlock().getId() == commonBlock.getId();
+    }
+
+    /**
+     * Add blocks of the downloaded segment. A peer is on a different fork if a returned
+     * block is not in the chain block ids, such block and all next blocks are skipped
+     *
+     * @param peer   peer which returned the blocks
+     * @param blocks downloaded blocks
+     * @param start  index in the chain block ids of the common block of the segment
+     * @return index in the chain block ids of the first not added block
+     */
+    int addBlocks(Peer peer, List<? extends Block> blocks, int start) {
+        int index = start + 1;
+        for (Block block : blocks) {
+            if (index >= chainBlockIds.size() || block.getId() != chainBlockIds.get(index)) {
+                break;
+            }
+            blockMap.put(block.getId(), new PeerBlock(peer, block));
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Push downloaded blocks which continue our blockchain in chain order, until a not yet
+     * downloaded block or a block which does not continue our blockchain is found.
+     * Does nothing when the downloaded chain does not continue our last block.
+     * The write lock is held only during push of the available blocks.
+     */
+    void pushAvailable() {
+        if (!pipelined || nextPushIndex >= chainBlockIds.size() || !blockMap.containsKey(chainBlockIds.get(nextPushIndex))) {
+            return;
+        }
+        globalSync.writeLock();
+        try {
+            for (; nextPushIndex < chainBlockIds.size() && blockchain.getHeight() - startHeight < Constants.MAX_AUTO_ROLLBACK; nextPushIndex++) {
+                PeerBlock peerBlock = blockMap.get(chainBlockIds.get(nextPushIndex));
+                if (peerBlock == null) {
+                    break;
+                }
+                Block block = peerBlock.getBlock();
+                if (blockchain.getLastBlock().getId() != block.getPreviousBlockId()) {
+                    break;
+                }
+                try {
+                    blockPusher.pushBlock(block);
+                } catch (BlockchainProcessor.BlockNotAcceptedException e) {
+                    peerBlock.getPeer().blacklist(e);
+                }
+            }
+        } finally {
+            globalSync.writeUnlock();
+        }
+    }
+
+    /**
+     * Add the rest of the downloaded blocks to the blockchain. We will stop if we encounter
+     * a missing block (this will happen if an invalid block is encountered when downloading the blocks).
+     * Blocks which do not continue our blockchain are processed as a fork.
+     *
+     * @param feederPeer peer supplying the blocks list
+     */
+    void pushRemaining(Peer feederPeer) {
+        globalSync.writeLock();
+        try {
+            List<Block> forkBlocks = new ArrayList<>();
+            for (int index = nextPushIndex; index < chainBlockIds.size() && blockchain.getHeight() - startHeight < Constants.MAX_AUTO_ROLLBACK; index++) {
+                PeerBlock peerBlock = blockMap.get(chainBlockIds.get(index));
+                if (peerBlock == null) {
+                    break;
+                }
+                Block block = peerBlock.getBlock();
+                if (blockchain.getLastBlock().getId() == block.getPreviousBlockId()) {
+                    try {
+                        blockPusher.pushBlock(block);
+                    } catch (BlockchainProcessor.BlockNotAcceptedException e) {
+                        peerBlock.getPeer().blacklist(e);
+                    }
+                } else {
+                    forkBlocks.add(block);
+                }
+            }
+            //
+            // Process a fork
+            //
+            int myForkSize = blockchain.getHeight() - startHeight;
+            if (!forkBlocks.isEmpty() && myForkSize < Constants.MAX_AUTO_ROLLBACK) {
+                log.debug("Will process a fork of {} blocks, mine is {}, feed peer addr: {}", forkBlocks.size(), myForkSize, feederPeer.getHost());
+                processFork(feederPeer, forkBlocks);
+            }
+        } finally {
+            globalSync.writeUnlock();
+        }
+    }
+
+    private void processFork(final Peer peer, final List<Block> forkBlocks) {
+
+        BigInteger curCumulativeDifficulty = blockchain.getLastBlock().getCumulativeDifficulty();
+
+        List<Block> myPoppedOffBlocks = blockchainProcessor.popOffToCommonBlock(commonBlock);
+
+        int pushedForkBlocks = 0;
+        if (blockchain.getLastBlock().getId() == commonBlock.getId()) {
+            for (Block block : forkBlocks) {
+                if (blockchain.getLastBlock().getId() == block.getPreviousBlockId()) {
+                    try {
+                        blockPusher.pushBlock(block);
+                        pushedForkBlocks += 1;
+                    } catch (BlockchainProcessor.BlockNotAcceptedException e) {
+                        peer.blacklist(e);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (pushedForkBlocks > 0 && blockchain.getLastBlock().getCumulativeDifficulty().compareTo(curCumulativeDifficulty) < 0) {
+            log.debug("Pop off caused by peer {}, blacklisting", peer.getHost());
+            peer.blacklist("Pop off");
+            List<Block> peerPoppedOffBlocks = blockchainProcessor.popOffToCommonBlock(commonBlock);
+            pushedForkBlocks = 0;
+            for (Block block : peerPoppedOffBlocks) {
+                transactionProcessor.processLater(block.getOrLoadTransactions());
+            }
+        }
+
+        if (pushedForkBlocks == 0) {
+            log.debug("Didn't accept any blocks, pushing back my previous blocks");
+            for (int i = myPoppedOffBlocks.size() - 1; i >= 0; i--) {
+                Block block = myPoppedOffBlocks.remove(i);
+                try {
+                    blockPusher.pushBlock(block);
+                } catch (BlockchainProcessor.BlockNotAcceptedException e) {
+                    log.error("Popped off block no longer acceptable: " + block.getJSONObject().toJSONString(), e);
+                    break;
+                }
+            }
+        } else {
+            log.debug("Switched to peer's fork, peer addr: {}", peer.getHost());
+            for (Block block : myPoppedOffBlocks) {
+                transactionProcessor.processLater(block.getOrLoadTransactions());
+            }
+        }
+
+    }
+}
@@ -4,6 +4,7 @@
 package com.apollocurrency.aplwallet.apl.core.app;
 
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryPeerMessage;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerNotConnectedException;
 import com.apollocurrency.aplwallet.apl.util.AplException;
@@ -23,11 +24,19 @@ import java.util.concurrent.Future;
  */
 public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
     private static final Logger log = LoggerFactory.getLogger(GetNextBlocksTask.class);
+    /**
+     * Max number of blocks, which peer may return for the single request
+     */
+    private static final int MAX_NEXT_BLOCKS = 36;
     /**
      * Block identifier list
      */
     private final List<Long> blockIds;
     private BlockchainConfig blockchainConfig;
+    /**
+     * Signature verifier used to pre-verify transactions of the downloaded blocks
+     */
+    private final TransactionSignatureVerifier signatureVerifier;
     /**
      * Callable future
      */
@@ -64,9 +73,12 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
      * @param start       Start index within the list
      * @param stop        Stop index within the list
      * @param startHeight Height of the block from which we will start to download blockchain
+     * @param signatureVerifier Verifier of the transaction signatures for the downloaded blocks
      */
-    public GetNextBlocksTask(List<Long> blockIds, int start, int stop, int startHeight, BlockchainConfig blockchainConfig) {
+    public GetNextBlocksTask(List<Long> blockIds, int start, int stop, int startHeight, BlockchainConfig blockchainConfig,
+                             TransactionSignatureVerifier signatureVerifier) {
         this.blockchainConfig = blockchainConfig;
+        this.signatureVerifier = signatureVerifier;
         this.blockIds = blockIds;
         this.start = start;
         this.stop = stop;
@@ -75,7 +87,7 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
     }
 
     /**
-     * Return the result
+     * Return the result, downloaded blocks are parsed and transaction signatures are verified
      *
      * @return List of blocks or null if an error occurred
      */
@@ -94,6 +106,9 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
         request.put("blockIds", idList);
         request.put("blockId", Long.toUnsignedString(blockIds.get(start)));
         request.put("chainId", blockchainConfig.getChain().getChainId());
+        if (BinaryPeerMessage.isSupportedBy(peer)) {
+            request.put("binary", true);
+        }
         long startTime = System.currentTimeMillis();
         JSONObject response;
         try {
@@ -110,11 +125,23 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
         // an invalid block.  We will return the valid blocks and reset the stop
         // index so no more blocks will be processed.
         //
-        List<JSONObject> nextBlocks = (List<JSONObject>) response.get("nextBlocks");
+        List<?> nextBlocks;
+        byte[] body = BinaryPeerMessage.getBody(response);
+        if (body != null) {
+            try {
+                nextBlocks = BinaryPeerCodec.readBlocks(body, MAX_NEXT_BLOCKS);
+            } catch (AplException.NotValidException e) {
+                log.debug("Failed to read binary nextBlocks: " + e.toString(), e);
+                peer.blacklist(e);
+                return null;
+            }
+        } else {
+            nextBlocks = (List<JSONObject>) response.get("nextBlocks");
+        }
         if (nextBlocks == null) {
             return null;
         }
-        if (nextBlocks.size() > 36) {
+        if (nextBlocks.size() > MAX_NEXT_BLOCKS) {
             log.debug("Obsolete or rogue peer " + peer.getHost() + " sends too many nextBlocks, blacklisting");
             peer.blacklist("Too many nextBlocks");
             return null;
@@ -122,8 +149,8 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
         List<BlockImpl> blockList = new ArrayList<>(nextBlocks.size());
         try {
             int count = stop - start;
-            for (JSONObject blockData : nextBlocks) {
-                blockList.add(BlockImpl.parseBlock(blockData));
+            for (Object blockData : nextBlocks) {
+                blockList.add(parseBlock(blockData));
                 if (--count <= 0) {
                     break;
                 }
@@ -133,9 +160,30 @@ public class GetNextBlocksTask implements Callable<List<BlockImpl>> {
             peer.blacklist(e);
             stop = start + blockList.size();
         }
+        //
+        // Verify block and transaction signatures here, so that verification of this segment
+        // overlaps with pushing of the previous segments. Blocks starting from the first one
+        // with invalid signature are dropped the same way as not parsed blocks.
+        //
+        if (signatureVerifier.verify(blockList) > 0) {
+            int firstInvalid = signatureVerifier.findFirstInvalidBlock(blockList);
+            if (firstInvalid >= 0) {
+                log.debug("Peer {} sent block {} with invalid signature", peer.getHost(), blockList.get(firstInvalid).getStringId());
+                peer.blacklist("Invalid block or transaction signature");
+                blockList = new ArrayList<>(blockList.subList(0, firstInvalid));
+                stop = start + blockList.size();
+            }
+        }
         return blockList;
     }
 
+    private BlockImpl parseBlock(Object blockData) throws AplException.NotValidException {
+        if (blockData instanceof BinaryPeerCodec.BlockData) {
+            return ((BinaryPeerCodec.BlockData) blockData).parse();
+        }
+        return BlockImpl.parseBlock((JSONObject) blockData);
+    }
+
     /**
      * Return the callable future
      *
@@ -16,4 +16,9 @@ public interface GlobalSync {
     void writeLock();
 
     void writeUnlock();
+
+    /**
+     * @return true when the current thread holds the write lock
+     */
+    boolean hasWriteLock();
 }
@@ -39,5 +39,10 @@ public class GlobalSyncImpl implements GlobalSync {
     public void writeUnlock() {
         lock.writeLock().unlock();
     }
+
+    @Override
+    public boolean hasWriteLock() {
+        return lock.writeLock().hasLock();
+    }
 }
 
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
+import com.apollocurrency.aplwallet.apl.util.Filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.comparingLong;
+
+/**
+ * In-memory pool of the unconfirmed transactions, which is indexed by transaction id, sender and
+ * by the order used for the block assembly (transaction height ASC, fee per byte DESC, arrival timestamp ASC, id ASC).
+ * <p>
+ * Reads are lock-free and weakly consistent, modifications are serialized on the pool instance to keep
+ * all indexes in sync. Each pooled transaction remembers the blockchain height at which it was added to the pool,
+ * that height is used to move transactions back to the waiting queue on blockchain rollback.
+ */
+public class MemPool {
+    /**
+     * Same ordering as for the unconfirmed_transaction table default sort
+     */
+    static final Comparator<UnconfirmedTransaction> ORDER =
+        comparingInt(UnconfirmedTransaction::getHeight) // Sort by transaction_height ASC
+            .thenComparing(comparingLong(UnconfirmedTransaction::getFeePerByte).reversed()) // Sort by fee_per_byte DESC
+            .thenComparingLong(UnconfirmedTransaction::getArrivalTimestamp) // Sort by arrival_timestamp ASC
+            .thenComparingLong(UnconfirmedTransaction::getId); // Sort by transaction ID ASC
+
+    private final Map<Long, Entry> transactions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<UnconfirmedTransaction>> senderIndex = new ConcurrentHashMap<>();
+    private final NavigableSet<UnconfirmedTransaction> orderedTransactions = new ConcurrentSkipListSet<>(ORDER);
+
+    /**
+     * Add transaction to the pool
+     *
+     * @param unconfirmedTransaction transaction to add
+     * @param height                 blockchain height at which transaction was accepted to the pool
+     * @return true, when transaction was added, false when transaction with the same id already exists in the pool
+     */
+    public synchronized boolean add(UnconfirmedTransaction unconfirmedTransaction, int height) {
+        Entry entry = new Entry(unconfirmedTransaction, height);
+        if (transactions.putIfAbsent(unconfirmedTransaction.getId(), entry) != null) {
+            return false;
+        }
+        orderedTransactions.add(unconfirmedTransaction);
+        senderIndex.computeIfAbsent(unconfirmedTransaction.getSenderId(), id -> new ConcurrentSkipListSet<>(ORDER))
+            .add(unconfirmedTransaction);
+        return true;
+    }
+
+    public synchronized void addAll(Collection<Entry> entries) {
+        entries.forEach(entry -> add(entry.getTransaction(), entry.getHeight()));
+    }
+
+    public UnconfirmedTransaction get(long id) {
+        Entry entry = transactions.get(id);
+        return entry == null ? null : entry.getTransaction();
+    }
+
+    public boolean contains(long id) {
+        return transactions.containsKey(id);
+    }
+
+    /**
+     * Remove transaction from the pool
+     *
+     * @param id transaction id
+     * @return removed pool entry or null, when transaction was not found
+     */
+    public synchronized Entry remove(long id) {
+        Entry entry = transactions.remove(id);
+        if (entry != null) {
+            UnconfirmedTransaction unconfirmedTransaction = entry.getTransaction();
+            orderedTransactions.remove(unconfirmedTransaction);
+            Set<UnconfirmedTransaction> senderTransactions = senderIndex.get(unconfirmedTransaction.getSenderId());
+            if (senderTransactions != null) {
+                senderTransactions.remove(unconfirmedTransaction);
+                if (senderTransactions.isEmpty()) {
+                    senderIndex.remove(unconfirmedTransaction.getSenderId());
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Remove all transactions, which were added to the pool above the given blockchain height
+     *
+     * @param height blockchain height
+     * @return removed entries in the pool order
+     */
+    public synchronized List<Entry> removeAbove(int height) {
+        List<Entry> removed = new ArrayList<>();
+        for (UnconfirmedTransaction unconfirmedTransaction : orderedTransactions) {
+            Entry entry = transactions.get(unconfirmedTransaction.getId());
+            if (entry != null && entry.getHeight() > height) {
+                removed.add(entry);
+            }
+        }
+        removed.forEach(entry -> remove(entry.getTransaction().getId()));
+        return removed;
+    }
+
+    /**
+     * Remove all transactions from the pool
+     *
+     * @return removed entries in the pool order
+     */
+    public synchronized List<Entry> removeAll() {
+        List<Entry> removed = new ArrayList<>(orderedTransactions.size());
+        for (UnconfirmedTransaction unconfirmedTransaction : orderedTransactions) {
+            removed.add(transactions.get(unconfirmedTransaction.getId()));
+        }
+        transactions.clear();
+        orderedTransactions.clear();
+        senderIndex.clear();
+        return removed;
+    }
+
+    /**
+     * @return all pooled transactions in the block assembly order
+     */
+    public List<UnconfirmedTransaction> getAll() {
+        return new ArrayList<>(orderedTransactions);
+    }
+
+    /**
+     * @param from index of the first transaction, inclusive
+     * @param to   index of the last transaction, inclusive, negative value means no limit
+     * @return pooled transactions in the block assembly order
+     */
+    public List<UnconfirmedTransaction> getAll(int from, int to) {
+        return getAll(transaction -> true, from, to);
+    }
+
+    /**
+     * @param filter filter to apply before the pagination
+     * @param from   index of the first matched transaction, inclusive
+     * @param to     index of the last matched transaction, inclusive, negative value means no limit
+     * @return matched pooled transactions in the block assembly order
+     */
+    public List<UnconfirmedTransaction> getAll(Filter<? super UnconfirmedTransaction> filter, int from, int to) {
+        int limit = DbUtils.calculateLimit(from, to);
+        return orderedTransactions.stream()
+            .filter(filter)
+            .skip(Math.max(from, 0))
+            .limit(limit > 0 ? limit : Long.MAX_VALUE)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return transactions of the given sender in the block assembly order
+     */
+    public List<UnconfirmedTransaction> getBySender(long senderId) {
+        Set<UnconfirmedTransaction> senderTransactions = senderIndex.get(senderId);
+        return senderTransactions == null ? Collections.emptyList() : new ArrayList<>(senderTransactions);
+    }
+
+    /**
+     * @param epochTime current epoch time
+     * @return transactions, which expiration is less than the given epoch time
+     */
+    public List<UnconfirmedTransaction> getExpired(int epochTime) {
+        return orderedTransactions.stream()
+            .filter(unconfirmedTransaction -> unconfirmedTransaction.getExpiration() < epochTime)
+            .collect(Collectors.toList());
+    }
+
+    public List<Long> getAllIds() {
+        return new ArrayList<>(transactions.keySet());
+    }
+
+    /**
+     * @return the worst transaction in the block assembly order or null, when pool is empty
+     */
+    public synchronized UnconfirmedTransaction getLast() {
+        return orderedTransactions.isEmpty() ? null : orderedTransactions.last();
+    }
+
+    public int size() {
+        return transactions.size();
+    }
+
+    public static class Entry {
+        private final UnconfirmedTransaction transaction;
+        private final int height;
+
+        Entry(UnconfirmedTransaction transaction, int height) {
+            this.transaction = transaction;
+            this.height = height;
+        }
+
+        public UnconfirmedTransaction getTransaction() {
+            return transaction;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+}
@@ -55,6 +55,7 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.slf4j.LoggerFactory.getLogger;
@@ -404,8 +405,10 @@ public final class Poll extends AbstractPoll {
             LOG.trace("count RollResult: h={}, pollId={}, votingModel={}, voteList = [{}]",
                 height, id, votingModel, voteList.size());
 //            LOG.trace("count RollResult: pollId={}, voteList = \n{}", id, voteList);
+            Map<Long, Long> weights = votingModel.calcWeights(voteWeighting,
+                voteList.stream().map(Vote::getVoterId).collect(Collectors.toList()), height);
             for (Vote vote : voteList) {
-                long weight = votingModel.calcWeight(voteWeighting, vote.getVoterId(), height);
+                long weight = weights.getOrDefault(vote.getVoterId(), 0L);
                 if (weight <= 0) {
                     continue;
                 }
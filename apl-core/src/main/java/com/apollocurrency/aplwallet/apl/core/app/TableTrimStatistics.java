@@ -0,0 +1,18 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import lombok.Value;
+
+/**
+ * Result of the prune and trim of the single derived table
+ */
+@Value
+public class TableTrimStatistics {
+    private String table;
+    private int height;
+    private long deletedRows;
+    private long durationMs;
+}
@@ -124,6 +124,14 @@ public interface Transaction {
 
     byte[] getBytes();
 
+    /**
+     * @return signed transaction bytes without copying, when implementation keeps them, the returned array is shared
+     * and must not be modified
+     */
+    default byte[] bytes() {
+        return getBytes();
+    }
+
     byte[] getUnsignedBytes();
 
     JSONObject getJSONObject();
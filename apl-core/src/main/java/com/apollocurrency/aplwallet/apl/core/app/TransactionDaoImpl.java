@@ -367,7 +367,7 @@ public class TransactionDaoImpl implements TransactionDao {
 */
 
     @Override
-    public synchronized List<Transaction> getTransactions(
+    public List<Transaction> getTransactions(
         TransactionalDataSource dataSource,
         long accountId, int numberOfConfirmations, byte type, byte subtype,
         int blockTimestamp, boolean withMessage, boolean phasedOnly, boolean nonPhasedOnly,
@@ -482,7 +482,7 @@ public class TransactionDaoImpl implements TransactionDao {
     }
 
     @Override
-    public synchronized int getTransactionCountByFilter(
+    public int getTransactionCountByFilter(
         TransactionalDataSource dataSource, long accountId,
         int numberOfConfirmations, byte type, byte subtype, int blockTimestamp, boolean withMessage, boolean phasedOnly,
         boolean nonPhasedOnly, boolean includeExpiredPrunable, boolean executedOnly,
@@ -64,6 +64,8 @@ import java.util.Map;
 
 public class TransactionImpl implements Transaction {
     private static final Logger LOG = LoggerFactory.getLogger(TransactionImpl.class);
+    private static final int SIGNATURE_LENGTH = 64;
+    private static final byte[] ZERO_SIGNATURE = new byte[SIGNATURE_LENGTH];
 
     //    @Inject
     private static Blockchain blockchain;
@@ -102,6 +104,7 @@ public class TransactionImpl implements Transaction {
     private volatile long senderId;
     private volatile byte[] fullHash;
     private volatile byte[] bytes = null;
+    private volatile byte[] unsignedBytesHash;
     private volatile long dbId;
     private volatile boolean hasValidSignature = false;
 
@@ -286,11 +289,11 @@ public class TransactionImpl implements Transaction {
     }
 
     static TransactionImpl parseTransaction(JSONObject transactionData) throws AplException.NotValidException {
-        TransactionImpl transaction = newTransactionBuilder(transactionData).build();
-        if (transaction.getSignature() != null && !transaction.checkSignature()) {
-            throw new AplException.NotValidException("Invalid transaction signature for transaction " + transaction.getJSONObject().toJSONString());
-        }
-        return transaction;
+        return newTransactionBuilder(transactionData).build();
+    }
+
+    static TransactionImpl parseTransaction(byte[] bytes, JSONObject prunableAttachments) throws AplException.NotValidException {
+        return newTransactionBuilder(bytes, prunableAttachments).build();
     }
 
     static TransactionImpl.BuilderImpl newTransactionBuilder(JSONObject transactionData) throws AplException.NotValidException {
@@ -548,10 +551,9 @@ public class TransactionImpl implements Transaction {
             if (signature == null) {
                 throw new IllegalStateException("Transaction is not signed yet");
             }
-            byte[] data = zeroSignature(getBytes());
             byte[] signatureHash = Crypto.sha256().digest(signature);
             MessageDigest digest = Crypto.sha256();
-            digest.update(data);
+            updateUnsignedBytes(digest);
             fullHash = digest.digest(signatureHash);
             BigInteger bigInteger = new BigInteger(1, new byte[]{fullHash[7], fullHash[6], fullHash[5], fullHash[4], fullHash[3], fullHash[2], fullHash[1], fullHash[0]});
             id = bigInteger.longValue();
@@ -654,6 +656,7 @@ public class TransactionImpl implements Transaction {
         return Arrays.copyOf(bytes(), bytes.length);
     }
 
+    @Override
     public byte[] bytes() {
         if (bytes == null) {
             try {
@@ -667,12 +670,17 @@ public class TransactionImpl implements Transaction {
                 buffer.putLong(type.canHaveRecipient() ? recipientId : GenesisImporter.CREATOR_ID);
                 buffer.putLong(amountATM);
                 buffer.putLong(feeATM);
+                // buffer is filled by zeros, so that absent hash and signature are skipped
                 if (referencedTransactionFullHash != null) {
                     buffer.put(referencedTransactionFullHash);
                 } else {
-                    buffer.put(new byte[32]);
+                    buffer.position(buffer.position() + 32);
+                }
+                if (signature != null) {
+                    buffer.put(signature);
+                } else {
+                    buffer.position(buffer.position() + SIGNATURE_LENGTH);
                 }
-                buffer.put(signature != null ? signature : new byte[64]);
                 buffer.putInt(getFlags());
                 buffer.putInt(ecBlockHeight);
                 buffer.putLong(ecBlockId);
@@ -694,6 +702,27 @@ public class TransactionImpl implements Transaction {
         return zeroSignature(getBytes());
     }
 
+    /**
+     * @return sha256 hash of the transaction bytes with zeroed signature, which are signed by the sender
+     */
+    private byte[] getUnsignedBytesHash() {
+        if (unsignedBytesHash == null) {
+            MessageDigest digest = Crypto.sha256();
+            updateUnsignedBytes(digest);
+            unsignedBytesHash = digest.digest();
+        }
+        return unsignedBytesHash;
+    }
+
+    // feed the transaction bytes with zeroed signature into the digest without copying them
+    private void updateUnsignedBytes(MessageDigest digest) {
+        byte[] data = bytes();
+        int signatureEnd = signatureOffset() + SIGNATURE_LENGTH;
+        digest.update(data, 0, signatureOffset());
+        digest.update(ZERO_SIGNATURE);
+        digest.update(data, signatureEnd, data.length - signatureEnd);
+    }
+
     @Override
     public JSONObject getJSONObject() {
         JSONObject json = new JSONObject();
@@ -767,15 +796,20 @@ public class TransactionImpl implements Transaction {
         return checkSignature() && lookupAndInjectAccountService().setOrVerifyPublicKey(getSenderId(), getSenderPublicKey());
     }
 
-    private boolean checkSignature() {
+    /**
+     * Verify transaction signature without touching the database, positive result is cached
+     *
+     * @return true if signature is valid
+     */
+    boolean checkSignature() {
         if (!hasValidSignature) {
-            hasValidSignature = signature != null && Crypto.verify(signature, zeroSignature(getBytes()), getSenderPublicKey());
+            hasValidSignature = signature != null && Crypto.verifyHash(signature, getUnsignedBytesHash(), getSenderPublicKey());
         }
         return hasValidSignature;
     }
 
     private int getSize() {
-        return signatureOffset() + 64 + 4 + 4 + 8 + appendagesSize;
+        return signatureOffset() + SIGNATURE_LENGTH + 4 + 4 + 8 + appendagesSize;
     }
 
     @Override
@@ -793,7 +827,7 @@ public class TransactionImpl implements Transaction {
 
     private byte[] zeroSignature(byte[] data) {
         int start = signatureOffset();
-        for (int i = start; i < start + 64; i++) {
+        for (int i = start; i < start + SIGNATURE_LENGTH; i++) {
             data[i] = 0;
         }
         return data;
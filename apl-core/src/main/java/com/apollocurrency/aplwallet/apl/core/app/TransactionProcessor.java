@@ -20,8 +20,8 @@
 
 package com.apollocurrency.aplwallet.apl.core.app;
 
-import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.Filter;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
@@ -33,13 +33,13 @@ public interface TransactionProcessor {
 
     void init();
 
-    DbIterator<UnconfirmedTransaction> getAllUnconfirmedTransactions();
+    List<UnconfirmedTransaction> getAllUnconfirmedTransactions();
 
-    DbIterator<? extends Transaction> getAllUnconfirmedTransactions(int from, int to);
+    List<UnconfirmedTransaction> getAllUnconfirmedTransactions(int from, int to);
 
-    DbIterator<? extends Transaction> getAllUnconfirmedTransactions(String sort);
+    List<UnconfirmedTransaction> getAllUnconfirmedTransactions(Filter<? super UnconfirmedTransaction> filter, int from, int to);
 
-    DbIterator<? extends Transaction> getAllUnconfirmedTransactions(int from, int to, String sort);
+    List<UnconfirmedTransaction> getUnconfirmedTransactionsBySender(long senderId);
 
     Transaction getUnconfirmedTransaction(long transactionId);
 
@@ -53,6 +53,24 @@ public interface TransactionProcessor {
 
     void requeueAllUnconfirmedTransactions();
 
+    /**
+     * Undo unconfirmed changes of the pooled transactions sent by the senders of the block transactions, so that
+     * block transactions are applied against the confirmed state of their senders. Pool and its db mirror are left
+     * untouched, transactions of other senders keep their unconfirmed changes.
+     *
+     * @param block block, which is going to be accepted
+     */
+    void undoUnconfirmedTransactions(Block block);
+
+    /**
+     * Drop pooled transactions included into the accepted block and apply unconfirmed changes of the other
+     * transactions undone by {@link #undoUnconfirmedTransactions(Block)} again. Transactions, which are not valid
+     * any more, are moved to the waiting queue.
+     *
+     * @param block accepted block, which is the last block of the blockchain
+     */
+    void reapplyUnconfirmedTransactions(Block block);
+
     void rebroadcastAllUnconfirmedTransactions();
 
     void removeUnconfirmedTransaction(Transaction transaction);
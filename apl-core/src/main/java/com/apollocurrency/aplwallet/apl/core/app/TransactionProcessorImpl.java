@@ -25,14 +25,14 @@ import com.apollocurrency.aplwallet.apl.core.account.service.AccountServiceImpl;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.TxEventType;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
-import com.apollocurrency.aplwallet.apl.core.db.DbClause;
-import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.KeyFactory;
 import com.apollocurrency.aplwallet.apl.core.db.LongKeyFactory;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionCallback;
 import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.cdi.Transactional;
 import com.apollocurrency.aplwallet.apl.core.db.derived.EntityDbTable;
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryPeerMessage;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.peer.PeerState;
 import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
@@ -44,6 +44,7 @@ import com.apollocurrency.aplwallet.apl.core.transaction.messages.Appendix;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.Prunable;
 import com.apollocurrency.aplwallet.apl.util.AplException;
 import com.apollocurrency.aplwallet.apl.util.Constants;
+import com.apollocurrency.aplwallet.apl.util.Filter;
 import com.apollocurrency.aplwallet.apl.util.JSON;
 import com.apollocurrency.aplwallet.apl.util.NtpTime;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
@@ -64,8 +65,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -76,19 +77,16 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
-import static java.util.Comparator.comparingInt;
-import static java.util.Comparator.comparingLong;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Singleton
 public class TransactionProcessorImpl implements TransactionProcessor {
     private static final Logger LOG = getLogger(TransactionProcessorImpl.class);
-    private static final Comparator<UnconfirmedTransaction> cachedUnconfirmedTransactionComparator =
-        comparingInt(UnconfirmedTransaction::getHeight) // Sort by transaction_height ASC
-            .thenComparing(comparingLong(UnconfirmedTransaction::getFeePerByte).reversed()) // Sort by fee_per_byte DESC
-            .thenComparingLong(UnconfirmedTransaction::getArrivalTimestamp) // Sort by arrival_timestamp ASC
-            .thenComparingLong(UnconfirmedTransaction::getId); // Sort by transaction ID ASC
-    private final Map<DbKey, UnconfirmedTransaction> transactionCache = new HashMap<>();
+    /**
+     * Unconfirmed transactions pool, all reads are served from memory, while unconfirmed_transaction table
+     * is updated in the same db transactions as unconfirmed balances to restore the pool after restart
+     */
+    private final MemPool memPool = new MemPool();
     private final LongKeyFactory<UnconfirmedTransaction> transactionKeyFactory;
     private final EntityDbTable<UnconfirmedTransaction> unconfirmedTransactionTable;
     private final TransactionValidator validator;
@@ -172,6 +170,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
 
     };
     private AccountService accountService;
+    private TransactionSignatureVerifier signatureVerifier;
     private final Runnable processTransactionsThread = () -> {
         try {
             try {
@@ -227,7 +226,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
             System.exit(1);
         }
     };
-    private volatile boolean cacheInitialized = false;
+    private volatile boolean memPoolInitialized = false;
 
     @Inject
     public TransactionProcessorImpl(LongKeyFactory<UnconfirmedTransaction> transactionKeyFactory, TransactionValidator validator, TransactionApplier applier, javax.enterprise.event.Event<List<Transaction>> txEvent) {
@@ -252,6 +251,13 @@ public class TransactionProcessorImpl implements TransactionProcessor {
         return databaseManager.getDataSource();
     }
 
+    private TransactionSignatureVerifier lookupSignatureVerifier() {
+        if (signatureVerifier == null) {
+            signatureVerifier = CDI.current().select(TransactionSignatureVerifier.class).get();
+        }
+        return signatureVerifier;
+    }
+
     private AccountService lookupAccountService() {
         if (accountService == null) {
             accountService = CDI.current().select(AccountServiceImpl.class).get();
@@ -271,28 +277,15 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                 @Override
                 public void save(Connection con, UnconfirmedTransaction unconfirmedTransaction) throws SQLException {
                     unconfirmedTransaction.save(con);
-                    if (transactionCache.size() < maxUnconfirmedTransactions) {
-                        DbKey dbKey = transactionKeyFactory.newKey(unconfirmedTransaction.getId());
-                        transactionCache.put(dbKey, unconfirmedTransaction);
-                    }
                 }
 
                 @Override
                 public int rollback(int height) {
                     int rc;
-                    try (Connection con = lookupDataSource().getConnection();
-                         PreparedStatement pstmt = con.prepareStatement("SELECT * FROM unconfirmed_transaction WHERE height > ?")) {
-                        pstmt.setInt(1, height);
-                        try (ResultSet rs = pstmt.executeQuery()) {
-                            while (rs.next()) {
-                                UnconfirmedTransaction unconfirmedTransaction = load(con, rs, null);
-                                waitingTransactions.add(unconfirmedTransaction);
-                                DbKey dbKey = transactionKeyFactory.newKey(unconfirmedTransaction.getId());
-                                transactionCache.remove(dbKey);
-                            }
-                        }
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e.toString(), e);
+                    List<MemPool.Entry> removed = lookupMemPool().removeAbove(height);
+                    restoreMemPoolOnRollback(removed);
+                    for (MemPool.Entry entry : removed) {
+                        waitingTransactions.add(entry.getTransaction());
                     }
                     rc = super.rollback(height);
                     unconfirmedDuplicates.clear();
@@ -302,6 +295,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                 @Override
                 public void truncate() {
                     super.truncate();
+                    restoreMemPoolOnRollback(lookupMemPool().removeAll());
                 }
 
                 @Override
@@ -319,13 +313,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                     if (lookupBlockchainProcessor().isDownloading()) {
                         return;
                     }
-                    List<UnconfirmedTransaction> expiredTransactions = new ArrayList<>();
-                    try (DbIterator<UnconfirmedTransaction> iterator = unconfirmedTransactionTable.getManyBy(
-                        new DbClause.IntClause("expiration", DbClause.Op.LT, timeService.getEpochTime()), 0, -1, "")) {
-                        while (iterator.hasNext()) {
-                            expiredTransactions.add(iterator.next());
-                        }
-                    }
+                    List<UnconfirmedTransaction> expiredTransactions = lookupMemPool().getExpired(timeService.getEpochTime());
                     if (expiredTransactions.size() > 0) {
                         globalSync.writeLock();
                         try {
@@ -403,57 +391,82 @@ public class TransactionProcessorImpl implements TransactionProcessor {
         }
     }
 
-    @Override
-    public DbIterator<UnconfirmedTransaction> getAllUnconfirmedTransactions() {
-        return unconfirmedTransactionTable.getAll(0, -1);
+    private MemPool lookupMemPool() {
+        if (!memPoolInitialized) {
+            synchronized (memPool) {
+                if (!memPoolInitialized) {
+                    loadMemPool();
+                    memPoolInitialized = true;
+                }
+            }
+        }
+        return memPool;
+    }
+
+    /**
+     * Restore unconfirmed transactions pool, which was saved to the db before node restart
+     */
+    private void loadMemPool() {
+        try (Connection con = lookupDataSource().getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM unconfirmed_transaction");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                memPool.add(new UnconfirmedTransaction(rs), rs.getInt("height"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        LOG.debug("Loaded {} unconfirmed transactions into memory pool", memPool.size());
+    }
+
+    /**
+     * Return removed transactions back to the pool, when current db transaction will be rolled back
+     */
+    private void restoreMemPoolOnRollback(List<MemPool.Entry> removed) {
+        TransactionalDataSource dataSource = lookupDataSource();
+        if (removed.isEmpty() || !dataSource.isInTransaction()) {
+            return;
+        }
+        dataSource.registerCallback(new TransactionCallback() {
+            @Override
+            public void commit() {
+            }
+
+            @Override
+            public void rollback() {
+                memPool.addAll(removed);
+                removed.forEach(entry -> entry.getTransaction().isUnconfirmedDuplicate(unconfirmedDuplicates));
+            }
+        });
     }
 
     @Override
-    public DbIterator<UnconfirmedTransaction> getAllUnconfirmedTransactions(int from, int to) {
-        return unconfirmedTransactionTable.getAll(from, to);
+    public List<UnconfirmedTransaction> getAllUnconfirmedTransactions() {
+        return lookupMemPool().getAll();
     }
 
     @Override
-    public DbIterator<UnconfirmedTransaction> getAllUnconfirmedTransactions(String sort) {
-        return unconfirmedTransactionTable.getAll(0, -1, sort);
+    public List<UnconfirmedTransaction> getAllUnconfirmedTransactions(int from, int to) {
+        return lookupMemPool().getAll(from, to);
     }
 
     @Override
-    public DbIterator<UnconfirmedTransaction> getAllUnconfirmedTransactions(int from, int to, String sort) {
-        return unconfirmedTransactionTable.getAll(from, to, sort);
+    public List<UnconfirmedTransaction> getAllUnconfirmedTransactions(Filter<? super UnconfirmedTransaction> filter, int from, int to) {
+        return lookupMemPool().getAll(filter, from, to);
     }
 
     @Override
-    public Transaction getUnconfirmedTransaction(long transactionId) {
-        DbKey dbKey = transactionKeyFactory.newKey(transactionId);
-        return getUnconfirmedTransaction(dbKey);
+    public List<UnconfirmedTransaction> getUnconfirmedTransactionsBySender(long senderId) {
+        return lookupMemPool().getBySender(senderId);
     }
 
-    Transaction getUnconfirmedTransaction(DbKey dbKey) {
-        globalSync.readLock();
-        try {
-            Transaction transaction = transactionCache.get(dbKey);
-            if (transaction != null) {
-                return transaction;
-            }
-        } finally {
-            globalSync.readUnlock();
-        }
-        return unconfirmedTransactionTable.get(dbKey);
+    @Override
+    public Transaction getUnconfirmedTransaction(long transactionId) {
+        return lookupMemPool().get(transactionId);
     }
 
     private List<Long> getAllUnconfirmedTransactionIds() {
-        List<Long> result = new ArrayList<>();
-        try (Connection con = lookupDataSource().getConnection();
-             PreparedStatement pstmt = con.prepareStatement("SELECT id FROM unconfirmed_transaction");
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                result.add(rs.getLong("id"));
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e.toString(), e);
-        }
-        return result;
+        return lookupMemPool().getAllIds();
     }
 
     @Override
@@ -491,8 +504,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                 LOG.info("Transaction {} already in blockchain, will not broadcast again", transaction.getStringId());
                 return;
             }
-            DbKey dbKey = transactionKeyFactory.newKey(transaction.getId());
-            if (getUnconfirmedTransaction(dbKey) != null) {
+            if (getUnconfirmedTransaction(transaction.getId()) != null) {
                 if (enableTransactionRebroadcasting) {
                     broadcastedTransactions.add(transaction);
                     LOG.info("Transaction {} already in unconfirmed pool, will re-broadcast", transaction.getStringId());
@@ -525,8 +537,13 @@ public class TransactionProcessorImpl implements TransactionProcessor {
 
     @Override
     public void processPeerTransactions(JSONObject request) throws AplException.ValidationException {
-        JSONArray transactionsData = (JSONArray) request.get("transactions");
-        processPeerTransactions(transactionsData);
+        byte[] body = BinaryPeerMessage.getBody(request);
+        if (body != null) {
+            processPeerTransactions(BinaryPeerCodec.readTransactions(body));
+        } else {
+            JSONArray transactionsData = (JSONArray) request.get("transactions");
+            processPeerTransactions(transactionsData);
+        }
     }
 
     @Override
@@ -537,11 +554,9 @@ public class TransactionProcessorImpl implements TransactionProcessor {
             TransactionalDataSource dataSource = lookupDataSource();
             try {
                 dataSource.begin();
-                try (DbIterator<UnconfirmedTransaction> unconfirmedTransactions = getAllUnconfirmedTransactions()) {
-                    for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactions) {
-                        transactionApplier.undoUnconfirmed(unconfirmedTransaction.getTransaction());
-                        removed.add(unconfirmedTransaction.getTransaction());
-                    }
+                for (UnconfirmedTransaction unconfirmedTransaction : getAllUnconfirmedTransactions()) {
+                    transactionApplier.undoUnconfirmed(unconfirmedTransaction.getTransaction());
+                    removed.add(unconfirmedTransaction.getTransaction());
                 }
                 unconfirmedTransactionTable.truncate();
                 dataSource.commit();
@@ -553,7 +568,6 @@ public class TransactionProcessorImpl implements TransactionProcessor {
             unconfirmedDuplicates.clear();
             waitingTransactions.clear();
             broadcastedTransactions.clear();
-            transactionCache.clear();
             txsEvent.select(TxEventType.literal(TxEventType.REMOVED_UNCONFIRMED_TRANSACTIONS)).fire(removed);
         } finally {
             globalSync.writeUnlock();
@@ -578,18 +592,15 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                 return;
             }
             List<Transaction> removed = new ArrayList<>();
-            try (DbIterator<UnconfirmedTransaction> unconfirmedTransactions = getAllUnconfirmedTransactions()) {
-                for (UnconfirmedTransaction unconfirmedTransaction : unconfirmedTransactions) {
-                    transactionApplier.undoUnconfirmed(unconfirmedTransaction.getTransaction());
-                    if (removed.size() < maxUnconfirmedTransactions) {
-                        removed.add(unconfirmedTransaction.getTransaction());
-                    }
-                    waitingTransactions.add(unconfirmedTransaction);
+            for (UnconfirmedTransaction unconfirmedTransaction : getAllUnconfirmedTransactions()) {
+                transactionApplier.undoUnconfirmed(unconfirmedTransaction.getTransaction());
+                if (removed.size() < maxUnconfirmedTransactions) {
+                    removed.add(unconfirmedTransaction.getTransaction());
                 }
+                waitingTransactions.add(unconfirmedTransaction);
             }
             unconfirmedTransactionTable.truncate();
             unconfirmedDuplicates.clear();
-            transactionCache.clear();
             txsEvent.select(TxEventType.literal(TxEventType.REMOVED_UNCONFIRMED_TRANSACTIONS)).fire(removed);
         } finally {
             globalSync.writeUnlock();
@@ -597,18 +608,138 @@ public class TransactionProcessorImpl implements TransactionProcessor {
     }
 
     @Override
-    public void rebroadcastAllUnconfirmedTransactions() {
+    public void undoUnconfirmedTransactions(Block block) {
+        globalSync.writeLock();
+        try {
+            for (UnconfirmedTransaction unconfirmedTransaction : getBlockSendersUnconfirmedTransactions(block)) {
+                transactionApplier.undoUnconfirmed(unconfirmedTransaction.getTransaction());
+            }
+        } finally {
+            globalSync.writeUnlock();
+        }
+    }
+
+    @Override
+    public void reapplyUnconfirmedTransactions(Block block) {
         globalSync.writeLock();
         try {
-            try (DbIterator<UnconfirmedTransaction> oldNonBroadcastedTransactions = getAllUnconfirmedTransactions()) {
-                for (UnconfirmedTransaction unconfirmedTransaction : oldNonBroadcastedTransactions) {
-                    if (unconfirmedTransaction.getTransaction().isUnconfirmedDuplicate(unconfirmedDuplicates)) {
-                        LOG.debug("Skipping duplicate unconfirmed transaction " + unconfirmedTransaction.getTransaction().getJSONObject().toString());
-                    } else if (enableTransactionRebroadcasting) {
-                        broadcastedTransactions.add(unconfirmedTransaction.getTransaction());
+            Set<Long> blockTransactions = new HashSet<>();
+            block.getOrLoadTransactions().forEach(transaction -> blockTransactions.add(transaction.getId()));
+            int currentTime = timeService.getEpochTime();
+            List<UnconfirmedTransaction> undone = getBlockSendersUnconfirmedTransactions(block);
+            List<MemPool.Entry> removed = new ArrayList<>();
+            List<Transaction> removedTransactions = new ArrayList<>();
+            // duplicate keys are registered again by reapplied transactions and by removed ones on rollback
+            undone.forEach(unconfirmedTransaction -> unregisterUnconfirmedDuplicate(unconfirmedTransaction.getTransaction()));
+            for (UnconfirmedTransaction unconfirmedTransaction : undone) {
+                Transaction transaction = unconfirmedTransaction.getTransaction();
+                boolean included = blockTransactions.contains(transaction.getId());
+                if (!included && reapplyUnconfirmed(unconfirmedTransaction, currentTime)) {
+                    continue;
+                }
+                MemPool.Entry entry = memPool.remove(transaction.getId());
+                if (entry != null) {
+                    removed.add(entry);
+                    if (removedTransactions.size() < maxUnconfirmedTransactions) {
+                        removedTransactions.add(transaction);
+                    }
+                    if (!included) {
+                        waitingTransactions.add(unconfirmedTransaction);
                     }
                 }
             }
+            if (removed.isEmpty()) {
+                return;
+            }
+            restoreMemPoolOnRollback(removed);
+            try (Connection con = lookupDataSource().getConnection();
+                 PreparedStatement pstmt = con.prepareStatement("DELETE FROM unconfirmed_transaction WHERE id = ?")) {
+                for (MemPool.Entry entry : removed) {
+                    pstmt.setLong(1, entry.getTransaction().getId());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            } catch (SQLException e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+            LOG.debug("Removed {} of {} reapplied unconfirmed transactions after block {} at height {}",
+                removed.size(), undone.size(), block.getStringId(), block.getHeight());
+            txsEvent.select(TxEventType.literal(TxEventType.REMOVED_UNCONFIRMED_TRANSACTIONS)).fire(removedTransactions);
+        } finally {
+            globalSync.writeUnlock();
+        }
+    }
+
+    /**
+     * Pooled transactions, which unconfirmed changes can conflict with the block transactions: all transactions of
+     * the block senders including the block transactions themselves. Other transactions stay applied, they are
+     * validated again when selected for a new block and removed on expiration.
+     *
+     * @return transactions in the block assembly order
+     */
+    private List<UnconfirmedTransaction> getBlockSendersUnconfirmedTransactions(Block block) {
+        Set<Long> senders = new HashSet<>();
+        SortedSet<UnconfirmedTransaction> transactions = new TreeSet<>(MemPool.ORDER);
+        for (Transaction transaction : block.getOrLoadTransactions()) {
+            if (senders.add(transaction.getSenderId())) {
+                transactions.addAll(lookupMemPool().getBySender(transaction.getSenderId()));
+            }
+        }
+        return new ArrayList<>(transactions);
+    }
+
+    /**
+     * Validate pooled transaction against the new blockchain state and apply its unconfirmed changes,
+     * signature is not verified again
+     *
+     * @return true, when transaction is still valid and stays in the pool
+     */
+    private boolean reapplyUnconfirmed(UnconfirmedTransaction unconfirmedTransaction, int currentTime) {
+        Transaction transaction = unconfirmedTransaction.getTransaction();
+        if (transaction.getTimestamp() > currentTime + Constants.MAX_TIMEDRIFT || transaction.getExpiration() < currentTime) {
+            return false;
+        }
+        try {
+            validator.validate(transaction);
+            if (!transactionApplier.applyUnconfirmed(transaction)) {
+                return false;
+            }
+        } catch (AplException.ValidationException | RuntimeException e) {
+            LOG.trace("Unconfirmed transaction {} is not valid after block accept: {}", transaction.getStringId(), e.toString());
+            return false;
+        }
+        if (transaction.isUnconfirmedDuplicate(unconfirmedDuplicates)) {
+            transactionApplier.undoUnconfirmed(transaction);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release duplicate keys registered by the transaction, which leaves the pool
+     */
+    private void unregisterUnconfirmedDuplicate(Transaction transaction) {
+        Map<TransactionType, Map<String, Integer>> transactionDuplicates = new HashMap<>();
+        transaction.isUnconfirmedDuplicate(transactionDuplicates);
+        transactionDuplicates.forEach((type, keys) -> {
+            Map<String, Integer> typeDuplicates = unconfirmedDuplicates.get(type);
+            if (typeDuplicates != null) {
+                keys.keySet().forEach(key -> typeDuplicates.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null));
+            }
+        });
+    }
+
+    @Override
+    public void rebroadcastAllUnconfirmedTransactions() {
+        globalSync.writeLock();
+        try {
+            for (UnconfirmedTransaction unconfirmedTransaction : getAllUnconfirmedTransactions()) {
+                if (unconfirmedTransaction.getTransaction().isUnconfirmedDuplicate(unconfirmedDuplicates)) {
+                    LOG.debug("Skipping duplicate unconfirmed transaction " + unconfirmedTransaction.getTransaction().getJSONObject().toString());
+                } else if (enableTransactionRebroadcasting) {
+                    broadcastedTransactions.add(unconfirmedTransaction.getTransaction());
+                }
+            }
         } finally {
             globalSync.writeUnlock();
         }
@@ -628,16 +759,18 @@ public class TransactionProcessorImpl implements TransactionProcessor {
             }
             return;
         }
+        MemPool.Entry removed = lookupMemPool().remove(transaction.getId());
+        if (removed == null) {
+            return;
+        }
+        restoreMemPoolOnRollback(List.of(removed));
+        unregisterUnconfirmedDuplicate(transaction);
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("DELETE FROM unconfirmed_transaction WHERE id = ?")) {
             pstmt.setLong(1, transaction.getId());
-            int deleted = pstmt.executeUpdate();
-            if (deleted > 0) {
-                transactionApplier.undoUnconfirmed(transaction);
-                DbKey dbKey = transactionKeyFactory.newKey(transaction.getId());
-                transactionCache.remove(dbKey);
-                txsEvent.select(TxEventType.literal(TxEventType.REMOVED_UNCONFIRMED_TRANSACTIONS)).fire(Collections.singletonList(transaction));
-            }
+            pstmt.executeUpdate();
+            transactionApplier.undoUnconfirmed(transaction);
+            txsEvent.select(TxEventType.literal(TxEventType.REMOVED_UNCONFIRMED_TRANSACTIONS)).fire(Collections.singletonList(transaction));
         } catch (SQLException e) {
             LOG.error(e.toString(), e);
             throw new RuntimeException(e.toString(), e);
@@ -696,7 +829,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
         }
     }
 
-    private void processPeerTransactions(JSONArray transactionsData) throws AplException.NotValidException {
+    private void processPeerTransactions(List<?> transactionsData) throws AplException.NotValidException {
         if (blockchain.getHeight() <= blockchainConfig.getLastKnownBlock()) {
             return;
         }
@@ -708,12 +841,24 @@ public class TransactionProcessorImpl implements TransactionProcessor {
         List<Transaction> sendToPeersTransactions = new ArrayList<>();
         List<Transaction> addedUnconfirmedTransactions = new ArrayList<>();
         List<Exception> exceptions = new ArrayList<>();
+        List<TransactionImpl> parsedTransactions = new ArrayList<>(transactionsData.size());
         for (Object transactionData : transactionsData) {
             try {
-                Transaction transaction = TransactionImpl.parseTransaction((JSONObject) transactionData);
+                parsedTransactions.add(parsePeerTransaction(transactionData));
+            } catch (AplException.NotValidException | RuntimeException e) {
+                LOG.debug(String.format("Invalid transaction from peer: %s", transactionData), e);
+                exceptions.add(e);
+            }
+        }
+        // verify signatures in parallel before the write lock is taken, processTransaction reads the cached result
+        int invalidSignatures = lookupSignatureVerifier().verifyTransactions(parsedTransactions);
+        for (TransactionImpl transaction : parsedTransactions) {
+            try {
+                if (invalidSignatures > 0 && !transaction.checkSignature()) {
+                    throw new AplException.NotValidException("Invalid transaction signature for transaction " + transaction.getStringId());
+                }
                 receivedTransactions.add(transaction);
-                DbKey dbKey = transactionKeyFactory.newKey(transaction.getId());
-                if (getUnconfirmedTransaction(dbKey) != null || blockchain.hasTransaction(transaction.getId())) {
+                if (getUnconfirmedTransaction(transaction.getId()) != null || blockchain.hasTransaction(transaction.getId())) {
                     continue;
                 }
                 validator.validate(transaction);
@@ -729,7 +874,7 @@ public class TransactionProcessorImpl implements TransactionProcessor {
 
             } catch (AplException.NotCurrentlyValidException ignore) {
             } catch (AplException.ValidationException | RuntimeException e) {
-                LOG.debug(String.format("Invalid transaction from peer: %s", ((JSONObject) transactionData).toJSONString()), e);
+                LOG.debug(String.format("Invalid transaction from peer: %s", transaction.getJSONObject().toJSONString()), e);
                 exceptions.add(e);
             }
         }
@@ -745,6 +890,13 @@ public class TransactionProcessorImpl implements TransactionProcessor {
         }
     }
 
+    private TransactionImpl parsePeerTransaction(Object transactionData) throws AplException.NotValidException {
+        if (transactionData instanceof BinaryPeerCodec.TransactionData) {
+            return ((BinaryPeerCodec.TransactionData) transactionData).parse();
+        }
+        return TransactionImpl.parseTransaction((JSONObject) transactionData);
+    }
+
     private void processTransaction(UnconfirmedTransaction unconfirmedTransaction) throws AplException.ValidationException {
         Transaction transaction = unconfirmedTransaction.getTransaction();
         int curTime = timeService.getEpochTime();
@@ -760,14 +912,14 @@ public class TransactionProcessorImpl implements TransactionProcessor {
 
         globalSync.writeLock();
         TransactionalDataSource dataSource = lookupDataSource();
+        boolean duplicateRegistered = false;
         try {
             try {
                 dataSource.begin();
                 if (blockchain.getHeight() < blockchainConfig.getLastKnownBlock()) {
                     throw new AplException.NotCurrentlyValidException("Blockchain not ready to accept transactions");
                 }
-                DbKey dbKey = transactionKeyFactory.newKey(transaction.getId());
-                if (getUnconfirmedTransaction(dbKey) != null || blockchain.hasTransaction(transaction.getId())) {
+                if (getUnconfirmedTransaction(transaction.getId()) != null || blockchain.hasTransaction(transaction.getId())) {
                     throw new AplException.ExistingTransactionException("Transaction already processed");
                 }
 
@@ -783,14 +935,32 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                     throw new AplException.InsufficientBalanceException("Insufficient balance");
                 }
 
+                UnconfirmedTransaction evictedTransaction = null;
+                if (lookupMemPool().size() >= maxUnconfirmedTransactions) {
+                    evictedTransaction = memPool.getLast();
+                    if (evictedTransaction != null && MemPool.ORDER.compare(unconfirmedTransaction, evictedTransaction) >= 0) {
+                        throw new AplException.NotCurrentlyValidException("Unconfirmed transactions pool is full");
+                    }
+                }
+
                 if (transaction.isUnconfirmedDuplicate(unconfirmedDuplicates)) {
                     throw new AplException.NotCurrentlyValidException("Duplicate unconfirmed transaction");
                 }
+                duplicateRegistered = true;
+
+                if (evictedTransaction != null) {
+                    LOG.debug("Unconfirmed transactions pool is full, drop transaction {}", evictedTransaction.getStringId());
+                    removeUnconfirmedTransaction(evictedTransaction.getTransaction());
+                }
 
                 unconfirmedTransactionTable.insert(unconfirmedTransaction);
 
                 dataSource.commit();
+                memPool.add(unconfirmedTransaction, blockchain.getHeight());
             } catch (Exception e) {
+                if (duplicateRegistered) {
+                    unregisterUnconfirmedDuplicate(transaction);
+                }
                 dataSource.rollback();
                 throw e;
             }
@@ -806,31 +976,14 @@ public class TransactionProcessorImpl implements TransactionProcessor {
      */
     @Override
     public SortedSet<? extends Transaction> getCachedUnconfirmedTransactions(List<String> exclude) {
-        SortedSet<UnconfirmedTransaction> transactionSet = new TreeSet<>(cachedUnconfirmedTransactionComparator);
+        SortedSet<UnconfirmedTransaction> transactionSet = new TreeSet<>(MemPool.ORDER);
         globalSync.readLock();
         try {
-            //
-            // Initialize the unconfirmed transaction cache if it hasn't been done yet
-            //
-            synchronized (transactionCache) {
-                if (!cacheInitialized) {
-                    DbIterator<UnconfirmedTransaction> it = getAllUnconfirmedTransactions();
-                    while (it.hasNext()) {
-                        UnconfirmedTransaction unconfirmedTransaction = it.next();
-                        DbKey dbKey = transactionKeyFactory.newKey(unconfirmedTransaction.getId());
-                        transactionCache.put(dbKey, unconfirmedTransaction);
-                    }
-                    cacheInitialized = true;
-                }
-            }
-            //
-            // Build the result set
-            //
-            transactionCache.values().forEach(transaction -> {
+            for (UnconfirmedTransaction transaction : getAllUnconfirmedTransactions()) {
                 if (Collections.binarySearch(exclude, transaction.getStringId()) < 0) {
                     transactionSet.add(transaction);
                 }
-            });
+            }
         } finally {
             globalSync.readUnlock();
         }
@@ -857,7 +1010,10 @@ public class TransactionProcessorImpl implements TransactionProcessor {
                 // Check each transaction returned by the archive peer
                 //
                 for (Object transactionJSON : transactions) {
-                    Transaction transaction = TransactionImpl.parseTransaction((JSONObject) transactionJSON);
+                    TransactionImpl transaction = TransactionImpl.parseTransaction((JSONObject) transactionJSON);
+                    if (!transaction.checkSignature()) {
+                        throw new AplException.NotValidException("Invalid transaction signature for transaction " + transaction.getJSONObject().toJSONString());
+                    }
                     Transaction myTransaction = blockchain.findTransactionByFullHash(transaction.getFullHash());
                     if (myTransaction != null) {
                         boolean foundAllData = true;
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.Tasks;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-validation stage which verifies block and transaction signatures of downloaded blocks in parallel,
+ * before the blocks are pushed under the {@link GlobalSync} write lock.
+ * <p>
+ * Blocks and transactions are not verified during parsing, only the pure cryptographic part of the check
+ * is done here. Positive result is cached inside each {@link BlockImpl} and {@link TransactionImpl}, so
+ * signature verification called later from {@code pushBlock} does not repeat {@code Crypto.verify}
+ * for already verified signatures. Public key registration check still happens inside the block transaction.
+ */
+@Slf4j
+@Singleton
+public class TransactionSignatureVerifier {
+    private static final int MIN_SIGNATURES_FOR_PARALLEL_VERIFICATION = 8;
+
+    private final ForkJoinPool verificationPool;
+    private final AtomicLong verifiedSignatures = new AtomicLong();
+    private final AtomicLong verificationTimeNanos = new AtomicLong();
+
+    @Inject
+    public TransactionSignatureVerifier(PropertiesHolder propertiesHolder) {
+        int threads = propertiesHolder.getIntProperty("apl.signatureVerifierThreads", 0);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        this.verificationPool = new ForkJoinPool(threads);
+        log.debug("Transaction signature verifier started with {} threads", threads);
+    }
+
+    /**
+     * Verify signatures of the given blocks and all their transactions, positive result is cached in each block
+     * and transaction
+     *
+     * @param blocks blocks to verify, usually downloaded from peers and not yet pushed
+     * @return number of blocks and transactions which signature verification failed
+     */
+    public int verify(Collection<? extends Block> blocks) {
+        List<Callable<Boolean>> checks = new ArrayList<>();
+        for (Block block : blocks) {
+            checks.add(() -> checkSignature(block));
+            for (Transaction transaction : block.getTransactions()) {
+                checks.add(() -> checkSignature(transaction));
+            }
+        }
+        return verifySignatures(checks);
+    }
+
+    /**
+     * Verify signatures of the given transactions, positive result is cached in each transaction
+     *
+     * @param transactions transactions to verify
+     * @return number of transactions which signature verification failed
+     */
+    public int verifyTransactions(List<? extends Transaction> transactions) {
+        List<Callable<Boolean>> checks = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            checks.add(() -> checkSignature(transaction));
+        }
+        return verifySignatures(checks);
+    }
+
+    /**
+     * Find the first block, which signature or signature of its transaction is not valid. Supposed to be called
+     * after the failed {@link #verify(Collection)}, so only not valid signatures are checked again.
+     *
+     * @param blocks verified blocks
+     * @return index of the first block with not valid signature or -1 when all signatures are valid
+     */
+    public int findFirstInvalidBlock(List<? extends Block> blocks) {
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (!checkSignature(block) || !block.getTransactions().stream().allMatch(this::checkSignature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int verifySignatures(List<Callable<Boolean>> checks) {
+        if (checks.isEmpty()) {
+            return 0;
+        }
+        long startTime = System.nanoTime();
+        int failed = 0;
+        if (checks.size() < MIN_SIGNATURES_FOR_PARALLEL_VERIFICATION || verificationPool.isShutdown()) {
+            for (Callable<Boolean> check : checks) {
+                try {
+                    if (!check.call()) {
+                        failed++;
+                    }
+                } catch (Exception e) {
+                    log.debug("Unable to verify signature", e);
+                    failed++;
+                }
+            }
+        } else {
+            for (Future<Boolean> result : verificationPool.invokeAll(checks)) {
+                try {
+                    if (!result.get()) {
+                        failed++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    log.debug("Unable to verify signature", e.getCause());
+                    failed++;
+                }
+            }
+        }
+        long time = System.nanoTime() - startTime;
+        long total = verifiedSignatures.addAndGet(checks.size());
+        long totalTime = verificationTimeNanos.addAndGet(time);
+        if (log.isDebugEnabled()) {
+            log.debug("Verified {} signatures in {} ms ({} failed), {} signatures per s, total verified {}",
+                checks.size(), time / 1_000_000, failed, signaturesPerSecond(checks.size(), time), total);
+        }
+        log.trace("Average signature verification speed {} per s", signaturesPerSecond(total, totalTime));
+        return failed;
+    }
+
+    /**
+     * @return average number of verified signatures per second since node start
+     */
+    public long getVerifiedSignaturesPerSecond() {
+        return signaturesPerSecond(verifiedSignatures.get(), verificationTimeNanos.get());
+    }
+
+    public long getVerifiedSignatures() {
+        return verifiedSignatures.get();
+    }
+
+    public void shutdown() {
+        Tasks.shutdownExecutor("TransactionSignatureVerifier", verificationPool, 5);
+    }
+
+    private boolean checkSignature(Transaction transaction) {
+        if (transaction instanceof TransactionImpl) {
+            return ((TransactionImpl) transaction).checkSignature();
+        }
+        return true; // will be verified later during block push
+    }
+
+    private boolean checkSignature(Block block) {
+        if (block instanceof BlockImpl) {
+            return ((BlockImpl) block).checkSignature();
+        }
+        return true; // will be verified later during block push
+    }
+
+    private static long signaturesPerSecond(long signatures, long nanos) {
+        return nanos > 0 ? signatures * 1_000_000_000L / nanos : 0;
+    }
+}
@@ -15,6 +15,7 @@ import com.apollocurrency.aplwallet.apl.core.db.derived.DerivedTableInterface;
 import com.apollocurrency.aplwallet.apl.core.shard.observer.TrimData;
 import com.apollocurrency.aplwallet.apl.util.Constants;
 import com.apollocurrency.aplwallet.apl.util.ThreadUtils;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,7 +23,19 @@ import javax.enterprise.event.Event;
 import javax.enterprise.util.AnnotationLiteral;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.apollocurrency.aplwallet.apl.util.Constants.DEFAULT_PRUNABLE_UPDATE_PERIOD;
@@ -30,6 +43,7 @@ import static com.apollocurrency.aplwallet.apl.util.Constants.DEFAULT_PRUNABLE_U
 @Slf4j
 @Singleton
 public class TrimService {
+    private static final int SLOWEST_TABLES_TO_LOG = 5;
     @Getter
     private final int maxRollback;
     private final int trimFrequency;
@@ -39,6 +53,7 @@ public class TrimService {
     private final GlobalSync globalSync;
     private final TimeService timeService;
     private final ReentrantLock lock = new ReentrantLock();
+    private final int trimThreads;
 
     private Event<TrimData> trimEvent;
     private Event<TrimConfig> trimConfigEvent;
@@ -52,9 +67,11 @@ public class TrimService {
                        Event<TrimData> trimEvent,
                        Event<TrimConfig> trimConfigEvent,
                        TrimDao trimDao,
-                       @Property(value = "apl.maxRollback", defaultValue = "720") int maxRollback
+                       @Property(value = "apl.maxRollback", defaultValue = "720") int maxRollback,
+                       @Property(value = "apl.trimThreads", defaultValue = "0") int trimThreads
     ) {
         this.maxRollback = maxRollback;
+        this.trimThreads = trimThreads > 0 ? trimThreads : Runtime.getRuntime().availableProcessors();
         this.trimDao = Objects.requireNonNull(trimDao, "trimDao is NULL");
         this.dbManager = Objects.requireNonNull(databaseManager, "Database manager cannot be null");
         this.dbTablesRegistry = Objects.requireNonNull(derivedDbTablesRegistry, "Db tables registry cannot be null");
@@ -217,31 +234,138 @@ public class TrimService {
         if (!inTransaction) {
             dataSource.begin();
         }
-        long onlyTrimTime = 0;
         int epochTime = timeService.getEpochTime();
         int pruningTime = epochTime - epochTime % DEFAULT_PRUNABLE_UPDATE_PERIOD;
 
-        for (DerivedTableInterface table : dbTablesRegistry.getDerivedTables()) {
-            log.trace("Try to acquire lock...");
-            globalSync.readLock();
-            log.trace("Got it.");
+        List<TableTrimStatistics> statistics = Collections.synchronizedList(new ArrayList<>());
+        Collection<DerivedTableInterface> tables = dbTablesRegistry.getDerivedTables();
+        List<List<DerivedTableInterface>> groups = groupDependentTables(tables);
+        long onlyTrimTime;
+        if (groups.size() > 1 && trimThreads > 1) {
+            // trimming threads run in their own transactions, so nothing should stay uncommitted in the current one
+            dataSource.commit(false);
+            // pool threads cannot get the read lock while the caller holds the write lock (blockchain scan, sharding
+            // recovery) and the caller would wait for them forever, so they rely on the caller's lock in that case
+            boolean lockEachTable = !globalSync.hasWriteLock();
+            onlyTrimTime = trimTablesConcurrently(groups, height, isSharding, pruningTime, statistics, lockEachTable);
+        } else {
+            onlyTrimTime = trimTables(dataSource, new ArrayList<>(tables), height, isSharding, pruningTime, statistics, true);
+        }
+        log.info("Trim time onlyTrim/full: {} / {} ms, deleted rows={}, pruning='{}' on height='{}'",
+            onlyTrimTime, System.currentTimeMillis() - start,
+            statistics.stream().mapToLong(TableTrimStatistics::getDeletedRows).sum(), pruningTime, height);
+        if (log.isDebugEnabled()) {
+            statistics.stream()
+                .sorted(Comparator.comparingLong(TableTrimStatistics::getDurationMs).reversed())
+                .limit(SLOWEST_TABLES_TO_LOG)
+                .forEach(tableStatistics -> log.debug("Slowest trim: {}", tableStatistics));
+        }
+        return pruningTime;
+    }
+
+    /**
+     * Split tables into the groups, which can be trimmed concurrently. Table is placed into the same group with all
+     * tables, which it depends on during trim, tables of the group keep the registry order.
+     */
+    private List<List<DerivedTableInterface>> groupDependentTables(Collection<DerivedTableInterface> tables) {
+        List<Set<String>> groupNames = new ArrayList<>();
+        List<List<DerivedTableInterface>> groups = new ArrayList<>();
+        for (DerivedTableInterface table : tables) {
+            Set<String> names = new HashSet<>(table.getTrimDependentTables());
+            names.add(table.getName());
+            List<DerivedTableInterface> group = new ArrayList<>();
+            int position = groups.size();
+            for (int i = groups.size() - 1; i >= 0; i--) {
+                if (!Collections.disjoint(groupNames.get(i), names)) {
+                    names.addAll(groupNames.remove(i));
+                    group.addAll(0, groups.remove(i));
+                    position = i;
+                }
+            }
+            group.add(table);
+            groupNames.add(position, names);
+            groups.add(position, group);
+        }
+        return groups;
+    }
+
+    /**
+     * Trim groups of tables on the bounded pool, group per task. Each task trims its tables sequentially in its own
+     * transaction. On the first failure not started groups are cancelled, running ones are awaited.
+     * When lockEachTable is set, tasks take the global read lock for each table separately, so blocks can be pushed
+     * between tables, otherwise the caller should hold the write lock for the whole trim.
+     */
+    private long trimTablesConcurrently(List<List<DerivedTableInterface>> groups, int height, boolean isSharding, int pruningTime,
+                                        List<TableTrimStatistics> statistics, boolean lockEachTable) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(trimThreads, groups.size()), new NamedThreadFactory("TrimService:trim", true));
+        List<Future<Long>> futures = new ArrayList<>(groups.size());
+        try {
+            for (List<DerivedTableInterface> group : groups) {
+                futures.add(executor.submit(() -> trimTablesInTransaction(group, height, isSharding, pruningTime, statistics, lockEachTable)));
+            }
+            long onlyTrimTime = 0;
+            for (Future<Long> future : futures) {
+                onlyTrimTime += future.get();
+            }
+            return onlyTrimTime;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw new RuntimeException("Unable to trim derived tables at height " + height, e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Trim of derived tables at height " + height + " was interrupted", e);
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long trimTablesInTransaction(List<DerivedTableInterface> tables, int height, boolean isSharding, int pruningTime,
+                                         List<TableTrimStatistics> statistics, boolean lockEachTable) {
+        TransactionalDataSource dataSource = dbManager.getDataSource();
+        dataSource.begin();
+        try {
+            long onlyTrimTime = trimTables(dataSource, tables, height, isSharding, pruningTime, statistics, lockEachTable);
+            dataSource.commit();
+            return onlyTrimTime;
+        } catch (RuntimeException e) {
+            dataSource.rollback();
+            throw e;
+        }
+    }
+
+    private long trimTables(TransactionalDataSource dataSource, List<DerivedTableInterface> tables, int height, boolean isSharding,
+                            int pruningTime, List<TableTrimStatistics> statistics, boolean lockEachTable) {
+        long onlyTrimTime = 0;
+        for (DerivedTableInterface table : tables) {
+            if (lockEachTable) {
+                log.trace("Try to acquire lock...");
+                globalSync.readLock();
+                log.trace("Got it.");
+            }
             try {
                 long startTime = System.currentTimeMillis();
+                long trimmedRows = table.getTrimmedRows();
                 table.prune(pruningTime);
                 table.trim(height, isSharding);
                 dataSource.commit(false);
                 long duration = System.currentTimeMillis() - startTime;
-                // do not log trim duration here, instead go to the logback config and enable trace logs for BasicDbTable class
-                //                    log.trace("Trim of {} took {} ms", table.getName(), duration);
+                TableTrimStatistics tableStatistics = new TableTrimStatistics(table.getName(), height, table.getTrimmedRows() - trimmedRows, duration);
+                statistics.add(tableStatistics);
+                log.trace("Trim statistics: {}", tableStatistics);
                 onlyTrimTime += duration;
             } finally {
-                globalSync.readUnlock();
+                if (lockEachTable) {
+                    globalSync.readUnlock();
+                }
             }
         }
-
-        log.info("Trim time onlyTrim/full: {} / {} ms, pruning='{}' on height='{}'",
-            onlyTrimTime, System.currentTimeMillis() - start, pruningTime, height);
-        return pruningTime;
+        return onlyTrimTime;
     }
 
     public void updateTrimConfig(boolean enableTrim, boolean clearQueue) {
@@ -48,7 +48,7 @@ import java.util.Map;
 
 public class UnconfirmedTransaction implements Transaction {
 
-    private static Blockchain blockchain = CDI.current().select(BlockchainImpl.class).get();
+    private static Blockchain blockchain;
     private final Transaction transaction;
     private final long arrivalTimestamp;
     private final long feePerByte;
@@ -86,7 +86,7 @@ public class UnconfirmedTransaction implements Transaction {
             pstmt.setInt(++i, transaction.getHeight());
             pstmt.setLong(++i, feePerByte);
             pstmt.setInt(++i, transaction.getExpiration());
-            pstmt.setBytes(++i, transaction.getBytes());
+            pstmt.setBytes(++i, transaction.bytes());
             JSONObject prunableJSON = transaction.getPrunableAttachmentJSON();
             if (prunableJSON != null) {
                 pstmt.setString(++i, prunableJSON.toJSONString());
@@ -94,11 +94,18 @@ public class UnconfirmedTransaction implements Transaction {
                 pstmt.setNull(++i, Types.VARCHAR);
             }
             pstmt.setLong(++i, arrivalTimestamp);
-            pstmt.setInt(++i, blockchain.getHeight());
+            pstmt.setInt(++i, lookupBlockchain().getHeight());
             pstmt.executeUpdate();
         }
     }
 
+    private static Blockchain lookupBlockchain() {
+        if (blockchain == null) {
+            blockchain = CDI.current().select(BlockchainImpl.class).get();
+        }
+        return blockchain;
+    }
+
     public Transaction getTransaction() {
         return transaction;
     }
@@ -278,6 +285,11 @@ public class UnconfirmedTransaction implements Transaction {
         return transaction.getBytes();
     }
 
+    @Override
+    public byte[] bytes() {
+        return transaction.bytes();
+    }
+
     @Override
     public byte[] getUnsignedBytes() {
         return transaction.getUnsignedBytes();
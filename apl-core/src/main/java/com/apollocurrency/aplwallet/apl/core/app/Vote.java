@@ -33,6 +33,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Set;
 
 @Slf4j
 public final class Vote {
@@ -64,7 +65,7 @@ public final class Vote {
 //                 DbIterator<Poll> polls = Poll.getPollsFinishingAtOrBefore(height, 0, Integer.MAX_VALUE);
                  DbIterator<Poll> polls = Poll.getPollsFinishingBelowHeight(height, 0, Integer.MAX_VALUE);
                  PreparedStatement pstmt = con.prepareStatement("DELETE FROM vote WHERE poll_id = ?")) {
-                commonTrim(height, false, polls, pstmt);
+                addTrimmedRows(commonTrim(height, false, polls, pstmt));
             } catch (SQLException e) {
                 throw new RuntimeException(e.toString(), e);
             }
@@ -79,7 +80,7 @@ public final class Vote {
                      // select all polls below or equal height value ('snapshot block' in our case)
                      DbIterator<Poll> polls = Poll.getPollsFinishingBelowHeight(height, 0, Integer.MAX_VALUE);
                      PreparedStatement pstmt = con.prepareStatement("DELETE FROM vote WHERE poll_id = ?")) {
-                    commonTrim(height, true, polls, pstmt);
+                    addTrimmedRows(commonTrim(height, true, polls, pstmt));
                 } catch (SQLException e) {
                     throw new RuntimeException(e.toString(), e);
                 }
@@ -88,6 +89,11 @@ public final class Vote {
                 this.trim(height);
             }
         }
+
+        @Override
+        public Set<String> getTrimDependentTables() {
+            return Set.of("poll");
+        }
     };
     private final long id;
     private final DbKey dbKey;
@@ -120,7 +126,7 @@ public final class Vote {
         this.voteBytes = voteBytes;
     }
 
-    private static void commonTrim(int height, boolean isSharding, DbIterator<Poll> polls, PreparedStatement pstmt) throws SQLException {
+    private static int commonTrim(int height, boolean isSharding, DbIterator<Poll> polls, PreparedStatement pstmt) throws SQLException {
         log.trace("Vote trim common: isSharding={}, height = {}", isSharding, height);
         int index = 0; // index for affected Polls
         int totalDeletedVotes = 0; // total number deleted Vote records from all affected Polls
@@ -137,6 +143,7 @@ public final class Vote {
         }
         log.trace("Vote trim common: REMOVED totally [{}] votes within [{}] polls at height = {} (isSharding={})",
             totalDeletedVotes, index, height, isSharding);
+        return totalDeletedVotes;
     }
 
     public static int getCount() {
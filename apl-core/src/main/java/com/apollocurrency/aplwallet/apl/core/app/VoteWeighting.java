@@ -20,6 +20,9 @@
 
 package com.apollocurrency.aplwallet.apl.core.app;
 
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.account.model.AccountAsset;
+import com.apollocurrency.aplwallet.apl.core.account.model.AccountCurrency;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetService;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetServiceImpl;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountCurrencyService;
@@ -31,6 +34,9 @@ import com.apollocurrency.aplwallet.apl.core.monetary.Currency;
 import com.apollocurrency.aplwallet.apl.util.AplException;
 
 import javax.enterprise.inject.spi.CDI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public final class VoteWeighting {
 
@@ -140,6 +146,16 @@ public final class VoteWeighting {
         }
     }
 
+    private static Map<Long, Long> balanceWeights(VoteWeighting voteWeighting, Map<Long, Long> balances) {
+        Map<Long, Long> weights = new HashMap<>();
+        balances.forEach((voterId, balance) -> {
+            if (balance >= voteWeighting.minBalance) {
+                weights.put(voterId, balance);
+            }
+        });
+        return weights;
+    }
+
     public boolean isBalanceIndependent() {
         return (votingModel == VotingModel.ACCOUNT && minBalance == 0) || !votingModel.acceptsVotes() || votingModel == VotingModel.HASH;
     }
@@ -204,6 +220,19 @@ public final class VoteWeighting {
                 return (voteWeighting.minBalance == 0 || voteWeighting.minBalanceModel.getBalance(voteWeighting, voterId, height) >= voteWeighting.minBalance) ? 1 : 0;
             }
 
+            @Override
+            public final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, List<Long> voterIds, int height) {
+                if (voteWeighting.minBalance == 0) {
+                    return super.calcWeights(voteWeighting, voterIds, height);
+                }
+                Map<Long, Long> balances = voteWeighting.minBalanceModel.getBalances(voteWeighting, voterIds, height);
+                Map<Long, Long> weights = new HashMap<>();
+                for (Long voterId : voterIds) {
+                    weights.put(voterId, balances.getOrDefault(voterId, 0L) >= voteWeighting.minBalance ? 1L : 0L);
+                }
+                return weights;
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.NONE;
@@ -216,6 +245,11 @@ public final class VoteWeighting {
                 return atmBalance >= voteWeighting.minBalance ? atmBalance : 0;
             }
 
+            @Override
+            public final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, List<Long> voterIds, int height) {
+                return balanceWeights(voteWeighting, MinBalanceModel.ATM.getBalances(voteWeighting, voterIds, height));
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.ATM;
@@ -228,6 +262,11 @@ public final class VoteWeighting {
                 return atuBalance >= voteWeighting.minBalance ? atuBalance : 0;
             }
 
+            @Override
+            public final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, List<Long> voterIds, int height) {
+                return balanceWeights(voteWeighting, MinBalanceModel.ASSET.getBalances(voteWeighting, voterIds, height));
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.ASSET;
@@ -240,6 +279,11 @@ public final class VoteWeighting {
                 return units >= voteWeighting.minBalance ? units : 0;
             }
 
+            @Override
+            public final Map<Long, Long> calcWeights(VoteWeighting voteWeighting, List<Long> voterIds, int height) {
+                return balanceWeights(voteWeighting, MinBalanceModel.CURRENCY.getBalances(voteWeighting, voterIds, height));
+            }
+
             @Override
             public final MinBalanceModel getMinBalanceModel() {
                 return MinBalanceModel.CURRENCY;
@@ -294,6 +338,20 @@ public final class VoteWeighting {
 
         public abstract long calcWeight(VoteWeighting voteWeighting, long voterId, int height);
 
+        /**
+         * Bulk version of the {@link #calcWeight(VoteWeighting, long, int)}, which selects balances of many voters by
+         * one query instead of a query per voter
+         *
+         * @return weights of the voters, voters with zero weight may be absent
+         */
+        public Map<Long, Long> calcWeights(VoteWeighting voteWeighting, List<Long> voterIds, int height) {
+            Map<Long, Long> weights = new HashMap<>();
+            for (Long voterId : voterIds) {
+                weights.put(voterId, calcWeight(voteWeighting, voterId, height));
+            }
+            return weights;
+        }
+
         public abstract MinBalanceModel getMinBalanceModel();
 
         public boolean acceptsVotes() {
@@ -307,24 +365,50 @@ public final class VoteWeighting {
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 throw new UnsupportedOperationException();
             }
+
+            @Override
+            protected final void loadBalances(VoteWeighting voteWeighting, List<Long> voterIds, int height, Map<Long, Long> balances) {
+                throw new UnsupportedOperationException();
+            }
         },
         ATM(1) {
             @Override
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 return lookupAccountService().getAccount(voterId, height).getBalanceATM();
             }
+
+            @Override
+            protected final void loadBalances(VoteWeighting voteWeighting, List<Long> voterIds, int height, Map<Long, Long> balances) {
+                for (Account account : lookupAccountService().getAccounts(voterIds, height)) {
+                    balances.put(account.getId(), account.getBalanceATM());
+                }
+            }
         },
         ASSET(2) {
             @Override
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 return lookupAccountAssetService().getAssetBalanceATU(voterId, voteWeighting.holdingId, height);
             }
+
+            @Override
+            protected final void loadBalances(VoteWeighting voteWeighting, List<Long> voterIds, int height, Map<Long, Long> balances) {
+                for (AccountAsset accountAsset : lookupAccountAssetService().getAssetsByAccounts(voterIds, voteWeighting.holdingId, height)) {
+                    balances.put(accountAsset.getAccountId(), accountAsset.getQuantityATU());
+                }
+            }
         },
         CURRENCY(3) {
             @Override
             public final long getBalance(VoteWeighting voteWeighting, long voterId, int height) {
                 return lookupAccountCurrencyService().getCurrencyUnits(voterId, voteWeighting.holdingId, height);
             }
+
+            @Override
+            protected final void loadBalances(VoteWeighting voteWeighting, List<Long> voterIds, int height, Map<Long, Long> balances) {
+                for (AccountCurrency accountCurrency : lookupAccountCurrencyService().getCurrenciesByAccounts(voterIds, voteWeighting.holdingId, height)) {
+                    balances.put(accountCurrency.getAccountId(), accountCurrency.getUnits());
+                }
+            }
         };
 
         private final byte code;
@@ -347,5 +431,18 @@ public final class VoteWeighting {
         }
 
         public abstract long getBalance(VoteWeighting voteWeighting, long voterId, int height);
+
+        /**
+         * Bulk version of the {@link #getBalance(VoteWeighting, long, int)}
+         *
+         * @return balances of the voters, voters with zero balance may be absent
+         */
+        public Map<Long, Long> getBalances(VoteWeighting voteWeighting, List<Long> voterIds, int height) {
+            Map<Long, Long> balances = new HashMap<>();
+            loadBalances(voteWeighting, voterIds, height, balances);
+            return balances;
+        }
+
+        protected abstract void loadBalances(VoteWeighting voteWeighting, List<Long> voterIds, int height, Map<Long, Long> balances);
     }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app.observer;
+
+import com.apollocurrency.aplwallet.apl.core.db.BlockDaoImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.DbHotSwapConfig;
+import com.apollocurrency.aplwallet.apl.core.shard.MigrateState;
+import com.apollocurrency.aplwallet.apl.core.shard.observer.events.ShardChangeStateEvent;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Drops cached blocks when main db is swapped or its block data was moved into the shard.
+ * Kept separately from {@link BlockDaoImpl}, because observer methods on the intercepted dao can not be proxied by Weld
+ */
+@Singleton
+public class BlockCacheObserver {
+    private final BlockDaoImpl blockDao;
+
+    @Inject
+    public BlockCacheObserver(BlockDaoImpl blockDao) {
+        this.blockDao = blockDao;
+    }
+
+    public void onDbHotSwapBegin(@Observes DbHotSwapConfig dbHotSwapConfig) {
+        blockDao.clearBlockCache();
+    }
+
+    public void onShardDataRemovedFromMain(@Observes @ShardChangeStateEvent(MigrateState.DATA_REMOVED_FROM_MAIN) MigrateState state) {
+        blockDao.clearBlockCache();
+    }
+}
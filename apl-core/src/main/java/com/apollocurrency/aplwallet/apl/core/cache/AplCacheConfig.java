@@ -28,6 +28,8 @@ public class AplCacheConfig implements InMemoryCacheConfigurator {
         this.cacheConfigurations = new CacheConfiguration[]{
             new PublicKeyCacheConfig(60),
             new BlockIndexCacheConfig(60),
+            new BlockCacheConfig(30),
+            new BlockHeightCacheConfig(5),
             new DexOrderFreezingCacheConfig(15, orderFreezingCacheLoader)
         };
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+import static com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager.MemoryUsageCalculator.LONG_SIZE;
+
+public class BlockCacheConfig extends CacheConfigurator {
+
+    public static final String BLOCK_CACHE_NAME = "BLOCK_CACHE";
+    /**
+     * Expected size of the block transactions, which are cached together with block after first loading
+     */
+    private static final int AVERAGE_BLOCK_TRANSACTIONS_SIZE = 2048;
+
+    public BlockCacheConfig(int priority) {
+        super(BLOCK_CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addLongPrimitive() // blockId key
+                .addInt() //version
+                .addInt() //timestamp
+                .addLongPrimitive() //previousBlockId
+                .addLongPrimitive() //totalAmountATM
+                .addLongPrimitive() //totalFeeATM
+                .addInt() //payloadLength
+                .addArrayExtra(32) //payloadHash
+                .addArrayExtra(32) //generatorPublicKey
+                .addArrayExtra(32) //generationSignature
+                .addArrayExtra(64) //blockSignature
+                .addArrayExtra(32) //previousBlockHash
+                .addAggregation(4 * LONG_SIZE) //cumulativeDifficulty
+                .addLongPrimitive() //baseTarget
+                .addLongPrimitive() //nextBlockId
+                .addInt() //height
+                .addLongPrimitive() //id
+                .addLongPrimitive() //generatorId
+                .addInt() //timeout
+                .addReference(AVERAGE_BLOCK_TRANSACTIONS_SIZE) //transactions
+                .calc(),
+            priority);
+    }
+}
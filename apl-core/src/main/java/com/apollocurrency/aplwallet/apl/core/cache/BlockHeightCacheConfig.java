@@ -0,0 +1,25 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.cache;
+
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+
+import static com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager.MemoryUsageCalculator.INT_SIZE;
+import static com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager.MemoryUsageCalculator.LONG_SIZE;
+
+public class BlockHeightCacheConfig extends CacheConfigurator {
+
+    public static final String BLOCK_HEIGHT_CACHE_NAME = "BLOCK_HEIGHT_CACHE";
+
+    public BlockHeightCacheConfig(int priority) {
+        super(BLOCK_HEIGHT_CACHE_NAME,
+            InMemoryCacheManager.newCalc()
+                .addAggregation(INT_SIZE) //height key
+                .addAggregation(LONG_SIZE) //blockId value
+                .calc(),
+            priority);
+    }
+}
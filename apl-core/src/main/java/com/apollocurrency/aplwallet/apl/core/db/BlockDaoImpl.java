@@ -23,11 +23,16 @@ package com.apollocurrency.aplwallet.apl.core.db;
 import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.BlockImpl;
 import com.apollocurrency.aplwallet.apl.core.app.BlockNotFoundException;
+import com.apollocurrency.aplwallet.apl.core.cache.BlockCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.cache.BlockHeightCacheConfig;
 import com.apollocurrency.aplwallet.apl.core.db.cdi.Transactional;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.google.common.cache.Cache;
 import org.slf4j.Logger;
 
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.math.BigInteger;
@@ -44,35 +49,156 @@ import java.util.Set;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Block DAO with the bounded cache of the blocks stored in the main db.
+ * <p>
+ * Cached blocks keep their transactions after {@link Block#getOrLoadTransactions()}, so the block cache
+ * works also as a cache of the recent block transactions. To stay consistent on forks the cache is filled only
+ * with the committed data: blocks, which were read inside the db transaction, are not cached and every
+ * block deletion invalidates cached blocks immediately and once again after transaction commit/rollback.
+ * Blocks, loaded by a concurrent reader before invalidation, are not cached thanks to the cache generation check.
+ * Cached blocks are never returned to the callers, callers get copies, which share transactions with the cached block.
+ */
 @Singleton
 public class BlockDaoImpl implements BlockDao {
     private static final Logger LOG = getLogger(BlockDaoImpl.class);
 
-//    @Inject
-//    @CacheProducer
-//    @CacheType(PUBLIC_KEY_CACHE_NAME)
-//    private Cache<Long, BlockIndex> publicKeyCache;
-
     private final DatabaseManager databaseManager;
+    private final Cache<Long, Block> blockCache;
+    private final Cache<Integer, Long> blockHeightCache;
+    private final Object cacheLock = new Object();
+    private volatile long cacheGeneration;
 
     @Inject
+    public BlockDaoImpl(DatabaseManager databaseManager, Instance<InMemoryCacheManager> cacheManagerInstance) {
+        this(databaseManager, cacheManagerInstance.isResolvable() ? cacheManagerInstance.get() : null);
+    }
+
     public BlockDaoImpl(DatabaseManager databaseManager) {
-        // this.blockCacheSize = blockCacheSize;
+        this(databaseManager, (InMemoryCacheManager) null);
+    }
+
+    public BlockDaoImpl(DatabaseManager databaseManager, InMemoryCacheManager cacheManager) {
         this.databaseManager = Objects.requireNonNull(databaseManager, "DatabaseManager cannot be null");
+        if (cacheManager != null) {
+            this.blockCache = cacheManager.acquireCache(BlockCacheConfig.BLOCK_CACHE_NAME);
+            this.blockHeightCache = cacheManager.acquireCache(BlockHeightCacheConfig.BLOCK_HEIGHT_CACHE_NAME);
+        } else {
+            this.blockCache = null;
+            this.blockHeightCache = null;
+        }
+        LOG.debug("Block cache is {}", isCacheEnabled() ? "TURNED ON" : "TURNED OFF");
+    }
+
+    private boolean isCacheEnabled() {
+        return blockCache != null && blockHeightCache != null;
+    }
+
+    /**
+     * Drop all cached blocks, should be called when underlying datasource is changed
+     */
+    public void clearBlockCache() {
+        if (isCacheEnabled()) {
+            synchronized (cacheLock) {
+                cacheGeneration++;
+                blockCache.invalidateAll();
+                blockHeightCache.invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Remove from cache all blocks starting from the given height
+     */
+    private void invalidateBlockCache(int fromHeight) {
+        if (isCacheEnabled()) {
+            synchronized (cacheLock) {
+                cacheGeneration++;
+                blockCache.asMap().values().removeIf(block -> block.getHeight() >= fromHeight);
+                blockHeightCache.asMap().keySet().removeIf(height -> height >= fromHeight);
+            }
+        }
+    }
+
+    private void invalidateCachedBlock(long blockId) {
+        if (isCacheEnabled()) {
+            synchronized (cacheLock) {
+                cacheGeneration++;
+                blockCache.invalidate(blockId);
+            }
+        }
+    }
+
+    /**
+     * Repeat invalidation after the end of the current db transaction to drop blocks,
+     * which were cached by concurrent readers before the transaction was committed or rolled back
+     */
+    private void invalidateOnTransactionEnd(TransactionalDataSource dataSource, Runnable invalidation) {
+        if (isCacheEnabled() && dataSource.isInTransaction()) {
+            dataSource.registerCallback(new TransactionCallback() {
+                @Override
+                public void commit() {
+                    invalidation.run();
+                }
+
+                @Override
+                public void rollback() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private boolean isCacheable(TransactionalDataSource dataSource) {
+        return isCacheEnabled() && dataSource == databaseManager.getDataSource();
     }
 
-    private void clearBlockCache() {
-//        synchronized (blockCache) {
-//            blockCache.clear();
-//            heightMap.clear();
-//            transactionCache.clear();
-//        }
+    /**
+     * @return copy of the block, when block was cached, so that the cached block is not changed by the caller,
+     * or the same block otherwise
+     */
+    private Block cacheBlock(Block block, TransactionalDataSource dataSource, long generation) {
+        if (block != null && isCacheable(dataSource) && !dataSource.isInTransaction()) {
+            synchronized (cacheLock) {
+                if (generation == cacheGeneration) {
+                    blockCache.put(block.getId(), block);
+                    blockHeightCache.put(block.getHeight(), block.getId());
+                    return copyOf(block);
+                }
+            }
+        }
+        return block;
+    }
+
+    private Block copyOf(Block cachedBlock) {
+        return cachedBlock == null ? null : new BlockImpl((BlockImpl) cachedBlock);
+    }
+
+    private Block getCachedBlock(long blockId, TransactionalDataSource dataSource) {
+        return isCacheable(dataSource) ? blockCache.getIfPresent(blockId) : null;
+    }
+
+    private Block getCachedBlockAtHeight(int height, TransactionalDataSource dataSource) {
+        if (!isCacheable(dataSource)) {
+            return null;
+        }
+        Long blockId = blockHeightCache.getIfPresent(height);
+        if (blockId == null) {
+            return null;
+        }
+        Block block = blockCache.getIfPresent(blockId);
+        return block != null && block.getHeight() == height ? block : null;
     }
 
     @Transactional(readOnly = true)
     @Override
     public Block findBlock(long blockId, TransactionalDataSource dataSource) {
         // Check the block cache
+        Block cachedBlock = getCachedBlock(blockId, dataSource);
+        if (cachedBlock != null) {
+            return copyOf(cachedBlock);
+        }
+        long generation = cacheGeneration;
         // Search the database
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT * FROM block WHERE id = ?")) {
@@ -82,7 +208,7 @@ public class BlockDaoImpl implements BlockDao {
                 if (rs.next()) {
                     block = loadBlock(con, rs);
                 }
-                return block;
+                return cacheBlock(block, dataSource, generation);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
@@ -116,6 +242,10 @@ public class BlockDaoImpl implements BlockDao {
     @Override
     public boolean hasBlock(long blockId, int height, TransactionalDataSource dataSource) {
         // Check the block cache
+        Block cachedBlock = getCachedBlock(blockId, dataSource);
+        if (cachedBlock != null) {
+            return cachedBlock.getHeight() <= height;
+        }
         // Search the database
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement(
@@ -133,6 +263,10 @@ public class BlockDaoImpl implements BlockDao {
     @Override
     public long findBlockIdAtHeight(int height, TransactionalDataSource dataSource) {
         // Check the cache
+        Block cachedBlock = getCachedBlockAtHeight(height, dataSource);
+        if (cachedBlock != null) {
+            return cachedBlock.getId();
+        }
         // Search the database
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT id FROM block WHERE height = ?")) {
@@ -152,6 +286,11 @@ public class BlockDaoImpl implements BlockDao {
     @Override
     public Block findBlockAtHeight(int height, TransactionalDataSource dataSource) {
         // Check the cache
+        Block cachedBlock = getCachedBlockAtHeight(height, dataSource);
+        if (cachedBlock != null) {
+            return copyOf(cachedBlock);
+        }
+        long generation = cacheGeneration;
         // Search the database
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT * FROM block WHERE height = ?")) {
@@ -163,7 +302,7 @@ public class BlockDaoImpl implements BlockDao {
                 } else {
                     throw new BlockNotFoundException("Block at height " + height + " not found in database!");
                 }
-                return block;
+                return cacheBlock(block, dataSource, generation);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
@@ -495,14 +634,10 @@ public class BlockDaoImpl implements BlockDao {
                     pstmt.setLong(2, block.getPreviousBlockId());
                     pstmt.executeUpdate();
                 }
-//                Update next block id for cached block
-//                Block previousBlock;
-//                synchronized (blockCache) {
-//                    previousBlock = blockCache.get(block.getPreviousBlockId());
-//                }
-//                if (previousBlock != null) {
-//                    previousBlock.setNextBlockId(block.getId());
-//                }
+                // cached previous block has outdated next block id
+                long previousBlockId = block.getPreviousBlockId();
+                invalidateCachedBlock(previousBlockId);
+                invalidateOnTransactionEnd(databaseManager.getDataSource(), () -> invalidateCachedBlock(previousBlockId));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
@@ -588,6 +723,10 @@ public class BlockDaoImpl implements BlockDao {
                     }
                 }
                 Block lastBlock = findLastBlock();
+                // deleted blocks and the new last block with updated next_block_id
+                int invalidationHeight = lastBlock == null ? 0 : lastBlock.getHeight();
+                invalidateBlockCache(invalidationHeight);
+                invalidateOnTransactionEnd(dataSource, () -> invalidateBlockCache(invalidationHeight));
                 if (lastBlock == null) {
                     // should never happen, but possible in rare error cases
                     LOG.warn("Block was not found in 'main db' by blockId = {}", blockId);
@@ -606,9 +745,8 @@ public class BlockDaoImpl implements BlockDao {
                 throw e;
             }
         } catch (SQLException e) {
+            clearBlockCache();
             throw new RuntimeException(e.toString(), e);
-        } finally {
-//            clearBlockCache();
         }
     }
 
@@ -632,6 +770,8 @@ public class BlockDaoImpl implements BlockDao {
             try {
                 stmt.executeUpdate("TRUNCATE TABLE transaction");
                 stmt.executeUpdate("TRUNCATE TABLE block");
+                clearBlockCache();
+                invalidateOnTransactionEnd(dataSource, this::clearBlockCache);
                 LOG.debug("DONE Deleting blockchain...");
             } catch (SQLException e) {
                 dataSource.rollback(false);
@@ -11,8 +11,7 @@ import com.apollocurrency.aplwallet.apl.util.StringValidator;
 import com.apollocurrency.aplwallet.apl.util.ThreadUtils;
 import com.apollocurrency.aplwallet.apl.util.injectable.DbProperties;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.RemovalListener;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import org.jdbi.v3.core.Jdbi;
 import org.slf4j.Logger;
 
@@ -28,12 +27,13 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.slf4j.LoggerFactory.getLogger;
@@ -45,50 +45,20 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Singleton
 public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
     private static final Logger log = getLogger(DatabaseManagerImpl.class);
-    private final Object lock = new Object(); // required to sync creation of shard datasources
+    private final Object lock = new Object(); // required to sync creation, pinning and closing of shard datasources
     private DbProperties baseDbProperties; // main database properties
     private PropertiesHolder propertiesHolder;
     private volatile TransactionalDataSource currentTransactionalDataSource; // main/shard database
     /**
-     * Listener to close + remove evicted shard data source
+     * Opened shard data sources (secondary shards) with size limit and idle eviction
      */
-    private RemovalListener<Long, TransactionalDataSource> listener = dataSource -> {
-        if (dataSource.wasEvicted()) {
-            String cause = dataSource.getCause().name();
-            log.debug("Evicted DS, shutdown shardId = '{}', cause = {}", dataSource.getKey(), cause);
-            dataSource.getValue().shutdown();
-        }
-    };
-    private Map<Long, TransactionalDataSource> connectedShardDataSourceMap = new ConcurrentHashMap<>(); // secondary shards
-    /**
-     * Cached shard data sources with timed eviction policy
-     */
-/*
-    private LoadingCache<Long, TransactionalDataSource> connectedShardDataSourceMap = CacheBuilder.newBuilder()
-            .maximumSize(MAX_CACHED_SHARDS_NUMBER) // 6 by default
-            .expireAfterAccess(SHARD_EVICTION_TIME, TimeUnit.MINUTES) // 15 minutes
-            .weakKeys()
-            .removalListener(listener)
-            .build(loader);
-*/
+    private ShardDataSourcePool connectedShardDataSourcePool;
+    private ScheduledExecutorService shardEvictionExecutor; // started with the first opened shard
 
     private Jdbi jdbi;
     private JdbiHandleFactory jdbiHandleFactory;
     private Set<Long> fullShardIds = new CopyOnWriteArraySet<>(); // store full shard ids
     private boolean available; // required for db hot swap
-    /**
-     * Shard data sources cache loader
-     */
-    private CacheLoader<Long, TransactionalDataSource> loader = new CacheLoader<>() {
-        public TransactionalDataSource load(Long shardId) throws CacheLoader.InvalidCacheLoadException {
-            log.debug("Put DS shardId = '{}' into cache...", shardId);
-            TransactionalDataSource dataSource = createAndAddShard(shardId);
-            if (dataSource == null) {
-                throw new CacheLoader.InvalidCacheLoadException("Value can't be null");
-            }
-            return dataSource;
-        }
-    };
 
     /**
      * Create main db instance with db properties, all other properties injected by CDI
@@ -101,6 +71,9 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
         this.baseDbProperties = Objects.requireNonNull(dbProperties, "Db Properties is NULL");
         this.propertiesHolder = Objects.requireNonNull(propertiesHolderParam, "Properties holder is NULL");
         this.jdbiHandleFactory = Objects.requireNonNull(jdbiHandleFactory, "jdbiHandleFactory is NULL");
+        this.connectedShardDataSourcePool = new ShardDataSourcePool(
+            propertiesHolder.getIntProperty("apl.maxOpenShards", (int) MAX_CACHED_SHARDS_NUMBER),
+            TimeUnit.MINUTES.toMillis(propertiesHolder.getIntProperty("apl.shardIdleTimeout", (int) SHARD_EVICTION_TIME)));
         initDatasource();
         this.available = true;
     }
@@ -169,96 +142,153 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
         return result;
     }
 
-    private TransactionalDataSource createAndAddShard(Long shardId) {
-        long start = System.currentTimeMillis();
-        waitAvailability();
-        ShardDataSourceCreateHelper shardDataSourceCreateHelper =
-            new ShardDataSourceCreateHelper(this, shardId).createUninitializedDataSource();
-        TransactionalDataSource shardDb = shardDataSourceCreateHelper.getShardDb();
-        shardDb.init(new ShardInitTableSchemaVersion());
-        connectedShardDataSourceMap.put(shardDataSourceCreateHelper.getShardId(), shardDb);
-        log.debug("new SHARD '{}' is CREATED in {} ms", shardDataSourceCreateHelper.getShardName(), System.currentTimeMillis() - start);
-        return shardDb;
-    }
-
     /**
      * {@inheritDoc}
      */
     @Override
     public TransactionalDataSource createOrUpdateShard(Long shardId, DbVersion dbVersion) {
+        return createOrUpdateShard(shardId, dbVersion, false);
+    }
+
+    /**
+     * @param evictable false for the shard under creation, which is pinned in the pool until it is added as full shard
+     */
+    private TransactionalDataSource createOrUpdateShard(Long shardId, DbVersion dbVersion, boolean evictable) {
         Objects.requireNonNull(dbVersion, "dbVersion is null");
         long start = System.currentTimeMillis();
         waitAvailability();
-//        if (connectedShardDataSourceMap.getIfPresent(shardId) == null) {
-//            TransactionalDataSource dataSource = connectedShardDataSourceMap.getUnchecked(shardId);
-        if (connectedShardDataSourceMap.containsKey(shardId)) {
-            TransactionalDataSource dataSource = connectedShardDataSourceMap.get(shardId);
-            dataSource.update(dbVersion);
-            log.debug("Init existing SHARD using db version'{}' in {} ms", dbVersion, System.currentTimeMillis() - start);
-            return dataSource;
-        } else {
-            return createShardDatasource(shardId, dbVersion);
+        synchronized (lock) {
+            TransactionalDataSource dataSource = shardId == null ? null : connectedShardDataSourcePool.get(shardId);
+            if (dataSource != null) {
+                dataSource.update(dbVersion);
+                if (!evictable) {
+                    connectedShardDataSourcePool.pin(shardId);
+                }
+                log.debug("Init existing SHARD using db version'{}' in {} ms", dbVersion, System.currentTimeMillis() - start);
+                return dataSource;
+            } else {
+                return createShardDatasource(shardId, dbVersion, evictable);
+            }
         }
     }
 
-    private TransactionalDataSource createShardDatasource(Long shardId, DbVersion dbVersion) {
+    private TransactionalDataSource createShardDatasource(Long shardId, DbVersion dbVersion, boolean evictable) {
         long start = System.currentTimeMillis();
         waitAvailability();
         ShardDataSourceCreateHelper shardDataSourceCreateHelper =
             new ShardDataSourceCreateHelper(this, shardId).createUninitializedDataSource();
         TransactionalDataSource shardDb = shardDataSourceCreateHelper.getShardDb();
         shardDb.init(dbVersion);
-        connectedShardDataSourceMap.put(shardId, shardDb);
+        closeEvicted(connectedShardDataSourcePool.put(shardDataSourceCreateHelper.getShardId(), shardDb, evictable), "limit");
+        startShardEviction();
         log.debug("new SHARD datasource'{}' is ADDED in {} ms", shardDataSourceCreateHelper.getShardName(), System.currentTimeMillis() - start);
         return shardDb;
     }
 
+    private void startShardEviction() {
+        if (shardEvictionExecutor == null) {
+            shardEvictionExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("ShardDataSourceEviction", true));
+            long period = Math.max(1, Math.min(connectedShardDataSourcePool.getIdleTimeout(), TimeUnit.MINUTES.toMillis(1)));
+            shardEvictionExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    closeEvicted(connectedShardDataSourcePool.evictIdle(), "idle timeout");
+                } catch (RuntimeException e) {
+                    log.error("Unable to close idle shard data sources", e);
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void closeEvicted(List<TransactionalDataSource> evicted, String cause) {
+        for (TransactionalDataSource dataSource : evicted) {
+            log.debug("Evicted DS, shutdown '{}', cause = {}", dataSource.getUrl(), cause);
+            dataSource.shutdown();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized List<TransactionalDataSource> getAllFullDataSources(Long numberOfShards) {
-        List<TransactionalDataSource> dataSources;
-        if (numberOfShards != null) {
-            dataSources = fullShardIds.stream().limit(numberOfShards).sorted(
-                Comparator.reverseOrder()).map(id -> getOrCreateShardDataSourceById(
-                id, new ShardAddConstraintsSchemaVersion())).collect(Collectors.toList());
-        } else {
-            fullShardIds = findAllFullShardId();
-            dataSources = fullShardIds.stream().sorted(
-                Comparator.reverseOrder()).map(id -> getOrCreateShardDataSourceById(
-                id, new ShardAddConstraintsSchemaVersion())).collect(Collectors.toList());
+    public List<TransactionalDataSource> getAllFullDataSources(Long numberOfShards) {
+        synchronized (lock) {
+            List<TransactionalDataSource> dataSources;
+            if (numberOfShards != null) {
+                dataSources = fullShardIds.stream().limit(numberOfShards).sorted(
+                    Comparator.reverseOrder()).map(this::pinFullShardDataSource).collect(Collectors.toList());
+            } else {
+                fullShardIds = findAllFullShardId();
+                dataSources = fullShardIds.stream().sorted(
+                    Comparator.reverseOrder()).map(this::pinFullShardDataSource).collect(Collectors.toList());
+            }
+            return dataSources;
         }
-        return dataSources;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Iterator<TransactionalDataSource> getAllFullDataSourcesIterator() {
+    public ShardDataSourceIterator getAllFullDataSourcesIterator() {
+        return fullDataSourcesIterator(findAllFullShardId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ShardDataSourceIterator getFullDataSourcesIterator(Collection<Long> shardIds) {
         Set<Long> allFullShards = findAllFullShardId();
-        Iterator<TransactionalDataSource> dataSourcesIterator = allFullShards.stream().sorted(
-            Comparator.reverseOrder()).map(id -> getOrCreateShardDataSourceById(
-            id, new ShardAddConstraintsSchemaVersion())).iterator();
-        return dataSourcesIterator;
+        return fullDataSourcesIterator(shardIds.stream().filter(allFullShards::contains).collect(Collectors.toSet()));
+    }
+
+    private ShardDataSourceIterator fullDataSourcesIterator(Set<Long> fullShards) {
+        Iterator<Long> shardIds = fullShards.stream().sorted(Comparator.reverseOrder()).iterator();
+        return new ShardDataSourceIterator(shardIds, this::leaseFullShardDataSource, connectedShardDataSourcePool::release);
+    }
+
+    private TransactionalDataSource leaseFullShardDataSource(long shardId) {
+        synchronized (lock) {
+            getOrCreateShardDataSourceById(shardId, new ShardAddConstraintsSchemaVersion());
+            return connectedShardDataSourcePool.lease(shardId);
+        }
+    }
+
+    private TransactionalDataSource pinFullShardDataSource(long shardId) {
+        synchronized (lock) {
+            getOrCreateShardDataSourceById(shardId, new ShardAddConstraintsSchemaVersion());
+            return connectedShardDataSourcePool.pin(shardId);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ShardDataSourcePoolStats getShardDataSourcePoolStats() {
+        return connectedShardDataSourcePool.getStats();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized long closeAllShardDataSources() {
-        log.debug("Prepare closing [{}] shard data source(s)", connectedShardDataSourceMap.size());
+    public long closeAllShardDataSources() {
+        List<TransactionalDataSource> dataSources;
+        synchronized (lock) {
+            if (shardEvictionExecutor != null) {
+                shardEvictionExecutor.shutdownNow();
+                shardEvictionExecutor = null;
+            }
+            dataSources = connectedShardDataSourcePool.removeAll();
+        }
+        log.debug("Prepare closing [{}] shard data source(s)", dataSources.size());
         long closedDataSources = 0;
-//        for (TransactionalDataSource dataSource : connectedShardDataSourceMap.asMap().values()) {
-        for (TransactionalDataSource dataSource : connectedShardDataSourceMap.values()) {
+        for (TransactionalDataSource dataSource : dataSources) {
             dataSource.shutdown();
             closedDataSources++;
         }
         log.debug("Closed [{}] data source(s)", closedDataSources);
-//        connectedShardDataSourceMap.invalidateAll();
-        connectedShardDataSourceMap.clear();
         return closedDataSources;
     }
 
@@ -278,7 +308,8 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
 
         TransactionalDataSource temporaryDataSource = new TransactionalDataSource(shardDbProperties, propertiesHolder);
         temporaryDataSource.init(new AplDbVersion());
-        connectedShardDataSourceMap.put(TEMP_DB_IDENTITY, temporaryDataSource); // put temporary DS with special ID
+        // put temporary DS with special ID, it can not be reopened by id, so never evicted
+        closeEvicted(connectedShardDataSourcePool.put(TEMP_DB_IDENTITY, temporaryDataSource, false), "limit");
         log.debug("new temporaryDataSource '{}' is CREATED in {} ms", temporaryDatabaseName, System.currentTimeMillis() - start);
         return temporaryDataSource;
     }
@@ -286,8 +317,7 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
     @Override
     public /*synchronized*/ TransactionalDataSource getShardDataSourceById(long shardId) {
         waitAvailability();
-//        return connectedShardDataSourceMap.getUnchecked(shardId);
-        return connectedShardDataSourceMap.get(shardId);
+        return connectedShardDataSourcePool.get(shardId);
     }
 
     @Override
@@ -298,14 +328,18 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
 
     @Override
     public void addFullShard(Long shard) {
-        fullShardIds.add(shard);
+        synchronized (lock) {
+            fullShardIds.add(shard);
+            // shard is completely created and may be evicted now
+            connectedShardDataSourcePool.unpin(shard);
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized TransactionalDataSource getOrCreateShardDataSourceById(Long shardId) {
+    public TransactionalDataSource getOrCreateShardDataSourceById(Long shardId) {
 /*
         if (shardId != null && connectedShardDataSourceMap.containsKey(shardId)) {
             return connectedShardDataSourceMap.get(shardId);
@@ -322,12 +356,11 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
     @Override
     public TransactionalDataSource getOrCreateShardDataSourceById(Long shardId, DbVersion dbVersion) {
         Objects.requireNonNull(dbVersion, "dbVersion is null");
-//        if (shardId != null && connectedShardDataSourceMap.getIfPresent(shardId) == null) {
-//            return connectedShardDataSourceMap.getUnchecked(shardId);
-        if (shardId != null && connectedShardDataSourceMap.containsKey(shardId)) {
-            return connectedShardDataSourceMap.get(shardId);
+        TransactionalDataSource dataSource = shardId == null ? null : connectedShardDataSourcePool.get(shardId);
+        if (dataSource != null) {
+            return dataSource;
         } else {
-            return createOrUpdateShard(shardId, dbVersion);
+            return createOrUpdateShard(shardId, dbVersion, true);
         }
     }
 
@@ -384,7 +417,7 @@ public class DatabaseManagerImpl implements ShardManagement, DatabaseManager {
         return "DatabaseManager{" + "baseDbProperties=" + baseDbProperties +
             ", propertiesHolder=" + propertiesHolder +
             ", currentTransactionalDataSource=" + currentTransactionalDataSource +
-            ", connectedShardDataSourceMap=" + connectedShardDataSourceMap.size() +
+            ", connectedShardDataSourcePool=" + connectedShardDataSourcePool.size() +
             '}';
     }
 
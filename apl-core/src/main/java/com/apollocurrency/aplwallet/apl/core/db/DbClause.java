@@ -23,6 +23,8 @@ package com.apollocurrency.aplwallet.apl.core.db;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
 
 public abstract class DbClause {
 
@@ -158,6 +160,27 @@ public abstract class DbClause {
         }
     }
 
+    public static final class LongListClause extends DbClause {
+
+        private final List<Long> values;
+
+        public LongListClause(String columnName, List<Long> values) {
+            super(" " + columnName + " IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ") ");
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("At least one value is required for the " + columnName + " list");
+            }
+            this.values = values;
+        }
+
+        @Override
+        public int set(PreparedStatement pstmt, int index) throws SQLException {
+            for (Long value : values) {
+                pstmt.setLong(index++, value);
+            }
+            return index;
+        }
+    }
+
     public static final class IntClause extends DbClause {
 
         private final int value;
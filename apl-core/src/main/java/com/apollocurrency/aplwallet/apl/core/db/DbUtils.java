@@ -27,11 +27,18 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
 public final class DbUtils {
+    /**
+     * Max number of ids in the IN clause of the bulk selects
+     */
+    public static final int MAX_IN_CLAUSE_IDS = 500;
     private static final Logger log = getLogger(DbUtils.class);
 
     private DbUtils() {
@@ -187,4 +194,22 @@ public final class DbUtils {
         return index;
     }
 
+    /**
+     * Run the select by the IN clause of the given ids in chunks of at most {@link #MAX_IN_CLAUSE_IDS} ids
+     *
+     * @param ids    ids to select
+     * @param select select of the ids chunk
+     * @return joined results of all the chunks
+     */
+    public static <R> List<R> selectByChunks(List<Long> ids, Function<List<Long>, List<R>> select) {
+        if (ids.size() <= MAX_IN_CLAUSE_IDS) {
+            return select.apply(ids);
+        }
+        List<R> result = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE_IDS) {
+            result.addAll(select.apply(ids.subList(from, Math.min(ids.size(), from + MAX_IN_CLAUSE_IDS))));
+        }
+        return result;
+    }
+
 }
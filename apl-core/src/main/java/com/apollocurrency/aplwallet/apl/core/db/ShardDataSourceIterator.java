@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * Iterator over shard data sources, which leases each returned data source, so that it is not closed by the shard
+ * pool until the iterator is closed. Should be used in try-with-resources, when returned data sources are used.
+ */
+public class ShardDataSourceIterator implements Iterator<TransactionalDataSource>, AutoCloseable {
+    private final Iterator<Long> shardIds;
+    private final LongFunction<TransactionalDataSource> leaseFunction;
+    private final BiConsumer<Long, TransactionalDataSource> releaseFunction;
+    private final Map<Long, TransactionalDataSource> leased = new LinkedHashMap<>();
+
+    ShardDataSourceIterator(Iterator<Long> shardIds, LongFunction<TransactionalDataSource> leaseFunction,
+                            BiConsumer<Long, TransactionalDataSource> releaseFunction) {
+        this.shardIds = shardIds;
+        this.leaseFunction = leaseFunction;
+        this.releaseFunction = releaseFunction;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return shardIds.hasNext();
+    }
+
+    @Override
+    public TransactionalDataSource next() {
+        Long shardId = shardIds.next();
+        TransactionalDataSource dataSource = leaseFunction.apply(shardId);
+        TransactionalDataSource previous = leased.put(shardId, dataSource);
+        if (previous != null) {
+            releaseFunction.accept(shardId, previous);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Release all the data sources returned by this iterator
+     */
+    @Override
+    public void close() {
+        leased.forEach(releaseFunction);
+        leased.clear();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Pool of the opened shard data sources. Number of opened data sources is limited by maxOpenShards, when the limit
+ * is exceeded, least recently used data sources are evicted first. Data sources, which were not accessed longer than
+ * idle timeout, are evicted by {@link #evictIdle()}.</p>
+ * <p>Data source is never evicted, while it is leased or has active connections, so that the limit can be exceeded
+ * temporarily. Evicted data sources are removed from the pool and returned to the caller to be closed outside of
+ * the pool lock.</p>
+ */
+class ShardDataSourcePool {
+    private final int maxOpenShards;
+    private final long idleTimeout;
+    private final LongSupplier clock;
+    // in the access order, least recently used first
+    private final Map<Long, PooledDataSource> dataSources = new LinkedHashMap<>(16, 0.75f, true);
+    private long openedShards;
+    private long evictedShards;
+
+    ShardDataSourcePool(int maxOpenShards, long idleTimeout) {
+        this(maxOpenShards, idleTimeout, System::currentTimeMillis);
+    }
+
+    ShardDataSourcePool(int maxOpenShards, long idleTimeout, LongSupplier clock) {
+        if (maxOpenShards < 1) {
+            throw new IllegalArgumentException("Max number of open shards should be positive, got " + maxOpenShards);
+        }
+        this.maxOpenShards = maxOpenShards;
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+    }
+
+    synchronized TransactionalDataSource get(long shardId) {
+        PooledDataSource pooled = dataSources.get(shardId);
+        if (pooled == null) {
+            return null;
+        }
+        pooled.lastAccess = clock.getAsLong();
+        return pooled.dataSource;
+    }
+
+    /**
+     * Add opened data source to the pool
+     *
+     * @param evictable false for data sources, which can not be reopened by shard id and should be kept until removal
+     * @return data sources evicted to stay in the max open shards limit, which should be closed
+     */
+    synchronized List<TransactionalDataSource> put(long shardId, TransactionalDataSource dataSource, boolean evictable) {
+        List<TransactionalDataSource> evicted = new ArrayList<>();
+        PooledDataSource previous = dataSources.put(shardId, new PooledDataSource(dataSource, evictable, clock.getAsLong()));
+        if (previous != null && previous.dataSource != dataSource) {
+            evicted.add(previous.dataSource);
+        }
+        openedShards++;
+        Iterator<Map.Entry<Long, PooledDataSource>> iterator = dataSources.entrySet().iterator();
+        while (dataSources.size() > maxOpenShards && iterator.hasNext()) {
+            Map.Entry<Long, PooledDataSource> entry = iterator.next();
+            if (entry.getKey() != shardId && entry.getValue().isEvictable()) {
+                iterator.remove();
+                evicted.add(entry.getValue().dataSource);
+                evictedShards++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return leased data source, which will not be evicted until release, or null when it is not in the pool
+     */
+    synchronized TransactionalDataSource lease(long shardId) {
+        PooledDataSource pooled = dataSources.get(shardId);
+        if (pooled == null) {
+            return null;
+        }
+        pooled.leases++;
+        pooled.lastAccess = clock.getAsLong();
+        return pooled.dataSource;
+    }
+
+    /**
+     * @return data source, which will not be evicted until removal from the pool, or null when it is not in the pool
+     */
+    synchronized TransactionalDataSource pin(long shardId) {
+        PooledDataSource pooled = dataSources.get(shardId);
+        if (pooled == null) {
+            return null;
+        }
+        pooled.evictable = false;
+        pooled.lastAccess = clock.getAsLong();
+        return pooled.dataSource;
+    }
+
+    /**
+     * Make pinned data source evictable again, does nothing when it is not in the pool
+     */
+    synchronized void unpin(long shardId) {
+        PooledDataSource pooled = dataSources.get(shardId);
+        if (pooled != null) {
+            pooled.evictable = true;
+            pooled.lastAccess = clock.getAsLong();
+        }
+    }
+
+    synchronized void release(long shardId, TransactionalDataSource dataSource) {
+        PooledDataSource pooled = dataSources.get(shardId);
+        if (pooled != null && pooled.dataSource == dataSource && pooled.leases > 0) {
+            pooled.leases--;
+            pooled.lastAccess = clock.getAsLong();
+        }
+    }
+
+    /**
+     * @return data sources not accessed longer than idle timeout, which were removed from the pool and should be closed
+     */
+    synchronized List<TransactionalDataSource> evictIdle() {
+        List<TransactionalDataSource> evicted = new ArrayList<>();
+        long now = clock.getAsLong();
+        Iterator<PooledDataSource> iterator = dataSources.values().iterator();
+        while (iterator.hasNext()) {
+            PooledDataSource pooled = iterator.next();
+            if (now - pooled.lastAccess >= idleTimeout && pooled.isEvictable()) {
+                iterator.remove();
+                evicted.add(pooled.dataSource);
+                evictedShards++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return all the data sources of the pool, which were removed from the pool and should be closed
+     */
+    synchronized List<TransactionalDataSource> removeAll() {
+        List<TransactionalDataSource> removed = new ArrayList<>();
+        dataSources.values().forEach(pooled -> removed.add(pooled.dataSource));
+        dataSources.clear();
+        return removed;
+    }
+
+    long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    synchronized int size() {
+        return dataSources.size();
+    }
+
+    synchronized ShardDataSourcePoolStats getStats() {
+        int leased = 0;
+        int active = 0;
+        int idle = 0;
+        for (PooledDataSource pooled : dataSources.values()) {
+            if (pooled.leases > 0) {
+                leased++;
+            }
+            HikariPoolMXBean jmxBean = pooled.dataSource.getJmxBean();
+            if (jmxBean != null) {
+                active += jmxBean.getActiveConnections();
+                idle += jmxBean.getIdleConnections();
+            }
+        }
+        return new ShardDataSourcePoolStats(dataSources.size(), leased, maxOpenShards, active, idle, openedShards, evictedShards);
+    }
+
+    private static class PooledDataSource {
+        private final TransactionalDataSource dataSource;
+        private boolean evictable;
+        private long lastAccess;
+        private int leases;
+
+        PooledDataSource(TransactionalDataSource dataSource, boolean evictable, long lastAccess) {
+            this.dataSource = dataSource;
+            this.evictable = evictable;
+            this.lastAccess = lastAccess;
+        }
+
+        boolean isEvictable() {
+            if (!evictable || leases > 0) {
+                return false;
+            }
+            HikariPoolMXBean jmxBean = dataSource.getJmxBean();
+            return jmxBean == null || jmxBean.getActiveConnections() == 0;
+        }
+    }
+}
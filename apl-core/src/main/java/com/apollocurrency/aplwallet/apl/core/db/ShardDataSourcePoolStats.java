@@ -0,0 +1,21 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db;
+
+import lombok.Value;
+
+/**
+ * Usage of the pool of the opened shard data sources
+ */
+@Value
+public class ShardDataSourcePoolStats {
+    private int openShards;
+    private int leasedShards;
+    private int maxOpenShards;
+    private int activeConnections;
+    private int idleConnections;
+    private long openedShards; // total number of shard data sources opened by the pool
+    private long evictedShards; // total number of shard data sources closed by the limit or idle timeout
+}
@@ -25,6 +25,7 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public abstract class BasicDbTable<T> extends DerivedDbTable<T> {
     private static final Logger LOG = getLogger(BasicDbTable.class);
+    private static final int TRIM_BATCH_SIZE = 1000;
 
     protected KeyFactory<T> keyFactory;
     protected boolean multiversion;
@@ -181,37 +182,46 @@ public abstract class BasicDbTable<T> extends DerivedDbTable<T> {
             throw new IllegalStateException("Not in transaction");
         }
         long startTime = System.currentTimeMillis();
+        String keyColumns = "b." + String.join(", b.", keyFactory.getPKColumns().split(",\\s*"));
         try (Connection con = dataSource.getConnection();
-             //find acc and max_height of last written record (accounts with one record will be omitted)
-             PreparedStatement pstmtSelect = con.prepareStatement("SELECT " + keyFactory.getPKColumns() + ", MAX(height) AS max_height"
-                 + " FROM " + table + " WHERE height < ? GROUP BY " + keyFactory.getPKColumns() + " HAVING COUNT(DISTINCT height) > 1")) {
+             //find all versions of the keys up to the max_height of last written record below trim height
+             //(keys with one record will be omitted), versions of the same key go one after another
+             PreparedStatement pstmtSelect = con.prepareStatement("SELECT a.db_id, a.height" + getDeletedColumnIfSupported("a.")
+                 + ", b.max_height, " + keyColumns + " FROM " + table + " a INNER JOIN (SELECT " + keyFactory.getPKColumns()
+                 + ", MAX(height) AS max_height FROM " + table + " WHERE height < ? GROUP BY " + keyFactory.getPKColumns()
+                 + " HAVING COUNT(DISTINCT height) > 1) b ON " + keyFactory.getSelfJoinClause()
+                 + " WHERE a.height <= b.max_height ORDER BY " + keyColumns);
+             PreparedStatement pstmtDeleteById = con.prepareStatement("DELETE FROM " + table + " WHERE db_id = ?")) {
             pstmtSelect.setInt(1, height);
-            long startDeleteTime, deleted = 0L, deleteStm = 0L, startSelectTime = System.currentTimeMillis();
-            try (ResultSet rs = pstmtSelect.executeQuery();
-                 PreparedStatement pstmtDeleteById =
-                     con.prepareStatement("DELETE FROM " + table + " WHERE db_id = ?");
-                 PreparedStatement selectDbIdStatement =
-                     con.prepareStatement("SELECT db_id, height " + getDeletedColumnIfSupported() + " FROM " + table + " " + keyFactory.getPKClause())) {
+            long deleted = 0L, startSelectTime = System.currentTimeMillis();
+            int batchSize = 0;
+            try (ResultSet rs = pstmtSelect.executeQuery()) {
                 LOG.trace("Select {} time: {}", table, System.currentTimeMillis() - startSelectTime);
-                startDeleteTime = System.currentTimeMillis();
-
+                KeyVersions versions = null;
                 while (rs.next()) {
-                    Set<Long> keysToDelete = selectDbIds(selectDbIdStatement, rs);
-                    // TODO migrate to PreparedStatement.addBatch for another db
-                    for (Long id : keysToDelete) {
-                        deleted += deleteByDbId(pstmtDeleteById, id);
-//                        deleted++;
-                        deleteStm++;
-                        if (deleted % 100 == 0) {
-                            dataSource.commit(false);
+                    DbKey dbKey = keyFactory.newKey(rs);
+                    if (versions == null || !versions.dbKey.equals(dbKey)) {
+                        if (versions != null) {
+                            batchSize += addToBatch(pstmtDeleteById, versions.getDbIdsToDelete());
                         }
+                        versions = new KeyVersions(dbKey, rs.getInt("max_height"));
+                    }
+                    versions.add(rs.getLong(1), rs.getInt(2), supportDelete() && rs.getBoolean(3));
+                    if (batchSize >= TRIM_BATCH_SIZE) {
+                        deleted += executeBatch(pstmtDeleteById);
+                        batchSize = 0;
+                        dataSource.commit(false);
                     }
                 }
-                dataSource.commit(false);
-                LOG.trace("Delete time {} for table '{}': deleteStm=[{}], deleted=[{}]", System.currentTimeMillis() - startDeleteTime, table,
-                    deleteStm, deleted);
+                if (versions != null) {
+                    addToBatch(pstmtDeleteById, versions.getDbIdsToDelete());
+                }
             }
+            deleted += executeBatch(pstmtDeleteById);
+            dataSource.commit(false);
+            addTrimmedRows(deleted);
             long trimTime = System.currentTimeMillis() - startTime;
+            LOG.trace("Trim time {} for table '{}': deleted=[{}]", trimTime, table, deleted);
             if (trimTime > 1000) {
                 LOG.debug("Trim for table {} took {} ms", table, trimTime);
             }
@@ -220,6 +230,26 @@ public abstract class BasicDbTable<T> extends DerivedDbTable<T> {
         }
     }
 
+    private int addToBatch(PreparedStatement pstmtDeleteById, Set<Long> dbIds) throws SQLException {
+        for (Long dbId : dbIds) {
+            pstmtDeleteById.setLong(1, dbId);
+            pstmtDeleteById.addBatch();
+        }
+        return dbIds.size();
+    }
+
+    private long executeBatch(PreparedStatement pstmtDeleteById) throws SQLException {
+        long deleted = 0;
+        for (int count : pstmtDeleteById.executeBatch()) {
+            deleted += Math.max(count, 0);
+        }
+        return deleted;
+    }
+
+    private String getDeletedColumnIfSupported(String alias) {
+        return supportDelete() ? ", " + alias + "deleted" : "";
+    }
+
     private String getDeletedColumnIfSupported() {
         return supportDelete() ? ", deleted" : "";
     }
@@ -228,40 +258,40 @@ public abstract class BasicDbTable<T> extends DerivedDbTable<T> {
         return supportDelete() ? ", deleted = " + deleted + " " : "";
     }
 
-    private Set<Long> selectDbIds(PreparedStatement selectDbIdStatement, ResultSet rs) throws SQLException {
-        DbKey dbKey = keyFactory.newKey(rs);
-        dbKey.setPK(selectDbIdStatement);
-        Set<Long> keys = new HashSet<>();
-        int maxHeight = rs.getInt("max_height");
-        boolean lastDeleted = false;
-        Set<Integer> deleteHeights = new HashSet<>();
-        Set<Long> lastDbIds = new HashSet<>();
-        try (ResultSet dbIdsSet = selectDbIdStatement.executeQuery()) {
-            while (dbIdsSet.next()) {
-                int currentHeight = dbIdsSet.getInt(2);
-                boolean entryDeleted = supportDelete() && dbIdsSet.getBoolean(3);
-                long dbId = dbIdsSet.getLong(1);
-                if (currentHeight == maxHeight) {
-                    lastDeleted = entryDeleted;
-                    lastDbIds.add(dbId);
-                } else if (currentHeight < maxHeight && currentHeight >= 0) {
-                    if (entryDeleted) {
-                        deleteHeights.add(currentHeight);
-                    }
-                    keys.add(dbId);
+    /**
+     * Versions of the single key up to the max height below the trim height
+     */
+    private class KeyVersions {
+        private final DbKey dbKey;
+        private final int maxHeight;
+        private final Set<Long> dbIds = new HashSet<>();
+        private final Set<Integer> deleteHeights = new HashSet<>();
+        private final Set<Long> lastDbIds = new HashSet<>();
+        private boolean lastDeleted;
+
+        KeyVersions(DbKey dbKey, int maxHeight) {
+            this.dbKey = dbKey;
+            this.maxHeight = maxHeight;
+        }
+
+        void add(long dbId, int height, boolean entryDeleted) {
+            if (height == maxHeight) {
+                lastDeleted = entryDeleted;
+                lastDbIds.add(dbId);
+            } else if (height < maxHeight && height >= 0) {
+                if (entryDeleted) {
+                    deleteHeights.add(height);
                 }
+                dbIds.add(dbId);
             }
         }
-        // last existing record should be 'deleted' and paired with previously deleted records
-        if (deleteHeights.size() % 2 != 0 && lastDeleted) {
-            keys.addAll(lastDbIds);
-        }
-        return keys;
-    }
-
-    private int deleteByDbId(PreparedStatement pstmtDeleteByDbId, long dbId) throws SQLException {
-        pstmtDeleteByDbId.setLong(1, dbId);
-        return pstmtDeleteByDbId.executeUpdate();
 
+        Set<Long> getDbIdsToDelete() {
+            // last existing record should be 'deleted' and paired with previously deleted records
+            if (deleteHeights.size() % 2 != 0 && lastDeleted) {
+                dbIds.addAll(lastDbIds);
+            }
+            return dbIds;
+        }
     }
 }
@@ -15,6 +15,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 public class DbTableWrapper<T extends DerivedEntity> implements EntityDbTableInterface<T> {
@@ -175,6 +176,16 @@ public class DbTableWrapper<T extends DerivedEntity> implements EntityDbTableInt
         table.trim(height, isSharding);
     }
 
+    @Override
+    public long getTrimmedRows() {
+        return table.getTrimmedRows();
+    }
+
+    @Override
+    public Set<String> getTrimDependentTables() {
+        return table.getTrimDependentTables();
+    }
+
     @Override
     public DerivedTableData<T> getAllByDbId(long from, int limit, long dbIdLimit) throws SQLException {
         return table.getAllByDbId(from, limit, dbIdLimit);
@@ -39,6 +39,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class DerivedDbTable<T> implements DerivedTableInterface<T> {
 
@@ -46,6 +47,7 @@ public abstract class DerivedDbTable<T> implements DerivedTableInterface<T> {
     protected DatabaseManager databaseManager;
     private FullTextConfig fullTextConfig;
     private DerivedTablesRegistry derivedDbTablesRegistry;
+    private final AtomicLong trimmedRows = new AtomicLong();
 
     // We should find better place for table init
     protected DerivedDbTable(String table, boolean init) { // for CDI beans setUp 'false'
@@ -79,6 +81,20 @@ public abstract class DerivedDbTable<T> implements DerivedTableInterface<T> {
     public void trim(int height) {
     }
 
+    @Override
+    public long getTrimmedRows() {
+        return trimmedRows.get();
+    }
+
+    /**
+     * Count rows deleted by trim, should be called by the trim implementations
+     *
+     * @param rows number of deleted rows
+     */
+    protected void addTrimmedRows(long rows) {
+        trimmedRows.addAndGet(rows);
+    }
+
     @Override
     public void trim(int height, boolean isSharding) {
         // default implementation for most of derived successor
@@ -135,6 +151,12 @@ public abstract class DerivedDbTable<T> implements DerivedTableInterface<T> {
     }
 
 
+    /**
+     * Drop data cached in memory, should be called when table data was changed bypassing the table methods
+     */
+    public void clearCache() {
+    }
+
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
@@ -8,6 +8,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Set;
 
 /**
  * Common derived interface functions. It supports rollback, truncate, trim.
@@ -43,6 +44,21 @@ public interface DerivedTableInterface<T> {
      */
     void trim(int height, boolean isSharding);
 
+    /**
+     * @return total number of rows deleted by trims of this table since start, used for trim metrics
+     */
+    default long getTrimmedRows() {
+        return 0;
+    }
+
+    /**
+     * @return names of other tables, which are changed or read by trim of this table, such tables are not trimmed
+     * concurrently with this one
+     */
+    default Set<String> getTrimDependentTables() {
+        return Set.of();
+    }
+
     void prune(int time);
 
     void insert(T t);
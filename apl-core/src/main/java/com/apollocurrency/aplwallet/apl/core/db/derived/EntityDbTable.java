@@ -37,6 +37,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -46,6 +53,7 @@ public abstract class EntityDbTable<T> extends BasicDbTable<T> implements Entity
     @Getter
     private final String fullTextSearchColumns;
     private Blockchain blockchain;
+    private VersionedEntityCache<T> entityCache;
 
     protected EntityDbTable(String table, KeyFactory<T> dbKeyFactory) {
         this(table, dbKeyFactory, false, null);
@@ -79,6 +87,32 @@ public abstract class EntityDbTable<T> extends BasicDbTable<T> implements Entity
      */
     public abstract void save(Connection con, T entity) throws SQLException;
 
+    /**
+     * Serve {@link EntityDbTable#get(DbKey)} from the in-memory cache of the latest entities, which is kept in sync with
+     * inserts, deletions, rollbacks and trims of this table. Only multiversion tables, which are not changed bypassing
+     * the table methods, may be cached.
+     *
+     * @param maxSize        max number of cached entities
+     * @param heightFunction returns height of the entity
+     * @param copyFunction   returns copy of the entity, which does not share any mutable state with the original
+     */
+    protected void enableCache(int maxSize, ToIntFunction<T> heightFunction, UnaryOperator<T> copyFunction) {
+        if (!multiversion) {
+            throw new IllegalStateException("Cache is supported only for multiversion tables, table " + table);
+        }
+        this.entityCache = new VersionedEntityCache<>(table, maxSize, heightFunction, copyFunction);
+    }
+
+    /**
+     * Drop cached entities, should be called when table data was changed bypassing the table methods
+     */
+    @Override
+    public void clearCache() {
+        if (entityCache != null) {
+            entityCache.clear();
+        }
+    }
+
     @Override
     public String defaultSort() {
         return defaultSort;
@@ -92,6 +126,20 @@ public abstract class EntityDbTable<T> extends BasicDbTable<T> implements Entity
     @Override
     public T get(DbKey dbKey, boolean createDbKey) {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (entityCache != null) {
+            T cached = entityCache.get(dbKey, dataSource);
+            if (cached != null) {
+                return cached;
+            }
+            long generation = entityCache.getGeneration();
+            T loaded = load(dbKey, createDbKey, dataSource);
+            entityCache.putLoaded(dbKey, loaded, generation, dataSource);
+            return loaded;
+        }
+        return load(dbKey, createDbKey, dataSource);
+    }
+
+    private T load(DbKey dbKey, boolean createDbKey, TransactionalDataSource dataSource) {
         try (Connection con = dataSource.getConnection();
              PreparedStatement pstmt = con.prepareStatement("SELECT * FROM " + table + keyFactory.getPKClause()
                  + (multiversion ? " AND latest = TRUE LIMIT 1" : ""))) {
@@ -402,10 +450,156 @@ public abstract class EntityDbTable<T> extends BasicDbTable<T> implements Entity
                 }
             }
             restoreDeletedColumnIfSupported(con, dbKey);
-            save(con, t);
+            if (entityCache != null) {
+                entityCache.put(dbKey, saveForCache(con, t, dbKey), dataSource);
+            } else {
+                save(con, t);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    /**
+     * Save the inserted entity and return its copy as it was saved, including values generated by db, to be cached
+     * without reloading from db. Default implementation returns null, so that the entity is evicted from the cache
+     * and loaded from db on the next access, tables with enabled cache should override it.
+     *
+     * @param con    db connection
+     * @param entity entity to save
+     * @param dbKey  key of the entity
+     * @return saved entity, which is not referenced by the caller, or null, when it is unknown
+     * @throws SQLException if any db error occurred.
+     */
+    protected T saveForCache(Connection con, T entity, DbKey dbKey) throws SQLException {
+        save(con, entity);
+        return null;
+    }
+
+    /**
+     * @param pstmt executed statement prepared with {@link Statement#RETURN_GENERATED_KEYS}
+     * @return db_id of the inserted row or 0, when no row was inserted (e.g. merge has updated the existing row)
+     */
+    protected static long getGeneratedDbId(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Batch version of the {@link #insert(Object)}: previous versions of all the entities are marked as not latest by
+     * one batch update and entities are saved by {@link #saveAll(Connection, List)}. Cached entities are evicted
+     * instead of being reloaded from db.
+     *
+     * @param entities entities to insert, each key should occur only once
+     */
+    public void insertAll(List<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (!dataSource.isInTransaction()) {
+            throw new IllegalStateException("Not in transaction");
+        }
+        List<DbKey> dbKeys = new ArrayList<>(entities.size());
+        for (T t : entities) {
+            DbKey dbKey = keyFactory.newKey(t);
+            if (dbKey == null) {
+                throw new RuntimeException("DbKey not set");
+            }
+            dbKeys.add(dbKey);
+        }
+        try (Connection con = dataSource.getConnection()) {
+            if (multiversion) {
+                try (
+                    @DatabaseSpecificDml(DmlMarker.UPDATE_WITH_LIMIT)
+                    PreparedStatement pstmt = con.prepareStatement("UPDATE " + table
+                        + " SET latest = FALSE " + keyFactory.getPKClause() + " AND latest = TRUE LIMIT 1")
+                ) {
+                    for (DbKey dbKey : dbKeys) {
+                        dbKey.setPK(pstmt);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+            if (supportDelete()) {
+                Set<DbKey> deletedKeys = getDeletedKeys(con, lookupBlockchain().getHeight());
+                for (DbKey dbKey : dbKeys) {
+                    if (deletedKeys.contains(dbKey)) {
+                        restoreDeletedColumnIfSupported(con, dbKey);
+                    }
+                }
+            }
+            saveAll(con, entities);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
+        if (entityCache != null) {
+            for (DbKey dbKey : dbKeys) {
+                entityCache.put(dbKey, null, dataSource);
+            }
+        }
+    }
+
+    /**
+     * Save entities inserted by {@link #insertAll(List)}, tables should override it to save entities by the batch
+     * statement
+     */
+    protected void saveAll(Connection con, List<T> entities) throws SQLException {
+        for (T entity : entities) {
+            save(con, entity);
+        }
+    }
+
+    private Set<DbKey> getDeletedKeys(Connection con, int height) throws SQLException {
+        Set<DbKey> deletedKeys = new HashSet<>();
+        try (PreparedStatement pstmt = con.prepareStatement("SELECT * FROM " + table + " WHERE height = ? AND deleted = TRUE")) {
+            pstmt.setInt(1, height);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    deletedKeys.add(keyFactory.newKey(rs));
+                }
+            }
+        }
+        return deletedKeys;
+    }
+
+    /**
+     * Record deletion of the entity into the cache
+     *
+     * @param dbKey  key of the deleted entity
+     * @param height height of deletion
+     */
+    protected void onDeleted(DbKey dbKey, int height) {
+        if (entityCache != null) {
+            entityCache.delete(dbKey, height, databaseManager.getDataSource());
+        }
+    }
+
+    @Override
+    public int rollback(int height) {
+        int rc = super.rollback(height);
+        if (entityCache != null) {
+            entityCache.rollback(height, databaseManager.getDataSource());
+        }
+        return rc;
+    }
+
+    @Override
+    public void trim(int height) {
+        super.trim(height);
+        if (entityCache != null) {
+            entityCache.trim(height);
+        }
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        if (entityCache != null) {
+            entityCache.clear(databaseManager.getDataSource());
+        }
     }
 
     /**
@@ -8,6 +8,7 @@ package com.apollocurrency.aplwallet.apl.core.db.derived;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
 import com.apollocurrency.aplwallet.apl.core.db.KeyFactory;
 import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.db.model.VersionedDeletableEntity;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
 
@@ -34,6 +35,26 @@ public abstract class VersionedDeletableEntityDbTable<T> extends EntityDbTable<T
 
     }
 
+    /**
+     * Make the copy of the inserted entity to be its latest not deleted version saved with the given db_id
+     *
+     * @param copy  copy of the inserted entity
+     * @param dbKey key of the entity
+     * @param dbId  db_id of the inserted row, 0 when it is unknown
+     * @return updated copy or null, when db_id is unknown
+     * @see EntityDbTable#saveForCache(Connection, Object, DbKey)
+     */
+    protected static <E extends VersionedDeletableEntity> E toSavedVersion(E copy, DbKey dbKey, long dbId) {
+        if (dbId == 0) {
+            return null;
+        }
+        copy.setDbKey(dbKey);
+        copy.setDbId(dbId);
+        copy.setLatest(true);
+        copy.setDeleted(false);
+        return copy;
+    }
+
     @Override
     public boolean supportDelete() {
         return true;
@@ -76,11 +97,16 @@ public abstract class VersionedDeletableEntityDbTable<T> extends EntityDbTable<T
                         save(con, t);
                         pstmt.executeUpdate();// delete after the save
                     }
+                    onDeleted(dbKey, height);
                     return true;
                 } else {
                     try (PreparedStatement pstmtDelete = con.prepareStatement("DELETE FROM " + table + keyFactory.getPKClause())) {
                         dbKey.setPK(pstmtDelete);
-                        return pstmtDelete.executeUpdate() > 0;
+                        boolean deleted = pstmtDelete.executeUpdate() > 0;
+                        if (deleted) {
+                            onDeleted(dbKey, height);
+                        }
+                        return deleted;
                     }
                 }
             }
@@ -0,0 +1,381 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db.derived;
+
+import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>In-memory cache of the latest entities of the multiversion table, which keeps short history of the entity versions
+ * for each cached key down to the last trim height, so that rollback restores previous versions of the changed
+ * entities instead of evicting them and takes time proportional to the number of keys changed above the rollback
+ * height, not to the cache size.</p>
+ * <p>Cache mirrors only changes made through the owning table, entities are copied on the way in and out, so that
+ * modification of the returned entity does not affect the cache. Keys changed by not yet committed db transaction are
+ * visible only to the thread of that transaction, other threads read them from db, rollback of the db transaction
+ * evicts such keys.</p>
+ * <p>The least recently used keys are evicted, when cache exceeds the max size</p>
+ *
+ * @param <T> type of the cached entity
+ */
+@Slf4j
+public class VersionedEntityCache<T> {
+    private final String name;
+    private final ToIntFunction<T> heightFunction;
+    private final UnaryOperator<T> copyFunction;
+    private final Map<DbKey, Versions<T>> entries;
+    // keys which have cached version at the given height, used to find keys changed above the rollback height
+    private final NavigableMap<Integer, Set<DbKey>> keysByHeight = new TreeMap<>();
+    // keys changed by not committed db transactions
+    private final Map<DbKey, TransactionChanges> dirtyKeys = new HashMap<>();
+    private final ThreadLocal<TransactionChanges> transactionChanges = new ThreadLocal<>();
+    // transaction which cleared the cache, cache is not available for other threads until its end
+    private TransactionChanges clearingTransaction;
+    private TransactionalDataSource cachedDataSource;
+    private long generation;
+
+    /**
+     * @param name           name of the cache for logging, usually table name
+     * @param maxSize        max number of cached keys
+     * @param heightFunction returns height of the entity
+     * @param copyFunction   returns copy of the entity, which does not share any mutable state with the original
+     */
+    public VersionedEntityCache(String name, int maxSize, ToIntFunction<T> heightFunction, UnaryOperator<T> copyFunction) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size should be positive: " + maxSize);
+        }
+        this.name = Objects.requireNonNull(name, "name is NULL");
+        this.heightFunction = Objects.requireNonNull(heightFunction, "heightFunction is NULL");
+        this.copyFunction = Objects.requireNonNull(copyFunction, "copyFunction is NULL");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DbKey, Versions<T>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param dbKey      key of the entity
+     * @param dataSource current data source
+     * @return copy of the latest entity version or null, when entity is not cached, deleted or cache is not
+     * available for the current thread
+     */
+    public synchronized T get(DbKey dbKey, TransactionalDataSource dataSource) {
+        if (!isAvailable(dbKey, dataSource)) {
+            return null;
+        }
+        Versions<T> versions = entries.get(dbKey);
+        T entity = versions == null ? null : versions.latest();
+        return entity == null ? null : copyFunction.apply(entity);
+    }
+
+    /**
+     * Should be taken before the loading of the entity from db to pass into the
+     * {@link VersionedEntityCache#putLoaded(DbKey, Object, long, TransactionalDataSource)}
+     *
+     * @return current generation of the cache, which is changed by any change of the cached data
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache latest entity version loaded from db, when neither this entity nor the whole cache was changed since the
+     * given generation
+     *
+     * @param dbKey      key of the entity
+     * @param entity     latest entity version loaded from db
+     * @param generation cache generation taken before the loading
+     * @param dataSource data source used for loading
+     */
+    public synchronized void putLoaded(DbKey dbKey, T entity, long generation, TransactionalDataSource dataSource) {
+        if (entity == null || generation != this.generation || !isAvailable(dbKey, dataSource) || entries.containsKey(dbKey)) {
+            return;
+        }
+        if (dataSource.isInTransaction()) {
+            // entity may be changed by the current transaction bypassing the cache
+            markDirty(dbKey, dataSource);
+        }
+        addVersion(dbKey, heightFunction.applyAsInt(entity), copyFunction.apply(entity));
+    }
+
+    /**
+     * Add new version of the entity saved into db
+     *
+     * @param dbKey      key of the entity
+     * @param entity     saved entity loaded from db, should not be referenced outside of the cache,
+     *                   null evicts the key
+     * @param dataSource data source in transaction
+     */
+    public synchronized void put(DbKey dbKey, T entity, TransactionalDataSource dataSource) {
+        if (prepareChange(dbKey, dataSource)) {
+            if (entity == null) {
+                entries.remove(dbKey);
+            } else {
+                addVersion(dbKey, heightFunction.applyAsInt(entity), entity);
+            }
+        }
+    }
+
+    /**
+     * Add deleted version of the entity
+     *
+     * @param dbKey      key of the deleted entity
+     * @param height     height of deletion
+     * @param dataSource data source in transaction
+     */
+    public synchronized void delete(DbKey dbKey, int height, TransactionalDataSource dataSource) {
+        if (prepareChange(dbKey, dataSource)) {
+            addVersion(dbKey, height, null);
+        }
+    }
+
+    /**
+     * Remove versions above the given height and make previous versions latest again,
+     * keys without remaining versions are evicted
+     *
+     * @param height     target height of the rollback
+     * @param dataSource data source in transaction
+     */
+    public synchronized void rollback(int height, TransactionalDataSource dataSource) {
+        checkDataSource(dataSource);
+        generation++;
+        NavigableMap<Integer, Set<DbKey>> changed = keysByHeight.tailMap(height, false);
+        int restored = 0;
+        int evicted = 0;
+        for (Set<DbKey> keys : changed.values()) {
+            for (DbKey dbKey : keys) {
+                Versions<T> versions = entries.get(dbKey);
+                if (versions == null || !versions.removeAbove(height)) {
+                    continue;
+                }
+                markDirty(dbKey, dataSource);
+                if (versions.isEmpty()) {
+                    entries.remove(dbKey);
+                    evicted++;
+                } else {
+                    restored++;
+                }
+            }
+        }
+        changed.clear();
+        log.trace("--cache-- {} rollback to height={}, restored {}, evicted {}", name, height, restored, evicted);
+    }
+
+    /**
+     * Remove versions, which are not required for rollback to the heights above the given one
+     *
+     * @param height trim height, rollback below it is not possible
+     */
+    public synchronized void trim(int height) {
+        NavigableMap<Integer, Set<DbKey>> trimmed = keysByHeight.headMap(height, true);
+        for (Set<DbKey> keys : trimmed.values()) {
+            for (DbKey dbKey : keys) {
+                Versions<T> versions = entries.get(dbKey);
+                if (versions != null) {
+                    versions.removeBelow(height);
+                    if (versions.latest() == null) {
+                        // nothing to restore for deleted entity
+                        entries.remove(dbKey);
+                    }
+                }
+            }
+        }
+        trimmed.clear();
+    }
+
+    /**
+     * Remove all entries, cache is not available for other threads till the end of the current transaction
+     *
+     * @param dataSource data source in transaction
+     */
+    public synchronized void clear(TransactionalDataSource dataSource) {
+        checkDataSource(dataSource);
+        clearingTransaction = getTransactionChanges(dataSource);
+        clearEntries();
+    }
+
+    /**
+     * Remove all entries and forget changes of the running transactions
+     */
+    public synchronized void clear() {
+        clearEntries();
+        dirtyKeys.clear();
+        clearingTransaction = null;
+        cachedDataSource = null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void clearEntries() {
+        generation++;
+        entries.clear();
+        keysByHeight.clear();
+    }
+
+    private boolean isAvailable(DbKey dbKey, TransactionalDataSource dataSource) {
+        checkDataSource(dataSource);
+        TransactionChanges changes = transactionChanges.get();
+        if (clearingTransaction != null && clearingTransaction != changes) {
+            return false;
+        }
+        TransactionChanges dirtyBy = dirtyKeys.get(dbKey);
+        return dirtyBy == null || dirtyBy == changes;
+    }
+
+    // forget all data cached for another data source, e.g. after db hot swap
+    private void checkDataSource(TransactionalDataSource dataSource) {
+        if (cachedDataSource != dataSource) {
+            if (cachedDataSource != null) {
+                log.debug("--cache-- {} data source was changed, clear", name);
+                clear();
+            }
+            cachedDataSource = dataSource;
+        }
+    }
+
+    private boolean prepareChange(DbKey dbKey, TransactionalDataSource dataSource) {
+        checkDataSource(dataSource);
+        generation++;
+        TransactionChanges dirtyBy = dirtyKeys.get(dbKey);
+        if (dirtyBy != null && dirtyBy != transactionChanges.get()) {
+            // concurrent change of the same entity, let db resolve it
+            log.debug("--cache-- {} concurrent change of the {}, evict", name, dbKey);
+            entries.remove(dbKey);
+            return false;
+        }
+        markDirty(dbKey, dataSource);
+        return true;
+    }
+
+    private void addVersion(DbKey dbKey, int height, T entity) {
+        entries.computeIfAbsent(dbKey, k -> new Versions<>()).add(height, entity);
+        keysByHeight.computeIfAbsent(height, h -> new HashSet<>()).add(dbKey);
+    }
+
+    private void markDirty(DbKey dbKey, TransactionalDataSource dataSource) {
+        TransactionChanges changes = getTransactionChanges(dataSource);
+        if (changes != null) {
+            dirtyKeys.put(dbKey, changes);
+            changes.keys.add(dbKey);
+        }
+    }
+
+    private TransactionChanges getTransactionChanges(TransactionalDataSource dataSource) {
+        if (!dataSource.isInTransaction()) {
+            return null;
+        }
+        TransactionChanges changes = transactionChanges.get();
+        if (changes == null) {
+            changes = new TransactionChanges();
+            transactionChanges.set(changes);
+            dataSource.registerCallback(changes);
+        }
+        return changes;
+    }
+
+    private synchronized void onTransactionEnd(TransactionChanges changes, boolean committed) {
+        if (transactionChanges.get() == changes) {
+            transactionChanges.remove();
+        }
+        generation++;
+        if (clearingTransaction == changes) {
+            clearingTransaction = null;
+            if (!committed) {
+                clearEntries();
+            }
+        }
+        for (DbKey dbKey : changes.keys) {
+            if (dirtyKeys.get(dbKey) == changes) {
+                dirtyKeys.remove(dbKey);
+                if (!committed) {
+                    entries.remove(dbKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Entity versions of the single key in the ascending order of heights, null entity means deletion
+     */
+    private static class Versions<T> {
+        private final List<Integer> heights = new ArrayList<>(2);
+        private final List<T> entities = new ArrayList<>(2);
+
+        void add(int height, T entity) {
+            int last = heights.size() - 1;
+            if (last >= 0 && heights.get(last) >= height) {
+                // entity was merged at the same height
+                heights.set(last, height);
+                entities.set(last, entity);
+            } else {
+                heights.add(height);
+                entities.add(entity);
+            }
+        }
+
+        T latest() {
+            return entities.get(entities.size() - 1);
+        }
+
+        boolean isEmpty() {
+            return heights.isEmpty();
+        }
+
+        boolean removeAbove(int height) {
+            boolean removed = false;
+            for (int i = heights.size() - 1; i >= 0 && heights.get(i) > height; i--) {
+                heights.remove(i);
+                entities.remove(i);
+                removed = true;
+            }
+            return removed;
+        }
+
+        // keep the latest version at or below the height, because it remains latest after rollback to that height
+        void removeBelow(int height) {
+            int keepFrom = 0;
+            while (keepFrom + 1 < heights.size() && heights.get(keepFrom + 1) <= height) {
+                keepFrom++;
+            }
+            if (keepFrom > 0) {
+                heights.subList(0, keepFrom).clear();
+                entities.subList(0, keepFrom).clear();
+            }
+        }
+    }
+
+    private class TransactionChanges implements TransactionCallback {
+        private final Set<DbKey> keys = new HashSet<>();
+
+        @Override
+        public void commit() {
+            onTransactionEnd(this, true);
+        }
+
+        @Override
+        public void rollback() {
+            onTransactionEnd(this, false);
+        }
+    }
+}
@@ -40,6 +40,14 @@ public interface FullTextSearchEngine {
      */
     void commitIndex() throws SQLException;
 
+    /**
+     * Check whether index can miss some committed rows, for example when index changes were not committed before
+     * the unexpected shutdown. Such index should be rebuilt from the database.
+     *
+     * @return true, when index should be rebuilt
+     */
+    boolean isIndexOutdated();
+
     /**
      * Clear index data and restart engine
      *
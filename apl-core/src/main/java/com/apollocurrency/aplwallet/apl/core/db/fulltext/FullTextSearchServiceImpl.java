@@ -108,6 +108,10 @@ public class FullTextSearchServiceImpl implements FullTextSearchService {
             }
             if (triggersExist && alreadyInitialized) {
                 LOG.info("Fulltext support is already initialized");
+                if (ftl.isIndexOutdated()) {
+                    // replay indexed tables, which changes could be lost by the previous run
+                    reindexAll(conn);
+                }
                 return;
             }
             //
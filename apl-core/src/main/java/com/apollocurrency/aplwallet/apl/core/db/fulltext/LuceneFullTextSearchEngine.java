@@ -4,10 +4,12 @@
 
 package com.apollocurrency.aplwallet.apl.core.db.fulltext;
 
+import com.apollocurrency.aplwallet.apl.core.config.Property;
 import com.apollocurrency.aplwallet.apl.util.NtpTime;
 import com.apollocurrency.aplwallet.apl.util.ReadWriteUpdateLock;
 import com.apollocurrency.aplwallet.apl.util.annotation.DatabaseSpecificDml;
 import com.apollocurrency.aplwallet.apl.util.annotation.DmlMarker;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.DateTools;
@@ -18,12 +20,14 @@ import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
@@ -41,21 +45,35 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
+/**
+ * <p>Lucene based fulltext search engine.</p>
+ * <p>In the near-real-time (NRT) mode committed rows are indexed by the background thread and become searchable
+ * after the scheduled refresh of the searcher, durable index commits are done by the background committer, which
+ * batches all changes made since the previous commit. Index, which was not committed on shutdown, is marked as
+ * outdated on the next start, so that it will be rebuilt from the database.</p>
+ * <p>Without NRT mode each index commit is durable and immediately visible for searches.</p>
+ */
 @Singleton
 @DatabaseSpecificDml(DmlMarker.FULL_TEXT_SEARCH)
 public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
     private static final Logger LOG = LoggerFactory.getLogger(LuceneFullTextSearchEngine.class);
     /**
-     * Lucene index reader (thread-safe)
+     * Commit user data key, which is set to true only for commits of the index containing all committed db rows
      */
-    private static DirectoryReader indexReader;
+    private static final String INDEX_SYNCHRONIZED_KEY = "_SYNCHRONIZED";
     /**
-     * Lucene index searcher (thread-safe)
+     * Lucene index searcher manager (thread-safe)
      */
-    private static IndexSearcher indexSearcher;
+    private static SearcherManager searcherManager;
     /**
      * Lucene index writer (thread-safe)
      */
@@ -68,14 +86,37 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      * Lucene analyzer (thread-safe)
      */
     private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean uncommittedChanges = new AtomicBoolean();
+    private final boolean nrtEnabled;
+    private final int refreshInterval;
+    private final int commitInterval;
     private NtpTime ntpTime;
     private Path indexDirPath;
+    /**
+     * Index updates of the committed rows in the NRT mode, single thread keeps updates order
+     */
+    private ExecutorService indexExecutor;
+    /**
+     * Searcher refresh and index commit tasks in the NRT mode
+     */
+    private ScheduledExecutorService indexScheduler;
+    private volatile boolean indexOutdated;
+
 
+    public LuceneFullTextSearchEngine(NtpTime ntpTime, Path indexPath) {
+        this(ntpTime, indexPath, false, 0, 0);
+    }
 
     @Inject
-    public LuceneFullTextSearchEngine(NtpTime ntpTime, @Named("indexDirPath") Path indexPath) {
+    public LuceneFullTextSearchEngine(NtpTime ntpTime, @Named("indexDirPath") Path indexPath,
+                                      @Property(name = "apl.fullTextSearch.nrt", defaultValue = "false") boolean nrtEnabled,
+                                      @Property(name = "apl.fullTextSearch.refreshInterval", defaultValue = "1000") int refreshInterval,
+                                      @Property(name = "apl.fullTextSearch.commitInterval", defaultValue = "60000") int commitInterval) {
         this.ntpTime = ntpTime;
         this.indexDirPath = indexPath;
+        this.nrtEnabled = nrtEnabled;
+        this.refreshInterval = refreshInterval;
+        this.commitInterval = commitInterval;
         if (!Files.exists(indexPath)) {
             try {
                 Files.createDirectories(indexPath);
@@ -110,6 +151,7 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             }
             document.add(new TextField("_DATA", sj.toString(), Field.Store.NO));
             indexWriter.updateDocument(new Term("_QUERY", query), document);
+            uncommittedChanges.set(true);
         } catch (IOException exc) {
             LOG.error("Unable to index row", exc);
             throw new SQLException("Unable to index row", exc);
@@ -123,6 +165,20 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      */
     @Override
     public void commitRow(Object[] oldRow, Object[] newRow, TableData tableData) throws SQLException {
+        if (indexExecutor != null) {
+            indexExecutor.submit(() -> {
+                try {
+                    doCommitRow(oldRow, newRow, tableData);
+                } catch (SQLException e) {
+                    LOG.error("Unable to update the Lucene index", e);
+                }
+            });
+        } else {
+            doCommitRow(oldRow, newRow, tableData);
+        }
+    }
+
+    private void doCommitRow(Object[] oldRow, Object[] newRow, TableData tableData) throws SQLException {
         if (oldRow != null) {
             if (newRow != null) {
                 indexRow(newRow, tableData);
@@ -140,6 +196,7 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         indexLock.readLock().lock();
         try {
             indexWriter.deleteDocuments(new Term("_QUERY", query));
+            uncommittedChanges.set(true);
         } catch (IOException exc) {
             LOG.error("Unable to delete indexed row", exc);
             throw new SQLException("Unable to delete indexed row", exc);
@@ -165,13 +222,20 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
                 IndexWriterConfig config = new IndexWriterConfig(analyzer);
                 config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
                 Directory indexDir = FSDirectory.open(indexDirPath);
+                indexOutdated = DirectoryReader.indexExists(indexDir)
+                    && !Boolean.parseBoolean(SegmentInfos.readLatestCommit(indexDir).getUserData().get(INDEX_SYNCHRONIZED_KEY));
+                if (indexOutdated) {
+                    LOG.warn("Lucene index was not committed on shutdown and should be rebuilt");
+                }
                 indexWriter = new IndexWriter(indexDir, config);
                 Document document = new Document();
                 document.add(new StringField("_QUERY", "_CONTROL_DOCUMENT_", Field.Store.YES));
                 indexWriter.updateDocument(new Term("_QUERY", "_CONTROL_DOCUMENT_"), document);
-                indexWriter.commit();
-                indexReader = DirectoryReader.open(indexDir);
-                indexSearcher = new IndexSearcher(indexReader);
+                commitWriter(!indexOutdated);
+                searcherManager = new SearcherManager(indexWriter, null);
+                if (nrtEnabled) {
+                    startBackgroundTasks();
+                }
             } finally {
                 indexLock.writeLock().unlock();
             }
@@ -188,23 +252,87 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
 
     /**
      * {@inheritDoc}
+     * <p>In the NRT mode changes are made visible and committed by the background tasks</p>
      */
     @Override
     public void commitIndex() throws SQLException {
-        indexLock.writeLock().lock();
+        if (nrtEnabled) {
+            return;
+        }
+        indexLock.readLock().lock();
         try {
-            indexWriter.commit();
-            DirectoryReader newReader = DirectoryReader.openIfChanged(indexReader);
-            if (newReader != null) {
-                indexReader.close();
-                indexReader = newReader;
-                indexSearcher = new IndexSearcher(indexReader);
-            }
+            commitWriter(!indexOutdated);
+            searcherManager.maybeRefreshBlocking();
         } catch (IOException exc) {
             LOG.error("Unable to commit Lucene index updates", exc);
             throw new SQLException("Unable to commit Lucene index updates", exc);
         } finally {
-            indexLock.writeLock().unlock();
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isIndexOutdated() {
+        return indexOutdated;
+    }
+
+    private void commitWriter(boolean synchronizedIndex) throws IOException {
+        uncommittedChanges.set(false);
+        indexWriter.setLiveCommitData(Map.of(INDEX_SYNCHRONIZED_KEY, String.valueOf(synchronizedIndex)).entrySet());
+        indexWriter.commit();
+    }
+
+    private void startBackgroundTasks() {
+        indexExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("LuceneFullTextSearchEngine:index", true));
+        indexScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("LuceneFullTextSearchEngine:refresh", true));
+        indexScheduler.scheduleWithFixedDelay(this::refreshSearcher, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        indexScheduler.scheduleWithFixedDelay(this::commitChanges, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Apply queued index updates and stop background tasks, should be called before taking the index write lock,
+     * because index updates require the read lock
+     */
+    private void stopBackgroundTasks() {
+        if (indexExecutor != null) {
+            indexScheduler.shutdownNow();
+            indexExecutor.shutdown();
+            try {
+                indexExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                indexScheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            indexExecutor = null;
+            indexScheduler = null;
+        }
+    }
+
+    private void refreshSearcher() {
+        indexLock.readLock().lock();
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to refresh Lucene index searcher", e);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void commitChanges() {
+        indexLock.readLock().lock();
+        try {
+            if (uncommittedChanges.get()) {
+                // changes queued or made after this commit can be lost, so the index is synchronized only after the final commit on shutdown
+                commitWriter(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to commit Lucene index updates", e);
+        } finally {
+            indexLock.readLock().unlock();
         }
     }
 
@@ -215,6 +343,7 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      */
     @Override
     public void clearIndex() throws SQLException {
+        stopBackgroundTasks();
         indexLock.writeLock().lock();
         try {
             try {
@@ -263,7 +392,9 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
         // The _MODIFIED field contains the row modification time (YYYYMMDDhhmmss) in GMT
         //
         indexLock.readLock().lock();
+        IndexSearcher indexSearcher = null;
         try {
+            indexSearcher = searcherManager.acquire();
             QueryParser parser = new QueryParser("_DATA", analyzer);
             parser.setDateResolution("_MODIFIED", DateTools.Resolution.SECOND);
             parser.setDefaultOperator(QueryParser.Operator.AND);
@@ -289,6 +420,13 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
             LOG.error("Unable to search Lucene index", exc);
             throw new SQLException("Unable to search Lucene index", exc);
         } finally {
+            try {
+                if (indexSearcher != null) {
+                    searcherManager.release(indexSearcher);
+                }
+            } catch (IOException exc) {
+                LOG.error("Unable to release Lucene index searcher", exc);
+            }
             indexLock.readLock().unlock();
         }
         return result;
@@ -299,16 +437,17 @@ public class LuceneFullTextSearchEngine implements FullTextSearchEngine {
      */
     @Override
     public void shutdown() {
+        stopBackgroundTasks();
         indexLock.writeLock().lock();
         try {
-            commitIndex();
-            if (indexReader != null) {
-                indexReader.close();
+            if (searcherManager != null) {
+                searcherManager.close();
             }
-            if (indexWriter != null) {
+            if (indexWriter != null && indexWriter.isOpen()) {
+                commitWriter(!indexOutdated);
                 indexWriter.close();
             }
-        } catch (IOException | SQLException exc) {
+        } catch (IOException exc) {
             LOG.error("Unable to remove Lucene index access", exc);
         } finally {
             indexLock.writeLock().unlock();
@@ -30,6 +30,12 @@ public abstract class DerivedEntity implements Comparable {
         this.height = rs.getInt("height");
     }
 
+    protected DerivedEntity(DerivedEntity entity) {
+        this.dbKey = entity.dbKey;
+        this.dbId = entity.dbId;
+        this.height = entity.height;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
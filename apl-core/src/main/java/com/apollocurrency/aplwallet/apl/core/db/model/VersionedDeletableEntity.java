@@ -24,4 +24,9 @@ public class VersionedDeletableEntity extends VersionedDerivedEntity {
         deleted = rs.getBoolean("deleted");
     }
 
+    protected VersionedDeletableEntity(VersionedDeletableEntity entity) {
+        super(entity);
+        this.deleted = entity.deleted;
+    }
+
 }
@@ -23,6 +23,11 @@ public abstract class VersionedDerivedEntity extends DerivedEntity {
         latest = rs.getBoolean("latest");
     }
 
+    protected VersionedDerivedEntity(VersionedDerivedEntity entity) {
+        super(entity);
+        this.latest = entity.latest;
+    }
+
     public boolean isLatest() {
         return latest;
     }
@@ -7,40 +7,87 @@ package com.apollocurrency.aplwallet.apl.core.http;
 import org.slf4j.Logger;
 
 import java.io.IOException;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Event source of the account, which sends messages on the executor without blocking the caller.
+ * Only the latest message is kept, when the client is slower than the blocks, not sent messages are replaced by the newer one.
+ */
 public class BlockEventSource implements org.eclipse.jetty.servlets.EventSource {
     public static final Logger LOG = getLogger(BlockEventSource.class);
+    private final AtomicReference<String> pendingMessage = new AtomicReference<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
     private Emitter emitter;
     private volatile boolean shutdown = false;
-    private ThreadPoolExecutor threadPoolExecutor;
-    private long accountId;
+    private final Executor executor;
+    private final BlockEventSourceProcessor processor;
+    private final long accountId;
 
-    public BlockEventSource(ThreadPoolExecutor threadPoolExecutor, long accountId) {
-        this.threadPoolExecutor = threadPoolExecutor;
+    public BlockEventSource(Executor executor, BlockEventSourceProcessor processor, long accountId) {
+        this.executor = executor;
+        this.processor = processor;
         this.accountId = accountId;
     }
 
     @Override
     public void onOpen(Emitter emitter) throws IOException {
         this.emitter = emitter;
-        threadPoolExecutor.execute(new BlockEventSourceProcessor(this, accountId));
+        processor.register(this);
+    }
+
+    /**
+     * Schedule message sending, message is not sent, when the source is closed
+     */
+    public void emitEvent(String dataToSend) {
+        pendingMessage.set(dataToSend);
+        scheduleSending();
+    }
+
+    private void scheduleSending() {
+        if (!shutdown && pendingMessage.get() != null && sending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::sendPendingMessages);
+            } catch (RejectedExecutionException e) {
+                // message is kept and will be sent with the next one
+                LOG.debug("Sse event sending was rejected for account {}", Long.toUnsignedString(accountId));
+                sending.set(false);
+            }
+        }
     }
 
-    public void emitEvent(String dataToSend) throws IOException {
-        this.emitter.data(dataToSend);
+    private void sendPendingMessages() {
+        try {
+            String message;
+            while (!shutdown && (message = pendingMessage.getAndSet(null)) != null) {
+                emitter.data(message);
+            }
+        } catch (IOException e) {
+            LOG.debug("Unable to send sse event", e);
+            onClose();
+        } finally {
+            sending.set(false);
+        }
+        // message could be set after the loop exit, but before the sending flag reset
+        scheduleSending();
     }
 
     @Override
     public void onClose() {
         LOG.trace("Close event source");
         shutdown = true;
-
+        processor.unregister(this);
     }
 
     public boolean isShutdown() {
         return shutdown;
     }
+
+    public long getAccountId() {
+        return accountId;
+    }
 }
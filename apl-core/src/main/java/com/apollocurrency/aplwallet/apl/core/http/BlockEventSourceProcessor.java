@@ -4,22 +4,22 @@
 
 package com.apollocurrency.aplwallet.apl.core.http;
 
+import com.apollocurrency.aplwallet.apl.core.account.AccountEventType;
 import com.apollocurrency.aplwallet.apl.core.account.model.Account;
 import com.apollocurrency.aplwallet.apl.core.account.model.AccountAsset;
 import com.apollocurrency.aplwallet.apl.core.account.model.AccountCurrency;
 import com.apollocurrency.aplwallet.apl.core.account.model.AccountInfo;
+import com.apollocurrency.aplwallet.apl.core.account.observer.events.AccountEvent;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetService;
-import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetServiceImpl;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountCurrencyService;
-import com.apollocurrency.aplwallet.apl.core.account.service.AccountCurrencyServiceImpl;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountInfoService;
-import com.apollocurrency.aplwallet.apl.core.account.service.AccountInfoServiceImpl;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
-import com.apollocurrency.aplwallet.apl.core.account.service.AccountServiceImpl;
 import com.apollocurrency.aplwallet.apl.core.alias.service.AliasService;
 import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.Transaction;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
 import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.dgs.DGSService;
 import com.apollocurrency.aplwallet.apl.core.dgs.model.DGSPurchase;
@@ -29,53 +29,149 @@ import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.enterprise.inject.spi.CDI;
-import java.io.IOException;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.ObservesAsync;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-
-public class BlockEventSourceProcessor implements Runnable {
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Sends the blockchain data of the account to the subscribed event sources on each pushed block. Subscribers
+ * of the same account share the message, block data is built once per block for all the accounts.</p>
+ * <p>Account data is cached and built again only for the accounts, which were touched since the previous block:
+ * accounts of the block transactions and accounts with changed balances. Accounts data is invalidated entirely
+ * on the block pop off.</p>
+ */
+@Singleton
+public class BlockEventSourceProcessor {
     private static final Logger LOG = LoggerFactory.getLogger(BlockEventSourceProcessor.class);
-    private final BlockEventSource eventSource;
-    private final long accountId;
-    private final Blockchain blockchain = CDI.current().select(Blockchain.class).get();
-    private final AliasService aliasService = CDI.current().select(AliasService.class).get();
-    private DGSService service = CDI.current().select(DGSService.class).get();
-    private AccountService accountService = CDI.current().select(AccountServiceImpl.class).get();
-    private AccountInfoService accountInfoService = CDI.current().select(AccountInfoServiceImpl.class).get();
-    private AccountAssetService accountAssetService = CDI.current().select(AccountAssetServiceImpl.class).get();
-    private AccountCurrencyService accountCurrencyService = CDI.current().select(AccountCurrencyServiceImpl.class).get();
-
-    public BlockEventSourceProcessor(BlockEventSource eventSource, long accountId) {
-        this.eventSource = eventSource;
-        this.accountId = accountId;
+    private final Blockchain blockchain;
+    private final AliasService aliasService;
+    private final DGSService service;
+    private final AccountService accountService;
+    private final AccountInfoService accountInfoService;
+    private final AccountAssetService accountAssetService;
+    private final AccountCurrencyService accountCurrencyService;
+    private final Map<Long, Set<BlockEventSource>> eventSources = new ConcurrentHashMap<>();
+    // json of the account data without block, only for the accounts with event sources
+    private final Map<Long, String> accountsData = new ConcurrentHashMap<>();
+    private final Set<Long> changedAccounts = ConcurrentHashMap.newKeySet();
+    private volatile boolean allAccountsChanged;
+
+    @Inject
+    public BlockEventSourceProcessor(Blockchain blockchain, AliasService aliasService, DGSService service,
+                                     AccountService accountService, AccountInfoService accountInfoService,
+                                     AccountAssetService accountAssetService, AccountCurrencyService accountCurrencyService) {
+        this.blockchain = blockchain;
+        this.aliasService = aliasService;
+        this.service = service;
+        this.accountService = accountService;
+        this.accountInfoService = accountInfoService;
+        this.accountAssetService = accountAssetService;
+        this.accountCurrencyService = accountCurrencyService;
     }
 
-    @Override
-    public void run() {
-        Block block = blockchain.getLastBlock();
-        Block currentBlock;
+    /**
+     * Subscribe event source to the blocks and send it the current data of its account
+     */
+    public void register(BlockEventSource eventSource) {
+        long accountId = eventSource.getAccountId();
+        eventSources.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(eventSource);
         try {
-            eventSource.emitEvent(getMessage());
-            while (!eventSource.isShutdown()) {
+            eventSource.emitEvent(withBlock(getAccountData(accountId), getBlockData(blockchain.getLastBlock())));
+        } catch (RuntimeException e) {
+            LOG.error("Unable to prepare sse event for account " + Long.toUnsignedString(accountId), e);
+        }
+    }
+
+    public void unregister(BlockEventSource eventSource) {
+        long accountId = eventSource.getAccountId();
+        eventSources.computeIfPresent(accountId, (id, sources) -> {
+            sources.remove(eventSource);
+            if (sources.isEmpty()) {
+                accountsData.remove(id);
+                return null;
+            }
+            return sources;
+        });
+    }
 
+    public void onAccountBalance(@Observes @AccountEvent(AccountEventType.BALANCE) Account account) {
+        accountChanged(account.getId());
+    }
+
+    public void onAccountUnconfirmedBalance(@Observes @AccountEvent(AccountEventType.UNCONFIRMED_BALANCE) Account account) {
+        accountChanged(account.getId());
+    }
 
-                currentBlock = blockchain.getLastBlock();
-                if (currentBlock.getHeight() > block.getHeight()) {
+    public void onAccountAssetBalance(@Observes @AccountEvent(AccountEventType.ASSET_BALANCE) AccountAsset accountAsset) {
+        accountChanged(accountAsset.getAccountId());
+    }
 
-                    eventSource.emitEvent(getMessage());
+    public void onAccountCurrencyBalance(@Observes @AccountEvent(AccountEventType.CURRENCY_BALANCE) AccountCurrency accountCurrency) {
+        accountChanged(accountCurrency.getAccountId());
+    }
+
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        allAccountsChanged = true;
+    }
 
-                    block = currentBlock;
-                }
-                TimeUnit.SECONDS.sleep(2);
+    public synchronized void onBlockPushed(@ObservesAsync @BlockEvent(BlockEventType.BLOCK_PUSHED) Block block) {
+        if (eventSources.isEmpty()) {
+            changedAccounts.clear();
+            return;
+        }
+        Set<Long> changed = new HashSet<>();
+        boolean allChanged = allAccountsChanged;
+        allAccountsChanged = false;
+        // collect changes before reading the data, later changes will be sent on the next block
+        changedAccounts.removeIf(changed::add);
+        for (Transaction transaction : block.getOrLoadTransactions()) {
+            changed.add(transaction.getSenderId());
+            changed.add(transaction.getRecipientId());
+        }
+        if (allChanged) {
+            accountsData.clear();
+        } else {
+            changed.forEach(accountsData::remove);
+        }
+        String blockData = getBlockData(block);
+        eventSources.forEach((accountId, sources) -> {
+            try {
+                String message = withBlock(getAccountData(accountId), blockData);
+                sources.forEach(eventSource -> eventSource.emitEvent(message));
+            } catch (RuntimeException e) {
+                LOG.error("Unable to prepare sse event for account " + Long.toUnsignedString(accountId), e);
             }
-        } catch (IOException | InterruptedException e) {
-            LOG.error("Unable to send sse event", e);
+        });
+        // data of the accounts unsubscribed during sending
+        accountsData.keySet().retainAll(eventSources.keySet());
+    }
+
+    private void accountChanged(long accountId) {
+        if (eventSources.containsKey(accountId)) {
+            changedAccounts.add(accountId);
         }
-        LOG.trace("Exit event source {}", eventSource.isShutdown());
     }
 
-    protected JSONObject getBlockchainData(Blockchain blockchain) {
+    private String getAccountData(long accountId) {
+        return accountsData.computeIfAbsent(accountId, id -> getBlockchainData(id).toJSONString());
+    }
+
+    private String withBlock(String accountData, String blockData) {
+        // account data is a not empty json object, so that block is appended as the last field
+        return accountData.substring(0, accountData.length() - 1) + ",\"block\":" + blockData + "}";
+    }
+
+    protected String getBlockData(Block block) {
+        return JSONData.block(block, false, false).toJSONString();
+    }
+
+    protected JSONObject getBlockchainData(long accountId) {
         JSONArray transactionsArray = new JSONArray();
         List<Transaction> list = blockchain.getTransactions(accountId,
             0, (byte) -1, (byte) -1, 0, false,
@@ -121,12 +217,6 @@ public class BlockEventSourceProcessor implements Runnable {
         return jsonObject;
     }
 
-    public String getMessage() {
-        JSONObject jsonObject = getBlockchainData(blockchain);
-        jsonObject.put("block", JSONData.block(blockchain.getLastBlock(), false, false));
-        return jsonObject.toJSONString();
-    }
-
     private JSONObject putAccount(long accountId) {
         Account account = accountService.getAccount(accountId);
         JSONObject response = JSONData.accountBalance(account, false);
@@ -7,6 +7,7 @@ package com.apollocurrency.aplwallet.apl.core.http;
 import org.eclipse.jetty.servlets.EventSource;
 import org.slf4j.Logger;
 
+import javax.enterprise.inject.spi.CDI;
 import javax.servlet.http.HttpServletRequest;
 import java.util.concurrent.ThreadPoolExecutor;
 
@@ -14,6 +15,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 public class BlockEventSourceServlet extends org.eclipse.jetty.servlets.EventSourceServlet {
     public static final Logger LOG = getLogger(BlockEventSourceServlet.class);
+    private final BlockEventSourceProcessor processor = CDI.current().select(BlockEventSourceProcessor.class).get();
 
     @Override
     protected EventSource newEventSource(HttpServletRequest request) {
@@ -26,6 +28,6 @@ public class BlockEventSourceServlet extends org.eclipse.jetty.servlets.EventSou
 
         }
         return new BlockEventSource((ThreadPoolExecutor) request
-            .getServletContext().getAttribute("executor"), accountId);
+            .getServletContext().getAttribute("executor"), processor, accountId);
     }
 }
@@ -86,6 +86,7 @@ import com.apollocurrency.aplwallet.apl.core.phasing.model.PhasingPoll;
 import com.apollocurrency.aplwallet.apl.core.phasing.model.PhasingPollResult;
 import com.apollocurrency.aplwallet.apl.core.phasing.model.PhasingVote;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.BlockConverter;
+import com.apollocurrency.aplwallet.apl.core.rest.service.AccountStatisticsIndex;
 import com.apollocurrency.aplwallet.apl.core.tagged.model.DataTag;
 import com.apollocurrency.aplwallet.apl.core.tagged.model.TaggedData;
 import com.apollocurrency.aplwallet.apl.core.trade.entity.Trade;
@@ -440,20 +441,22 @@ public final class JSONData {
 
     @Deprecated
     public static JSONObject getAccountsStatistic(int numberOfAccounts) {
-        long totalSupply = accountService.getTotalSupply();
-        long totalAccounts = accountService.getTotalNumberOfAccounts();
-        long totalAmountOnTopAccounts = accountService.getTotalAmountOnTopAccounts(numberOfAccounts);
-        List<Account> topAccounts = accountService.getTopHolders(numberOfAccounts);
+        AccountStatisticsIndex.AccountStatistics statistics = CDI.current().select(AccountStatisticsIndex.class).get()
+            .getStatistics(numberOfAccounts);
 
         JSONObject result = new JSONObject();
-        result.put("totalSupply", totalSupply);
-        result.put("totalNumberOfAccounts", totalAccounts);
+        result.put("height", statistics.getHeight());
+        result.put("totalSupply", statistics.getTotalSupply());
+        result.put("totalNumberOfAccounts", statistics.getTotalNumberOfAccounts());
         result.put("numberOfTopAccounts", numberOfAccounts);
-        result.put("totalAmountOnTopAccounts", totalAmountOnTopAccounts);
+        result.put("totalAmountOnTopAccounts", statistics.getTotalAmountOnTopAccounts(numberOfAccounts));
         JSONArray holders = new JSONArray();
-        topAccounts.forEach(account -> {
-            JSONObject accountJson = JSONData.accountBalance(account, false);
-            JSONData.putAccount(accountJson, "account", account.getId());
+        statistics.getTopHolders(numberOfAccounts).forEach(holder -> {
+            JSONObject accountJson = new JSONObject();
+            accountJson.put("balanceATM", String.valueOf(holder.getBalanceATM()));
+            accountJson.put("unconfirmedBalanceATM", String.valueOf(holder.getUnconfirmedBalanceATM()));
+            accountJson.put("forgedBalanceATM", String.valueOf(holder.getForgedBalanceATM()));
+            JSONData.putAccount(accountJson, "account", holder.getId());
             holders.add(accountJson);
         });
         result.put("topHolders", holders);
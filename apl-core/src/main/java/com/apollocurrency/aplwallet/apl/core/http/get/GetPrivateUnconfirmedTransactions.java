@@ -5,7 +5,7 @@
 package com.apollocurrency.aplwallet.apl.core.http.get;
 
 import com.apollocurrency.aplwallet.apl.core.app.Transaction;
-import com.apollocurrency.aplwallet.apl.core.db.FilteringIterator;
+import com.apollocurrency.aplwallet.apl.core.app.UnconfirmedTransaction;
 import com.apollocurrency.aplwallet.apl.core.http.APITag;
 import com.apollocurrency.aplwallet.apl.core.http.AbstractAPIRequestHandler;
 import com.apollocurrency.aplwallet.apl.core.http.HttpParameterParserUtil;
@@ -19,6 +19,7 @@ import org.json.simple.JSONStreamAware;
 
 import javax.enterprise.inject.Vetoed;
 import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 
 import static com.apollocurrency.aplwallet.apl.core.http.JSONResponses.MISSING_SECRET_PHRASE_AND_PUBLIC_KEY;
 
@@ -38,17 +39,14 @@ public final class GetPrivateUnconfirmedTransactions extends AbstractAPIRequestH
         int firstIndex = HttpParameterParserUtil.getFirstIndex(req);
         int lastIndex = HttpParameterParserUtil.getLastIndex(req);
         JSONArray transactions = new JSONArray();
-        try (FilteringIterator<? extends Transaction> transactionsIterator = new FilteringIterator<>(
-            lookupTransactionProcessor().getAllUnconfirmedTransactions(0, -1),
+        List<UnconfirmedTransaction> unconfirmedTransactions = lookupTransactionProcessor().getAllUnconfirmedTransactions(
             transaction -> data.getAccountId() == transaction.getSenderId() || data.getAccountId() == transaction.getRecipientId(),
-            firstIndex, lastIndex)) {
-            while (transactionsIterator.hasNext()) {
-                Transaction transaction = transactionsIterator.next();
-                if (data.isEncrypt() && transaction.getType() == Payment.PRIVATE) {
-                    transactions.add(JSONData.encryptedUnconfirmedTransaction(transaction, data.getSharedKey()));
-                } else {
-                    transactions.add(JSONData.unconfirmedTransaction(transaction));
-                }
+            firstIndex, lastIndex);
+        for (Transaction transaction : unconfirmedTransactions) {
+            if (data.isEncrypt() && transaction.getType() == Payment.PRIVATE) {
+                transactions.add(JSONData.encryptedUnconfirmedTransaction(transaction, data.getSharedKey()));
+            } else {
+                transactions.add(JSONData.unconfirmedTransaction(transaction));
             }
         }
         JSONObject response = new JSONObject();
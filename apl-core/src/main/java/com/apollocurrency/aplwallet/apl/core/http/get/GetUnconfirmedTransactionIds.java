@@ -21,13 +21,12 @@
 package com.apollocurrency.aplwallet.apl.core.http.get;
 
 import com.apollocurrency.aplwallet.apl.core.app.Transaction;
-import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
-import com.apollocurrency.aplwallet.apl.core.db.FilteringIterator;
 import com.apollocurrency.aplwallet.apl.core.http.APITag;
 import com.apollocurrency.aplwallet.apl.core.http.AbstractAPIRequestHandler;
 import com.apollocurrency.aplwallet.apl.core.http.HttpParameterParserUtil;
 import com.apollocurrency.aplwallet.apl.core.http.ParameterException;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
+import com.apollocurrency.aplwallet.apl.util.Filter;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
@@ -51,23 +50,11 @@ public final class GetUnconfirmedTransactionIds extends AbstractAPIRequestHandle
         int lastIndex = HttpParameterParserUtil.getLastIndex(req);
 
         JSONArray transactionIds = new JSONArray();
-        if (accountIds.isEmpty()) {
-            try (DbIterator<? extends Transaction> transactionsIterator = lookupTransactionProcessor().getAllUnconfirmedTransactions(firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
-                    transactionIds.add(transaction.getStringId());
-                }
-            }
-        } else {
-            try (FilteringIterator<? extends Transaction> transactionsIterator = new FilteringIterator<>(
-                lookupTransactionProcessor().getAllUnconfirmedTransactions(0, -1),
-                transaction -> accountIds.contains(transaction.getSenderId()) || accountIds.contains(transaction.getRecipientId()),
-                firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
-                    transactionIds.add(transaction.getStringId());
-                }
-            }
+        Filter<Transaction> filter = accountIds.isEmpty()
+            ? transaction -> true
+            : transaction -> accountIds.contains(transaction.getSenderId()) || accountIds.contains(transaction.getRecipientId());
+        for (Transaction transaction : lookupTransactionProcessor().getAllUnconfirmedTransactions(filter, firstIndex, lastIndex)) {
+            transactionIds.add(transaction.getStringId());
         }
 
         JSONObject response = new JSONObject();
@@ -21,7 +21,6 @@
 package com.apollocurrency.aplwallet.apl.core.http.get;
 
 import com.apollocurrency.aplwallet.apl.core.app.Transaction;
-import com.apollocurrency.aplwallet.apl.core.db.FilteringIterator;
 import com.apollocurrency.aplwallet.apl.core.http.APITag;
 import com.apollocurrency.aplwallet.apl.core.http.AbstractAPIRequestHandler;
 import com.apollocurrency.aplwallet.apl.core.http.HttpParameterParserUtil;
@@ -29,6 +28,7 @@ import com.apollocurrency.aplwallet.apl.core.http.JSONData;
 import com.apollocurrency.aplwallet.apl.core.http.ParameterException;
 import com.apollocurrency.aplwallet.apl.core.transaction.Payment;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
+import com.apollocurrency.aplwallet.apl.util.Filter;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONStreamAware;
@@ -52,27 +52,12 @@ public final class GetUnconfirmedTransactions extends AbstractAPIRequestHandler
         int lastIndex = HttpParameterParserUtil.getLastIndex(req);
 
         JSONArray transactions = new JSONArray();
-        if (accountIds.isEmpty()) {
-            try (FilteringIterator<? extends Transaction> transactionsIterator = new FilteringIterator<>(
-                lookupTransactionProcessor().getAllUnconfirmedTransactions(0, -1),
-                transaction -> transaction.getType() != Payment.PRIVATE,
-                firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
-                    transactions.add(JSONData.unconfirmedTransaction(transaction));
-                }
-            }
-        } else {
-            try (FilteringIterator<? extends Transaction> transactionsIterator = new FilteringIterator<>(
-                lookupTransactionProcessor().getAllUnconfirmedTransactions(0, -1),
-                transaction -> transaction.getType() != Payment.PRIVATE && (accountIds.contains(transaction.getSenderId()) ||
-                    accountIds.contains(transaction.getRecipientId())),
-                firstIndex, lastIndex)) {
-                while (transactionsIterator.hasNext()) {
-                    Transaction transaction = transactionsIterator.next();
-                    transactions.add(JSONData.unconfirmedTransaction(transaction));
-                }
-            }
+        Filter<Transaction> filter = accountIds.isEmpty()
+            ? transaction -> transaction.getType() != Payment.PRIVATE
+            : transaction -> transaction.getType() != Payment.PRIVATE && (accountIds.contains(transaction.getSenderId()) ||
+            accountIds.contains(transaction.getRecipientId()));
+        for (Transaction transaction : lookupTransactionProcessor().getAllUnconfirmedTransactions(filter, firstIndex, lastIndex)) {
+            transactions.add(JSONData.unconfirmedTransaction(transaction));
         }
 
         JSONObject response = new JSONObject();
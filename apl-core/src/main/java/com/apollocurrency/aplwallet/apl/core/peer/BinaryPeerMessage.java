@@ -0,0 +1,79 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import org.json.simple.JSONObject;
+import org.json.simple.JSONStreamAware;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * <p>Peer message, which consists of the json header and binary body. Body is transferred after the header
+ * in the same websocket frame without any conversion, so that blocks and transactions can be sent in their
+ * byte form instead of json</p>
+ * <p>Only peers providing {@link Peer.Service#BINARY_PROTOCOL} are able to receive such messages, other peers
+ * should get self-sufficient json message</p>
+ * <p>Body of the received message is attached to the parsed json and can be obtained
+ * by {@link BinaryPeerMessage#getBody(JSONObject)}</p>
+ */
+public class BinaryPeerMessage implements JSONStreamAware {
+    /**
+     * Key of the received message body in the parsed json, is never transferred over network
+     */
+    private static final String BODY_KEY = "binaryBody";
+
+    private final JSONStreamAware header;
+    private final byte[] body;
+
+    public BinaryPeerMessage(JSONStreamAware header, byte[] body) {
+        this.header = Objects.requireNonNull(header, "header cannot be null");
+        this.body = Objects.requireNonNull(body, "body cannot be null");
+    }
+
+    /**
+     * @return true, when binary protocol is enabled for this node and can be used by the websocket transport
+     */
+    public static boolean isEnabled() {
+        return PeersService.isBinaryProtocolEnabled && PeersService.useWebSockets && !PeersService.useProxy;
+    }
+
+    /**
+     * @param peer remote peer
+     * @return true, when binary messages can be exchanged with the given peer
+     */
+    public static boolean isSupportedBy(Peer peer) {
+        return isEnabled() && peer.providesService(Peer.Service.BINARY_PROTOCOL);
+    }
+
+    /**
+     * @param message parsed peer message
+     * @return binary body of the message or null, when message was sent as json only
+     */
+    public static byte[] getBody(JSONObject message) {
+        Object body = message.get(BODY_KEY);
+        return body instanceof byte[] ? (byte[]) body : null;
+    }
+
+    static void attachBody(JSONObject message, byte[] body) {
+        if (body != null) {
+            message.put(BODY_KEY, body);
+        }
+    }
+
+    public JSONStreamAware getHeader() {
+        return header;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public void writeJSONString(Writer out) throws IOException {
+        header.writeJSONString(out);
+    }
+}
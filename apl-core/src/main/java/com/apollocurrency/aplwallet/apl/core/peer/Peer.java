@@ -119,7 +119,8 @@ public interface Peer extends Comparable<Peer> {
         PRUNABLE(2),                    // Stores expired prunable messages
         API(4),                         // Provides open API access over http
         API_SSL(8),                     // Provides open API access over https
-        CORS(16);                       // API CORS enabled
+        CORS(16),                       // API CORS enabled
+        BINARY_PROTOCOL(32);            // Accepts binary blocks and transactions over websocket
 
         private final long code;        // Service code - must be a power of 2
 
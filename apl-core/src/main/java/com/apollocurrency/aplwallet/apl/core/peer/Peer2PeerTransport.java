@@ -115,30 +115,38 @@ public class Peer2PeerTransport {
     }
 
     public void onIncomingMessage(String message, PeerWebSocket ws, Long rqId) {
+        onIncomingMessage(message, null, ws, rqId);
+    }
+
+    public void onIncomingMessage(String message, byte[] body, PeerWebSocket ws, Long rqId) {
         if (rqId == null) {
             log.debug("Protocol error, requestId=null from {}, message:\n{}\n", which(), message);
         } else {
             ResponseWaiter wsrw = requestMap.get(rqId);
             if (wsrw != null) { //this is response we are waiting for
-                wsrw.setResponse(message);
+                wsrw.setResponse(message, body);
             } else {
                 //most likely ge've got request from remote and should process it
                 //but it also can be error response without requestId
                 if (peerServlet.get() != null) {
-                    peerServlet.get().doPostWebSocket(this, rqId, message);
+                    peerServlet.get().doPostWebSocket(this, rqId, message, body);
                 } else {
                     log.info("No soft-ref to peerServlet.get()"); // in general we should never see that log
                 }
             }
         }
         lastActivity = System.currentTimeMillis();
-        updateDownloadedVolume(message.length());
+        updateDownloadedVolume(message.length() + (body != null ? body.length : 0));
     }
 
     public Long sendRequest(String message) {
+        return sendRequest(message, null);
+    }
+
+    public Long sendRequest(String message, byte[] body) {
         Long requestId = nextRequestId();
         requestMap.put(requestId, new ResponseWaiter());
-        boolean sendOK = send(message, requestId);
+        boolean sendOK = send(message, body, requestId);
         if (sendOK) {
             return requestId;
         } else {
@@ -147,26 +155,47 @@ public class Peer2PeerTransport {
     }
 
     public String sendAndWaitResponse(String request) {
-        String res = null;
+        RawPeerMessage res = sendAndWaitResponse(request, null);
+        return res != null ? res.getMessage() : null;
+    }
+
+    /**
+     * Send request with the optional binary body and wait for the response
+     *
+     * @param request json request
+     * @param body    binary body of the request, should be sent only to the peers, which provide
+     *                {@link Peer.Service#BINARY_PROTOCOL} service
+     * @return response with the optional binary body or null, when request failed or response timeout was reached
+     */
+    RawPeerMessage sendAndWaitResponse(String request, byte[] body) {
+        RawPeerMessage res = null;
         Long rqId;
         boolean sendOK = true;
-        rqId = sendRequest(request);
+        rqId = sendRequest(request, body);
         if (rqId == null) {
             log.debug("Exception while sending to websocket of {}", which());
             sendOK = false;
         }
         if (sendOK) {
-            res = getResponse(rqId);
+            res = getRawResponse(rqId);
         }
         return res;
     }
 
     public String getResponse(Long rqId) {
-        String res = null;
+        RawPeerMessage res = getRawResponse(rqId);
+        return res != null ? res.getMessage() : null;
+    }
+
+    private RawPeerMessage getRawResponse(Long rqId) {
+        RawPeerMessage res = null;
         ResponseWaiter wsrw = requestMap.get(rqId);
         if (wsrw != null) {
             try {
-                res = wsrw.get(PeersService.readTimeout);
+                String response = wsrw.get(PeersService.readTimeout);
+                if (response != null) {
+                    res = new RawPeerMessage(response, wsrw.getBody());
+                }
             } catch (SocketTimeoutException ex) {
                 log.trace("Timeout excided while waiting response from: {} ID: {}", which(), rqId);
             }
@@ -257,14 +286,14 @@ public class Peer2PeerTransport {
 
     }
 
-    private boolean sendToWebSocket(final String wsRequest, PeerWebSocket ws, Long requestId) {
+    private boolean sendToWebSocket(final String wsRequest, byte[] body, PeerWebSocket ws, Long requestId) {
         boolean sendOK = false;
         try {
             if (ws == null) {
                 log.debug("null websocket");
                 return sendOK;
             }
-            sendOK = ws.send(wsRequest, requestId);
+            sendOK = ws.send(wsRequest, body, requestId);
         } catch (AplException.AplIOException ex) {
             log.debug("Can't sent to {}, cause {}", getHostWithPort(), ex.getMessage());
         } catch (IOException ex) {
@@ -274,6 +303,19 @@ public class Peer2PeerTransport {
     }
 
     public boolean send(String message, Long requestId) {
+        return send(message, null, requestId);
+    }
+
+    /**
+     * Send message with the optional binary body. Body can be transferred only over websocket,
+     * see {@link BinaryPeerMessage#isSupportedBy(Peer)}
+     *
+     * @param message   json message
+     * @param body      binary body of the message or null
+     * @param requestId id of the request
+     * @return true if message was sent successfully
+     */
+    public boolean send(String message, byte[] body, Long requestId) {
         boolean sendOK = false;
         cleanUp();
         //   synchronized (this) {
@@ -283,7 +325,7 @@ public class Peer2PeerTransport {
         }
         if (useWebSocket) {
             if (isInbound()) {
-                sendOK = sendToWebSocket(message, inboundWebSocket, requestId);
+                sendOK = sendToWebSocket(message, body, inboundWebSocket, requestId);
 
                 if (!sendOK) {
                     log.trace("Peer: {} Using inbound web socket. failed. Closing", getHostWithPort());
@@ -322,9 +364,11 @@ public class Peer2PeerTransport {
                     sendOK = true;
                 }
                 if (sendOK) { //send using client socket
-                    sendOK = sendToWebSocket(message, outboundWebSocket, requestId);
+                    sendOK = sendToWebSocket(message, body, outboundWebSocket, requestId);
                 }
             }
+        } else if (body != null) {
+            log.debug("Peer: {} Binary message can not be sent using HTTP", getHostWithPort());
         } else {
             // Send the request using HTTP if websockets are disabled
             sendOK = sendHttp(message, requestId);
@@ -341,7 +385,7 @@ public class Peer2PeerTransport {
                 p.deactivate(msg);
             }
         } else {
-            updateUploadedVolume(message.length());
+            updateUploadedVolume(message.length() + (body != null ? body.length : 0));
         }
         return sendOK;
     }
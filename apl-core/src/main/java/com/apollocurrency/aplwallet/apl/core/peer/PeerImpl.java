@@ -516,12 +516,16 @@ public final class PeerImpl implements Peer {
 
         try {
             String rq = wsWriter.toString();
-            String resp = p2pTransport.sendAndWaitResponse(rq);
+            byte[] body = request instanceof BinaryPeerMessage ? ((BinaryPeerMessage) request).getBody() : null;
+            RawPeerMessage resp = p2pTransport.sendAndWaitResponse(rq, body);
             if (resp == null) {
                 LOG.trace("Null response from: {}", getHostWithPort());
                 return response;
             }
-            response = (JSONObject) JSONValue.parseWithException(resp);
+            response = (JSONObject) JSONValue.parseWithException(resp.getMessage());
+            if (response != null) {
+                BinaryPeerMessage.attachBody(response, resp.getBody());
+            }
             //
             // Check for an error response
             //
@@ -200,7 +200,7 @@ public final class PeerServlet extends WebSocketServlet {
             if (peer.isBlacklisted()) {
                 jsonResponse = PeerResponses.getBlackisted(peer.getBlacklistingCause());
             } else {
-                jsonResponse = process(peer, req.getReader());
+                jsonResponse = process(peer, req.getReader(), null);
             }
         }
         //
@@ -235,8 +235,12 @@ public final class PeerServlet extends WebSocketServlet {
     }
 
     void doPostWebSocket(Peer2PeerTransport transport, Long requestId, String request) {
+        doPostWebSocket(transport, requestId, request, null);
+    }
+
+    void doPostWebSocket(Peer2PeerTransport transport, Long requestId, String request, byte[] body) {
         threadPool.execute(() -> {
-            doPostTask(transport, requestId, request);
+            doPostTask(transport, requestId, request, body);
         });
     }
 
@@ -246,8 +250,9 @@ public final class PeerServlet extends WebSocketServlet {
      * @param transport WebSocket for the connection
      * @param requestId Request identifier
      * @param request   Request message
+     * @param body      Binary body of the request or null
      */
-    private void doPostTask(Peer2PeerTransport transport, Long requestId, String request) {
+    private void doPostTask(Peer2PeerTransport transport, Long requestId, String request, byte[] body) {
 
         lookupComponents();
         JSONStreamAware jsonResponse;
@@ -263,7 +268,7 @@ public final class PeerServlet extends WebSocketServlet {
             if (peer.isBlacklisted()) {
                 jsonResponse = PeerResponses.getBlackisted(peer.getBlacklistingCause());
             } else {
-                jsonResponse = process(peer, new StringReader(request));
+                jsonResponse = process(peer, new StringReader(request), body);
             }
         }
         // Return the response
@@ -275,7 +280,8 @@ public final class PeerServlet extends WebSocketServlet {
                 LOG.debug("Almost impossible error: Can not write to StringWriter", ex);
             }
             String response = writer.toString();
-            transport.send(response, requestId);
+            byte[] responseBody = jsonResponse instanceof BinaryPeerMessage ? ((BinaryPeerMessage) jsonResponse).getBody() : null;
+            transport.send(response, responseBody, requestId);
             //check if we returned error and should close inbound socket
             if (peer != null) {
                 peer.processError(response);
@@ -291,9 +297,10 @@ public final class PeerServlet extends WebSocketServlet {
      *
      * @param peer        Peer
      * @param inputReader Input reader
+     * @param body        Binary body of the request or null
      * @return JSON response
      */
-    private JSONStreamAware process(PeerImpl peer, Reader inputReader) {
+    private JSONStreamAware process(PeerImpl peer, Reader inputReader, byte[] body) {
         lookupComponents();
 
         //
@@ -301,6 +308,7 @@ public final class PeerServlet extends WebSocketServlet {
         //
         try (CountingInputReader cr = new CountingInputReader(inputReader, PeersService.MAX_REQUEST_SIZE)) {
             JSONObject request = (JSONObject) JSONValue.parseWithException(cr);
+            BinaryPeerMessage.attachBody(request, body);
             //we have to process errors here because of http requests
             if (peer.processError(request)) {
                 return null;
@@ -18,8 +18,10 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.zip.GZIPInputStream;
@@ -39,6 +41,10 @@ public class PeerWebSocket extends WebSocketAdapter {
      * Compressed message flag
      */
     private static final int FLAG_COMPRESSED = 1;
+    /**
+     * Message carries binary body after the json part, see {@link BinaryPeerMessage}
+     */
+    private static final int FLAG_BINARY_BODY = 2;
     protected final TimeLimiter limiter;
     private final Monitor sendMonitor;
     /**
@@ -136,16 +142,28 @@ public class PeerWebSocket extends WebSocketAdapter {
                     }
                 }
             }
-            String message = new String(msgBytes, StandardCharsets.UTF_8);
+            String message;
+            byte[] body = null;
+            if ((flags & FLAG_BINARY_BODY) != 0) {
+                ByteBuffer msgBuf = ByteBuffer.wrap(msgBytes);
+                int jsonLength = msgBuf.getInt();
+                if (jsonLength < 0 || jsonLength > msgBuf.remaining()) {
+                    throw new ProtocolException("Invalid json length of the binary message: " + jsonLength);
+                }
+                message = new String(msgBytes, Integer.BYTES, jsonLength, StandardCharsets.UTF_8);
+                body = Arrays.copyOfRange(msgBytes, Integer.BYTES + jsonLength, msgBytes.length);
+            } else {
+                message = new String(msgBytes, StandardCharsets.UTF_8);
+            }
             Peer2PeerTransport p = peerReference.get();
             if (p != null) {
-                p.onIncomingMessage(message, this, rqId);
+                p.onIncomingMessage(message, body, this, rqId);
             } else {
                 log.warn("Peer reference is null on websocket incoming message, closing websocket:\n {}", message);
                 close();
             }
 
-        } catch (IOException ex) {
+        } catch (IOException | BufferUnderflowException ex) {
             log.debug("Peer: {} IO Exception on message receiving: {}", which(), ex);
         }
     }
@@ -161,6 +179,22 @@ public class PeerWebSocket extends WebSocketAdapter {
      * @throws IOException
      */
     public boolean send(String message, Long requestId) throws IOException {
+        return send(message, null, requestId);
+    }
+
+    /**
+     * Sends websocket message with the optional binary body, which is transferred as is after the
+     * json part of the message. Remote peer should support {@link Peer.Service#BINARY_PROTOCOL}
+     * to receive message with the body
+     *
+     * @param message   message string
+     * @param body      binary body of the message or null
+     * @param requestId if it is not null, it means it is request otherwise it is
+     *                  response
+     * @return requestId
+     * @throws IOException
+     */
+    public boolean send(String message, byte[] body, Long requestId) throws IOException {
         boolean sendOk = true;
         if (StringUtils.isBlank(message.trim())) {
             log.warn("Empty request from us to {}", which());
@@ -172,8 +206,16 @@ public class PeerWebSocket extends WebSocketAdapter {
                 log.trace("thisWebSocket={} jetty.Session={}", this, getSession());
             }
             byte[] requestBytes = message.getBytes(StandardCharsets.UTF_8);
-            int requestLength = requestBytes.length;
             int flags = 0;
+            if (body != null) {
+                flags |= FLAG_BINARY_BODY;
+                requestBytes = ByteBuffer.allocate(Integer.BYTES + requestBytes.length + body.length)
+                    .putInt(requestBytes.length)
+                    .put(requestBytes)
+                    .put(body)
+                    .array();
+            }
+            int requestLength = requestBytes.length;
             if (PeersService.isGzipEnabled && requestLength >= PeersService.MIN_COMPRESS_SIZE) {
                 flags |= FLAG_COMPRESSED;
                 ByteArrayOutputStream outStream = new ByteArrayOutputStream(requestLength);
@@ -21,6 +21,7 @@ package com.apollocurrency.aplwallet.apl.core.peer;
 
 import com.apollocurrency.aplwallet.api.p2p.PeerInfo;
 import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
+import com.apollocurrency.aplwallet.apl.core.app.BinaryPeerCodec;
 import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.BlockchainProcessor;
@@ -73,6 +74,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Singleton
 public class PeersService {
@@ -106,6 +108,7 @@ public class PeersService {
     static int webSocketIdleTimeout;
     static boolean useProxy;
     static boolean isGzipEnabled;
+    static boolean isBinaryProtocolEnabled;
     static int minNumberOfKnownPeers;
     static boolean enableHallmarkProtection;
     static boolean usePeersDb;
@@ -231,6 +234,7 @@ public class PeersService {
         useWebSockets = propertiesHolder.getBooleanProperty("apl.useWebSockets");
         webSocketIdleTimeout = propertiesHolder.getIntProperty("apl.webSocketIdleTimeout");
         isGzipEnabled = propertiesHolder.getBooleanProperty("apl.enablePeerServerGZIPFilter");
+        isBinaryProtocolEnabled = propertiesHolder.getBooleanProperty("apl.enablePeerBinaryProtocol", true);
         blacklistingPeriod = propertiesHolder.getIntProperty("apl.blacklistingPeriod") / 1000;
         sendToPeersLimit = propertiesHolder.getIntProperty("apl.sendToPeersLimit");
         usePeersDb = propertiesHolder.getBooleanProperty("apl.usePeersDb") && !propertiesHolder.isOffline();
@@ -339,6 +343,9 @@ public class PeersService {
         if (!blockchainConfig.isEnablePruning() && propertiesHolder.INCLUDE_EXPIRED_PRUNABLE()) {
             servicesList.add(Peer.Service.PRUNABLE);
         }
+        if (BinaryPeerMessage.isEnabled()) {
+            servicesList.add(Peer.Service.BINARY_PROTOCOL);
+        }
         if (API.openAPIPort > 0) {
             pi.setApiPort(API.openAPIPort);
             servicesList.add(Peer.Service.API);
@@ -699,7 +706,15 @@ public class PeersService {
         JSONObject request = block.getJSONObject();
         request.put("requestType", "processBlock");
         LOG.debug("Pushing block: {} at height: {}", block.getId(), block.getHeight());
-        sendToSomePeers(request);
+        sendToSomePeers(request, () -> {
+            // ProcessBlock checks these fields before the block parsing
+            JSONObject header = new JSONObject();
+            header.put("requestType", "processBlock");
+            header.put("previousBlock", Long.toUnsignedString(block.getPreviousBlockId()));
+            header.put("timestamp", block.getTimestamp());
+            header.put("timeout", block.getTimeout());
+            return prepareBinaryRequest(header, BinaryPeerCodec.writeBlocks(List.of(block)));
+        });
     }
 
     public void sendToSomePeers(List<? extends Transaction> transactions) {
@@ -707,17 +722,35 @@ public class PeersService {
         while (nextBatchStart < transactions.size()) {
             JSONObject request = new JSONObject();
             JSONArray transactionsData = new JSONArray();
+            List<Transaction> batch = new ArrayList<>(Math.min(sendTransactionsBatchSize, transactions.size() - nextBatchStart));
             for (int i = nextBatchStart; i < nextBatchStart + sendTransactionsBatchSize && i < transactions.size(); i++) {
                 transactionsData.add(transactions.get(i).getJSONObject());
+                batch.add(transactions.get(i));
             }
             request.put("requestType", "processTransactions");
             request.put("transactions", transactionsData);
-            sendToSomePeers(request);
+            sendToSomePeers(request, () -> {
+                JSONObject header = new JSONObject();
+                header.put("requestType", "processTransactions");
+                return prepareBinaryRequest(header, BinaryPeerCodec.writeTransactions(batch));
+            });
             nextBatchStart += sendTransactionsBatchSize;
         }
     }
 
-    private void sendToSomePeers(final JSONObject request) {
+    private BinaryPeerMessage prepareBinaryRequest(JSONObject header, byte[] body) {
+        header.put("chainId", blockchainConfig.getChain().getChainId());
+        return new BinaryPeerMessage(JSON.prepareRequest(header), body);
+    }
+
+    /**
+     * Send request to some connected peers
+     *
+     * @param request       json request, which is sent to the peers not supporting binary protocol
+     * @param binaryRequest supplier of the same request in the binary form, is called only
+     *                      when at least one peer supports binary protocol
+     */
+    private void sendToSomePeers(final JSONObject request, final Supplier<BinaryPeerMessage> binaryRequest) {
         if (shutdown || suspend) {
             String errorMessage = String.format("Cannot send request to peers. Peer server was %s", suspend ? "suspended" : "shutdown");
             LOG.error(errorMessage);
@@ -726,6 +759,7 @@ public class PeersService {
         sendingService.submit(() -> {
             request.put("chainId", blockchainConfig.getChain().getChainId());
             final JSONStreamAware jsonRequest = JSON.prepareRequest(request);
+            BinaryPeerMessage preparedBinaryRequest = null;
 
             int successful = 0;
             List<Future<JSONObject>> expectedResponses = new ArrayList<>();
@@ -745,8 +779,17 @@ public class PeersService {
                     && peer.getBlockchainState() != BlockchainState.LIGHT_CLIENT
                 ) {
                     LOG.trace("Prepare send to peer = {}", peer);
+                    final JSONStreamAware peerRequest;
+                    if (BinaryPeerMessage.isSupportedBy(peer)) {
+                        if (preparedBinaryRequest == null) {
+                            preparedBinaryRequest = binaryRequest.get();
+                        }
+                        peerRequest = preparedBinaryRequest;
+                    } else {
+                        peerRequest = jsonRequest;
+                    }
                     Future<JSONObject> futureResponse = peersExecutorService.submit(() ->
-                        peer.send(jsonRequest, blockchainConfig.getChain().getChainId())
+                        peer.send(peerRequest, blockchainConfig.getChain().getChainId())
                     );
                     expectedResponses.add(futureResponse);
                 }
@@ -0,0 +1,18 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.peer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Peer message as it was received by {@link Peer2PeerTransport}: not parsed json and optional binary body
+ */
+@Getter
+@AllArgsConstructor
+class RawPeerMessage {
+    private final String message;
+    private final byte[] body;
+}
@@ -28,6 +28,10 @@ public class ResponseWaiter {
      * Response message
      */
     private volatile String response;
+    /**
+     * Binary body of the response message, when it was sent using binary protocol
+     */
+    private volatile byte[] body;
 
     /**
      * Wait for the response
@@ -52,10 +56,22 @@ public class ResponseWaiter {
     }
 
     public void setResponse(String response) {
+        setResponse(response, null);
+    }
+
+    public void setResponse(String response, byte[] body) {
         this.response = response;
+        this.body = body;
         latch.countDown();
     }
 
+    /**
+     * @return binary body of the received response or null, should be called after {@link #get(long)}
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
     public boolean isOld() {
         long now = System.currentTimeMillis();
         boolean res = (now - createTime) > WSW_TTL_MS;
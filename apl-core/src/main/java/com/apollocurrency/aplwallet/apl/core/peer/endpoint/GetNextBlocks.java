@@ -20,8 +20,10 @@
 
 package com.apollocurrency.aplwallet.apl.core.peer.endpoint;
 
+import com.apollocurrency.aplwallet.apl.core.app.BinaryPeerCodec;
 import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.peer.BinaryPeerMessage;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.JSON;
@@ -69,6 +71,9 @@ public final class GetNextBlocks extends PeerRequestHandler {
         List<Long> idList = new ArrayList<>();
         stringList.forEach(stringId -> idList.add(Convert.parseUnsignedLong(stringId)));
         blocks = blockchain.getBlocksAfter(blockId, idList);
+        if (Boolean.TRUE.equals(request.get("binary")) && BinaryPeerMessage.isSupportedBy(peer)) {
+            return new BinaryPeerMessage(response, BinaryPeerCodec.writeBlocks(blocks));
+        }
         blocks.forEach(block -> nextBlocksArray.add(block.getJSONObject()));
         response.put("nextBlocks", nextBlocksArray);
 
@@ -301,12 +301,16 @@ public class PhasingPollServiceImpl implements PhasingPollService {
             return getVoteCount(phasingPoll.getId());
         }
         VoteWeighting.VotingModel votingModel = voteWeighting.getVotingModel();
-        long cumulativeWeight = 0;
+        List<Long> voterIds = new ArrayList<>();
         try (DbIterator<PhasingVote> votes = getVotes(phasingPoll.getId(), 0, Integer.MAX_VALUE)) {
             for (PhasingVote vote : votes) {
-                cumulativeWeight += votingModel.calcWeight(voteWeighting, vote.getVoterId(), height);
+                voterIds.add(vote.getVoterId());
             }
         }
+        long cumulativeWeight = 0;
+        for (long weight : votingModel.calcWeights(voteWeighting, voterIds, height).values()) {
+            cumulativeWeight += weight;
+        }
         return cumulativeWeight;
     }
 
@@ -32,6 +32,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @Singleton
 public class PhasingPollTable extends EntityDbTable<PhasingPoll> {
@@ -272,22 +273,29 @@ public class PhasingPollTable extends EntityDbTable<PhasingPoll> {
              PreparedStatement pstmt2 = con.prepareStatement("DELETE FROM phasing_poll_voter WHERE transaction_id = ?");
              PreparedStatement pstmt3 = con.prepareStatement("DELETE FROM phasing_vote WHERE transaction_id = ?");
              PreparedStatement pstmt4 = con.prepareStatement("DELETE FROM phasing_poll_linked_transaction WHERE transaction_id = ?")) {
+            int deleted = 0;
             while (pollsToTrim.hasNext()) {
                 long id = pollsToTrim.next().getId();
                 pstmt1.setLong(1, id);
-                pstmt1.executeUpdate();
+                deleted += pstmt1.executeUpdate();
                 pstmt2.setLong(1, id);
-                pstmt2.executeUpdate();
+                deleted += pstmt2.executeUpdate();
                 pstmt3.setLong(1, id);
-                pstmt3.executeUpdate();
+                deleted += pstmt3.executeUpdate();
                 pstmt4.setLong(1, id);
-                pstmt4.executeUpdate();
+                deleted += pstmt4.executeUpdate();
             }
+            addTrimmedRows(deleted);
         } catch (SQLException e) {
             throw new RuntimeException(e.toString(), e);
         }
     }
 
+    @Override
+    public Set<String> getTrimDependentTables() {
+        return Set.of("phasing_poll_voter", "phasing_vote", "phasing_poll_linked_transaction");
+    }
+
     private DbIterator<PhasingPoll> getAllFinishedPolls(int height) {
         Connection con = null;
         Block block = null;
@@ -27,6 +27,7 @@ import com.apollocurrency.aplwallet.apl.exchange.model.AddressEthExpiredSwaps;
 import com.apollocurrency.aplwallet.apl.exchange.model.DBSortOrder;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderSortBy;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderWithFreezing;
@@ -364,6 +365,27 @@ public class DexController {
         ).build();
     }
 
+    @GET
+    @Path("/order-book")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(tags = {"dex"}, summary = "Get order book depth", description = "Best price levels of the open APL orders for the pair currency, bids in the descending order of rates, asks in the ascending order",
+        responses = @ApiResponse(description = "Aggregated amounts and number of orders by pair rate", responseCode = "200",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DexOrderBookDepth.class))))
+    @PermitAll
+    public Response getOrderBook(@Parameter(description = "Paired currency. (ETH=1, PAX=2)", required = true) @QueryParam("pairCurrency") @NotNull Byte pairCurrency,
+                                 @Parameter(description = "Max number of price levels on each side, 10 by default") @QueryParam("depth") @DefaultValue("10") @Min(1) @Max(500) int depth) {
+        DexCurrency pairCur;
+        try {
+            pairCur = DexCurrency.getType(pairCurrency);
+        } catch (Exception ex) {
+            return Response.ok(JSON.toString(JSONResponses.ERROR_INCORRECT_REQUEST)).build();
+        }
+        if (pairCur == null || pairCur == DexCurrency.APL) {
+            return Response.ok(JSON.toString(JSONResponses.ERROR_INCORRECT_REQUEST)).build();
+        }
+        return Response.ok(service.getOrderBookDepth(pairCur, depth)).build();
+    }
+
     @GET
     @Path("/orders/{orderId}")
     @Produces(MediaType.APPLICATION_JSON)
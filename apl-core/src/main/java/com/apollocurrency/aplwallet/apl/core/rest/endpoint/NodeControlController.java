@@ -143,6 +143,8 @@ public class NodeControlController {
         NodeHealthResponse infoResponse = new NodeHealthResponse();
         infoResponse.healthInfo = bcService.getNodeHealth();
         infoResponse.healthInfo.usedDbConnections = null; // remove info
+        infoResponse.healthInfo.openShards = null;
+        infoResponse.healthInfo.usedShardDbConnections = null;
         infoResponse.networkingInfo = bcService.getNetworkingInfo();
         infoResponse.healthInfo.needReboot = !infoResponse.healthInfo.dbOK
             || (infoResponse.networkingInfo.inboundPeers == 0 && infoResponse.networkingInfo.outboundPeers == 0);
@@ -0,0 +1,365 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.rest.service;
+
+import com.apollocurrency.aplwallet.apl.core.account.AccountEventType;
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.account.observer.events.AccountEvent;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.GenesisImporter;
+import com.apollocurrency.aplwallet.apl.core.app.GlobalSync;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.config.Property;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>In-memory top holders and total supply/number of accounts aggregates, so that account statistics are served
+ * without scanning and sorting the account table on every request.</p>
+ * <p>Index keeps the accounts with the greatest positive balances and the 'floor' balance: all the accounts outside of
+ * the index have balance not greater than the floor, so the first accounts of the index are the top holders. Accounts,
+ * which balance was changed by the accepted block, are selected by one query and moved in or out of the index,
+ * their states before the block are kept to revert the index, when the block is popped off.</p>
+ * <p>Unconfirmed balance changes only refresh unconfirmed and forged balances of the indexed holders.</p>
+ * <p>Index is loaded from the db on the first request and when it does not have enough accounts above the floor,
+ * it is dropped when the block can not be reverted and by the blockchain scan.</p>
+ */
+@Slf4j
+@Singleton
+public class AccountStatisticsIndex {
+    static final int DEFAULT_INDEX_SIZE = 2 * Constants.MAX_TOP_ACCOUNTS_NUMBER;
+
+    private final AccountService accountService;
+    private final Blockchain blockchain;
+    private final GlobalSync globalSync;
+    private final int maxRollback;
+    private final int indexSize;
+
+    private final NavigableSet<Holder> holders = new TreeSet<>(Holder.BALANCE_ORDER);
+    private final Map<Long, Holder> holdersById = new HashMap<>();
+    // accounts, which balance is changed by the block being accepted
+    private final Set<Long> pendingAccounts = new LinkedHashSet<>();
+    // account states before and after each of the recent blocks, the last block is at the tail
+    private final Deque<BlockChanges> blockChanges = new ArrayDeque<>();
+    private long floor;
+    private long totalSupply;
+    private long numberOfAccounts;
+    private int height;
+    private boolean loaded;
+    private volatile AccountStatistics statistics;
+
+    @Inject
+    public AccountStatisticsIndex(AccountService accountService, Blockchain blockchain, GlobalSync globalSync,
+                                  @Property(value = "apl.maxRollback", defaultValue = "720") int maxRollback) {
+        this(accountService, blockchain, globalSync, maxRollback, DEFAULT_INDEX_SIZE);
+    }
+
+    public AccountStatisticsIndex(AccountService accountService, Blockchain blockchain, GlobalSync globalSync, int maxRollback, int indexSize) {
+        this.accountService = Objects.requireNonNull(accountService, "accountService is NULL");
+        this.blockchain = Objects.requireNonNull(blockchain, "blockchain is NULL");
+        this.globalSync = Objects.requireNonNull(globalSync, "globalSync is NULL");
+        this.maxRollback = maxRollback;
+        this.indexSize = indexSize;
+    }
+
+    /**
+     * @return statistics with at least the given number of top holders, unless there are less accounts with positive
+     * balance, consistent with the height of the statistics
+     */
+    public AccountStatistics getStatistics(int numberOfTopAccounts) {
+        AccountStatistics result = statistics;
+        if (result == null || !result.hasTopHolders(numberOfTopAccounts)) {
+            result = load(numberOfTopAccounts);
+        }
+        return result;
+    }
+
+    public synchronized void onAccountBalance(@Observes @AccountEvent(AccountEventType.BALANCE) Account account) {
+        if (loaded) {
+            pendingAccounts.add(account.getId());
+        }
+    }
+
+    /**
+     * Keep unconfirmed and forged balances of the top holders up to date between the blocks, balance and position
+     * of the holder are changed only by the accepted and popped off blocks
+     */
+    public synchronized void onAccountUnconfirmedBalance(@Observes @AccountEvent(AccountEventType.UNCONFIRMED_BALANCE) Account account) {
+        if (!loaded) {
+            return;
+        }
+        Holder indexed = holdersById.get(account.getId());
+        if (indexed == null || indexed.unconfirmedBalanceATM == account.getUnconfirmedBalanceATM()
+            && indexed.forgedBalanceATM == account.getForgedBalanceATM()) {
+            return;
+        }
+        holders.remove(indexed);
+        add(new Holder(indexed.id, indexed.balanceATM, account.getUnconfirmedBalanceATM(), account.getForgedBalanceATM()));
+        publish();
+    }
+
+    public synchronized void onBlockAcceptStarted(@Observes @BlockEvent(BlockEventType.BEFORE_BLOCK_ACCEPT) Block block) {
+        pendingAccounts.clear(); // accounts of the block, which failed to be pushed
+    }
+
+    public synchronized void onBlockAccepted(@Observes @BlockEvent(BlockEventType.AFTER_BLOCK_ACCEPT) Block block) {
+        if (!loaded) {
+            pendingAccounts.clear();
+            return;
+        }
+        if (block.getHeight() != height + 1) {
+            log.debug("Drop account statistics at height {}, accepted block height {}", height, block.getHeight());
+            clear();
+            return;
+        }
+        try {
+            List<Long> accountIds = new ArrayList<>(pendingAccounts);
+            pendingAccounts.clear();
+            List<Holder> before = selectHolders(accountIds, block.getHeight() - 1);
+            List<Holder> after = selectHolders(accountIds, block.getHeight());
+            for (int i = 0; i < accountIds.size(); i++) {
+                move(before.get(i), after.get(i));
+            }
+            blockChanges.addLast(new BlockChanges(block.getHeight(), before, after));
+            if (blockChanges.size() > maxRollback) {
+                blockChanges.removeFirst();
+            }
+            height = block.getHeight();
+            publish();
+        } catch (RuntimeException e) {
+            log.error("Unable to update account statistics by block at height " + block.getHeight(), e);
+            clear();
+        }
+    }
+
+    public synchronized void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        pendingAccounts.clear();
+        if (!loaded) {
+            return;
+        }
+        BlockChanges changes = blockChanges.peekLast();
+        if (block.getHeight() != height || changes == null || changes.height != height) {
+            log.debug("Drop account statistics at height {}, popped block height {}", height, block.getHeight());
+            clear();
+            return;
+        }
+        blockChanges.removeLast();
+        for (int i = changes.after.size() - 1; i >= 0; i--) {
+            move(changes.after.get(i), changes.before.get(i));
+        }
+        height--;
+        publish();
+    }
+
+    public synchronized void onBlockchainScanStarted(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        clear();
+    }
+
+    public synchronized void clear() {
+        holders.clear();
+        holdersById.clear();
+        pendingAccounts.clear();
+        blockChanges.clear();
+        loaded = false;
+        statistics = null;
+    }
+
+    private AccountStatistics load(int numberOfTopAccounts) {
+        // blocks are accepted and popped off under the write lock, so that loaded data match the blockchain height
+        globalSync.readLock();
+        try {
+            synchronized (this) {
+                AccountStatistics current = statistics;
+                if (current != null && current.hasTopHolders(numberOfTopAccounts)) {
+                    return current;
+                }
+                long start = System.currentTimeMillis();
+                clear();
+                int limit = Math.max(numberOfTopAccounts, indexSize);
+                height = blockchain.getHeight();
+                totalSupply = accountService.getTotalSupply();
+                numberOfAccounts = accountService.getTotalNumberOfAccounts();
+                List<Account> topHolders = accountService.getTopHolders(limit);
+                topHolders.forEach(account -> add(new Holder(account)));
+                floor = topHolders.size() < limit ? 0 : topHolders.get(topHolders.size() - 1).getBalanceATM();
+                loaded = true;
+                publish();
+                log.debug("Loaded {} top holders at height {} in {} ms", holders.size(), height, System.currentTimeMillis() - start);
+                return statistics;
+            }
+        } finally {
+            globalSync.readUnlock();
+        }
+    }
+
+    private List<Holder> selectHolders(List<Long> accountIds, int height) {
+        Map<Long, Account> accounts = new HashMap<>();
+        accountService.getAccounts(accountIds, height).forEach(account -> accounts.put(account.getId(), account));
+        List<Holder> result = new ArrayList<>(accountIds.size());
+        for (Long accountId : accountIds) {
+            Account account = accounts.get(accountId);
+            result.add(account != null ? new Holder(account) : new Holder(accountId, 0, 0, 0));
+        }
+        return result;
+    }
+
+    /**
+     * Change account state in the index and aggregates from the given one to the target one
+     */
+    private void move(Holder from, Holder to) {
+        if (from.balanceATM > 0) {
+            numberOfAccounts--;
+        }
+        if (to.balanceATM > 0) {
+            numberOfAccounts++;
+        }
+        if (to.id == GenesisImporter.CREATOR_ID) {
+            totalSupply = Math.abs(to.balanceATM);
+        }
+        Holder indexed = holdersById.get(to.id);
+        if (indexed != null) {
+            holders.remove(indexed);
+            holdersById.remove(to.id);
+            if (to.balanceATM > 0 && to.balanceATM >= floor) {
+                add(to);
+            }
+        } else if (to.balanceATM > floor) {
+            add(to);
+        }
+        while (holders.size() > indexSize) {
+            Holder last = holders.pollLast();
+            holdersById.remove(last.id);
+            floor = Math.max(floor, last.balanceATM);
+        }
+    }
+
+    private void add(Holder holder) {
+        holders.add(holder);
+        holdersById.put(holder.id, holder);
+    }
+
+    private void publish() {
+        statistics = new AccountStatistics(height, totalSupply, numberOfAccounts, List.copyOf(holders), floor == 0);
+    }
+
+    /**
+     * Immutable account statistics at the blockchain height
+     */
+    public static class AccountStatistics {
+        private final int height;
+        private final long totalSupply;
+        private final long totalNumberOfAccounts;
+        private final List<Holder> topHolders;
+        // all accounts with positive balance are in the top holders
+        private final boolean complete;
+
+        AccountStatistics(int height, long totalSupply, long totalNumberOfAccounts, List<Holder> topHolders, boolean complete) {
+            this.height = height;
+            this.totalSupply = totalSupply;
+            this.totalNumberOfAccounts = totalNumberOfAccounts;
+            this.topHolders = topHolders;
+            this.complete = complete;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public long getTotalSupply() {
+            return totalSupply;
+        }
+
+        public long getTotalNumberOfAccounts() {
+            return totalNumberOfAccounts;
+        }
+
+        /**
+         * @return accounts with the greatest balances in the descending order of balance
+         */
+        public List<Holder> getTopHolders(int numberOfTopAccounts) {
+            return topHolders.subList(0, Math.min(numberOfTopAccounts, topHolders.size()));
+        }
+
+        public long getTotalAmountOnTopAccounts(int numberOfTopAccounts) {
+            return getTopHolders(numberOfTopAccounts).stream().mapToLong(Holder::getBalanceATM).sum();
+        }
+
+        boolean hasTopHolders(int numberOfTopAccounts) {
+            return complete || topHolders.size() >= numberOfTopAccounts;
+        }
+    }
+
+    /**
+     * Balances of the account, balance is as of the statistics height, while unconfirmed and forged balances are
+     * the latest known ones
+     */
+    public static class Holder {
+        static final Comparator<Holder> BALANCE_ORDER = Comparator.comparingLong(Holder::getBalanceATM).reversed()
+            .thenComparingLong(Holder::getId);
+
+        private final long id;
+        private final long balanceATM;
+        private final long unconfirmedBalanceATM;
+        private final long forgedBalanceATM;
+
+        Holder(Account account) {
+            this(account.getId(), account.getBalanceATM(), account.getUnconfirmedBalanceATM(), account.getForgedBalanceATM());
+        }
+
+        Holder(long id, long balanceATM, long unconfirmedBalanceATM, long forgedBalanceATM) {
+            this.id = id;
+            this.balanceATM = balanceATM;
+            this.unconfirmedBalanceATM = unconfirmedBalanceATM;
+            this.forgedBalanceATM = forgedBalanceATM;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getBalanceATM() {
+            return balanceATM;
+        }
+
+        public long getUnconfirmedBalanceATM() {
+            return unconfirmedBalanceATM;
+        }
+
+        public long getForgedBalanceATM() {
+            return forgedBalanceATM;
+        }
+    }
+
+    private static class BlockChanges {
+        private final int height;
+        private final List<Holder> before;
+        private final List<Holder> after;
+
+        BlockChanges(int height, List<Holder> before, List<Holder> after) {
+            this.height = height;
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
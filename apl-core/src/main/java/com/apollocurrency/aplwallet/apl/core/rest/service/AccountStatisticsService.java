@@ -5,16 +5,12 @@ package com.apollocurrency.aplwallet.apl.core.rest.service;
 
 import com.apollocurrency.aplwallet.api.dto.account.AccountEffectiveBalanceDto;
 import com.apollocurrency.aplwallet.api.dto.account.AccountsCountDto;
-import com.apollocurrency.aplwallet.apl.core.account.model.Account;
-import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
-import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.Convert2;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 
@@ -25,58 +21,40 @@ import java.util.Random;
 @Singleton
 public class AccountStatisticsService {
     private BlockchainConfig blockchainConfig;
-    private Blockchain blockchain;
-    private AccountService accountService;
+    private AccountStatisticsIndex accountStatisticsIndex;
 
     @Inject
     public AccountStatisticsService(BlockchainConfig blockchainConfig,
-                                    Blockchain blockchain,
-                                    AccountService accountService) {
+                                    AccountStatisticsIndex accountStatisticsIndex) {
         this.blockchainConfig = Objects.requireNonNull(blockchainConfig, "blockchainConfig is NULL");
-        this.blockchain = Objects.requireNonNull(blockchain, "blockchain is NULL");
-        this.accountService = Objects.requireNonNull(accountService, "accountService is NULL");
+        this.accountStatisticsIndex = Objects.requireNonNull(accountStatisticsIndex, "accountStatisticsIndex is NULL");
     }
 
+    /**
+     * @return statistics served by the {@link AccountStatisticsIndex}, aggregates and balances of the top holders are
+     * consistent with the returned height, unconfirmed and forged balances are the latest ones
+     */
     public AccountsCountDto getAccountsStatistic(int numberOfAccounts) {
         log.trace("start getAccountsStatistic = {}", numberOfAccounts);
+        AccountStatisticsIndex.AccountStatistics statistics = accountStatisticsIndex.getStatistics(numberOfAccounts);
         AccountsCountDto dto = new AccountsCountDto();
-        dto.totalSupply = accountService.getTotalSupply();
-        log.trace("getAccountsStatistic dto.totalSupply= {}", dto.totalSupply);
-        dto.totalNumberOfAccounts = accountService.getTotalNumberOfAccounts();
-        log.trace("getAccountsStatistic dto.totalNumberOfAccounts= {}", dto.totalNumberOfAccounts);
+        dto.height = statistics.getHeight();
+        dto.totalSupply = statistics.getTotalSupply();
+        dto.totalNumberOfAccounts = statistics.getTotalNumberOfAccounts();
         dto.numberOfTopAccounts = numberOfAccounts;
-        dto.totalAmountOnTopAccounts = accountService.getTotalAmountOnTopAccounts(numberOfAccounts);
-        log.trace("Found totalAmountOnTopAccounts = {} by numberOfAccounts={}", dto.totalAmountOnTopAccounts, numberOfAccounts);
-        List<Account> topHoldersList = accountService.getTopHolders(numberOfAccounts);
-        log.trace("topHoldersList = [{}]", topHoldersList.size());
-        int index = 0;
-        for (Account account : topHoldersList) {
-            long start = System.currentTimeMillis();
-            log.trace("accountJson START for  account={}, index={}", account.getId(), index);
-            AccountEffectiveBalanceDto accountJson = accountBalance(account, false, blockchain.getHeight());
-            log.trace("accountJson = {}, index={} in '{}' msec, DONE", accountJson, index, System.currentTimeMillis() - start);
-            putAccountNameInfo(accountJson, account.getId(), false);
+        dto.totalAmountOnTopAccounts = statistics.getTotalAmountOnTopAccounts(numberOfAccounts);
+        for (AccountStatisticsIndex.Holder holder : statistics.getTopHolders(numberOfAccounts)) {
+            AccountEffectiveBalanceDto accountJson = new AccountEffectiveBalanceDto();
+            accountJson.setBalanceATM(holder.getBalanceATM());
+            accountJson.setUnconfirmedBalanceATM(holder.getUnconfirmedBalanceATM());
+            accountJson.setForgedBalanceATM(holder.getForgedBalanceATM());
+            putAccountNameInfo(accountJson, holder.getId(), false);
             dto.topHolders.add(accountJson);
-            index++;
         }
+        log.trace("getAccountsStatistic at height {}, topHolders = [{}]", dto.height, dto.topHolders.size());
         return dto;
     }
 
-    private AccountEffectiveBalanceDto accountBalance(Account account, boolean includeEffectiveBalance, int height) {
-        AccountEffectiveBalanceDto json = new AccountEffectiveBalanceDto();
-        if (account != null) {
-            json.setBalanceATM(account.getBalanceATM());
-            json.setUnconfirmedBalanceATM(account.getUnconfirmedBalanceATM());
-            json.setForgedBalanceATM(account.getForgedBalanceATM());
-            if (includeEffectiveBalance) {
-                json.effectiveBalanceAPL = accountService.getEffectiveBalanceAPL(account, height, false);
-                json.setEffectiveBalanceAPL(accountService.getGuaranteedBalanceATM(account,
-                    blockchainConfig.getGuaranteedBalanceConfirmations(), height));
-            }
-        }
-        return json;
-    }
-
     private void putAccountNameInfo(AccountEffectiveBalanceDto json, long accountId, boolean isPrivate) {
         json.account = Long.toUnsignedString(accountId);
         if (isPrivate) {
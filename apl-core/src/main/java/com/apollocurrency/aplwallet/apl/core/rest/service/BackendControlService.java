@@ -16,9 +16,11 @@ import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.db.BlockDao;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.db.ShardDataSourcePoolStats;
 import com.apollocurrency.aplwallet.apl.core.http.AdminPasswordVerifier;
 import com.apollocurrency.aplwallet.apl.core.peer.Peer;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.Converter;
+import com.apollocurrency.aplwallet.apl.core.shard.ShardManagement;
 import lombok.Setter;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -124,6 +126,11 @@ public class BackendControlService {
         info.dbOK = chekDataBaseOK();
         info.blockchainHeight = blockchain.getHeight();
         info.usedDbConnections = databaseManager.getDataSource().getJmxBean().getActiveConnections();
+        if (databaseManager instanceof ShardManagement) {
+            ShardDataSourcePoolStats shardPoolStats = ((ShardManagement) databaseManager).getShardDataSourcePoolStats();
+            info.openShards = shardPoolStats.getOpenShards();
+            info.usedShardDbConnections = shardPoolStats.getActiveConnections();
+        }
         return info;
     }
 
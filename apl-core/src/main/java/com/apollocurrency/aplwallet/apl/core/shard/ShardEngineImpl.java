@@ -40,6 +40,8 @@ import com.apollocurrency.aplwallet.apl.util.FileUtils;
 import com.apollocurrency.aplwallet.apl.util.StringUtils;
 import com.apollocurrency.aplwallet.apl.util.Zip;
 import com.apollocurrency.aplwallet.apl.util.env.dirprovider.DirProvider;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
@@ -50,11 +52,17 @@ import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -97,6 +105,7 @@ public class ShardEngineImpl implements ShardEngine {
     private Zip zipComponent;
     private AplAppStatus aplAppStatus;
     private volatile String durableStatusTaskId;
+    private final int csvExportThreads;
 
 
     @Inject
@@ -108,7 +117,8 @@ public class ShardEngineImpl implements ShardEngine {
                            DerivedTablesRegistry registry,
                            ShardRecoveryDao shardRecoveryDao,
                            ShardDao shardDao,
-                           Zip zipComponent, AplAppStatus aplAppStatus) {
+                           Zip zipComponent, AplAppStatus aplAppStatus,
+                           PropertiesHolder propertiesHolder) {
         this.dirProvider = Objects.requireNonNull(dirProvider, "dirProvider is NULL");
         this.databaseManager = Objects.requireNonNull(databaseManager, "databaseManager is NULL");
         this.trimService = Objects.requireNonNull(trimService, "trimService is NULL");
@@ -119,6 +129,8 @@ public class ShardEngineImpl implements ShardEngine {
         this.zipComponent = Objects.requireNonNull(zipComponent, "zipComponent is NULL");
         this.aplAppStatus = Objects.requireNonNull(aplAppStatus, "aplAppStatus is NULL");
         this.shardDao = Objects.requireNonNull(shardDao, "shardDao is NULL");
+        int exportThreads = Objects.requireNonNull(propertiesHolder, "propertiesHolder is NULL").getIntProperty("apl.shardExportThreads", 0);
+        this.csvExportThreads = exportThreads > 0 ? exportThreads : Runtime.getRuntime().availableProcessors();
     }
 
     public void prepare() {
@@ -457,35 +469,7 @@ public class ShardEngineImpl implements ShardEngine {
                         .forEach(FileUtils::deleteFileIfExistsQuietly);
                 }
             }
-            for (TableInfo tableInfo : allTables) {
-                exportTableWithRecovery(recovery, tableInfo.getName(), () -> {
-                    switch (tableInfo.getName()) {
-                        case ShardConstants.SHARD_TABLE_NAME:
-                            return csvExporter.exportShardTable(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
-                        case ShardConstants.BLOCK_INDEX_TABLE_NAME:
-                            return csvExporter.exportBlockIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
-                        case ShardConstants.TRANSACTION_INDEX_TABLE_NAME:
-                            return csvExporter.exportTransactionIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
-                        case ShardConstants.BLOCK_TABLE_NAME:
-                            return csvExporter.exportBlock(paramInfo.getSnapshotBlockHeight());
-                        case ShardConstants.TRANSACTION_TABLE_NAME:
-                            return csvExporter.exportTransactions(paramInfo.getExcludeInfo().getExportDbIds(), paramInfo.getSnapshotBlockHeight());
-                        case ShardConstants.ACCOUNT_TABLE_NAME:
-                            return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST", "HEIGHT", "DELETED"), pruningTime, null);
-//                        case ShardConstants.DEX_ORDER_TABLE_NAME: // now it's returned back to usual export for derived tables
-                        // this is en example how to export using specified columns + index on it
-//                            return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST"), -1, "HEIGHT");
-                        case ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME:
-                            return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST", "HEIGHT", "DELETED"), pruningTime, " account_id, currency_id");
-                        case ShardConstants.ACCOUNT_ASSET_TABLE_NAME:
-                            return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST", "HEIGHT", "DELETED"), pruningTime, " account_id, asset_id");
-
-                        default:
-                            return exportDerivedTable(tableInfo, paramInfo, pruningTime);
-                    }
-                });
-                incrementDurableTaskUpdateByPercent(0.7);
-            }
+            exportTablesConcurrently(recovery, allTables, paramInfo, pruningTime);
             state = CSV_EXPORT_FINISHED;
             updateToFinalStepState(recovery, state);
             log.debug("Export finished in {} secs", (System.currentTimeMillis() - startTime) / 1000);
@@ -498,6 +482,78 @@ public class ShardEngineImpl implements ShardEngine {
         return state;
     }
 
+    /**
+     * Export tables on the bounded pool, table per task. Tables are independent, each export task takes its own
+     * connection from the pool and reads rows only up to the snapshot height, so all files are consistent with each other.
+     * Each exported table is stored into the recovery as soon as it is done, so that after crash only not finished tables
+     * will be exported again. On the first failure not started exports are cancelled, running ones are awaited
+     * to not leave writers on the files, which will be removed and exported again on the next attempt. The same is done,
+     * when the calling thread is interrupted, its interrupted status is restored.
+     */
+    private void exportTablesConcurrently(ShardRecovery recovery, List<TableInfo> tables, CommandParamInfo paramInfo, int pruningTime) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(csvExportThreads, tables.size()), new NamedThreadFactory("ShardEngine:csvExport", true));
+        List<Future<?>> futures = new ArrayList<>(tables.size());
+        try {
+            for (TableInfo tableInfo : tables) {
+                futures.add(executor.submit(() -> {
+                    exportTableWithRecovery(recovery, tableInfo.getName(), () -> exportTable(tableInfo, paramInfo, pruningTime));
+                    incrementDurableTaskUpdateByPercent(0.7);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            futures.forEach(future -> future.cancel(false));
+            awaitTermination(executor);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Unable to export table", e instanceof ExecutionException ? e.getCause() : e);
+        } finally {
+            awaitTermination(executor);
+        }
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Long exportTable(TableInfo tableInfo, CommandParamInfo paramInfo, int pruningTime) {
+        switch (tableInfo.getName()) {
+            case ShardConstants.SHARD_TABLE_NAME:
+                return csvExporter.exportShardTable(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
+            case ShardConstants.BLOCK_INDEX_TABLE_NAME:
+                return csvExporter.exportBlockIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
+            case ShardConstants.TRANSACTION_INDEX_TABLE_NAME:
+                return csvExporter.exportTransactionIndex(paramInfo.getSnapshotBlockHeight(), paramInfo.getCommitBatchSize());
+            case ShardConstants.BLOCK_TABLE_NAME:
+                return csvExporter.exportBlock(paramInfo.getSnapshotBlockHeight());
+            case ShardConstants.TRANSACTION_TABLE_NAME:
+                return csvExporter.exportTransactions(paramInfo.getExcludeInfo().getExportDbIds(), paramInfo.getSnapshotBlockHeight());
+            case ShardConstants.ACCOUNT_TABLE_NAME:
+                return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST", "HEIGHT", "DELETED"), pruningTime, null);
+//            case ShardConstants.DEX_ORDER_TABLE_NAME: // now it's returned back to usual export for derived tables
+            // this is en example how to export using specified columns + index on it
+//                return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST"), -1, "HEIGHT");
+            case ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME:
+                return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST", "HEIGHT", "DELETED"), pruningTime, " account_id, currency_id");
+            case ShardConstants.ACCOUNT_ASSET_TABLE_NAME:
+                return exportDerivedTable(tableInfo, paramInfo, Set.of("DB_ID", "LATEST", "HEIGHT", "DELETED"), pruningTime, " account_id, asset_id");
+
+            default:
+                return exportDerivedTable(tableInfo, paramInfo, pruningTime);
+        }
+    }
+
     private int trimDerivedTables(int height) {
         TransactionalDataSource dataSource = databaseManager.getDataSource();
         boolean inTransaction = dataSource.isInTransaction();
@@ -592,7 +648,9 @@ public class ShardEngineImpl implements ShardEngine {
             Long exported = exportPerformer.get();
             log.debug("Exported '{}', count {} to {} in {} secs", tableName, exported, tableCsvPath,
                 (System.currentTimeMillis() - startTableExportTime) / 1000);
-            updateRecovery(recovery, tableName);
+            synchronized (recovery) { // tables are exported concurrently
+                updateRecovery(recovery, tableName);
+            }
         }
     }
 
@@ -816,7 +874,7 @@ public class ShardEngineImpl implements ShardEngine {
         }
     }
 
-    private void incrementDurableTaskUpdateByPercent(Double percentIncreaseValue) {
+    private synchronized void incrementDurableTaskUpdateByPercent(Double percentIncreaseValue) {
         checkOrInitAppStatus();
         aplAppStatus.durableTaskUpdateAddPercents(durableStatusTaskId, percentIncreaseValue);
     }
@@ -9,10 +9,14 @@ import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.BlockchainProcessor;
 import com.apollocurrency.aplwallet.apl.core.app.GenesisImporter;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.db.DerivedTablesRegistry;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.dao.ShardDao;
 import com.apollocurrency.aplwallet.apl.core.db.dao.model.Shard;
 import com.apollocurrency.aplwallet.apl.core.db.dao.model.ShardState;
+import com.apollocurrency.aplwallet.apl.core.db.derived.DerivedDbTable;
+import com.apollocurrency.aplwallet.apl.core.db.derived.DerivedTableInterface;
 import com.apollocurrency.aplwallet.apl.core.files.DownloadableFilesManager;
 import com.apollocurrency.aplwallet.apl.core.files.shards.ShardPresentData;
 import com.apollocurrency.aplwallet.apl.core.shard.helper.CsvImporter;
@@ -21,17 +25,25 @@ import com.apollocurrency.aplwallet.apl.crypto.Convert;
 import com.apollocurrency.aplwallet.apl.util.ChunkedFileOps;
 import com.apollocurrency.aplwallet.apl.util.FileUtils;
 import com.apollocurrency.aplwallet.apl.util.Zip;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import com.apollocurrency.aplwallet.apl.util.task.NamedThreadFactory;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 @Slf4j
@@ -47,9 +59,11 @@ public class ShardImporter {
     private Zip zipComponent;
     private DownloadableFilesManager downloadableFilesManager;
     private AplAppStatus aplAppStatus;
+    private DatabaseManager databaseManager;
+    private final int csvImportThreads;
 
     @Inject
-    public ShardImporter(ShardDao shardDao, BlockchainConfig blockchainConfig, GenesisImporter genesisImporter, Blockchain blockchain, DerivedTablesRegistry derivedTablesRegistry, CsvImporter csvImporter, Zip zipComponent, DataTagDao dataTagDao, DownloadableFilesManager downloadableFilesManager, AplAppStatus aplAppStatus) {
+    public ShardImporter(ShardDao shardDao, BlockchainConfig blockchainConfig, GenesisImporter genesisImporter, Blockchain blockchain, DerivedTablesRegistry derivedTablesRegistry, CsvImporter csvImporter, Zip zipComponent, DataTagDao dataTagDao, DownloadableFilesManager downloadableFilesManager, AplAppStatus aplAppStatus, DatabaseManager databaseManager, PropertiesHolder propertiesHolder) {
         this.shardDao = shardDao;
         this.genesisImporter = genesisImporter;
         this.blockchain = blockchain;
@@ -60,7 +74,9 @@ public class ShardImporter {
         this.dataTagDao = dataTagDao;
         this.aplAppStatus = aplAppStatus;
         this.blockchainConfig = blockchainConfig;
-
+        this.databaseManager = Objects.requireNonNull(databaseManager, "databaseManager is NULL");
+        int importThreads = Objects.requireNonNull(propertiesHolder, "propertiesHolder is NULL").getIntProperty("apl.shardImportThreads", 0);
+        this.csvImportThreads = importThreads > 0 ? importThreads : Runtime.getRuntime().availableProcessors();
     }
 
     public void importShardByFileId(ShardPresentData shardPresentData) {
@@ -123,22 +139,16 @@ public class ShardImporter {
             ShardConstants.BLOCK_TABLE_NAME, ShardConstants.TRANSACTION_TABLE_NAME,
             ShardConstants.TRANSACTION_INDEX_TABLE_NAME, ShardConstants.BLOCK_INDEX_TABLE_NAME);
         log.debug("1. Will be imported [{}] tables...", tables.size());
+        List<String> blockchainTables = new ArrayList<>();
         for (String table : tables) {
             if (excludedTables.contains(table)) {
                 log.warn("Skip import {}", table);
-                continue;
-            }
-            try {
-                log.debug("start importing '{}'...", table);
-                aplAppStatus.durableTaskUpdate(genesisTaskId, "Loading '" + table + "'", 0.6);
-                long rowsImported = csvImporter.importCsv(table, ShardConstants.DEFAULT_COMMIT_BATCH_SIZE, true);
-                log.debug("Imported '{}' rows = {}", table, rowsImported);
-            } catch (Exception e) {
-                log.error("CSV import error for '{}', RETURN.......", table, e);
-                aplAppStatus.durableTaskFinished(genesisTaskId, true, "Shard data import");
-                throw new RuntimeException(e);
+            } else {
+                blockchainTables.add(table);
             }
         }
+        importTablesConcurrently(genesisTaskId, blockchainTables,
+            table -> csvImporter.importCsv(table, ShardConstants.DEFAULT_COMMIT_BATCH_SIZE, true));
         Shard lastShard = shardDao.getLastShard();
         if (lastShard == null) {
             if (!excludedTables.contains(ShardConstants.SHARD_TABLE_NAME)) {
@@ -156,39 +166,103 @@ public class ShardImporter {
 
 
         // import derived tables
-        Collection<String> tableNames = derivedTablesRegistry.getDerivedTableNames();
-        log.debug("2. Will be imported [{}] tables...", tables.size());
-        for (String table : tableNames) {
+        List<String> tableNames = new ArrayList<>(derivedTablesRegistry.getDerivedTableNames());
+        log.debug("2. Will be imported [{}] tables...", tableNames.size());
+        // blocks are already imported, account tables get the height of the first block
+        Map<String, Object> accountDefaultParams = tableNames.stream().anyMatch(ShardImporter::isAccountTable)
+            ? Map.of("height", blockchain.findFirstBlock().getHeight()) : Map.of();
+        importTablesConcurrently(genesisTaskId, tableNames, table -> {
+            long rowsImported;
+            if (isAccountTable(table)) {
+                rowsImported = csvImporter.importCsvWithDefaultParams(table, 100, true, accountDefaultParams);
+            } else if (ShardConstants.TAGGED_DATA_TABLE_NAME.equalsIgnoreCase(table)) {
+                rowsImported = csvImporter.importCsvWithRowHook(table, 100, true, (row) -> {
+                    Object parsedTags = row.get("parsed_tags");
+                    Object height = row.get("height");
+                    if (parsedTags != null) {
+                        Object[] tagArray = (Object[]) parsedTags;
+                        dataTagDao.add(Arrays.copyOf(tagArray, tagArray.length, String[].class), Integer.parseInt((String) height));
+                    }
+                });
+            } else {
+                rowsImported = csvImporter.importCsv(table, 100, true);
+            }
+            DerivedTableInterface derivedTable = derivedTablesRegistry.getDerivedTable(table);
+            if (derivedTable instanceof DerivedDbTable) {
+                // rows were imported bypassing the table, so that its cached data is outdated
+                ((DerivedDbTable<?>) derivedTable).clearCache();
+            }
+            return rowsImported;
+        });
+        // remove all extracted *.csv files after successful importing from zip shard archive(s)
+        log.debug("Start deleting imported CSV files from folder: {}", csvImporter.getDataExportPath());
+        FileUtils.deleteFilesByPattern(csvImporter.getDataExportPath(), new String[]{"csv"}, null);
+        aplAppStatus.durableTaskFinished(genesisTaskId, false, "Shard data import");
+    }
+
+    /**
+     * Import tables on the bounded pool, table per task. Tables are independent, each task imports its csv file in the
+     * own transaction on the own connection, so that pending changes of the current transaction are committed first
+     * to not lock the imported tables. Progress is reported as soon as each table is imported.
+     * On the first failure not started imports are cancelled, running ones are awaited and import task is finished
+     * as cancelled.
+     */
+    private void importTablesConcurrently(String taskId, List<String> tables, TableImport tableImport) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        if (dataSource.isInTransaction()) {
+            dataSource.commit(false);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(csvImportThreads, tables.size()), new NamedThreadFactory("ShardImporter:csvImport", true));
+        List<Future<Long>> futures = new ArrayList<>(tables.size());
+        try {
+            for (String table : tables) {
+                futures.add(executor.submit(importTask(taskId, table, tableImport)));
+            }
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            futures.forEach(future -> future.cancel(false));
+            awaitTermination(executor);
+            aplAppStatus.durableTaskFinished(taskId, true, "Shard data import");
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException(e instanceof ExecutionException ? e.getCause() : e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Callable<Long> importTask(String taskId, String table, TableImport tableImport) {
+        return () -> {
             try {
                 log.debug("start importing '{}'...", table);
-                aplAppStatus.durableTaskUpdate(genesisTaskId, "Loading '" + table + "'", 0.6);
-                long rowsImported;
-                if (ShardConstants.ACCOUNT_TABLE_NAME.equalsIgnoreCase(table) || ShardConstants.ACCOUNT_ASSET_TABLE_NAME.equalsIgnoreCase(table) || ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME.equalsIgnoreCase(table)) {
-                    rowsImported = csvImporter.importCsvWithDefaultParams(table, 100, true,
-                        Map.of("height", blockchain.findFirstBlock().getHeight()));
-                } else if (ShardConstants.TAGGED_DATA_TABLE_NAME.equalsIgnoreCase(table)) {
-                    rowsImported = csvImporter.importCsvWithRowHook(table, 100, true, (row) -> {
-                        Object parsedTags = row.get("parsed_tags");
-                        Object height = row.get("height");
-                        if (parsedTags != null) {
-                            Object[] tagArray = (Object[]) parsedTags;
-                            dataTagDao.add(Arrays.copyOf(tagArray, tagArray.length, String[].class), Integer.parseInt((String) height));
-                        }
-                    });
-                } else {
-                    rowsImported = csvImporter.importCsv(table, 100, true);
-                }
+                long rowsImported = tableImport.importTable(table);
                 log.debug("Imported '{}' rows = {}", table, rowsImported);
+                aplAppStatus.durableTaskUpdate(taskId, "Imported '" + table + "'", 0.6);
+                return rowsImported;
             } catch (Exception e) {
                 log.error("CSV import error for '{}', RETURN.......", table, e);
-                aplAppStatus.durableTaskFinished(genesisTaskId, true, "Shard data import");
-                throw new RuntimeException(e);
+                throw e;
             }
+        };
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        // remove all extracted *.csv files after successful importing from zip shard archive(s)
-        log.debug("Start deleting imported CSV files from folder: {}", csvImporter.getDataExportPath());
-        FileUtils.deleteFilesByPattern(csvImporter.getDataExportPath(), new String[]{"csv"}, null);
-        aplAppStatus.durableTaskFinished(genesisTaskId, false, "Shard data import");
+    }
+
+    private static boolean isAccountTable(String table) {
+        return ShardConstants.ACCOUNT_TABLE_NAME.equalsIgnoreCase(table) || ShardConstants.ACCOUNT_ASSET_TABLE_NAME.equalsIgnoreCase(table) || ShardConstants.ACCOUNT_CURRENCY_TABLE_NAME.equalsIgnoreCase(table);
     }
 
     private Path unzipMainOptionalArchives(ShardPresentData shardPresentData, String genesisTaskId) {
@@ -225,4 +299,9 @@ public class ShardImporter {
         aplAppStatus.durableTaskFinished(genesisTaskId, true, "Shard data import");
         throw new ShardArchiveProcessingException("Zip file can't be extracted, result = '" + unpackResult + "' : " + zipInFolder.toString());
     }
+
+    @FunctionalInterface
+    private interface TableImport {
+        long importTable(String table) throws Exception;
+    }
 }
@@ -5,10 +5,11 @@
 package com.apollocurrency.aplwallet.apl.core.shard;
 
 import com.apollocurrency.aplwallet.apl.core.db.DbVersion;
+import com.apollocurrency.aplwallet.apl.core.db.ShardDataSourceIterator;
+import com.apollocurrency.aplwallet.apl.core.db.ShardDataSourcePoolStats;
 import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -21,18 +22,23 @@ public interface ShardManagement {
     long TEMP_DB_IDENTITY = -1L;
 
     /**
-     * Number of shard data sources totally keeped in cache
+     * Default number of shard data sources totally keeped in cache, see 'apl.maxOpenShards'
      */
     long MAX_CACHED_SHARDS_NUMBER = 6;
 
     /**
-     * Total time after latest cache entry access before it gets evicted from cache.
+     * Default time (minutes) after latest cache entry access before it gets evicted from cache, see 'apl.shardIdleTimeout'
      */
     long SHARD_EVICTION_TIME = 15;
 
 
     void initFullShards(Collection<Long> ids);
 
+    /**
+     * Register completely created shard, its data source (if opened) is not pinned in the cache anymore
+     *
+     * @param shard id of the full shard
+     */
     void addFullShard(Long shard);
 
     /**
@@ -79,7 +85,8 @@ public interface ShardManagement {
     /**
      * Method gives ability to create new 'shard database' file with partially initialized internal schema.
      * It opens existing shard file and adds it into cached shard data source list.
-     * Partial schema is specified by dbVersion implementation
+     * Partial schema is specified by dbVersion implementation.
+     * Shard data source is pinned in the cache and will not be closed until shard is added by {@link #addFullShard(Long)}
      *
      * @param shardId   shard Id to be added, can be NULL then an next shardId is selected from 'SHARD' table
      * @param dbVersion 'partial' or 'full' kind of 'schema script' implementation class can be supplied
@@ -89,18 +96,34 @@ public interface ShardManagement {
 
 
     /**
-     * Return list of data sources with state = FULL. Each datasource point to not empty shard db, which store blocks and transactions for specific shard
+     * Return list of data sources with state = FULL. Each datasource point to not empty shard db, which store blocks and transactions for specific shard.
+     * Returned data sources are pinned in the shard pool and will not be closed until all the shard data sources are closed,
+     * prefer {@link #getAllFullDataSourcesIterator()} to keep the number of open shards limited
      *
      * @return list of full shard data sources
      */
     List<TransactionalDataSource> getAllFullDataSources(Long numberOfShards);
 
     /**
-     * Return Iterator of data sources with state = FULL. Each datasource point to not empty shard db, which store blocks and transactions for specific shard
+     * Return Iterator of data sources with state = FULL. Each datasource point to not empty shard db, which store blocks and transactions for specific shard.
+     * Returned data sources are leased and will not be closed by the shard pool until the iterator is closed
      *
-     * @return list of full shard data sources
+     * @return iterator of full shard data sources
+     */
+    ShardDataSourceIterator getAllFullDataSourcesIterator();
+
+    /**
+     * Same as {@link #getAllFullDataSourcesIterator()}, but only for the given shards, which are full
+     *
+     * @param shardIds ids of the shards to iterate
+     * @return iterator of full shard data sources in the descending order of shard id
+     */
+    ShardDataSourceIterator getFullDataSourcesIterator(Collection<Long> shardIds);
+
+    /**
+     * @return number of opened shard data sources and their connection usage
      */
-    Iterator<TransactionalDataSource> getAllFullDataSourcesIterator();
+    ShardDataSourcePoolStats getShardDataSourcePoolStats();
 
     /**
      * Close all datasources related to shards, this method will close all opened datasources excluding current main datasource
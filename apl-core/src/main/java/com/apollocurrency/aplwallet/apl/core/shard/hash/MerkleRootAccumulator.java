@@ -0,0 +1,205 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard.hash;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>Compact, append only accumulator of the merkle tree leaves, which calculates the same merkle root as
+ * {@link MerkleTree} built from the same leaves</p>
+ * <p>Only leaf hashes are stored, one after another in the single array, intermediate nodes are never kept
+ * and computed on demand by {@link MerkleRootAccumulator#getRoot()} using no more than log2(numberOfLeaves)
+ * temporary hashes</p>
+ * <p>
+ * Note, that {@link MerkleTree} pairs each of the first n/2 leaves of the complete bottom level with one of the
+ * last n/2 leaves, so leaf hashes should be kept till the end and root can not be folded from the O(log(n)) frontier
+ * without breaking compatibility with already calculated shard hashes
+ * </p>
+ * <p>This class is not thread-safe</p>
+ */
+public class MerkleRootAccumulator {
+    private static final int DEFAULT_CAPACITY = 16;
+    private final MessageDigest digest;
+    private final int hashLength;
+    private byte[] leaves;
+    private int size;
+
+    /**
+     * Create empty accumulator
+     *
+     * @param digest message digest for data hashing
+     */
+    public MerkleRootAccumulator(MessageDigest digest) {
+        this(digest, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create empty accumulator with preallocated space for the expected number of leaves
+     *
+     * @param digest         message digest for data hashing
+     * @param expectedLeaves number of leaves, which is expected to be appended
+     */
+    public MerkleRootAccumulator(MessageDigest digest, int expectedLeaves) {
+        this.digest = Objects.requireNonNull(digest, "digest cannot be null");
+        this.hashLength = digest.getDigestLength();
+        if (hashLength <= 0) {
+            throw new IllegalArgumentException("Digest " + digest.getAlgorithm() + " has no fixed length");
+        }
+        this.leaves = new byte[Math.max(expectedLeaves, 1) * hashLength];
+    }
+
+    // index of the leaf at the given position of the complete level, which was filled by appending leaves to the
+    // MerkleTree: leaves of the twice smaller level are pushed down to the even positions, new leaves take odd ones
+    static int getLeafIndex(int levelSize, int position) {
+        while (levelSize > 1) {
+            if ((position & 1) == 1) {
+                return levelSize / 2 + position / 2;
+            }
+            position /= 2;
+            levelSize /= 2;
+        }
+        return 0;
+    }
+
+    /**
+     * @return name of the digest algorithm used for leaves hashing
+     */
+    public String getAlgorithm() {
+        return digest.getAlgorithm();
+    }
+
+    /**
+     * @return number of appended leaves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add new non-hashed data to the end of tree
+     *
+     * @param value non-hashed data to append
+     */
+    public void appendLeaf(byte[] value) {
+        appendHashedLeaf(digest.digest(value));
+    }
+
+    /**
+     * Add new leaf hash to the end of tree
+     *
+     * @param hash hashed data to append, should have length of the digest
+     */
+    public void appendHashedLeaf(byte[] hash) {
+        if (hash.length != hashLength) {
+            throw new IllegalArgumentException("Expected hash of " + hashLength + " bytes, got " + hash.length);
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(hash, 0, leaves, size * hashLength, hashLength);
+        size++;
+    }
+
+    /**
+     * Add leaves of the another accumulator to the end of tree
+     *
+     * @param other     accumulator to copy leaves from, should use the same digest algorithm
+     * @param fromIndex index of the first leaf to copy (inclusive)
+     * @param toIndex   index of the last leaf to copy (exclusive)
+     */
+    public void appendLeaves(MerkleRootAccumulator other, int fromIndex, int toIndex) {
+        if (other.hashLength != hashLength || !other.getAlgorithm().equals(getAlgorithm())) {
+            throw new IllegalArgumentException("Digest algorithm mismatch: " + getAlgorithm() + " and " + other.getAlgorithm());
+        }
+        Objects.checkFromToIndex(fromIndex, toIndex, other.size);
+        int count = toIndex - fromIndex;
+        ensureCapacity(size + count);
+        System.arraycopy(other.leaves, fromIndex * hashLength, leaves, size * hashLength, count * hashLength);
+        size += count;
+    }
+
+    /**
+     * @param index index of the leaf
+     * @return copy of the leaf hash
+     */
+    public byte[] getLeaf(int index) {
+        Objects.checkIndex(index, size);
+        return Arrays.copyOfRange(leaves, index * hashLength, (index + 1) * hashLength);
+    }
+
+    /**
+     * Remove leaves from the end of tree, so that only first newSize leaves will remain
+     *
+     * @param newSize number of leaves to keep
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0) {
+            throw new IllegalArgumentException("Size should not be negative: " + newSize);
+        }
+        size = Math.min(size, newSize);
+    }
+
+    /**
+     * Remove leaves from the beginning of tree
+     *
+     * @param count number of leaves to remove
+     */
+    public void removeFirst(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count should not be negative: " + count);
+        }
+        int removed = Math.min(count, size);
+        System.arraycopy(leaves, removed * hashLength, leaves, 0, (size - removed) * hashLength);
+        size -= removed;
+    }
+
+    /**
+     * Remove all leaves
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return merkle root or null when tree is empty
+     */
+    public byte[] getRoot() {
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return getLeaf(0);
+        }
+        int levelSize = Integer.highestOneBit(size);
+        return getNodeHash(levelSize, 0, levelSize);
+    }
+
+    // hash of the subtree over [from, from + count) nodes of the complete level, which has levelSize nodes,
+    // leaves outside of the complete level are paired with the leftmost nodes of it
+    private byte[] getNodeHash(int levelSize, int from, int count) {
+        if (count == 1) {
+            int leafIndex = getLeafIndex(levelSize, from);
+            int outerLeafIndex = levelSize + from;
+            if (outerLeafIndex < size) {
+                digest.update(leaves, leafIndex * hashLength, hashLength);
+                digest.update(leaves, outerLeafIndex * hashLength, hashLength);
+                return digest.digest();
+            }
+            return getLeaf(leafIndex);
+        }
+        byte[] left = getNodeHash(levelSize, from, count / 2);
+        byte[] right = getNodeHash(levelSize, from + count / 2, count / 2);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    private void ensureCapacity(int leavesCount) {
+        int required = leavesCount * hashLength;
+        if (required > leaves.length) {
+            leaves = Arrays.copyOf(leaves, Math.max(required, leaves.length * 2));
+        }
+    }
+}
@@ -6,22 +6,29 @@ package com.apollocurrency.aplwallet.apl.core.shard.hash;
 
 import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
 import com.apollocurrency.aplwallet.apl.core.db.dao.ShardDao;
 import com.apollocurrency.aplwallet.apl.core.db.dao.model.Shard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * <p>This implementation uses merkle tree and block signatures for hash calculations</p>
+ * <p>Leaf hashes of the pushed blocks are accumulated in memory, so that at shard creation time only
+ * blocks pushed before node start should be read from the db. Accumulated leaves are verified against the stored
+ * blocks by sampling, see {@link #isConsistentWithStoredBlocks(PushedBlockLeaves, MessageDigest)}</p>
  */
 @Singleton
 public class ShardHashCalculatorImpl implements ShardHashCalculator {
@@ -32,6 +39,9 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
     private BlockchainConfig blockchainConfig;
     private ShardDao shardDao;
     private int blockSelectLimit;
+    // leaves of the blocks pushed one after another since pushedBlocksStartHeight
+    private MerkleRootAccumulator pushedBlockLeaves;
+    private int pushedBlocksStartHeight;
 
     @Inject
     public ShardHashCalculatorImpl(Blockchain blockchain, BlockchainConfig blockchainConfig, ShardDao shardDao) {
@@ -49,24 +59,92 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
         this.blockSelectLimit = blockSelectLimit;
     }
 
-    private List<byte[]> retrieveBlockSignatures(int shardStartHeight, int shardEndHeight) {
-        List<byte[]> allBlockSignatures = new ArrayList<>();
-        int fromHeight = shardStartHeight;
-        while (fromHeight < shardEndHeight) {
-            List<byte[]> blockSignatures = blockchain.getBlockSignaturesFrom(fromHeight, Math.min(fromHeight + blockSelectLimit, shardEndHeight));
-            allBlockSignatures.addAll(blockSignatures);
+    private void appendBlockSignatures(MerkleRootAccumulator leaves, int fromHeight, int toHeight) {
+        while (fromHeight < toHeight) {
+            List<byte[]> blockSignatures = blockchain.getBlockSignaturesFrom(fromHeight, Math.min(fromHeight + blockSelectLimit, toHeight));
+            blockSignatures.forEach(leaves::appendLeaf);
             fromHeight += blockSelectLimit;
         }
-        return allBlockSignatures;
     }
 
-    private byte[] calculateMerkleRoot(List<byte[]> dataList) {
-        MerkleTree tree = new MerkleTree(createMessageDigest(), dataList);
-        return tree.getRoot() == null ? null : tree.getRoot().getValue();
+    public synchronized void onBlockPushed(@Observes @BlockEvent(BlockEventType.BLOCK_PUSHED) Block block) {
+        HeightConfig config = blockchainConfig.getCurrentConfig();
+        if (!config.isShardingEnabled()) {
+            pushedBlockLeaves = null;
+            return;
+        }
+        String algorithm = config.getShardingDigestAlgorithm();
+        if (pushedBlockLeaves == null || !pushedBlockLeaves.getAlgorithm().equals(algorithm)
+            || block.getHeight() != pushedBlocksStartHeight + pushedBlockLeaves.size()) {
+            log.debug("Start accumulating shard hash leaves from height {}", block.getHeight());
+            pushedBlockLeaves = new MerkleRootAccumulator(createMessageDigest(algorithm));
+            pushedBlocksStartHeight = block.getHeight();
+        }
+        pushedBlockLeaves.appendLeaf(block.getBlockSignature());
+        // keep memory bounded, when shards are not created for a long time
+        int shardingFrequency = Math.max(config.getShardingFrequency(), blockSelectLimit);
+        if (pushedBlockLeaves.size() > 2 * shardingFrequency) {
+            int removed = pushedBlockLeaves.size() - shardingFrequency;
+            pushedBlockLeaves.removeFirst(removed);
+            pushedBlocksStartHeight += removed;
+        }
     }
 
-    private MessageDigest createMessageDigest() {
-        String algorithm = blockchainConfig.getCurrentConfig().getShardingDigestAlgorithm();
+    public synchronized void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        if (pushedBlockLeaves != null) {
+            int remaining = block.getHeight() - pushedBlocksStartHeight;
+            if (remaining <= 0) {
+                pushedBlockLeaves = null;
+            } else {
+                pushedBlockLeaves.truncate(remaining);
+            }
+        }
+    }
+
+    /**
+     * Copy accumulated leaves of the pushed blocks, which are inside of the given height range
+     *
+     * @return copied leaves or null, when no suitable leaves were accumulated
+     */
+    private synchronized PushedBlockLeaves copyPushedBlockLeaves(int fromHeight, int toHeight, String algorithm) {
+        if (pushedBlockLeaves == null || !pushedBlockLeaves.getAlgorithm().equals(algorithm)) {
+            return null;
+        }
+        if (fromHeight > pushedBlocksStartHeight) {
+            // blocks before the shard start height will not be requested anymore
+            int removed = fromHeight - pushedBlocksStartHeight;
+            pushedBlockLeaves.removeFirst(removed);
+            pushedBlocksStartHeight += removed;
+        }
+        int copyToHeight = Math.min(toHeight, pushedBlocksStartHeight + pushedBlockLeaves.size());
+        if (pushedBlocksStartHeight >= copyToHeight) {
+            return null;
+        }
+        MerkleRootAccumulator leaves = new MerkleRootAccumulator(createMessageDigest(algorithm), copyToHeight - pushedBlocksStartHeight);
+        leaves.appendLeaves(pushedBlockLeaves, 0, copyToHeight - pushedBlocksStartHeight);
+        return new PushedBlockLeaves(pushedBlocksStartHeight, leaves);
+    }
+
+    private boolean isLeafOfStoredBlock(MerkleRootAccumulator leaves, int index, int height, MessageDigest digest) {
+        List<byte[]> blockSignatures = blockchain.getBlockSignaturesFrom(height, height + 1);
+        return blockSignatures.size() == 1 && Arrays.equals(leaves.getLeaf(index), digest.digest(blockSignatures.get(0)));
+    }
+
+    /**
+     * Sampled check of the accumulated leaves: only leaves of the first and the last blocks are compared with the stored
+     * blocks, reading all the signatures would cost the same as calculating the hash from the db. Leaves are appended only
+     * for the block next to the last accumulated one and truncated on pop off, so that a leaf in the middle may differ
+     * only, when block events were missed, which also breaks the first or the last leaf in practice.
+     *
+     * @return false, when first or last leaf does not match the stored block, true otherwise
+     */
+    private boolean isConsistentWithStoredBlocks(PushedBlockLeaves pushed, MessageDigest digest) {
+        int lastIndex = pushed.leaves.size() - 1;
+        return isLeafOfStoredBlock(pushed.leaves, 0, pushed.fromHeight, digest)
+            && isLeafOfStoredBlock(pushed.leaves, lastIndex, pushed.fromHeight + lastIndex, digest);
+    }
+
+    private MessageDigest createMessageDigest(String algorithm) {
         try {
             return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
@@ -86,17 +164,32 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
             throw new IllegalArgumentException("shard start height should be less than shard end height " + String.format("start - %d, finish - %d", shardStartHeight, shardEndHeight));
         }
         long startTime = System.currentTimeMillis();
-        List<byte[]> blockSignatures = retrieveBlockSignatures(shardStartHeight, shardEndHeight);
-        int blocks = blockSignatures.size();
-        log.trace("Retrieved {} block signatures in {} ms", blocks, System.currentTimeMillis() - startTime);
+        String algorithm = blockchainConfig.getCurrentConfig().getShardingDigestAlgorithm();
+        MessageDigest digest = createMessageDigest(algorithm);
+        MerkleRootAccumulator leaves = new MerkleRootAccumulator(digest);
+        PushedBlockLeaves pushed = copyPushedBlockLeaves(shardStartHeight, shardEndHeight, algorithm);
+        if (pushed != null && !isConsistentWithStoredBlocks(pushed, digest)) {
+            log.warn("Accumulated leaves of blocks from height {} do not match stored blocks, will use db", pushed.fromHeight);
+            pushed = null;
+        }
+        if (pushed == null) {
+            appendBlockSignatures(leaves, shardStartHeight, shardEndHeight);
+        } else {
+            appendBlockSignatures(leaves, shardStartHeight, pushed.fromHeight);
+            leaves.appendLeaves(pushed.leaves, 0, pushed.leaves.size());
+            appendBlockSignatures(leaves, pushed.fromHeight + pushed.leaves.size(), shardEndHeight);
+        }
+        int blocks = leaves.size();
+        log.trace("Retrieved {} block signatures ({} were accumulated) in {} ms", blocks,
+            pushed == null ? 0 : pushed.leaves.size(), System.currentTimeMillis() - startTime);
         if (blocks == 0) {
             return null;
         }
         long merkleTreeStartTime = System.currentTimeMillis();
         byte[] prevHash = getPrevShardHash(shardStartHeight);
-        blockSignatures.add(prevHash);
-        byte[] hash = calculateMerkleRoot(blockSignatures);
-        log.debug("Built merkle tree in {} ms", System.currentTimeMillis() - merkleTreeStartTime);
+        leaves.appendLeaf(prevHash);
+        byte[] hash = leaves.getRoot();
+        log.debug("Calculated merkle root in {} ms", System.currentTimeMillis() - merkleTreeStartTime);
         long time = System.currentTimeMillis() - startTime;
         log.debug("Hash calculated in {} s for [{}] blocks, speed {} bpms", time / 1000, blocks, (shardEndHeight - shardStartHeight) / Math.max(time, 1));
         return hash;
@@ -113,4 +206,14 @@ public class ShardHashCalculatorImpl implements ShardHashCalculator {
         }
         return prevHash;
     }
+
+    private static class PushedBlockLeaves {
+        private final int fromHeight;
+        private final MerkleRootAccumulator leaves;
+
+        PushedBlockLeaves(int fromHeight, MerkleRootAccumulator leaves) {
+            this.fromHeight = fromHeight;
+            this.leaves = leaves;
+        }
+    }
 }
@@ -4,7 +4,6 @@
 
 package com.apollocurrency.aplwallet.apl.core.shard.helper;
 
-import com.apollocurrency.aplwallet.api.dto.DurableTaskInfo;
 import com.apollocurrency.aplwallet.apl.core.app.AplAppStatus;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.db.DbUtils;
@@ -32,11 +31,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -84,17 +83,17 @@ public class CsvImporterImpl implements CsvImporter {
      */
     @Override
     public long importCsv(String tableName, int batchLimit, boolean cleanTarget) throws Exception {
-        return this.importCsv(tableName, batchLimit, cleanTarget, null, Map.of(), null);
+        return this.importCsv(tableName, batchLimit, cleanTarget, Map.of(), null);
     }
 
     @Override
     public long importCsvWithRowHook(String tableName, int batchLimit, boolean cleanTarget, Consumer<Map<String, Object>> rowDataHook) throws Exception {
-        return this.importCsv(tableName, batchLimit, cleanTarget, null, Map.of(), rowDataHook);
+        return this.importCsv(tableName, batchLimit, cleanTarget, Map.of(), rowDataHook);
     }
 
     @Override
     public long importCsvWithDefaultParams(String tableName, int batchLimit, boolean cleanTarget, Map<String, Object> defaultParams) throws Exception {
-        return this.importCsv(tableName, batchLimit, cleanTarget, null, defaultParams, null);
+        return this.importCsv(tableName, batchLimit, cleanTarget, defaultParams, null);
     }
 
     /**
@@ -134,10 +133,13 @@ public class CsvImporterImpl implements CsvImporter {
     }
 
     /**
-     * {@inheritDoc}
+     * Parse csv file of the table and insert its rows by the batches of batchLimit size, each batch is committed
+     * separately. When current thread is not in transaction, a new transaction is started and finished at the end,
+     * so that tables can be imported by separate threads simultaneously.
+     * Row data map is built only when rowDataConsumer is specified.
      */
     private long importCsv(String tableName, int batchLimit, boolean cleanTarget,
-                           Double stateIncrease, Map<String, Object> defaultParams,
+                           Map<String, Object> defaultParams,
                            Consumer<Map<String, Object>> rowDataConsumer) throws CsvImportException {
 
         Objects.requireNonNull(tableName, "tableName is NULL");
@@ -147,7 +149,7 @@ public class CsvImporterImpl implements CsvImporter {
             log.debug("Skipped excluded Table/File = {}", tableName);
             return -1;
         }
-        int importedCount = 0;
+        long importedCount = 0;
         int columnsCount;
         PreparedStatement preparedInsertStatement = null;
 
@@ -166,61 +168,81 @@ public class CsvImporterImpl implements CsvImporter {
             truncateTable(dataSource, tableName);
         }
 
+        boolean startTransaction = !dataSource.isInTransaction();
         Map<String, Object> row = null;
         int rsCounter = 1; //start from 1 for "a%b==0" operations
         // open CSV Reader and db connection
         try (CsvReader csvReader = new CsvReaderImpl(this.dataExportPath, translator);
              ResultSet rs = csvReader.read(
                  inputFileName, null, null);
-             Connection con = dataSource.isInTransaction() ? dataSource.getConnection() : dataSource.begin()) {
+             Connection con = startTransaction ? dataSource.begin() : dataSource.getConnection()) {
             csvReader.setOptions("fieldDelimiter="); // do not remove, setting = do not put "" around column/values
 
             // get CSV meta data info
             ResultSetMetaData meta = rs.getMetaData();
             columnsCount = meta.getColumnCount(); // columns count is main
+            ColumnType[] columnTypes = new ColumnType[columnsCount];
+            String[] columnNames = new String[columnsCount];
+            int[] precisions = new int[columnsCount];
+            for (int i = 0; i < columnsCount; i++) {
+                columnTypes[i] = getColumnType(meta, i);
+                precisions[i] = meta.getPrecision(i + 1);
+                columnNames[i] = meta.getColumnName(i + 1).toLowerCase();
+            }
             // precompile insert SQL
             preparedInsertStatement = con.prepareStatement(generateInsertStatement(tableName, meta, defaultParams));
 
             // loop over CSV data reading line by line, column by column
             while (rs.next()) {
-                row = new HashMap<>();
+                if (rowDataConsumer != null) {
+                    row = new HashMap<>();
+                }
                 for (int i = 0; i < columnsCount; i++) {
                     Object object = rs.getObject(i + 1);
-                    String columnName = meta.getColumnName(i + 1);
-                    log.trace("{}[{} : {}] = {}", columnName, i + 1, meta.getColumnTypeName(i + 1), object);
-
-                    if (object != null && isBinaryColumn(meta, i)) {
-                        row.put(columnName.toLowerCase(), prepareBinaryObject(object, preparedInsertStatement, i + 1, meta.getPrecision(i + 1)));
-                    } else if (object != null && isArrayColumn(meta, i)) {
-                        row.put(columnName.toLowerCase(), prepareArrayObject(object, preparedInsertStatement, i + 1));
-                    } else if (object != null && isVarcharColumn(meta, i)) {
-                        row.put(columnName.toLowerCase(), prepareVarcharObject(object, preparedInsertStatement, i + 1));
+                    log.trace("{}[{} : {}] = {}", columnNames[i], i + 1, columnTypes[i], object);
+                    Object value;
+                    if (object == null) {
+                        value = prepareObject(null, preparedInsertStatement, i + 1);
                     } else {
-                        row.put(columnName.toLowerCase(), prepareObject(object, preparedInsertStatement, i + 1));
+                        switch (columnTypes[i]) {
+                            case BINARY:
+                                value = prepareBinaryObject(object, preparedInsertStatement, i + 1, precisions[i]);
+                                break;
+                            case ARRAY:
+                                value = prepareArrayObject(object, preparedInsertStatement, i + 1);
+                                break;
+                            case VARCHAR:
+                                value = prepareVarcharObject(object, preparedInsertStatement, i + 1);
+                                break;
+                            default:
+                                value = prepareObject(object, preparedInsertStatement, i + 1);
+                        }
+                    }
+                    if (row != null) {
+                        row.put(columnNames[i], value);
                     }
                 }
                 int i = columnsCount + 1;
                 for (Object value : defaultParams.values()) {
                     preparedInsertStatement.setObject(i++, value);
                 }
+                preparedInsertStatement.addBatch();
 
-                importedCount += preparedInsertStatement.executeUpdate();
                 if (rowDataConsumer != null) {
                     rowDataConsumer.accept(row);
                 }
                 if (rsCounter % batchLimit == 0) {
+                    importedCount += executeBatch(preparedInsertStatement);
                     dataSource.commit(false);
-                    // update state only for ACCOUNT table during LONG running import
-                    if (aplAppStatus != null && stateIncrease != null && tableName.equalsIgnoreCase("account")) {
-                        Optional<DurableTaskInfo> task = aplAppStatus.findTaskByName("Shard data import");
-                        task.ifPresent(durableTaskInfo -> aplAppStatus.durableTaskUpdate(durableTaskInfo.id, "importing " + tableName, 0.01));
-                    }
                 }
                 rsCounter++;
             }
-            dataSource.commit(false); // final commit
+            importedCount += executeBatch(preparedInsertStatement);
+            dataSource.commit(startTransaction); // final commit
         } catch (Exception e) {
-            dataSource.rollback(false);
+            if (dataSource.isInTransaction()) {
+                dataSource.rollback(startTransaction);
+            }
             log.error("Imported so far={}, rsCounter={}, row={}", importedCount, rsCounter, row);
             throw new CsvImportException("Error during importing '" + tableName + "'", e);
         } finally {
@@ -231,6 +253,25 @@ public class CsvImporterImpl implements CsvImporter {
         return importedCount;
     }
 
+    private long executeBatch(PreparedStatement preparedInsertStatement) throws SQLException {
+        long inserted = 0;
+        for (int count : preparedInsertStatement.executeBatch()) {
+            inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return inserted;
+    }
+
+    private ColumnType getColumnType(ResultSetMetaData meta, int columnIdx) throws SQLException {
+        if (isBinaryColumn(meta, columnIdx)) {
+            return ColumnType.BINARY;
+        } else if (isArrayColumn(meta, columnIdx)) {
+            return ColumnType.ARRAY;
+        } else if (isVarcharColumn(meta, columnIdx)) {
+            return ColumnType.VARCHAR;
+        }
+        return ColumnType.OTHER;
+    }
+
     @SneakyThrows
     private String generateInsertStatement(String tableName, ResultSetMetaData meta, Map<String, Object> defaultParams) {
         StringBuilder sqlInsert = new StringBuilder(300);
@@ -300,4 +341,7 @@ public class CsvImporterImpl implements CsvImporter {
         return value;
     }
 
+    private enum ColumnType {
+        BINARY, ARRAY, VARCHAR, OTHER
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.dao;
+
+import com.apollocurrency.aplwallet.apl.eth.utils.EthUtil;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookLevel;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderStatus;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>In-memory copy of the open orders of the dex_offer table. Orders of each currency pair and type are kept in the
+ * price-time order: by pair rate and then by height and id, orders with the same rate are additionally grouped by
+ * amount, so that the counter orders for matching are found by two lookups.</p>
+ * <p>Not thread safe, access is synchronized by {@link DexOrderTable}</p>
+ */
+class DexOrderBook {
+    private static final Comparator<DexOrder> TIME_ORDER = Comparator.comparing(DexOrder::getHeight)
+        .thenComparing(DexOrder::getId);
+
+    private final Map<DexCurrency, Map<DexCurrency, Map<OrderType, NavigableMap<Long, PriceLevel>>>> books = new EnumMap<>(DexCurrency.class);
+    private final Map<Long, DexOrder> orders = new HashMap<>();
+
+    /**
+     * Put the latest version of the order into the book, order is removed when it is not open anymore
+     */
+    void update(DexOrder order) {
+        remove(order.getId());
+        if (order.getStatus() == OrderStatus.OPEN) {
+            orders.put(order.getId(), order);
+            getSide(order.getOrderCurrency(), order.getPairCurrency(), order.getType())
+                .computeIfAbsent(EthUtil.ethToGwei(order.getPairRate()), rate -> new PriceLevel())
+                .add(order);
+        }
+    }
+
+    /**
+     * @return open orders of the given type, currency pair, rate and amount, which are not finished at the given time,
+     * ordered by height and id
+     */
+    List<DexOrder> getOrders(OrderType type, DexCurrency orderCurrency, DexCurrency pairCurrency, long pairRate,
+                             long orderAmount, int currentTime) {
+        PriceLevel level = getSide(orderCurrency, pairCurrency, type).get(pairRate);
+        NavigableSet<DexOrder> sameAmount = level == null ? null : level.orders.get(orderAmount);
+        if (sameAmount == null) {
+            return Collections.emptyList();
+        }
+        List<DexOrder> result = new ArrayList<>();
+        for (DexOrder order : sameAmount) {
+            if (order.getFinishTime() > currentTime) {
+                result.add(order);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return aggregated amounts of the best price levels of the currency pair, bids (buy orders) in the descending
+     * order of rates, asks (sell orders) in the ascending order, orders finished at the given time are skipped
+     */
+    DexOrderBookDepth getDepth(DexCurrency orderCurrency, DexCurrency pairCurrency, int depth, int currentTime) {
+        return new DexOrderBookDepth(pairCurrency,
+            getLevels(getSide(orderCurrency, pairCurrency, OrderType.BUY).descendingMap(), depth, currentTime),
+            getLevels(getSide(orderCurrency, pairCurrency, OrderType.SELL), depth, currentTime));
+    }
+
+    void clear() {
+        books.clear();
+        orders.clear();
+    }
+
+    int size() {
+        return orders.size();
+    }
+
+    private void remove(long orderId) {
+        DexOrder removed = orders.remove(orderId);
+        if (removed != null) {
+            NavigableMap<Long, PriceLevel> side = getSide(removed.getOrderCurrency(), removed.getPairCurrency(), removed.getType());
+            Long rate = EthUtil.ethToGwei(removed.getPairRate());
+            PriceLevel level = side.get(rate);
+            if (level != null && level.remove(removed)) {
+                side.remove(rate);
+            }
+        }
+    }
+
+    private List<DexOrderBookLevel> getLevels(NavigableMap<Long, PriceLevel> side, int depth, int currentTime) {
+        List<DexOrderBookLevel> levels = new ArrayList<>();
+        for (Map.Entry<Long, PriceLevel> entry : side.entrySet()) {
+            if (levels.size() >= depth) {
+                break;
+            }
+            long amount = 0;
+            int count = 0;
+            for (NavigableSet<DexOrder> sameAmount : entry.getValue().orders.values()) {
+                for (DexOrder order : sameAmount) {
+                    if (order.getFinishTime() > currentTime) {
+                        amount += order.getOrderAmount();
+                        count++;
+                    }
+                }
+            }
+            if (count > 0) {
+                levels.add(new DexOrderBookLevel(EthUtil.gweiToEth(entry.getKey()), amount, count));
+            }
+        }
+        return levels;
+    }
+
+    private NavigableMap<Long, PriceLevel> getSide(DexCurrency orderCurrency, DexCurrency pairCurrency, OrderType type) {
+        return books.computeIfAbsent(orderCurrency, c -> new EnumMap<>(DexCurrency.class))
+            .computeIfAbsent(pairCurrency, c -> new EnumMap<>(OrderType.class))
+            .computeIfAbsent(type, t -> new TreeMap<>());
+    }
+
+    /**
+     * Orders with the same pair rate grouped by amount
+     */
+    private static class PriceLevel {
+        private final Map<Long, NavigableSet<DexOrder>> orders = new HashMap<>();
+
+        void add(DexOrder order) {
+            orders.computeIfAbsent(order.getOrderAmount(), amount -> new TreeSet<>(TIME_ORDER)).add(order);
+        }
+
+        // return true, when the level is empty
+        boolean remove(DexOrder order) {
+            NavigableSet<DexOrder> sameAmount = orders.get(order.getOrderAmount());
+            if (sameAmount != null && sameAmount.remove(order) && sameAmount.isEmpty()) {
+                orders.remove(order.getOrderAmount());
+            }
+            return orders.isEmpty();
+        }
+    }
+}
@@ -9,14 +9,12 @@ import com.apollocurrency.aplwallet.apl.core.db.dao.mapper.DexOrderMapper;
 import com.apollocurrency.aplwallet.apl.exchange.model.DBSortOrder;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
-import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBMatchingRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequestForTrading;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderSortBy;
 import com.apollocurrency.aplwallet.apl.exchange.model.HeightDbIdRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.OrderDbIdPaginationDbRequest;
 import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
-import org.jdbi.v3.sqlobject.customizer.AllowUnusedBindings;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.customizer.Define;
@@ -46,21 +44,6 @@ public interface DexOrderDao {
     @RegisterRowMapper(DexOrderMapper.class)
     List<DexOrder> getOrders(@BindBean DexOrderDBRequest dexOrderDBRequest, @Define("sortBy") DexOrderSortBy sortBy, @Define("sortOrder") DBSortOrder sortOrder);
 
-    @AllowUnusedBindings
-    @Transactional(readOnly = true)
-    @SqlQuery("SELECT * FROM dex_offer AS offer " +
-        " WHERE latest = true" +
-        " AND offer.type = :type" +
-        " AND offer.finish_time > :currentTime" +
-        " AND offer.offer_currency = :offerCur" +
-        " AND offer.offer_amount = :offerAmount" +
-        " AND offer.pair_currency = :pairCur" +
-        " AND offer.pair_rate = :pairRate" +
-        " AND offer.status = 0" +
-        " ORDER BY offer.pair_rate <orderby> ")
-    @RegisterRowMapper(DexOrderMapper.class)
-    List<DexOrder> getOffersForMatchingPure(@BindBean DexOrderDBMatchingRequest dexOrderDBMatchingRequest, @Define("orderby") String orderBy);
-
     @Transactional(readOnly = true)
     @SqlQuery("SELECT * FROM dex_offer AS offer " +
         "WHERE latest = true " +
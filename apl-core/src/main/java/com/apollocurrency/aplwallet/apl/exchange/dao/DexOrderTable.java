@@ -8,26 +8,37 @@ import com.apollocurrency.aplwallet.apl.core.app.CollectionUtil;
 import com.apollocurrency.aplwallet.apl.core.db.DbClause;
 import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.dao.mapper.DexOrderMapper;
 import com.apollocurrency.aplwallet.apl.core.db.derived.EntityDbTable;
 import com.apollocurrency.aplwallet.apl.eth.utils.EthUtil;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
 import com.apollocurrency.aplwallet.apl.exchange.model.OrderStatus;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Implemented for backward compatibility with rollback function in the DerivedDbTable.
  * Use DexOfferDao for not transactional operations. (f.e. search)
  * DEX trade in derived table hierarchy is used for exporting/importing shard data.
+ * <p>Open orders are also kept in the in-memory {@link DexOrderBook}, which is loaded from the table on the first
+ * request and then follows orders inserted through this table. Changes of not yet committed db transaction are visible
+ * only to the thread of that transaction, other threads query db, rollback of the db transaction or blocks drops the
+ * order book to be reloaded.</p>
  */
 @Singleton
 @Slf4j
@@ -36,6 +47,12 @@ public class DexOrderTable extends EntityDbTable<DexOrder> {
     private static final String TABLE_NAME = "dex_offer";
     private static DexOrderKeyFactory keyFactory = new DexOrderKeyFactory();
     private DexOrderMapper dexOrderMapper = new DexOrderMapper();
+    private final DexOrderBook orderBook = new DexOrderBook();
+    private final ThreadLocal<BookChanges> bookChanges = new ThreadLocal<>();
+    // db transaction, which changed the table and is not completed yet
+    private BookChanges changedBy;
+    private TransactionalDataSource indexedDataSource;
+    private boolean bookLoaded;
 
     @Inject
     public DexOrderTable() {
@@ -47,6 +64,106 @@ public class DexOrderTable extends EntityDbTable<DexOrder> {
         return dexOrderMapper.map(rs, null);
     }
 
+    @Override
+    public void insert(DexOrder order) {
+        super.insert(order);
+        synchronized (this) {
+            if (prepareBookChange(databaseManager.getDataSource())) {
+                orderBook.update(new DexOrder(order));
+            }
+        }
+    }
+
+    @Override
+    public int rollback(int height) {
+        int rc = super.rollback(height);
+        synchronized (this) {
+            // previous versions of the orders become latest again, reload them lazily
+            prepareBookChange(databaseManager.getDataSource());
+            dropBook();
+        }
+        return rc;
+    }
+
+    @Override
+    public void truncate() {
+        super.truncate();
+        synchronized (this) {
+            if (prepareBookChange(databaseManager.getDataSource())) {
+                orderBook.clear();
+            }
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        synchronized (this) {
+            dropBook();
+        }
+    }
+
+    /**
+     * @return open APL orders of the given type with the exact pair currency, rate and amount, which are not finished at
+     * the current time, in the order of creation
+     */
+    public List<DexOrder> getOrdersForMatching(OrderType type, DexCurrency pairCurrency, BigDecimal pairRate, long orderAmount, int currentTime) {
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        long rate = EthUtil.ethToGwei(pairRate);
+        synchronized (this) {
+            if (isBookAvailable(dataSource)) {
+                return orderBook.getOrders(type, DexCurrency.APL, pairCurrency, rate, orderAmount, currentTime).stream()
+                    .map(DexOrder::new)
+                    .collect(Collectors.toList());
+            }
+        }
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM dex_offer WHERE latest = true " +
+                 "AND type = ? AND finish_time > ? AND offer_currency = ? AND offer_amount = ? AND pair_currency = ? " +
+                 "AND pair_rate = ? AND status = 0 ORDER BY height, id")
+        ) {
+            int i = 0;
+            pstmt.setByte(++i, (byte) type.ordinal());
+            pstmt.setInt(++i, currentTime);
+            pstmt.setByte(++i, (byte) DexCurrency.APL.ordinal());
+            pstmt.setLong(++i, orderAmount);
+            pstmt.setByte(++i, (byte) pairCurrency.ordinal());
+            pstmt.setLong(++i, rate);
+            return CollectionUtil.toList(getManyBy(con, pstmt, false));
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    /**
+     * @return best price levels of the APL order book for the pair currency, orders finished at the current time are
+     * skipped
+     */
+    public DexOrderBookDepth getOrderBookDepth(DexCurrency pairCurrency, int depth, int currentTime) {
+        TransactionalDataSource dataSource = databaseManager.getDataSource();
+        synchronized (this) {
+            if (isBookAvailable(dataSource)) {
+                return orderBook.getDepth(DexCurrency.APL, pairCurrency, depth, currentTime);
+            }
+        }
+        DexOrderBook pairBook = new DexOrderBook();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM dex_offer WHERE latest = true " +
+                 "AND status = 0 AND offer_currency = ? AND pair_currency = ? AND finish_time > ?")
+        ) {
+            int i = 0;
+            pstmt.setByte(++i, (byte) DexCurrency.APL.ordinal());
+            pstmt.setByte(++i, (byte) pairCurrency.ordinal());
+            pstmt.setInt(++i, currentTime);
+            try (DbIterator<DexOrder> orders = getManyBy(con, pstmt, false)) {
+                orders.forEach(pairBook::update);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+        return pairBook.getDepth(DexCurrency.APL, pairCurrency, depth, currentTime);
+    }
+
     public DexOrder getByTxId(Long transactionId) {
         return get(keyFactory.newKey(transactionId));
     }
@@ -115,4 +232,93 @@ public class DexOrderTable extends EntityDbTable<DexOrder> {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Load the order book, when it is not loaded yet
+     *
+     * @return true, when order book is up to date for the current thread
+     */
+    private boolean isBookAvailable(TransactionalDataSource dataSource) {
+        if (indexedDataSource != dataSource) {
+            dropBook();
+            indexedDataSource = dataSource;
+        }
+        if (changedBy != null && changedBy != bookChanges.get()) {
+            // order book contains changes not committed yet
+            return false;
+        }
+        if (!bookLoaded) {
+            loadBook(dataSource);
+        }
+        return true;
+    }
+
+    /**
+     * Register the change of the table by the current thread
+     *
+     * @return true, when order book should be changed too
+     */
+    private boolean prepareBookChange(TransactionalDataSource dataSource) {
+        if (indexedDataSource != dataSource) {
+            dropBook();
+            indexedDataSource = dataSource;
+        }
+        if (dataSource.isInTransaction()) {
+            BookChanges changes = bookChanges.get();
+            if (changes == null) {
+                changes = new BookChanges();
+                bookChanges.set(changes);
+                dataSource.registerCallback(changes);
+            }
+            if (changedBy != null && changedBy != changes) {
+                log.debug("Concurrent change of the {}, drop order book", TABLE_NAME);
+                dropBook();
+            }
+            changedBy = changes;
+        }
+        return bookLoaded;
+    }
+
+    private void loadBook(TransactionalDataSource dataSource) {
+        long start = System.currentTimeMillis();
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement pstmt = con.prepareStatement("SELECT * FROM dex_offer WHERE latest = true AND status = 0");
+             DbIterator<DexOrder> orders = getManyBy(con, pstmt, false)) {
+            orders.forEach(orderBook::update);
+        } catch (SQLException e) {
+            orderBook.clear();
+            throw new RuntimeException(e.toString(), e);
+        }
+        bookLoaded = true;
+        log.debug("Loaded {} order book of {} orders in {} ms", TABLE_NAME, orderBook.size(), System.currentTimeMillis() - start);
+    }
+
+    private void dropBook() {
+        orderBook.clear();
+        bookLoaded = false;
+    }
+
+    private synchronized void onTransactionEnd(BookChanges changes, boolean committed) {
+        if (bookChanges.get() == changes) {
+            bookChanges.remove();
+        }
+        if (changedBy == changes) {
+            changedBy = null;
+            if (!committed) {
+                dropBook();
+            }
+        }
+    }
+
+    private class BookChanges implements TransactionCallback {
+        @Override
+        public void commit() {
+            onTransactionEnd(this, true);
+        }
+
+        @Override
+        public void rollback() {
+            onTransactionEnd(this, false);
+        }
+    }
 }
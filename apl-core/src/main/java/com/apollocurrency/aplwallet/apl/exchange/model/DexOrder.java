@@ -70,6 +70,21 @@ public class DexOrder extends VersionedDerivedEntity {
         this.finishTime = finishTime;
     }
 
+    public DexOrder(DexOrder order) {
+        super(order);
+        this.id = order.id;
+        this.accountId = order.accountId;
+        this.fromAddress = order.fromAddress;
+        this.toAddress = order.toAddress;
+        this.type = order.type;
+        this.status = order.status;
+        this.orderCurrency = order.orderCurrency;
+        this.orderAmount = order.orderAmount;
+        this.pairCurrency = order.pairCurrency;
+        this.pairRate = order.pairRate;
+        this.finishTime = order.finishTime;
+    }
+
     public DexOrder(Transaction transaction, DexOrderAttachment dexOrderAttachment) {
         super(null, transaction.getHeight());
         this.id = transaction.getId();
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of the best price levels of the order book for the currency pair
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DexOrderBookDepth {
+    private DexCurrency pairCurrency;
+    /**
+     * Buy orders, the highest rate first
+     */
+    private List<DexOrderBookLevel> bids = new ArrayList<>();
+    /**
+     * Sell orders, the lowest rate first
+     */
+    private List<DexOrderBookLevel> asks = new ArrayList<>();
+}
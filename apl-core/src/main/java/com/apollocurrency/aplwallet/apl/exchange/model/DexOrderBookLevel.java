@@ -0,0 +1,27 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated open orders of the order book with the same pair rate
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DexOrderBookLevel {
+    private BigDecimal pairRate;
+    /**
+     * Sum of the order amounts in ATM
+     */
+    private long orderAmount;
+
+    private int orders;
+}
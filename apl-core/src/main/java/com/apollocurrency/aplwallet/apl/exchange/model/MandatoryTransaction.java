@@ -222,6 +222,11 @@ public class MandatoryTransaction implements Transaction {
         return transaction.getBytes();
     }
 
+    @Override
+    public byte[] bytes() {
+        return transaction.bytes();
+    }
+
     @Override
     public byte[] getUnsignedBytes() {
         return transaction.getUnsignedBytes();
@@ -6,17 +6,14 @@ package com.apollocurrency.aplwallet.apl.exchange.service;
 
 
 import com.apollocurrency.aplwallet.apl.core.app.TimeService;
-import com.apollocurrency.aplwallet.apl.eth.utils.EthUtil;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
-import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBMatchingRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -171,20 +168,14 @@ public class DexMatcherServiceImpl implements IDexMatcherInterface {
 
         // it should be done the opposite way
         OrderType counterOrderType = createdOrder.getType().isBuy() ? OrderType.SELL : OrderType.BUY;
-        // Be careful: for selling - it should be more expensive. Buying - for cheaper price.
-        String orderBy = createdOrder.getType().isSell() ? "DESC" : "ASC";
 
         Integer currentTime = timeService.getEpochTime();
-        BigDecimal offerAmount = new BigDecimal(createdOrder.getOrderAmount());
-        Integer pairCurrency = DexCurrency.getValue(createdOrder.getPairCurrency());
 
-        BigDecimal pairRate = new BigDecimal(EthUtil.ethToGwei(createdOrder.getPairRate()));
+        log.debug("Dumping arguments: type: {}, currentTime: {}, offerAmount: {}, pairCurrency: {}, pairRate: {}",
+            counterOrderType, currentTime, createdOrder.getOrderAmount(), createdOrder.getPairCurrency(), createdOrder.getPairRate());
 
-        log.debug("Dumping arguments: type: {}, currentTime: {}, offerAmount: {}, offerCurrency: {}, pairRate: {}, order: {}",
-            counterOrderType, currentTime, offerAmount, pairCurrency, pairRate, orderBy);
-
-        DexOrderDBMatchingRequest dexOrderDBMatchingRequest = new DexOrderDBMatchingRequest(counterOrderType, currentTime, 0, offerAmount, pairCurrency.intValue(), pairRate, orderBy);
-        List<DexOrder> orders = dexMatchingService.getOffersForMatching(dexOrderDBMatchingRequest, orderBy);
+        List<DexOrder> orders = dexMatchingService.getOffersForMatching(counterOrderType, createdOrder.getPairCurrency(),
+            createdOrder.getPairRate(), createdOrder.getOrderAmount(), currentTime);
 
         log.debug("offers found: {}", orders.size());
 
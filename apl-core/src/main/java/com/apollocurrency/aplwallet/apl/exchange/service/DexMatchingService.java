@@ -1,26 +1,30 @@
 package com.apollocurrency.aplwallet.apl.exchange.service;
 
-import com.apollocurrency.aplwallet.apl.core.db.cdi.Transactional;
-import com.apollocurrency.aplwallet.apl.exchange.dao.DexOrderDao;
+import com.apollocurrency.aplwallet.apl.exchange.dao.DexOrderTable;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
-import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBMatchingRequest;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.math.BigDecimal;
 import java.util.List;
 
 @Singleton
 public class DexMatchingService {
 
-    private DexOrderDao dexOrderDao;
+    private DexOrderTable dexOrderTable;
 
     @Inject
-    public DexMatchingService(DexOrderDao dexOrderDao) {
-        this.dexOrderDao = dexOrderDao;
+    public DexMatchingService(DexOrderTable dexOrderTable) {
+        this.dexOrderTable = dexOrderTable;
     }
 
-    @Transactional
-    public List<DexOrder> getOffersForMatching(DexOrderDBMatchingRequest dexOrderDBMatchingRequest, String orderby) {
-        return dexOrderDao.getOffersForMatchingPure(dexOrderDBMatchingRequest, orderby);
+    /**
+     * @return open orders of the given type, which exactly match the pair currency, rate and amount and are not
+     * finished at the current time, in the price-time order of the order book
+     */
+    public List<DexOrder> getOffersForMatching(OrderType type, DexCurrency pairCurrency, BigDecimal pairRate, long orderAmount, int currentTime) {
+        return dexOrderTable.getOrdersForMatching(type, pairCurrency, pairRate, orderAmount, currentTime);
     }
 }
@@ -5,6 +5,9 @@ import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.Helper2FA;
 import com.apollocurrency.aplwallet.apl.core.app.TimeService;
 import com.apollocurrency.aplwallet.apl.core.app.Transaction;
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockchainEvent;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockchainEventType;
 import com.apollocurrency.aplwallet.apl.core.app.service.SecureStorageService;
@@ -58,16 +61,21 @@ import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContractStatus.STEP_1;
@@ -82,6 +90,7 @@ import static com.apollocurrency.aplwallet.apl.util.Constants.OFFER_VALIDATE_OK;
 public class DexOrderProcessor {
     public static final int DEFAULT_DEX_OFFER_PROCESSOR_DELAY = 3 * 60; // 3 min in seconds
     public static final int MIN_DEX_OFFER_PROCESSOR_DELAY = 15; // 15 sec
+    public static final int DEFAULT_FULL_SCAN_PERIOD = 20; // processing ticks
     private static final String ETH_SWAP_DESCRIPTION_FORMAT = "Account %s initiate atomic swap '%s' with %s under contract %d";
     private static final String ETH_SWAP_S1_DETAILS_FORMAT = "secretHash:%s;encryptedSecret:%s";
     private static final String ETH_SWAP_S2_DETAILS_FORMAT = "secretHash:%s";
@@ -104,6 +113,8 @@ public class DexOrderProcessor {
     private final PhasingPollService phasingPollService;
     private final Map<Long, OrderHeightId> accountCancelOrderMap = new HashMap<>();
     private final Map<Long, OrderHeightId> accountExpiredOrderMap = new HashMap<>();
+    // accounts, which processing failed, will be processed on the next tick again
+    private final Set<Long> failedAccounts = ConcurrentHashMap.newKeySet();
     private TaskDispatcher taskDispatcher;
     private TimeService timeService;
     private ExecutorService backgroundExecutor;
@@ -112,6 +123,9 @@ public class DexOrderProcessor {
     private volatile boolean processorEnabled = true;
     private boolean startProcessor;
     private int processingDelay; // seconds
+    private final int fullScanPeriod; // processing ticks
+    private int ticksSinceFullScan;
+    private volatile boolean fullScanRequired = true;
     private DexConfig dexConfig;
     private Blockchain blockchain;
 
@@ -125,6 +139,7 @@ public class DexOrderProcessor {
                              Blockchain blockchain, PhasingPollService phasingPollService, DexOperationService operationService,
                              @Property(name = "apl.dex.orderProcessor.enabled", defaultValue = "true") boolean startProcessor,
                              @Property(name = "apl.dex.orderProcessor.delay", defaultValue = "" + DEFAULT_DEX_OFFER_PROCESSOR_DELAY) int processingDelay,
+                             @Property(name = "apl.dex.orderProcessor.fullScanPeriod", defaultValue = "" + DEFAULT_FULL_SCAN_PERIOD) int fullScanPeriod,
                              DexConfig dexConfig
     ) {
 
@@ -143,6 +158,7 @@ public class DexOrderProcessor {
         this.operationService = Objects.requireNonNull(operationService);
         this.startProcessor = startProcessor;
         this.processingDelay = Math.max(MIN_DEX_OFFER_PROCESSOR_DELAY, processingDelay);
+        this.fullScanPeriod = Math.max(1, fullScanPeriod);
         this.accountService = accountService;
         this.dexConfig = dexConfig;
     }
@@ -174,6 +190,7 @@ public class DexOrderProcessor {
                 .build();
 
             taskDispatcher.schedule(dexOrderProcessorTask);
+            dexService.setChangedAccountsTracking(true);
 
             log.debug("{} initialized. Periodical task configuration: initDelay={} milliseconds, delay={} milliseconds",
                 dexOrderProcessorTask.getName(),
@@ -193,49 +210,109 @@ public class DexOrderProcessor {
         suspendContractProcessor();
     }
 
+    public void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        // orders and contracts of any account may be reverted, process all of them
+        fullScanRequired = true;
+    }
+
     public void suspendContractProcessor() {
         if (startProcessor) {
             taskDispatcher.suspend();
+            // changed accounts are not polled while suspended, process all of them after the resume
+            dexService.setChangedAccountsTracking(false);
+            fullScanRequired = true;
         }
     }
 
     public void resumeContractProcessor() {
         if (startProcessor) {
+            dexService.setChangedAccountsTracking(true);
             taskDispatcher.resume();
         }
     }
 
     @PreDestroy
     public void shutdown() {
-        backgroundExecutor.shutdown();
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdown();
+        }
     }
 
 
     private void processContracts() {
         if (secureStorageService.isEnabled()) {
 
-            List<Long> accounts = secureStorageService.getAccounts();
+            Set<Long> accounts = selectAccountsToProcess(secureStorageService.getAccounts());
+            log.debug("{}: process {} accounts", BACKGROUND_SERVICE_NAME, accounts.size());
 
+            // each account is processed by a single task, so that the steps of the account are executed in order
+            List<Future<?>> tasks = new ArrayList<>(accounts.size());
             for (Long account : accounts) {
+                tasks.add(backgroundExecutor.submit(() -> processAccount(account)));
+            }
+            for (Future<?> task : tasks) {
                 try {
-                    //TODO run this 3 functions not every time. (improve performance)
-                    processCancelOrders(account);
-                    processExpiredOrders(account);
-                    refundDepositsForLostOrders(account);
-                    refundExpiredAtomicSwaps(account);
-
-                    processContractsForUserStep1(account);
-                    processContractsForUserStep2(account);
-
-                    processIncomeContractsForUserStep3(account);
-                    processOutcomeContractsForUserStep3(account);
-                } catch (Throwable e) {
-                    log.error("DexOrderProcessor error, user:" + account, e);
+                    task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    log.error("DexOrderProcessor error", e.getCause());
                 }
             }
         }
     }
 
+    /**
+     * Select stored accounts, which state may be changed since the previous processing: owners of the saved orders and
+     * contracts, parties of the not finished contracts (which depend on the Ethereum swaps and deadlines) and accounts,
+     * which processing failed. All stored accounts are selected on the first tick, after the block pop-off and every
+     * 'apl.dex.orderProcessor.fullScanPeriod' ticks to refund deposits and swaps, which state is known only to Ethereum.
+     */
+    Set<Long> selectAccountsToProcess(List<Long> storedAccounts) {
+        Set<Long> changedAccounts = dexService.pollChangedAccounts();
+        if (fullScanRequired || ++ticksSinceFullScan >= fullScanPeriod) {
+            fullScanRequired = false;
+            ticksSinceFullScan = 0;
+            failedAccounts.clear();
+            return new LinkedHashSet<>(storedAccounts);
+        }
+        Set<Long> candidates = new HashSet<>(changedAccounts);
+        candidates.addAll(failedAccounts);
+        failedAccounts.clear();
+        List<ExchangeContract> activeContracts = dexService.getDexContracts(DexContractDBRequest.builder().build(),
+            List.of(STEP_1, STEP_2, STEP_3));
+        for (ExchangeContract contract : activeContracts) {
+            candidates.add(contract.getSender());
+            candidates.add(contract.getRecipient());
+        }
+        Set<Long> accounts = new LinkedHashSet<>();
+        for (Long account : storedAccounts) {
+            if (candidates.contains(account)) {
+                accounts.add(account);
+            }
+        }
+        return accounts;
+    }
+
+    private void processAccount(Long account) {
+        try {
+            processCancelOrders(account);
+            processExpiredOrders(account);
+            refundDepositsForLostOrders(account);
+            refundExpiredAtomicSwaps(account);
+
+            processContractsForUserStep1(account);
+            processContractsForUserStep2(account);
+
+            processIncomeContractsForUserStep3(account);
+            processOutcomeContractsForUserStep3(account);
+        } catch (Throwable e) {
+            failedAccounts.add(account);
+            log.error("DexOrderProcessor error, user:" + account, e);
+        }
+    }
+
     /**
      * Processing contracts with status step_1.
      *
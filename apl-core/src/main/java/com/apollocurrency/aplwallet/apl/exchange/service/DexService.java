@@ -53,6 +53,7 @@ import com.apollocurrency.aplwallet.apl.exchange.model.AddressEthExpiredSwaps;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexContractDBRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequestForTrading;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderWithFreezing;
@@ -69,6 +70,7 @@ import com.apollocurrency.aplwallet.apl.exchange.model.SwapDataInfo;
 import com.apollocurrency.aplwallet.apl.exchange.model.TransferTransactionInfo;
 import com.apollocurrency.aplwallet.apl.exchange.model.UserAddressesWithOffset;
 import com.apollocurrency.aplwallet.apl.exchange.model.WalletsBalance;
+import com.apollocurrency.aplwallet.apl.exchange.service.graph.DexCandlestickCache;
 import com.apollocurrency.aplwallet.apl.exchange.transaction.DEX;
 import com.apollocurrency.aplwallet.apl.exchange.utils.DexCurrencyValidator;
 import com.apollocurrency.aplwallet.apl.util.AplException;
@@ -93,7 +95,11 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -120,6 +126,11 @@ public class DexService {
     private BlockchainConfig blockchainConfig;
     private AccountService accountService;
     private DexConfig dexConfig;
+    private DexCandlestickCache candlestickCache;
+    // accounts of the orders and contracts saved since the last poll, processed by the DexOrderProcessor
+    private final Set<Long> changedAccounts = ConcurrentHashMap.newKeySet();
+    // changed accounts are recorded only when the DexOrderProcessor is running, nobody polls them otherwise
+    private volatile boolean changedAccountsTracking;
 
     private Integer MAX_PAGES_FOR_SEARCH = 10;
 
@@ -132,7 +143,8 @@ public class DexService {
                       BlockchainConfig blockchainConfig,
                       @CacheProducer
                       @CacheType(DexOrderFreezingCacheConfig.CACHE_NAME) Cache<Long, OrderFreezing> cache,
-                      DexConfig dexConfig) {
+                      DexConfig dexConfig,
+                      DexCandlestickCache candlestickCache) {
         this.ethereumWalletService = ethereumWalletService;
         this.dexOrderDao = dexOrderDao;
         this.dexOrderTable = dexOrderTable;
@@ -152,6 +164,7 @@ public class DexService {
         this.blockchainConfig = blockchainConfig;
         this.accountService = accountService;
         this.dexConfig = dexConfig;
+        this.candlestickCache = candlestickCache;
     }
 
 
@@ -179,6 +192,7 @@ public class DexService {
             log.trace("Save order {} at height {} : {} ", order.getId(), order.getHeight(), StackTraceUtils.lastNStacktrace(3));
         }
         dexOrderTable.insert(order);
+        markChanged(order.getAccountId());
     }
 
     @Transactional
@@ -187,6 +201,39 @@ public class DexService {
             exchangeContract.getId(), exchangeContract.getOrderId(), exchangeContract.getCounterOrderId(), exchangeContract.getContractStatus());
         exchangeContract.setHeight(this.blockchain.getHeight()); // new height value
         dexContractTable.insert(exchangeContract);
+        markChanged(exchangeContract.getSender());
+        markChanged(exchangeContract.getRecipient());
+    }
+
+    /**
+     * @return accounts, which orders or contracts were saved since the previous call
+     */
+    public Set<Long> pollChangedAccounts() {
+        Set<Long> accounts = new HashSet<>();
+        for (Iterator<Long> iterator = changedAccounts.iterator(); iterator.hasNext(); ) {
+            accounts.add(iterator.next());
+            iterator.remove();
+        }
+        return accounts;
+    }
+
+    /**
+     * Start or stop recording of the changed accounts. Recorded accounts are dropped, when recording is stopped, so
+     * the caller should process all the accounts after the restart.
+     *
+     * @param enabled true to record accounts of the saved orders and contracts for {@link #pollChangedAccounts()}
+     */
+    public void setChangedAccountsTracking(boolean enabled) {
+        changedAccountsTracking = enabled;
+        if (!enabled) {
+            changedAccounts.clear();
+        }
+    }
+
+    private void markChanged(Long accountId) {
+        if (changedAccountsTracking && accountId != null) {
+            changedAccounts.add(accountId);
+        }
     }
 
 
@@ -303,6 +350,13 @@ public class DexService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * @return best price levels of the open APL orders for the pair currency, served from the in-memory order book
+     */
+    public DexOrderBookDepth getOrderBookDepth(DexCurrency pairCurrency, int depth) {
+        return dexOrderTable.getOrderBookDepth(pairCurrency, depth, timeService.getEpochTime());
+    }
+
 
     private List<DexOrderWithFreezing> mapToOrdersWithFreezing(List<DexOrder> orders) {
         return orders.stream().map(this::mapToOrdersWithFreezing).collect(Collectors.toList());
@@ -872,6 +926,7 @@ public class DexService {
             order.setFinishTime(blockchain.getLastBlockTimestamp());
         }
         saveOrder(order);
+        candlestickCache.onOrderClosed(order);
         return order;
     }
 
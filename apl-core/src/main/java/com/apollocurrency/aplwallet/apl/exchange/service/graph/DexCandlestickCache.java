@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.service.graph;
+
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.Convert2;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEvent;
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.BlockEventType;
+import com.apollocurrency.aplwallet.apl.core.config.Property;
+import com.apollocurrency.aplwallet.apl.exchange.dao.DexOrderDao;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCandlestick;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderDbIdPaginationDbRequest;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickUtil.BASE_TIME_INTERVAL;
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickUtil.convertOrders;
+
+/**
+ * <p>In-memory candlesticks of all the {@link TimeFrame}s for the last days of trading. Candlesticks are updated
+ * incrementally by the orders closed in the accepted blocks, so that recent trading data is served without
+ * querying the dex_offer table.</p>
+ * <p>Closed orders of the cached days are kept together with candlesticks: orders of the popped off blocks are removed
+ * and candlesticks of the currency are rebuilt from the remaining orders. When the cached days are shifted,
+ * the oldest orders and candlesticks are evicted.</p>
+ * <p>Currency data is loaded from the db on the first request outside of the cache lock, orders of the blocks accepted
+ * during the loading are merged into the loaded data. Loaded data is dropped, when blocks were popped off or the cache
+ * was cleared during the loading. Blockchain scan drops all the data.</p>
+ */
+@Slf4j
+@Singleton
+public class DexCandlestickCache {
+    static final int DEFAULT_CACHE_DAYS = 7;
+    private static final int DEFAULT_ORDER_SELECT_LIMIT = 100;
+    private static final int DAY_INTERVAL = TimeFrame.DAY.muliplier * BASE_TIME_INTERVAL;
+
+    private final boolean enabled;
+    private final int cacheDays;
+    private final DexOrderDao orderDao;
+    private final Blockchain blockchain;
+    private final int orderSelectLimit;
+
+    private final Map<DexCurrency, CurrencyCandlesticks> currencies = new EnumMap<>(DexCurrency.class);
+    // orders closed by the block, which is being accepted
+    private final List<DexOrder> pendingOrders = new ArrayList<>();
+    // orders of the accepted blocks for the currencies, which are being loaded
+    private final Map<DexCurrency, List<DexOrder>> loadingCurrencyOrders = new EnumMap<>(DexCurrency.class);
+    // changed, when cached orders are removed, to drop the data loaded at the same time
+    private long generation;
+    // unix timestamp of the earliest cached candlestick, -1 when not initialized
+    private int windowStart = -1;
+    private boolean blockchainScanInProgress;
+
+    @Inject
+    public DexCandlestickCache(@Property(name = "apl.dex.graph.enableDataCache", defaultValue = "false") boolean enabled,
+                               @Property(name = "apl.dex.graph.cacheDays", defaultValue = "" + DEFAULT_CACHE_DAYS) int cacheDays,
+                               DexOrderDao orderDao, Blockchain blockchain) {
+        this(enabled, cacheDays, orderDao, blockchain, DEFAULT_ORDER_SELECT_LIMIT);
+    }
+
+    public DexCandlestickCache(boolean enabled, int cacheDays, DexOrderDao orderDao, Blockchain blockchain, int orderSelectLimit) {
+        if (cacheDays < 1) {
+            throw new IllegalArgumentException("Number of cached days should be positive, got " + cacheDays);
+        }
+        this.enabled = enabled;
+        this.cacheDays = cacheDays;
+        this.orderDao = Objects.requireNonNull(orderDao);
+        this.blockchain = Objects.requireNonNull(blockchain);
+        this.orderSelectLimit = orderSelectLimit;
+    }
+
+    /**
+     * Register order closed by the block, which is being applied. Candlesticks will be updated after block acceptance.
+     * Only buy orders are taken into account, the same as for the db candlesticks.
+     */
+    public synchronized void onOrderClosed(DexOrder order) {
+        if (enabled && !blockchainScanInProgress && order.getType() == OrderType.BUY) {
+            pendingOrders.add(new DexOrder(order));
+        }
+    }
+
+    /**
+     * @return copies of the candlesticks of the given time frame, which open time is in the given range (unix
+     * timestamps), ordered by time or null, when the range is not covered by the cache
+     */
+    public List<DexCandlestick> getCandlesticks(DexCurrency currency, TimeFrame timeFrame, int fromTimestamp, int toTimestamp) {
+        int loadFromTimestamp;
+        long loadGeneration;
+        synchronized (this) {
+            if (!enabled || blockchainScanInProgress) {
+                return null;
+            }
+            if (windowStart == -1) {
+                shiftWindow(toUnixTime(blockchain.getLastBlockTimestamp()));
+            }
+            if (fromTimestamp < windowStart) {
+                return null;
+            }
+            CurrencyCandlesticks candlesticks = currencies.get(currency);
+            if (candlesticks != null) {
+                return copy(candlesticks, timeFrame, fromTimestamp, toTimestamp);
+            }
+            loadingCurrencyOrders.putIfAbsent(currency, new ArrayList<>());
+            loadFromTimestamp = windowStart;
+            loadGeneration = generation;
+        }
+        CurrencyCandlesticks loaded = load(currency, loadFromTimestamp);
+        synchronized (this) {
+            if (loadGeneration != generation || blockchainScanInProgress) {
+                return null;
+            }
+            CurrencyCandlesticks candlesticks = currencies.get(currency);
+            if (candlesticks == null) {
+                // merge orders of the blocks accepted during the loading
+                for (DexOrder order : loadingCurrencyOrders.remove(currency)) {
+                    loaded.add(order, windowStart);
+                }
+                loaded.evictBefore(windowStart);
+                currencies.put(currency, loaded);
+                candlesticks = loaded;
+            }
+            if (fromTimestamp < windowStart) {
+                return null;
+            }
+            return copy(candlesticks, timeFrame, fromTimestamp, toTimestamp);
+        }
+    }
+
+    private List<DexCandlestick> copy(CurrencyCandlesticks candlesticks, TimeFrame timeFrame, int fromTimestamp, int toTimestamp) {
+        List<DexCandlestick> result = new ArrayList<>();
+        for (DexCandlestick c : candlesticks.get(timeFrame).subMap(fromTimestamp, true, toTimestamp, true).values()) {
+            result.add(new DexCandlestick(c.getCoin(), c.getMin(), c.getMax(), c.getOpen(), c.getClose(), c.getFromVolume(),
+                c.getToVolume(), c.getTimestamp(), c.getOpenOrderTimestamp(), c.getCloseOrderTimestamp()));
+        }
+        return result;
+    }
+
+    public synchronized void onBlockAcceptStarted(@Observes @BlockEvent(BlockEventType.BEFORE_BLOCK_ACCEPT) Block block) {
+        pendingOrders.clear(); // orders of the block, which failed to be pushed
+    }
+
+    public synchronized void onBlockAccepted(@Observes @BlockEvent(BlockEventType.AFTER_BLOCK_ACCEPT) Block block) {
+        if (!enabled || blockchainScanInProgress) {
+            return;
+        }
+        if (windowStart != -1) {
+            shiftWindow(toUnixTime(block.getTimestamp()));
+        }
+        for (DexOrder order : pendingOrders) {
+            CurrencyCandlesticks candlesticks = currencies.get(order.getPairCurrency());
+            if (candlesticks != null) {
+                candlesticks.add(order, windowStart);
+            } else {
+                List<DexOrder> loadingOrders = loadingCurrencyOrders.get(order.getPairCurrency());
+                if (loadingOrders != null) {
+                    loadingOrders.add(order);
+                } // not loaded currency will get the order from the db
+            }
+        }
+        pendingOrders.clear();
+    }
+
+    public synchronized void onBlockPopped(@Observes @BlockEvent(BlockEventType.BLOCK_POPPED) Block block) {
+        pendingOrders.clear();
+        dropLoading();
+        for (CurrencyCandlesticks candlesticks : currencies.values()) {
+            candlesticks.removeFromHeight(block.getHeight());
+        }
+    }
+
+    public synchronized void onBlockchainScanStarted(@Observes @BlockEvent(BlockEventType.RESCAN_BEGIN) Block block) {
+        blockchainScanInProgress = true;
+        clear();
+    }
+
+    public synchronized void onBlockchainScanFinished(@Observes @BlockEvent(BlockEventType.RESCAN_END) Block block) {
+        blockchainScanInProgress = false;
+    }
+
+    public synchronized void clear() {
+        currencies.clear();
+        pendingOrders.clear();
+        dropLoading();
+        windowStart = -1;
+    }
+
+    private void dropLoading() {
+        if (!loadingCurrencyOrders.isEmpty()) {
+            loadingCurrencyOrders.clear();
+            generation++;
+        }
+    }
+
+    private void shiftWindow(int unixTime) {
+        int newWindowStart = unixTime - unixTime % DAY_INTERVAL - (cacheDays - 1) * DAY_INTERVAL;
+        if (newWindowStart > windowStart) {
+            windowStart = newWindowStart;
+            for (CurrencyCandlesticks candlesticks : currencies.values()) {
+                candlesticks.evictBefore(newWindowStart);
+            }
+        }
+    }
+
+    private CurrencyCandlesticks load(DexCurrency currency, int fromTimestamp) {
+        CurrencyCandlesticks candlesticks = new CurrencyCandlesticks();
+        int fromEpochTime = Convert2.toEpochTime((long) fromTimestamp * 1000);
+        long fromDbId = 0;
+        List<DexOrder> orders;
+        do {
+            orders = orderDao.getOrdersFromDbIdBetweenTimestamps(OrderDbIdPaginationDbRequest.builder()
+                .limit(orderSelectLimit)
+                .coin(currency)
+                .fromTime(fromEpochTime)
+                .toTime(Integer.MAX_VALUE)
+                .fromDbId(fromDbId)
+                .build());
+            for (DexOrder order : orders) {
+                candlesticks.add(order, fromTimestamp);
+            }
+            if (orders.size() > 0) {
+                fromDbId = orders.get(orders.size() - 1).getDbId();
+            }
+        } while (orders.size() == orderSelectLimit);
+        log.debug("Loaded {} closed {} orders into candlestick cache", candlesticks.orders.size(), currency);
+        return candlesticks;
+    }
+
+    private static int toUnixTime(int epochTime) {
+        return (int) (Convert2.fromEpochTime(epochTime) / 1000);
+    }
+
+    /**
+     * Closed orders of the cached days and candlesticks of all time frames built from them for one currency
+     */
+    private static class CurrencyCandlesticks {
+        // in the order of closing
+        private final Map<Long, DexOrder> orders = new LinkedHashMap<>();
+        private final Map<TimeFrame, NavigableMap<Integer, DexCandlestick>> candlesticks = new EnumMap<>(TimeFrame.class);
+
+        CurrencyCandlesticks() {
+            for (TimeFrame timeFrame : TimeFrame.values()) {
+                candlesticks.put(timeFrame, new TreeMap<>());
+            }
+        }
+
+        NavigableMap<Integer, DexCandlestick> get(TimeFrame timeFrame) {
+            return candlesticks.get(timeFrame);
+        }
+
+        void add(DexOrder order, int windowStart) {
+            // order may be already loaded from the db, when the block was committed before the acceptance event
+            if (toUnixTime(order.getFinishTime()) < windowStart || orders.containsKey(order.getId())) {
+                return;
+            }
+            orders.put(order.getId(), order);
+            List<DexOrder> added = List.of(order);
+            candlesticks.forEach((timeFrame, map) -> convertOrders(added, map, timeFrame, time -> null));
+        }
+
+        void evictBefore(int unixTime) {
+            orders.values().removeIf(order -> toUnixTime(order.getFinishTime()) < unixTime);
+            candlesticks.values().forEach(map -> map.headMap(unixTime).clear());
+        }
+
+        void removeFromHeight(int height) {
+            if (orders.values().removeIf(order -> order.getHeight() >= height)) {
+                List<DexOrder> remaining = new ArrayList<>(orders.values());
+                candlesticks.forEach((timeFrame, map) -> {
+                    map.clear();
+                    convertOrders(remaining, map, timeFrame, time -> null);
+                });
+            }
+        }
+    }
+}
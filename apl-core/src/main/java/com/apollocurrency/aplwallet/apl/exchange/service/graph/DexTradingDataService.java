@@ -31,29 +31,29 @@ public class DexTradingDataService {
     private static final int DEFAULT_ORDER_SELECT_LIMIT = 100;
 
     private boolean enableTradingViewGraphDataFeeder; // not yet implemented
-    private boolean enableTradingDataCache; // not yet implemented
     private DexCandlestickDao candlestickDao;
     private DexOrderDao orderDao;
+    private DexCandlestickCache candlestickCache;
     private int orderSelectLimit;
 
 
     @Inject
     public DexTradingDataService(@Property("apl.dex.graph.enableDataFeeder") boolean enableTradingViewGraphDataFeeder,
-                                 @Property("apl.dex.graph.enableDataCache") boolean enableTradingDataCache,
                                  DexCandlestickDao candlestickDao,
-                                 DexOrderDao orderDao) {
-        this(enableTradingViewGraphDataFeeder, enableTradingDataCache, candlestickDao, orderDao, DEFAULT_ORDER_SELECT_LIMIT);
+                                 DexOrderDao orderDao,
+                                 DexCandlestickCache candlestickCache) {
+        this(enableTradingViewGraphDataFeeder, candlestickDao, orderDao, candlestickCache, DEFAULT_ORDER_SELECT_LIMIT);
     }
 
     public DexTradingDataService(boolean enableTradingViewGraphDataFeeder,
-                                 boolean enableTradingDataCache,
                                  DexCandlestickDao candlestickDao,
                                  DexOrderDao orderDao,
+                                 DexCandlestickCache candlestickCache,
                                  int orderSelectLimit) {
         this.enableTradingViewGraphDataFeeder = enableTradingViewGraphDataFeeder;
-        this.enableTradingDataCache = enableTradingDataCache;
         this.candlestickDao = Objects.requireNonNull(candlestickDao);
         this.orderDao = Objects.requireNonNull(orderDao);
+        this.candlestickCache = Objects.requireNonNull(candlestickCache);
         this.orderSelectLimit = orderSelectLimit;
     }
 
@@ -113,6 +113,11 @@ public class DexTradingDataService {
     }
 
     private List<DexCandlestick> getOrderCandlesticks(int fromTimestamp, int toTimestamp, DexCurrency currency, TimeFrame timeFrame) {
+        // null, when the cache is disabled or does not cover the range
+        List<DexCandlestick> cached = candlestickCache.getCandlesticks(currency, timeFrame, fromTimestamp, toTimestamp);
+        if (cached != null) {
+            return cached;
+        }
         int fromEpochTime = Convert2.toEpochTime((long) fromTimestamp * 1000);
         int toEpochTime = Convert2.toEpochTime((long) toTimestamp * 1000);
         long fromDbId = 0;
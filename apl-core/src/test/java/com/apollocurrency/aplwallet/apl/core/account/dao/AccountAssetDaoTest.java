@@ -33,6 +33,7 @@ import javax.inject.Inject;
 import java.sql.SQLException;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.core.app.CollectionUtil.toList;
@@ -178,6 +179,36 @@ class AccountAssetDaoTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void testGetByAccountIds() {
+        long assetId = td.ACC_ASSET_6.getAssetId();
+        List<AccountAsset> expected = td.ALL_ASSETS.stream()
+            .filter(ass -> ass.getAssetId() == assetId)
+            .sorted(assetComparator).collect(Collectors.toList());
+        List<Long> accountIds = td.ALL_ASSETS.stream().map(AccountAsset::getAccountId).distinct().collect(Collectors.toList());
+
+        List<AccountAsset> actual = table.getByAccountIds(accountIds, assetId);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testGetByAccountIds_on_Height() {
+        doReturn(td.ASS_BLOCKCHAIN_HEIGHT).when(blockchain).getHeight();
+        long assetId = td.ACC_ASSET_6.getAssetId();
+        int height = td.ACC_ASSET_6.getHeight();
+        List<Long> accountIds = td.ALL_ASSETS.stream().map(AccountAsset::getAccountId).distinct().collect(Collectors.toList());
+        List<AccountAsset> expected = accountIds.stream()
+            .map(accountId -> table.get(AccountAssetTable.newKey(accountId, assetId), height))
+            .filter(Objects::nonNull)
+            .sorted(assetComparator).collect(Collectors.toList());
+
+        List<AccountAsset> actual = table.getByAccountIds(accountIds, assetId, height);
+
+        assertEquals(3, actual.size());
+        assertEquals(expected, actual);
+    }
+
     @Test
     void testTrimDeletedRecord() {
         int rowCount = table.getRowCount();
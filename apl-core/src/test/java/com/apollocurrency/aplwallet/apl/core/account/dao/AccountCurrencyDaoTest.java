@@ -31,6 +31,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import javax.inject.Inject;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.core.app.CollectionUtil.toList;
@@ -131,6 +132,41 @@ class AccountCurrencyDaoTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    void testGetByAccounts() {
+        long currencyId = testData.CUR_2.getCurrencyId();
+        List<AccountCurrency> expected = testData.ALL_CURRENCY.stream()
+            .filter(cur -> cur.getCurrencyId() == currencyId)
+            .sorted(currencyComparator).collect(Collectors.toList());
+
+        List<AccountCurrency> actual = toList(table.getByAccounts(accountIds(), currencyId));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testGetByAccounts_on_Height() {
+        doReturn(testData.CUR_BLOCKCHAIN_HEIGHT).when(blockchain).getHeight();
+        long currencyId = testData.CUR_2.getCurrencyId();
+        int height = testData.CUR_4.getHeight();
+        List<Long> accountIds = accountIds();
+        List<AccountCurrency> expected = accountIds.stream()
+            .map(accountId -> table.get(AccountCurrencyTable.newKey(accountId, currencyId), height))
+            .filter(Objects::nonNull)
+            .sorted(currencyComparator).collect(Collectors.toList());
+
+        List<AccountCurrency> actual = toList(table.getByAccounts(accountIds, currencyId, height));
+
+        assertEquals(3, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    private List<Long> accountIds() {
+        List<Long> accountIds = testData.ALL_CURRENCY.stream().map(AccountCurrency::getAccountId).distinct().collect(Collectors.toList());
+        accountIds.add(testData.newCurrency.getAccountId()); // account without the currency
+        return accountIds;
+    }
+
     @Test
     void testGetAccountCurrencies_on_Height() {
         doReturn(testData.CUR_BLOCKCHAIN_HEIGHT).when(blockchain).getHeight();
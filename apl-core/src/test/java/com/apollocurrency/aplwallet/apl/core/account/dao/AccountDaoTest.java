@@ -36,7 +36,9 @@ import javax.inject.Inject;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -88,6 +90,43 @@ class AccountDaoTest {
         assertNull(account);
     }
 
+    @Test
+    void testGetByIds() {
+        List<Long> ids = accountIds();
+        List<Account> expected = ids.stream()
+            .map(id -> table.get(table.getDbKeyFactory().newKey(id)))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        List<Account> actual = table.getByIds(ids);
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    @Test
+    void testGetByIds_on_Height() {
+        doReturn(td.ACC_BLOCKCHAIN_HEIGHT).when(blockchain).getHeight();
+        int height = td.ACC_6.getHeight();
+        List<Long> ids = accountIds();
+        List<Account> expected = ids.stream()
+            .map(id -> table.get(table.getDbKeyFactory().newKey(id), height))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        List<Account> actual = table.getByIds(ids, height);
+
+        assertTrue(actual.contains(td.ACC_6));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+    }
+
+    private List<Long> accountIds() {
+        List<Long> ids = td.ALL_ACCOUNTS.stream().map(Account::getId).distinct().collect(Collectors.toList());
+        ids.add(td.newAccount.getId()); // not existing account
+        return ids;
+    }
+
     @Test
     void testSave() {
         DbUtils.inTransaction(dbExtension, (con) -> table.insert(td.newAccount));
@@ -98,6 +137,23 @@ class AccountDaoTest {
         assertEquals(td.newAccount.getBalanceATM(), actual.getBalanceATM());
     }
 
+    @Test
+    void testInsertAll() {
+        Account updated = new Account(td.ACC_7);
+        updated.setBalanceATM(td.ACC_7.getBalanceATM() + 100);
+        updated.setHeight(td.ACC_BLOCKCHAIN_HEIGHT + 1);
+        doReturn(td.ACC_BLOCKCHAIN_HEIGHT + 1).when(blockchain).getHeight();
+
+        DbUtils.inTransaction(dbExtension, (con) -> table.insertAll(List.of(td.newAccount, updated)));
+
+        Account actualNew = table.get(table.getDbKeyFactory().newKey(td.newAccount));
+        assertNotNull(actualNew);
+        assertEquals(td.newAccount.getBalanceATM(), actualNew.getBalanceATM());
+        Account actualUpdated = table.get(table.getDbKeyFactory().newKey(td.ACC_7));
+        assertEquals(td.ACC_7.getBalanceATM() + 100, actualUpdated.getBalanceATM());
+        assertEquals(td.ACC_7.getBalanceATM(), table.get(table.getDbKeyFactory().newKey(td.ACC_7), td.ACC_BLOCKCHAIN_HEIGHT).getBalanceATM());
+    }
+
     @Test
     void testTrim_on_0_height() throws SQLException {
         doReturn(1440).when(blockchainConfig).getGuaranteedBalanceConfirmations();
@@ -172,6 +228,19 @@ class AccountDaoTest {
         assertEquals(td.ACC_13, account);
     }
 
+    @Test
+    void testCachedAfterInsertEqualsLoaded() {
+        Account newVersion = new Account(td.ACC_14.getId(), td.ACC_14.getBalanceATM() - 100, td.ACC_14.getUnconfirmedBalanceATM(), 0, 0, td.ACC_14.getHeight() + 1);
+        DbUtils.inTransaction(dbExtension, (con) -> table.insert(newVersion));
+
+        Account cached = table.get(table.getDbKeyFactory().newKey(newVersion));
+        table.clearCache();
+        Account loaded = table.get(table.getDbKeyFactory().newKey(newVersion));
+
+        assertTrue(cached.getDbId() != 0);
+        assertEquals(loaded, cached);
+    }
+
     @Test
     void testRollback_deleted_no_updated() throws SQLException {
         td.ACC_14.setHeight(td.ACC_14.getHeight() + 1);
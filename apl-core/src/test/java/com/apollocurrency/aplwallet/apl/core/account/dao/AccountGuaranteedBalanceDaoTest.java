@@ -9,6 +9,7 @@ import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
 import com.apollocurrency.aplwallet.apl.core.db.DerivedDbTablesRegistryImpl;
 import com.apollocurrency.aplwallet.apl.core.db.DerivedTablesRegistry;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
 import com.apollocurrency.aplwallet.apl.core.db.fulltext.FullTextConfig;
 import com.apollocurrency.aplwallet.apl.core.db.fulltext.FullTextConfigImpl;
 import com.apollocurrency.aplwallet.apl.data.AccountTestData;
@@ -25,9 +26,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import javax.inject.Inject;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.doReturn;
@@ -100,4 +104,52 @@ class AccountGuaranteedBalanceDaoTest {
         table.addToGuaranteedBalanceATM(testData.ACC_BALANCE_3.getAccountId(), amountATM, testData.ACC_BALANCE_3.getHeight() + 1);
         assertEquals(expectedSum, table.getSumOfAdditions(testData.ACC_BALANCE_3.getAccountId(), testData.ACC_BALANCE_3.getHeight() - 1, testData.ACC_BALANCE_3.getHeight() + 1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void addToGuaranteedBalancesATM() {
+        long accountId = testData.ACC_BALANCE_3.getAccountId();
+        long newAccountId = 999L;
+        int height = testData.ACC_GUARANTEE_BALANCE_HEIGHT_MAX + 1;
+        long expectedSum = getSumOfAdditionsByAccountId(accountId) + 10000L;
+
+        DbUtils.inTransaction(dbExtension, con -> table.addToGuaranteedBalancesATM(Map.of(accountId, 10000L, newAccountId, 500L), height));
+
+        assertEquals(expectedSum, table.getSumOfAdditions(accountId, 0, height));
+        assertEquals(500L, table.getSumOfAdditions(newAccountId, 0, height));
+    }
+
+    @Test
+    void testRollback() {
+        long accountId = testData.ACC_BALANCE_1.getAccountId();
+        int height = testData.ACC_BALANCE_4.getHeight() - 1;
+        long expectedSum = testData.ALL_BALANCES.stream()
+            .filter(b -> b.getAccountId() == accountId && b.getHeight() <= height)
+            .mapToLong(AccountGuaranteedBalance::getAdditions).sum();
+        assertEquals(getSumOfAdditionsByAccountId(accountId), table.getSumOfAdditions(accountId, 0, Integer.MAX_VALUE));
+
+        DbUtils.inTransaction(dbExtension, con -> table.rollback(height));
+
+        assertEquals(expectedSum, table.getSumOfAdditions(accountId, 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testNotCommittedAdditionIsVisibleOnlyInTransaction() throws Exception {
+        long accountId = testData.ACC_BALANCE_3.getAccountId();
+        int height = testData.ACC_GUARANTEE_BALANCE_HEIGHT_MAX + 1;
+        long expectedSum = getSumOfAdditionsByAccountId(accountId);
+        assertEquals(expectedSum, table.getSumOfAdditions(accountId, 0, height));
+        TransactionalDataSource dataSource = dbExtension.getDatabaseManager().getDataSource();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection con = dataSource.begin()) {
+            table.addToGuaranteedBalanceATM(accountId, 10000L, height);
+
+            assertEquals(expectedSum + 10000L, table.getSumOfAdditions(accountId, 0, height));
+            assertEquals(expectedSum, executor.submit(() -> table.getSumOfAdditions(accountId, 0, height)).get());
+            dataSource.rollback();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(expectedSum, table.getSumOfAdditions(accountId, 0, height));
+    }
+}
@@ -103,6 +103,24 @@ class AccountLedgerDaoTest {
         assertEquals(previous.getTimestamp(), actual.getTimestamp());
     }
 
+    @Test
+    void testInsert_batch() {
+        LedgerEntry first = new LedgerEntry(testData.newLedger.getEvent(), testData.newLedger.getEventId(), testData.newLedger.getAccountId(),
+            testData.newLedger.getHolding(), testData.newLedger.getHoldingId(), 500L, 1500L, testData.newLedger.getBlockId(),
+            testData.newLedger.getTimestamp(), testData.newLedger.getHeight());
+        List<LedgerEntry> entries = List.of(first, testData.newLedger);
+
+        DbUtils.inTransaction(dbExtension, (con) -> table.insert(entries));
+
+        assertTrue(first.getLedgerId() > 0);
+        assertTrue(first.getLedgerId() < testData.newLedger.getLedgerId());
+        LedgerEntry actual = table.getEntry(first.getLedgerId(), true);
+        assertEquals(first, actual);
+        assertEquals(1500L, actual.getBalance());
+        actual = table.getEntry(testData.newLedger.getLedgerId(), true);
+        assertEquals(testData.newLedger.getChange(), actual.getChange());
+    }
+
     @Test
     void testTrim_on_MAX_height() {
         doReturn(Integer.MAX_VALUE).when(propertiesHolder).BATCH_COMMIT_SIZE();
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.account.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GuaranteedBalanceIndexTest {
+    private final GuaranteedBalanceIndex index = new GuaranteedBalanceIndex();
+
+    @Test
+    void testGetSum() {
+        index.add(1L, 10, 100);
+        index.add(1L, 20, 200);
+        index.add(1L, 20, 5);
+        index.add(1L, 30, 300);
+        index.add(2L, 20, 1000);
+
+        assertEquals(605L, index.getSum(1L, 9, 30));
+        assertEquals(505L, index.getSum(1L, 10, 30));
+        assertEquals(205L, index.getSum(1L, 10, 29));
+        assertEquals(1000L, index.getSum(2L, 0, Integer.MAX_VALUE));
+        assertNull(index.getSum(1L, 30, 40));
+        assertNull(index.getSum(1L, 21, 29));
+        assertNull(index.getSum(3L, 0, 40));
+    }
+
+    @Test
+    void testAddBelowLastHeight() {
+        index.add(1L, 10, 100);
+        index.add(1L, 30, 300);
+        index.add(1L, 20, 200);
+
+        assertEquals(200L, index.getSum(1L, 10, 20));
+        assertEquals(500L, index.getSum(1L, 10, 30));
+        assertEquals(600L, index.getSum(1L, 0, 30));
+    }
+
+    @Test
+    void testRollback() {
+        index.add(1L, 10, 100);
+        index.add(1L, 20, 200);
+        index.add(2L, 20, 1000);
+
+        index.rollback(10);
+
+        assertEquals(100L, index.getSum(1L, 0, 30));
+        assertNull(index.getSum(2L, 0, 30));
+        assertEquals(1, index.size());
+        index.add(1L, 11, 50);
+        assertEquals(150L, index.getSum(1L, 0, 30));
+    }
+
+    @Test
+    void testTrim() {
+        index.add(1L, 10, 100);
+        index.add(1L, 20, 200);
+        index.add(2L, 10, 1000);
+
+        index.trim(20);
+
+        assertEquals(200L, index.getSum(1L, 0, 30));
+        assertNull(index.getSum(2L, 0, 30));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testRandomChangesMatchDirectSum() {
+        Random random = new Random(1440);
+        long[] additions = new long[500];
+        int trimHeight = 0;
+        int height = 0;
+        for (int i = 0; i < 5000; i++) {
+            int action = random.nextInt(20);
+            if (action == 0 && height > trimHeight) {
+                height = trimHeight + random.nextInt(height - trimHeight);
+                index.rollback(height);
+                for (int h = height + 1; h < additions.length; h++) {
+                    additions[h] = 0;
+                }
+            } else if (action == 1 && height > trimHeight) {
+                trimHeight += random.nextInt(Math.min(height - trimHeight, 10));
+                index.trim(trimHeight);
+                for (int h = 0; h < trimHeight; h++) {
+                    additions[h] = 0;
+                }
+            } else if (height < additions.length - 1) {
+                height += random.nextInt(2);
+                long amount = random.nextInt(1000) + 1;
+                index.add(1L, height, amount);
+                additions[height] += amount;
+            }
+            int from = random.nextInt(additions.length) - 1;
+            int to = from + random.nextInt(additions.length - from);
+            long expected = 0;
+            boolean found = false;
+            for (int h = from + 1; h <= to; h++) {
+                expected += additions[h];
+                found |= additions[h] != 0;
+            }
+            Long sum = index.getSum(1L, from, to);
+            assertEquals(found ? Long.valueOf(expected) : null, sum, "from " + from + " to " + to);
+        }
+    }
+}
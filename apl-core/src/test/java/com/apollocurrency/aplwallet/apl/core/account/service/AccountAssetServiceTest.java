@@ -15,6 +15,7 @@ import com.apollocurrency.aplwallet.apl.core.app.Block;
 import com.apollocurrency.aplwallet.apl.core.app.BlockchainImpl;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventBinding;
 import com.apollocurrency.aplwallet.apl.core.app.observer.events.AccountLedgerEventType;
+import com.apollocurrency.aplwallet.apl.core.db.DbIterator;
 import com.apollocurrency.aplwallet.apl.core.db.service.BlockChainInfoService;
 import com.apollocurrency.aplwallet.apl.core.monetary.service.AssetDividendService;
 import com.apollocurrency.aplwallet.apl.core.transaction.messages.ColoredCoinsDividendPayment;
@@ -34,6 +35,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import javax.enterprise.event.Event;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static com.apollocurrency.aplwallet.apl.core.account.observer.events.AccountEventBinding.literal;
@@ -249,30 +251,30 @@ class AccountAssetServiceTest {
         long transactionId = 10_000_000L;
         long amountATMPerATU = 100L;
         final int height = 115621;
-        Comparator<AccountAsset> assetComparator = Comparator
-            .comparing(AccountAsset::getQuantityATU, Comparator.reverseOrder())
-            .thenComparing(AccountAsset::getAccountId)
-            .thenComparing(AccountAsset::getAssetId);
 
         ColoredCoinsDividendPayment attachment = new ColoredCoinsDividendPayment(testData.ACC_ASSET_6.getAssetId(), height, amountATMPerATU);
 
         List<AccountAsset> expected = testData.ALL_ASSETS.stream()
             .filter(ass -> ass.getAssetId() == testData.ACC_ASSET_6.getAssetId())
-            .sorted(assetComparator).collect(Collectors.toList());
+            .sorted(Comparator.comparing(AccountAsset::getAccountId)).collect(Collectors.toList());
 
         long numCount = expected.size();
         long totalDivident = expected.stream()
             .collect(Collectors.summingLong(
                 accountAsset -> Math.multiplyExact(accountAsset.getQuantityATU(), amountATMPerATU)));
+        Map<Long, Long> expectedDividends = expected.stream()
+            .collect(Collectors.toMap(AccountAsset::getAccountId, accountAsset -> accountAsset.getQuantityATU() * amountATMPerATU));
 
-        doReturn(testData.ACC_0).when(accountService).getAccount(any(long.class));
-        doReturn(expected).when(accountAssetTable).getByAssetId(testData.ACC_ASSET_6.getAssetId(), height, 0, -1);
+        @SuppressWarnings("unchecked") DbIterator<AccountAsset> dbIterator = mock(DbIterator.class);
+        doReturn(expected.iterator()).when(dbIterator).iterator();
+        doReturn(dbIterator).when(accountAssetTable).getByAssetIdInAccountOrder(testData.ACC_ASSET_6.getAssetId(), height);
         when(blockChainInfoService.getHeight()).thenReturn(height);
 
         accountAssetService.payDividends(testData.ACC_6, transactionId, attachment);
-        verify(accountService, times(4)).addToBalanceAndUnconfirmedBalanceATM(any(Account.class), eq(LedgerEvent.ASSET_DIVIDEND_PAYMENT), eq(transactionId), any(long.class));
+        verify(accountService).addToBalanceAndUnconfirmedBalanceATM(LedgerEvent.ASSET_DIVIDEND_PAYMENT, transactionId, expectedDividends);
         verify(accountService).addToBalanceATM(testData.ACC_6, LedgerEvent.ASSET_DIVIDEND_PAYMENT, transactionId, -totalDivident);
         verify(assetDividendService).addAssetDividend(eq(transactionId), any(ColoredCoinsDividendPayment.class), eq(totalDivident), eq(numCount));
+        verify(dbIterator).close();
     }
 
     @Test
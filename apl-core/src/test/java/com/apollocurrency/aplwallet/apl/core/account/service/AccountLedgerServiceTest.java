@@ -23,13 +23,16 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 class AccountLedgerServiceTest {
 
@@ -106,45 +109,58 @@ class AccountLedgerServiceTest {
     void logEntry() {
         doReturn(true).when(accountLedgerTable).isInTransaction();
         accountLedgerService.clearEntries();
-        List<LedgerEntry> pendingEntries = ((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries();
         //2,5,6  - have the same accountId
-        pendingEntries.addAll(testData.PENDING_LEDGERS);
+        testData.PENDING_LEDGERS.forEach(accountLedgerService::logEntry);
         final LedgerEntry ledgerEntry = testData.ACC_LEDGER_ADD;
-        //pendingEntries.remove(ledgerEntry);
         long adjustedBalance = testData.ACC_LEDGER_2.getBalance() - testData.ACC_LEDGER_2.getChange();
         for (LedgerEntry existingEntry : testData.SAME_ACC_LEDGERS) {
             adjustedBalance += existingEntry.getChange();
         }
+        long combinedChange = ledgerEntry.getChange() + testData.ACC_LEDGER_2.getChange();
 
         accountLedgerService.logEntry(ledgerEntry);
 
+        List<LedgerEntry> pendingEntries = ((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries();
         assertEquals(adjustedBalance, testData.ACC_LEDGER_6.getBalance());
-        assertTrue(pendingEntries.contains(ledgerEntry));
+        assertEquals(testData.PENDING_LEDGERS.size(), pendingEntries.size());
+        assertSame(ledgerEntry, pendingEntries.get(pendingEntries.size() - 1));
+        assertEquals(combinedChange, ledgerEntry.getChange());
+    }
+
+    @Test
+    void logEntryNotInTransaction() {
+        assertThrows(IllegalStateException.class, () -> accountLedgerService.logEntry(testData.ACC_LEDGER_ADD));
     }
 
     @Test
     void commitEntries() {
-        int pendingCount = testData.PENDING_LEDGERS.size();
-        List<LedgerEntry> pendingEntries = ((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries();
-        pendingEntries.addAll(testData.PENDING_LEDGERS);
+        doReturn(true).when(accountLedgerTable).isInTransaction();
+        testData.PENDING_LEDGERS.forEach(accountLedgerService::logEntry);
         Event firedEvent = mock(Event.class);
-        doReturn(firedEvent).when(ledgerEvent).select(AccountLedgerEventBinding.literal(AccountLedgerEventType.ADD_ENTRY));
+        doReturn(firedEvent).when(ledgerEvent).select(AccountLedgerEventBinding.literal(AccountLedgerEventType.ADD_ENTRIES));
 
         accountLedgerService.commitEntries();
 
-        verify(accountLedgerTable, times(pendingCount)).insert(any(LedgerEntry.class));
-        verify(firedEvent, times(pendingCount)).fire(any(LedgerEntry.class));
-        assertEquals(0, pendingEntries.size());
+        verify(accountLedgerTable).insert(testData.PENDING_LEDGERS);
+        verify(firedEvent).fire(testData.PENDING_LEDGERS);
+        assertEquals(0, ((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries().size());
+    }
+
+    @Test
+    void commitNoEntries() {
+        accountLedgerService.commitEntries();
+
+        verify(accountLedgerTable, never()).insert(anyList());
+        verifyZeroInteractions(ledgerEvent);
     }
 
     @Test
     void clearEntries() {
-        List<LedgerEntry> pendingEntries = ((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries();
-        pendingEntries.clear();
-        pendingEntries.addAll(testData.PENDING_LEDGERS);
-        assertTrue(pendingEntries.size() > 0);
+        doReturn(true).when(accountLedgerTable).isInTransaction();
+        testData.PENDING_LEDGERS.forEach(accountLedgerService::logEntry);
+        assertTrue(((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries().size() > 0);
         accountLedgerService.clearEntries();
-        assertEquals(0, pendingEntries.size());
+        assertEquals(0, ((AccountLedgerServiceImpl) accountLedgerService).getPendingEntries().size());
     }
 
 }
\ No newline at end of file
@@ -26,9 +26,11 @@ import com.apollocurrency.aplwallet.apl.util.Constants;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.enterprise.event.Event;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -308,6 +310,50 @@ class AccountServiceTest {
         verify(firedEventLedger, times(4)).fire(any(LedgerEntry.class));
     }
 
+    @Test
+    void addToBalanceAndUnconfirmedBalanceATMInBulk() {
+        LedgerEvent event = LedgerEvent.ASSET_DIVIDEND_PAYMENT;
+        long eventId = 10L;
+        Event firedEvent = mock(Event.class);
+        Event firedEventLedger = mock(Event.class);
+        int height = 100_000;
+        Block lastBlock = mock(Block.class);
+        doReturn(lastBlock).when(blockChainInfoService).getLastBlock();
+        doReturn(height).when(blockChainInfoService).getHeight();
+        doReturn(firedEvent).when(accountEvent).select(literal(AccountEventType.BALANCE));
+        doReturn(firedEvent).when(accountEvent).select(literal(AccountEventType.UNCONFIRMED_BALANCE));
+        doReturn(firedEventLedger).when(ledgerEvent).select(AccountLedgerEventBinding.literal(AccountLedgerEventType.LOG_ENTRY));
+        doReturn(firedEventLedger).when(ledgerEvent).select(AccountLedgerEventBinding.literal(AccountLedgerEventType.LOG_UNCONFIRMED_ENTRY));
+        Account account0 = new Account(testData.ACC_0);
+        Account account1 = new Account(testData.ACC_1);
+        Account notSaved = new Account(testData.ACC_2);
+        doReturn(List.of(account1, account0)).when(accountTable).getByIds(List.of(account0.getId(), account1.getId(), notSaved.getId()));
+        doReturn(notSaved).when(accountTable).get(AccountTable.newKey(notSaved.getId()));
+        Map<Long, Long> amounts = new LinkedHashMap<>();
+        amounts.put(account0.getId(), 100L);
+        amounts.put(testData.ACC_3.getId(), 0L);
+        amounts.put(account1.getId(), 200L);
+        amounts.put(notSaved.getId(), 300L);
+
+        accountService.addToBalanceAndUnconfirmedBalanceATM(event, eventId, amounts);
+
+        assertEquals(testData.ACC_0.getBalanceATM() + 100, account0.getBalanceATM());
+        assertEquals(testData.ACC_0.getUnconfirmedBalanceATM() + 100, account0.getUnconfirmedBalanceATM());
+        assertEquals(testData.ACC_1.getBalanceATM() + 200, account1.getBalanceATM());
+        assertEquals(height, account1.getHeight());
+        assertEquals(testData.ACC_2.getBalanceATM() + 300, notSaved.getBalanceATM());
+        assertEquals(height, notSaved.getHeight());
+        verify(accountTable).insertAll(List.of(account0, account1, notSaved));
+        verify(accountGuaranteedBalanceTable).addToGuaranteedBalancesATM(Map.of(account0.getId(), 100L, account1.getId(), 200L, notSaved.getId(), 300L), height);
+        verify(accountService, never()).update(any(Account.class));
+        verify(firedEvent, times(6)).fire(any(Account.class));
+        ArgumentCaptor<LedgerEntry> entryCaptor = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(firedEventLedger, times(6)).fire(entryCaptor.capture());
+        // ledger entries are logged in the order of the given accounts, including not saved one
+        assertEquals(List.of(account0.getId(), account0.getId(), account1.getId(), account1.getId(), notSaved.getId(), notSaved.getId()),
+            entryCaptor.getAllValues().stream().map(LedgerEntry::getAccountId).collect(Collectors.toList()));
+    }
+
     @Test
     void addToUnconfirmedBalanceATM() {
         Account account = testData.ACC_0;
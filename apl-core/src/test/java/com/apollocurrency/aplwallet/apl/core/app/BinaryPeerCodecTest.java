@@ -0,0 +1,129 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.chainid.HeightConfig;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@EnableWeld
+class BinaryPeerCodecTest {
+    private BlockchainConfig blockchainConfig = mock(BlockchainConfig.class);
+    private HeightConfig heightConfig = mock(HeightConfig.class);
+    @WeldSetup
+    WeldInitiator weld = WeldInitiator.from()
+        .addBeans(MockBean.of(blockchainConfig, BlockchainConfig.class))
+        .build();
+    private final byte[] keySeed = Crypto.getKeySeed("binary peer codec test");
+    private final byte[] publicKey = Crypto.getPublicKey(keySeed);
+
+    {
+        doReturn(heightConfig).when(blockchainConfig).getCurrentConfig();
+        doReturn(100L).when(heightConfig).getInitialBaseTarget();
+    }
+
+    @Test
+    void testWriteAndReadTransactions() throws AplException.NotValidException {
+        List<Transaction> transactions = createTransactions(5);
+
+        List<BinaryPeerCodec.TransactionData> transactionsData = BinaryPeerCodec.readTransactions(BinaryPeerCodec.writeTransactions(transactions));
+
+        assertEquals(transactions.size(), transactionsData.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionImpl transaction = transactionsData.get(i).parse();
+            assertEquals(transactions.get(i).getId(), transaction.getId());
+            assertArrayEquals(transactions.get(i).getBytes(), transaction.getBytes());
+        }
+    }
+
+    @Test
+    void testWriteAndReadBlocks() throws AplException.NotValidException {
+        BlockImpl block = createBlock(createTransactions(3));
+        BlockImpl emptyBlock = createBlock(List.of());
+
+        List<BinaryPeerCodec.BlockData> blocksData = BinaryPeerCodec.readBlocks(BinaryPeerCodec.writeBlocks(List.of(block, emptyBlock)), 2);
+
+        assertEquals(2, blocksData.size());
+        BlockImpl parsedBlock = blocksData.get(0).parse();
+        assertEquals(block.getId(), parsedBlock.getId());
+        assertArrayEquals(block.getBytes(), parsedBlock.getBytes());
+        assertEquals(3, parsedBlock.getTransactions().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(block.getTransactions().get(i).getId(), parsedBlock.getTransactions().get(i).getId());
+        }
+        assertEquals(emptyBlock.getId(), blocksData.get(1).parse().getId());
+    }
+
+    @Test
+    void testReadTooManyBlocks() {
+        byte[] body = BinaryPeerCodec.writeBlocks(List.of(createBlock(List.of()), createBlock(List.of())));
+
+        assertThrows(AplException.NotValidException.class, () -> BinaryPeerCodec.readBlocks(body, 1));
+    }
+
+    @Test
+    void testReadTruncatedBody() {
+        byte[] body = BinaryPeerCodec.writeTransactions(createTransactions(2));
+
+        assertThrows(AplException.NotValidException.class, () -> BinaryPeerCodec.readTransactions(Arrays.copyOf(body, body.length - 10)));
+        assertThrows(AplException.NotValidException.class, () -> BinaryPeerCodec.readTransactions(Arrays.copyOf(body, body.length + 1)));
+        assertThrows(AplException.NotValidException.class, () -> BinaryPeerCodec.readTransactions(ByteBuffer.allocate(8).putInt(1).putInt(-1).array()));
+    }
+
+    @Test
+    void testParseBlockWithInvalidSignature() throws AplException.NotValidException {
+        BlockImpl block = createBlock(List.of());
+        byte[] body = BinaryPeerCodec.writeBlocks(List.of(block));
+        body[body.length - 8]++; // corrupt block signature, which is followed by the empty transactions count
+
+        List<BinaryPeerCodec.BlockData> blocksData = BinaryPeerCodec.readBlocks(body, 1);
+
+        // signature is verified later by the TransactionSignatureVerifier or during push, not on parse
+        BlockImpl parsedBlock = blocksData.get(0).parse();
+        assertFalse(parsedBlock.checkSignature());
+    }
+
+    private List<Transaction> createTransactions(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                transactions.add(Transaction.newTransactionBuilder(publicKey, (i + 1) * Constants.ONE_APL, Constants.ONE_APL, (short) 1440,
+                    Attachment.ORDINARY_PAYMENT, 1000 + i)
+                    .recipientId(i + 1)
+                    .ecBlockHeight(0)
+                    .ecBlockId(0)
+                    .build(keySeed));
+            } catch (AplException.NotValidException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return transactions;
+    }
+
+    private BlockImpl createBlock(List<Transaction> transactions) {
+        return new BlockImpl(Block.ADAPTIVE_BLOCK_VERSION, 2000, 1L, 0, 0, 0, new byte[32], publicKey, new byte[32], new byte[32],
+            10, transactions, keySeed);
+    }
+}
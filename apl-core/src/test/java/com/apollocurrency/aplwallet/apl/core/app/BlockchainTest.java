@@ -1039,6 +1039,21 @@ class BlockchainTest {
 
     }
 
+    @Test
+    void testGetTransactionsPagesAcrossAllDataSources() {
+        blockchain.setLastBlock(btd.BLOCK_13);
+        List<Transaction> allTransactions = blockchain.getTransactions(txd.TRANSACTION_2.getSenderId(), 0, (byte) -1, (byte) -1, 0, false, false, false,
+            0, Integer.MAX_VALUE, false, false, true);
+
+        for (int from = 0; from <= allTransactions.size(); from++) {
+            for (int to = from; to <= allTransactions.size(); to++) {
+                List<Transaction> page = blockchain.getTransactions(txd.TRANSACTION_2.getSenderId(), 0, (byte) -1, (byte) -1, 0, false, false, false,
+                    from, to, false, false, true);
+                assertEquals(allTransactions.subList(from, Math.min(to + 1, allTransactions.size())), page, "Wrong page from=" + from + ", to=" + to);
+            }
+        }
+    }
+
 
     @Test
     void testGetTransactionsFromDifferentDataSourcesWhenSkipFirstNEntriesWithLimitWithoutSearchingFirstShardDataSource() {
@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.peer.Peer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DownloadedBlocksPusherTest {
+    private static final int START_HEIGHT = 100;
+
+    private Blockchain blockchain = mock(Blockchain.class);
+    private BlockchainProcessor blockchainProcessor = mock(BlockchainProcessor.class);
+    private TransactionProcessor transactionProcessor = mock(TransactionProcessor.class);
+    private GlobalSync globalSync = spy(new GlobalSyncImpl());
+    private Peer feederPeer = mock(Peer.class);
+    private Peer otherPeer = mock(Peer.class);
+
+    private List<Block> chain = new ArrayList<>(); // our blockchain after the common block, including it
+    private List<Long> pushedIds = new ArrayList<>();
+    private boolean pushedUnderWriteLock = true;
+    private Long rejectedId;
+
+    private Block commonBlock;
+    private List<Block> peerBlocks; // peer's blocks after the common block
+    private List<Long> chainBlockIds;
+
+    @BeforeEach
+    void setUp() {
+        commonBlock = mockBlock(1000, 0, 100);
+        chain.add(commonBlock);
+        peerBlocks = new ArrayList<>();
+        long previousId = commonBlock.getId();
+        for (int i = 1; i <= 6; i++) {
+            Block block = mockBlock(1000 + i, previousId, 100 + i * 10);
+            peerBlocks.add(block);
+            previousId = block.getId();
+        }
+        chainBlockIds = new ArrayList<>();
+        chainBlockIds.add(commonBlock.getId());
+        peerBlocks.forEach(block -> chainBlockIds.add(block.getId()));
+
+        doAnswer(invocation -> chain.get(chain.size() - 1)).when(blockchain).getLastBlock();
+        doAnswer(invocation -> START_HEIGHT + chain.size() - 1).when(blockchain).getHeight();
+        // popped off blocks are returned starting from the last one
+        doAnswer(invocation -> {
+            Block block = invocation.getArgument(0);
+            List<Block> poppedOff = new ArrayList<>();
+            while (chain.get(chain.size() - 1).getId() != block.getId()) {
+                poppedOff.add(chain.remove(chain.size() - 1));
+            }
+            return poppedOff;
+        }).when(blockchainProcessor).popOffToCommonBlock(any(Block.class));
+    }
+
+    @Test
+    void testPushSegmentsInChainOrderWithWriteLockPerSegment() {
+        DownloadedBlocksPusher pusher = createPusher();
+
+        assertEquals(7, pusher.addBlocks(otherPeer, peerBlocks.subList(3, 6), 3));
+        pusher.pushAvailable();
+
+        assertEquals(List.of(), pushedIds);
+        verify(globalSync, never()).writeLock();
+
+        assertEquals(4, pusher.addBlocks(feederPeer, peerBlocks.subList(0, 3), 0));
+        pusher.pushAvailable();
+
+        assertEquals(ids(peerBlocks), pushedIds);
+        assertTrue(pushedUnderWriteLock);
+        verify(globalSync, times(1)).writeLock();
+        verify(globalSync, times(1)).writeUnlock();
+
+        pusher.pushRemaining(feederPeer);
+
+        assertEquals(ids(peerBlocks), pushedIds);
+        verify(globalSync, times(2)).writeLock();
+        verify(globalSync, times(2)).writeUnlock();
+        verify(blockchainProcessor, never()).popOffToCommonBlock(any(Block.class));
+    }
+
+    @Test
+    void testReleaseWriteLockBetweenSegments() {
+        DownloadedBlocksPusher pusher = createPusher();
+
+        pusher.addBlocks(feederPeer, peerBlocks.subList(0, 3), 0);
+        pusher.pushAvailable();
+
+        assertEquals(ids(peerBlocks.subList(0, 3)), pushedIds);
+        verify(globalSync, times(1)).writeLock();
+        verify(globalSync, times(1)).writeUnlock();
+        assertFalse(globalSync.hasWriteLock());
+
+        pusher.addBlocks(otherPeer, peerBlocks.subList(3, 6), 3);
+        pusher.pushAvailable();
+
+        assertEquals(ids(peerBlocks), pushedIds);
+        assertTrue(pushedUnderWriteLock);
+        verify(globalSync, times(2)).writeLock();
+        verify(globalSync, times(2)).writeUnlock();
+        assertFalse(globalSync.hasWriteLock());
+    }
+
+    @Test
+    void testSegmentFailingHalfway() {
+        DownloadedBlocksPusher pusher = createPusher();
+        rejectedId = peerBlocks.get(3).getId();
+
+        pusher.addBlocks(feederPeer, peerBlocks.subList(0, 3), 0);
+        pusher.pushAvailable();
+        pusher.addBlocks(otherPeer, peerBlocks.subList(3, 6), 3);
+        pusher.pushAvailable();
+
+        assertEquals(ids(peerBlocks.subList(0, 3)), pushedIds);
+        verify(otherPeer).blacklist(any(BlockchainProcessor.BlockNotAcceptedException.class));
+        verify(globalSync, times(2)).writeLock();
+        verify(globalSync, times(2)).writeUnlock();
+        assertFalse(globalSync.hasWriteLock());
+
+        pusher.pushRemaining(feederPeer);
+
+        // blocks after the rejected one do not continue our blockchain and are processed as a fork,
+        // which is not accepted, so our pushed blocks are restored
+        verify(blockchainProcessor).popOffToCommonBlock(commonBlock);
+        assertEquals(ids(peerBlocks.subList(0, 3)), ids(chain.subList(1, chain.size())));
+        verify(globalSync, times(3)).writeLock();
+        verify(globalSync, times(3)).writeUnlock();
+        assertFalse(globalSync.hasWriteLock());
+    }
+
+    @Test
+    void testSkipBlocksOfSegmentFromDifferentFork() {
+        DownloadedBlocksPusher pusher = createPusher();
+        List<Block> forkSegment = new ArrayList<>(peerBlocks.subList(3, 6));
+        forkSegment.set(1, mockBlock(2000, peerBlocks.get(3).getId(), 150));
+
+        pusher.addBlocks(feederPeer, peerBlocks.subList(0, 3), 0);
+        assertEquals(5, pusher.addBlocks(otherPeer, forkSegment, 3));
+        pusher.pushAvailable();
+        pusher.pushRemaining(feederPeer);
+
+        assertEquals(ids(peerBlocks.subList(0, 4)), pushedIds);
+        verify(blockchainProcessor, never()).popOffToCommonBlock(any(Block.class));
+        verify(otherPeer, never()).blacklist(anyString());
+    }
+
+    @Test
+    void testBlacklistPeerAndPopOffForkWithLowerDifficulty() {
+        Block myBlock = mockBlock(3000, commonBlock.getId(), 1000);
+        chain.add(myBlock);
+        DownloadedBlocksPusher pusher = createPusher();
+
+        pusher.addBlocks(feederPeer, peerBlocks.subList(0, 3), 0);
+        pusher.pushAvailable();
+
+        assertEquals(List.of(), pushedIds);
+        verify(globalSync, never()).writeLock();
+
+        pusher.pushRemaining(feederPeer);
+
+        verify(feederPeer).blacklist("Pop off");
+        verify(blockchainProcessor, times(2)).popOffToCommonBlock(commonBlock);
+        for (Block block : peerBlocks.subList(0, 3)) {
+            List<Transaction> transactions = block.getOrLoadTransactions();
+            verify(transactionProcessor).processLater(transactions);
+        }
+        List<Transaction> myTransactions = myBlock.getOrLoadTransactions();
+        verify(transactionProcessor, never()).processLater(myTransactions);
+        assertEquals(List.of(commonBlock, myBlock), chain);
+        verify(globalSync, times(1)).writeLock();
+        verify(globalSync, times(1)).writeUnlock();
+    }
+
+    @Test
+    void testSwitchToForkWithHigherDifficulty() {
+        Block myBlock = mockBlock(3000, commonBlock.getId(), 105);
+        chain.add(myBlock);
+        DownloadedBlocksPusher pusher = createPusher();
+
+        pusher.addBlocks(feederPeer, peerBlocks.subList(0, 3), 0);
+        pusher.pushRemaining(feederPeer);
+
+        verify(feederPeer, never()).blacklist(anyString());
+        verify(blockchainProcessor, times(1)).popOffToCommonBlock(commonBlock);
+        List<Transaction> myTransactions = myBlock.getOrLoadTransactions();
+        verify(transactionProcessor).processLater(myTransactions);
+        assertEquals(ids(peerBlocks.subList(0, 3)), ids(chain.subList(1, chain.size())));
+    }
+
+    private DownloadedBlocksPusher createPusher() {
+        return new DownloadedBlocksPusher(chainBlockIds, commonBlock, START_HEIGHT, blockchain, blockchainProcessor,
+            transactionProcessor, globalSync, this::pushBlock);
+    }
+
+    private void pushBlock(Block block) throws BlockchainProcessor.BlockNotAcceptedException {
+        pushedUnderWriteLock &= globalSync.hasWriteLock();
+        if (rejectedId != null && rejectedId == block.getId()) {
+            throw new BlockchainProcessor.BlockNotAcceptedException("Test", null);
+        }
+        pushedIds.add(block.getId());
+        chain.add(block);
+    }
+
+    private List<Long> ids(List<Block> blocks) {
+        return blocks.stream().map(Block::getId).collect(Collectors.toList());
+    }
+
+    private Block mockBlock(long id, long previousBlockId, long cumulativeDifficulty) {
+        Block block = mock(Block.class);
+        doReturn(id).when(block).getId();
+        doReturn(previousBlockId).when(block).getPreviousBlockId();
+        doReturn(BigInteger.valueOf(cumulativeDifficulty)).when(block).getCumulativeDifficulty();
+        doReturn(List.of(mock(Transaction.class))).when(block).getOrLoadTransactions();
+        return block;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class MemPoolTest {
+    private static final long SENDER_1 = 100;
+    private static final long SENDER_2 = 200;
+
+    private MemPool memPool;
+    private UnconfirmedTransaction lowFeeTx;
+    private UnconfirmedTransaction highFeeTx;
+    private UnconfirmedTransaction lateTx;
+    private UnconfirmedTransaction expiredTx;
+
+    @BeforeEach
+    void setUp() {
+        memPool = new MemPool();
+        lowFeeTx = createTransaction(1, SENDER_1, 100, 1000, 10);
+        highFeeTx = createTransaction(2, SENDER_2, 100, 5000, 11);
+        lateTx = createTransaction(3, SENDER_1, 100, 1000, 12);
+        expiredTx = createTransaction(4, SENDER_2, 50, 1000, 13);
+        assertTrue(memPool.add(lowFeeTx, 10));
+        assertTrue(memPool.add(highFeeTx, 10));
+        assertTrue(memPool.add(lateTx, 11));
+        assertTrue(memPool.add(expiredTx, 12));
+    }
+
+    @Test
+    void testGetAllInBlockAssemblyOrder() {
+        assertEquals(List.of(highFeeTx, lowFeeTx, lateTx, expiredTx), memPool.getAll());
+        assertEquals(List.of(lowFeeTx, lateTx), memPool.getAll(1, 2));
+        assertEquals(List.of(lateTx, expiredTx), memPool.getAll(2, -1));
+        assertEquals(List.of(lateTx), memPool.getAll(tx -> tx.getSenderId() == SENDER_1, 1, 1));
+        assertSame(expiredTx, memPool.getLast());
+        assertEquals(4, memPool.size());
+    }
+
+    @Test
+    void testAddDuplicate() {
+        assertFalse(memPool.add(lowFeeTx, 20));
+
+        assertEquals(4, memPool.size());
+    }
+
+    @Test
+    void testGetBySenderAndExpired() {
+        assertEquals(List.of(lowFeeTx, lateTx), memPool.getBySender(SENDER_1));
+        assertEquals(List.of(), memPool.getBySender(300));
+        assertEquals(List.of(expiredTx), memPool.getExpired(60));
+    }
+
+    @Test
+    void testRemove() {
+        MemPool.Entry removed = memPool.remove(lowFeeTx.getId());
+
+        assertSame(lowFeeTx, removed.getTransaction());
+        assertEquals(10, removed.getHeight());
+        assertNull(memPool.get(lowFeeTx.getId()));
+        assertFalse(memPool.contains(lowFeeTx.getId()));
+        assertEquals(List.of(lateTx), memPool.getBySender(SENDER_1));
+        assertNull(memPool.remove(lowFeeTx.getId()));
+    }
+
+    @Test
+    void testRemoveAboveAndRestore() {
+        List<MemPool.Entry> removed = memPool.removeAbove(10);
+
+        assertEquals(2, removed.size());
+        assertEquals(List.of(highFeeTx, lowFeeTx), memPool.getAll());
+        assertEquals(List.of(highFeeTx), memPool.getBySender(SENDER_2));
+
+        memPool.addAll(removed);
+
+        assertEquals(List.of(highFeeTx, lowFeeTx, lateTx, expiredTx), memPool.getAll());
+        assertEquals(12, memPool.removeAbove(11).get(0).getHeight());
+    }
+
+    @Test
+    void testRemoveAll() {
+        List<MemPool.Entry> removed = memPool.removeAll();
+
+        assertEquals(4, removed.size());
+        assertEquals(0, memPool.size());
+        assertNull(memPool.getLast());
+        assertEquals(List.of(), memPool.getAllIds());
+    }
+
+    private UnconfirmedTransaction createTransaction(long id, long senderId, int expiration, long fee, long arrivalTimestamp) {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(id).when(transaction).getId();
+        doReturn(senderId).when(transaction).getSenderId();
+        doReturn(expiration).when(transaction).getExpiration();
+        doReturn(fee).when(transaction).getFeeATM();
+        doReturn(100).when(transaction).getFullSize();
+        return new UnconfirmedTransaction(transaction, arrivalTimestamp);
+    }
+}
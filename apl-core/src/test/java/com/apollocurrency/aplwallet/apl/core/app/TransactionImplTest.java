@@ -0,0 +1,84 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionImplTest {
+    private static final int SIGNATURE_OFFSET = 1 + 1 + 4 + 2 + 32 + 8 + 8 + 8 + 32;
+    private final byte[] keySeed = Crypto.getKeySeed("transaction impl test");
+    private final byte[] publicKey = Crypto.getPublicKey(keySeed);
+
+    @Test
+    void testIdAndFullHashAreCalculatedFromUnsignedBytes() throws AplException.NotValidException {
+        TransactionImpl transaction = createTransaction();
+
+        MessageDigest digest = Crypto.sha256();
+        digest.update(transaction.getUnsignedBytes());
+        byte[] expectedFullHash = digest.digest(Crypto.sha256().digest(transaction.getSignature()));
+        BigInteger expectedId = new BigInteger(1, new byte[]{expectedFullHash[7], expectedFullHash[6], expectedFullHash[5],
+            expectedFullHash[4], expectedFullHash[3], expectedFullHash[2], expectedFullHash[1], expectedFullHash[0]});
+
+        assertArrayEquals(expectedFullHash, transaction.getFullHash());
+        assertEquals(expectedId.longValue(), transaction.getId());
+    }
+
+    @Test
+    void testSignatureOfParsedTransactionIsValid() throws AplException.NotValidException {
+        TransactionImpl transaction = createTransaction();
+
+        TransactionImpl parsed = TransactionImpl.newTransactionBuilder(transaction.getBytes()).build();
+
+        assertTrue(parsed.checkSignature());
+        assertTrue(Crypto.verify(parsed.getSignature(), parsed.getUnsignedBytes(), publicKey));
+        assertEquals(transaction.getId(), parsed.getId());
+    }
+
+    @Test
+    void testSignatureOfModifiedTransactionIsNotValid() throws AplException.NotValidException {
+        byte[] bytes = createTransaction().getBytes();
+        bytes[bytes.length - 1]++; // change ecBlockId
+
+        TransactionImpl modified = TransactionImpl.newTransactionBuilder(bytes).build();
+
+        assertFalse(modified.checkSignature());
+    }
+
+    @Test
+    void testUnsignedBytesDoNotAffectSharedBytes() throws AplException.NotValidException {
+        TransactionImpl transaction = createTransaction();
+
+        byte[] unsignedBytes = transaction.getUnsignedBytes();
+
+        assertArrayEquals(new byte[64], Arrays.copyOfRange(unsignedBytes, SIGNATURE_OFFSET, SIGNATURE_OFFSET + 64));
+        assertArrayEquals(transaction.getSignature(), Arrays.copyOfRange(transaction.bytes(), SIGNATURE_OFFSET, SIGNATURE_OFFSET + 64));
+        assertSame(transaction.bytes(), transaction.bytes());
+        assertNotSame(transaction.bytes(), transaction.getBytes());
+    }
+
+    private TransactionImpl createTransaction() throws AplException.NotValidException {
+        return (TransactionImpl) Transaction.newTransactionBuilder(publicKey, Constants.ONE_APL, Constants.ONE_APL, (short) 1440,
+            Attachment.ORDINARY_PAYMENT, 1000)
+            .recipientId(1)
+            .ecBlockHeight(0)
+            .ecBlockId(1)
+            .build(keySeed);
+    }
+}
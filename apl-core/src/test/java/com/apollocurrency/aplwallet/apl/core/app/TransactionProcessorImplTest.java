@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.app.observer.events.TxEventType;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.LongKeyFactory;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.peer.PeersService;
+import com.apollocurrency.aplwallet.apl.core.task.TaskDispatchManager;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionApplier;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.extension.DbExtension;
+import com.apollocurrency.aplwallet.apl.testutil.DbUtils;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import com.apollocurrency.aplwallet.apl.util.NtpTime;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.enterprise.event.Event;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@EnableWeld
+class TransactionProcessorImplTest {
+    private static final int CURRENT_TIME = 2000;
+
+    @RegisterExtension
+    DbExtension extension = new DbExtension();
+
+    private PropertiesHolder propertiesHolder = mock(PropertiesHolder.class);
+    private TimeService timeService = mock(TimeService.class);
+    private Blockchain blockchain = mock(Blockchain.class);
+
+    @WeldSetup
+    WeldInitiator weld = WeldInitiator.from()
+        .addBeans(MockBean.of(extension.getDatabaseManager(), DatabaseManager.class))
+        .addBeans(MockBean.of(propertiesHolder, PropertiesHolder.class))
+        .addBeans(MockBean.of(timeService, TimeService.class))
+        .addBeans(MockBean.of(blockchain, Blockchain.class, BlockchainImpl.class))
+        .addBeans(MockBean.of(new GlobalSyncImpl(), GlobalSync.class))
+        .addBeans(MockBean.of(mock(BlockchainConfig.class), BlockchainConfig.class))
+        .addBeans(MockBean.of(mock(NtpTime.class), NtpTime.class))
+        .addBeans(MockBean.of(mock(TaskDispatchManager.class), TaskDispatchManager.class))
+        .addBeans(MockBean.of(mock(PeersService.class), PeersService.class))
+        .build();
+
+    private TransactionValidator validator = mock(TransactionValidator.class);
+    private TransactionApplier applier = mock(TransactionApplier.class);
+    private Event<List<Transaction>> txEvent = mock(Event.class);
+    private TransactionProcessorImpl transactionProcessor;
+
+    private final byte[] firstSenderKeySeed = Crypto.getKeySeed("transaction processor test sender 1");
+    private final byte[] secondSenderKeySeed = Crypto.getKeySeed("transaction processor test sender 2");
+    private TransactionImpl includedTx;
+    private TransactionImpl sameSenderTx;
+    private TransactionImpl otherSenderTx;
+
+    @BeforeEach
+    void setUp() throws AplException.ValidationException {
+        doReturn(true).when(propertiesHolder).isLightClient();
+        doReturn(CURRENT_TIME).when(timeService).getEpochTime();
+        doReturn(mock(Event.class)).when(txEvent).select(TxEventType.literal(TxEventType.REMOVED_UNCONFIRMED_TRANSACTIONS));
+        doReturn(true).when(applier).applyUnconfirmed(any(Transaction.class));
+        transactionProcessor = new TransactionProcessorImpl(new LongKeyFactory<>("id") {
+            @Override
+            public DbKey newKey(UnconfirmedTransaction unconfirmedTransaction) {
+                return new LongKey(unconfirmedTransaction.getId());
+            }
+        }, validator, applier, txEvent);
+        transactionProcessor.init();
+
+        includedTx = createTransaction(firstSenderKeySeed, 1);
+        sameSenderTx = createTransaction(firstSenderKeySeed, 2);
+        otherSenderTx = createTransaction(secondSenderKeySeed, 3);
+        DbUtils.inTransaction(extension, con -> {
+            for (TransactionImpl transaction : List.of(includedTx, sameSenderTx, otherSenderTx)) {
+                savePooledTransaction(con, transaction);
+            }
+        });
+    }
+
+    @Test
+    void testReapplyRemovesTransactionIncludedIntoBlock() throws AplException.ValidationException {
+        Block block = mockBlock(includedTx);
+
+        DbUtils.inTransaction(extension, con -> {
+            transactionProcessor.undoUnconfirmedTransactions(block);
+            transactionProcessor.reapplyUnconfirmedTransactions(block);
+        });
+
+        verify(applier).undoUnconfirmed(includedTx);
+        verify(applier).undoUnconfirmed(sameSenderTx);
+        verify(applier, never()).undoUnconfirmed(otherSenderTx);
+        verify(applier).applyUnconfirmed(sameSenderTx);
+        verify(applier, never()).applyUnconfirmed(includedTx);
+        verify(validator, never()).validate(otherSenderTx);
+        assertNull(transactionProcessor.getUnconfirmedTransaction(includedTx.getId()));
+        assertNotNull(transactionProcessor.getUnconfirmedTransaction(sameSenderTx.getId()));
+        assertNotNull(transactionProcessor.getUnconfirmedTransaction(otherSenderTx.getId()));
+        assertEquals(0, transactionProcessor.getWaitingTransactions().size());
+        assertEquals(List.of(sameSenderTx.getId(), otherSenderTx.getId()), getPooledIds());
+    }
+
+    @Test
+    void testReapplyMovesInvalidTransactionToWaitingQueue() throws AplException.ValidationException {
+        doThrow(new AplException.NotCurrentlyValidException("Test")).when(validator).validate(sameSenderTx);
+        Block block = mockBlock(includedTx);
+
+        DbUtils.inTransaction(extension, con -> {
+            transactionProcessor.undoUnconfirmedTransactions(block);
+            transactionProcessor.reapplyUnconfirmedTransactions(block);
+        });
+
+        assertNull(transactionProcessor.getUnconfirmedTransaction(includedTx.getId()));
+        assertNull(transactionProcessor.getUnconfirmedTransaction(sameSenderTx.getId()));
+        assertEquals(List.of(sameSenderTx.getId()), transactionProcessor.getWaitingTransactions().stream()
+            .map(Transaction::getId).collect(Collectors.toList()));
+        assertEquals(List.of(otherSenderTx.getId()), getPooledIds());
+    }
+
+    @Test
+    void testRestoreMemPoolOnRollback() throws AplException.ValidationException {
+        doThrow(new AplException.NotCurrentlyValidException("Test")).when(validator).validate(sameSenderTx);
+        Block block = mockBlock(includedTx);
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+
+        dataSource.begin();
+        try {
+            transactionProcessor.undoUnconfirmedTransactions(block);
+            transactionProcessor.reapplyUnconfirmedTransactions(block);
+            assertNull(transactionProcessor.getUnconfirmedTransaction(includedTx.getId()));
+        } finally {
+            dataSource.rollback();
+        }
+
+        assertNotNull(transactionProcessor.getUnconfirmedTransaction(includedTx.getId()));
+        assertNotNull(transactionProcessor.getUnconfirmedTransaction(sameSenderTx.getId()));
+        assertNotNull(transactionProcessor.getUnconfirmedTransaction(otherSenderTx.getId()));
+        assertEquals(List.of(includedTx.getId(), sameSenderTx.getId(), otherSenderTx.getId()), getPooledIds());
+    }
+
+    private Block mockBlock(Transaction... transactions) {
+        Block block = mock(Block.class);
+        doReturn(List.of(transactions)).when(block).getOrLoadTransactions();
+        doReturn("1").when(block).getStringId();
+        return block;
+    }
+
+    private List<Long> getPooledIds() {
+        return DbUtils.getInTransaction(extension, con -> {
+            try (PreparedStatement pstmt = con.prepareStatement("SELECT id FROM unconfirmed_transaction ORDER BY arrival_timestamp");
+                 ResultSet rs = pstmt.executeQuery()) {
+                List<Long> ids = new ArrayList<>();
+                while (rs.next()) {
+                    ids.add(rs.getLong("id"));
+                }
+                return ids;
+            } catch (SQLException e) {
+                throw new RuntimeException(e.toString(), e);
+            }
+        });
+    }
+
+    private void savePooledTransaction(Connection con, TransactionImpl transaction) {
+        try (PreparedStatement pstmt = con.prepareStatement("INSERT INTO unconfirmed_transaction (id, transaction_height, "
+            + "fee_per_byte, expiration, transaction_bytes, arrival_timestamp, height) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            int i = 0;
+            pstmt.setLong(++i, transaction.getId());
+            pstmt.setInt(++i, Integer.MAX_VALUE);
+            pstmt.setLong(++i, transaction.getFeeATM() / transaction.getFullSize());
+            pstmt.setInt(++i, transaction.getExpiration());
+            pstmt.setBytes(++i, transaction.getBytes());
+            pstmt.setLong(++i, transaction.getTimestamp());
+            pstmt.setInt(++i, 100);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+
+    private TransactionImpl createTransaction(byte[] keySeed, int timestamp) {
+        try {
+            return (TransactionImpl) Transaction.newTransactionBuilder(Crypto.getPublicKey(keySeed), Constants.ONE_APL, Constants.ONE_APL,
+                (short) 1440, Attachment.ORDINARY_PAYMENT, timestamp)
+                .recipientId(1)
+                .ecBlockHeight(0)
+                .ecBlockId(1)
+                .build(keySeed);
+        } catch (AplException.NotValidException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
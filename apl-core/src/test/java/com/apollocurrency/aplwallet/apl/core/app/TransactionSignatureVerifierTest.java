@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.transaction.messages.Attachment;
+import com.apollocurrency.aplwallet.apl.crypto.Crypto;
+import com.apollocurrency.aplwallet.apl.util.AplException;
+import com.apollocurrency.aplwallet.apl.util.Constants;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TransactionSignatureVerifierTest {
+    private final byte[] keySeed = Crypto.getKeySeed("transaction signature verifier test");
+    private final byte[] publicKey = Crypto.getPublicKey(keySeed);
+    private PropertiesHolder propertiesHolder = mock(PropertiesHolder.class);
+    private TransactionSignatureVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(2).when(propertiesHolder).getIntProperty("apl.signatureVerifierThreads", 0);
+        verifier = new TransactionSignatureVerifier(propertiesHolder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Test
+    void testVerifyAllBlockTransactions() {
+        List<Transaction> transactions = mockTransactions(20, 3);
+        Block block = mock(Block.class);
+        doReturn(transactions).when(block).getTransactions();
+
+        int failed = verifier.verify(List.of(block));
+
+        assertEquals(3, failed);
+        for (Transaction transaction : transactions) {
+            verify((TransactionImpl) transaction, times(1)).checkSignature();
+        }
+        assertEquals(21, verifier.getVerifiedSignatures());
+        assertTrue(verifier.getVerifiedSignaturesPerSecond() > 0);
+    }
+
+    @Test
+    void testVerifyBlockSignature() {
+        BlockImpl block = mock(BlockImpl.class);
+        doReturn(false).when(block).checkSignature();
+        doReturn(mockTransactions(10, 0)).when(block).getTransactions();
+
+        assertEquals(1, verifier.verify(List.of(block)));
+        assertEquals(0, verifier.findFirstInvalidBlock(List.of(block)));
+    }
+
+    @Test
+    void testFindFirstInvalidBlock() {
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            BlockImpl block = mock(BlockImpl.class);
+            doReturn(true).when(block).checkSignature();
+            doReturn(mockTransactions(3, i == 2 ? 1 : 0)).when(block).getTransactions();
+            blocks.add(block);
+        }
+
+        assertEquals(1, verifier.verify(blocks));
+        assertEquals(2, verifier.findFirstInvalidBlock(blocks));
+        assertEquals(-1, verifier.findFirstInvalidBlock(blocks.subList(0, 2)));
+    }
+
+    @Test
+    void testSignaturesAreVerifiedOnPoolNotOnParse() throws AplException.NotValidException {
+        Set<String> verificationThreads = ConcurrentHashMap.newKeySet();
+        List<TransactionImpl> transactions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            byte[] bytes = createTransaction(i + 1).getBytes();
+            if (i < 2) {
+                bytes[bytes.length - 1]++; // change ecBlockId, so that signature becomes invalid
+            }
+            // transaction with invalid signature is parsed without errors
+            TransactionImpl transaction = spy(TransactionImpl.parseTransaction(bytes, null));
+            doAnswer(invocation -> {
+                verificationThreads.add(Thread.currentThread().getName());
+                return invocation.callRealMethod();
+            }).when(transaction).checkSignature();
+            transactions.add(transaction);
+        }
+
+        int failed = verifier.verifyTransactions(transactions);
+
+        assertEquals(2, failed);
+        assertFalse(transactions.get(0).checkSignature());
+        assertTrue(transactions.get(2).checkSignature());
+        assertTrue(verificationThreads.stream().anyMatch(name -> name.startsWith("ForkJoinPool")), verificationThreads.toString());
+    }
+
+    @Test
+    void testVerifySmallBatchInCallerThread() {
+        List<Transaction> transactions = mockTransactions(2, 1);
+
+        int failed = verifier.verifyTransactions(transactions);
+
+        assertEquals(1, failed);
+        assertEquals(2, verifier.getVerifiedSignatures());
+    }
+
+    @Test
+    void testVerifyEmptyList() {
+        assertEquals(0, verifier.verifyTransactions(List.of()));
+        assertEquals(0, verifier.getVerifiedSignatures());
+        assertEquals(0, verifier.getVerifiedSignaturesPerSecond());
+    }
+
+    private List<Transaction> mockTransactions(int count, int invalid) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TransactionImpl transaction = mock(TransactionImpl.class);
+            doReturn(i >= invalid).when(transaction).checkSignature();
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private TransactionImpl createTransaction(long recipientId) throws AplException.NotValidException {
+        return (TransactionImpl) Transaction.newTransactionBuilder(publicKey, Constants.ONE_APL, Constants.ONE_APL, (short) 1440,
+            Attachment.ORDINARY_PAYMENT, 1000)
+            .recipientId(recipientId)
+            .ecBlockHeight(0)
+            .ecBlockId(1)
+            .build(keySeed);
+    }
+}
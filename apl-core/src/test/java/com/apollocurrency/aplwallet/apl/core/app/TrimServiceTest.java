@@ -15,20 +15,30 @@ import com.apollocurrency.aplwallet.apl.testutil.DbUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InOrder;
 
 import javax.enterprise.event.Event;
 import javax.enterprise.util.AnnotationLiteral;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -51,7 +61,7 @@ class TrimServiceTest {
 
     @BeforeEach
     void setUp() {
-        trimService = new TrimService(databaseManager, registry, globalSync, timeService, event, trimConfigEvent, trimDao, 1000);
+        trimService = new TrimService(databaseManager, registry, globalSync, timeService, event, trimConfigEvent, trimDao, 1000, 2);
     }
 
     @Test
@@ -279,4 +289,114 @@ class TrimServiceTest {
 
         verify(derivedTable, times(2)).trim(2000, false);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDoTrimIndependentTablesConcurrently() {
+        DerivedTableInterface firstTable = mockTable("first");
+        DerivedTableInterface secondTable = mockTable("second");
+        DerivedTableInterface dependentTable = mockTable("dependent");
+        doReturn(Set.of("first")).when(dependentTable).getTrimDependentTables();
+        doReturn(List.of(firstTable, secondTable, dependentTable)).when(registry).getDerivedTables();
+        TransactionalDataSource dataSource = spy(databaseManager.getDataSource());
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        Set<String> trimThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> trimThreads.add(Thread.currentThread().getName())).when(firstTable).trim(2000, false);
+        doAnswer(invocation -> trimThreads.add(Thread.currentThread().getName())).when(secondTable).trim(2000, false);
+
+        DbUtils.inTransaction(extension, con -> trimService.doTrimDerivedTablesOnHeightLocked(2000, false));
+
+        InOrder inOrder = inOrder(firstTable, dependentTable);
+        inOrder.verify(firstTable).trim(2000, false);
+        inOrder.verify(dependentTable).trim(2000, false);
+        verify(secondTable).trim(2000, false);
+        verify(dataSource, times(2)).begin();
+        verify(dataSource, times(2)).commit();
+        assertEquals(2, trimThreads.size());
+        trimThreads.forEach(name -> assertTrue(name.startsWith("TrimService:trim"), name));
+        verify(globalSync, times(3)).readLock();
+        verify(globalSync, times(3)).readUnlock();
+    }
+
+    @Test
+    void testDoTrimIndependentTablesConcurrentlyReleaseLockBetweenTables() throws InterruptedException {
+        DerivedTableInterface firstTable = mockTable("first");
+        DerivedTableInterface secondTable = mockTable("second");
+        DerivedTableInterface dependentTable = mockTable("dependent");
+        doReturn(Set.of("first")).when(dependentTable).getTrimDependentTables();
+        doReturn(List.of(firstTable, secondTable, dependentTable)).when(registry).getDerivedTables();
+        CountDownLatch blockPushed = new CountDownLatch(1);
+        Thread pushThread = new Thread(() -> {
+            globalSync.writeLock();
+            try {
+                blockPushed.countDown();
+            } finally {
+                globalSync.writeUnlock();
+            }
+        });
+        doAnswer(invocation -> {
+            pushThread.start();
+            // wait until the push thread is queued for the write lock behind the read lock held by the trim
+            while (pushThread.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            return null;
+        }).when(firstTable).trim(2000, false);
+        AtomicBoolean pushedBeforeDependentTrim = new AtomicBoolean();
+        doAnswer(invocation -> {
+            pushedBeforeDependentTrim.set(blockPushed.getCount() == 0);
+            return null;
+        }).when(dependentTable).trim(2000, false);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () ->
+            DbUtils.inTransaction(extension, con -> trimService.doTrimDerivedTablesOnHeightLocked(2000, false)));
+
+        pushThread.join();
+        assertTrue(pushedBeforeDependentTrim.get(), "Global lock should be released between tables of the group");
+    }
+
+    @Test
+    void testDoTrimIndependentTablesConcurrentlyWithException() {
+        DerivedTableInterface firstTable = mockTable("first");
+        DerivedTableInterface secondTable = mockTable("second");
+        doReturn(List.of(firstTable, secondTable)).when(registry).getDerivedTables();
+        TransactionalDataSource dataSource = spy(databaseManager.getDataSource());
+        doReturn(dataSource).when(databaseManager).getDataSource();
+        doThrow(new IllegalStateException()).when(secondTable).trim(2000, false);
+
+        assertThrows(RuntimeException.class, () -> DbUtils.inTransaction(extension, con -> trimService.doTrimDerivedTablesOnHeightLocked(2000, false)));
+
+        verify(firstTable).trim(2000, false);
+        verify(dataSource).rollback();
+        // all read locks taken by the trimming threads are released
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            globalSync.writeLock();
+            globalSync.writeUnlock();
+        });
+    }
+
+    @Test
+    void testDoTrimIndependentTablesConcurrentlyUnderWriteLock() {
+        DerivedTableInterface firstTable = mockTable("first");
+        DerivedTableInterface secondTable = mockTable("second");
+        doReturn(List.of(firstTable, secondTable)).when(registry).getDerivedTables();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            globalSync.writeLock();
+            try {
+                DbUtils.inTransaction(extension, con -> trimService.doTrimDerivedTablesOnHeightLocked(2000, false));
+            } finally {
+                globalSync.writeUnlock();
+            }
+        });
+
+        verify(firstTable).trim(2000, false);
+        verify(secondTable).trim(2000, false);
+        verify(globalSync, never()).readLock();
+    }
+
+    private DerivedTableInterface mockTable(String name) {
+        DerivedTableInterface table = mock(DerivedTableInterface.class);
+        doReturn(name).when(table).getName();
+        return table;
+    }
+}
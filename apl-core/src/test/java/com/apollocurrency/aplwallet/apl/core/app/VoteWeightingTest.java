@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.app;
+
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.account.model.AccountAsset;
+import com.apollocurrency.aplwallet.apl.core.account.model.AccountCurrency;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetService;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetServiceImpl;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountCurrencyService;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountCurrencyServiceImpl;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountServiceImpl;
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk vote weights calculation should give the same results as the per-voter one
+ */
+@EnableWeld
+class VoteWeightingTest {
+    private static final int HEIGHT = 1000;
+    private static final long HOLDING_ID = 77;
+    private static final long MIN_BALANCE = 500;
+    private static final int VOTERS = 1201; // more than the max number of ids selected by one query
+
+    private AccountService accountService = mock(AccountService.class);
+    private AccountAssetService accountAssetService = mock(AccountAssetService.class);
+    private AccountCurrencyService accountCurrencyService = mock(AccountCurrencyService.class);
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from()
+        .addBeans(MockBean.of(accountService, AccountService.class, AccountServiceImpl.class))
+        .addBeans(MockBean.of(accountAssetService, AccountAssetService.class, AccountAssetServiceImpl.class))
+        .addBeans(MockBean.of(accountCurrencyService, AccountCurrencyService.class, AccountCurrencyServiceImpl.class))
+        .build();
+
+    private List<Long> voterIds;
+    private Map<Long, Long> balances; // voters without a row are absent
+
+    @BeforeEach
+    void setUp() {
+        voterIds = LongStream.rangeClosed(1, VOTERS).boxed().collect(Collectors.toList());
+        balances = new HashMap<>();
+        for (long voterId : voterIds) {
+            if (voterId % 7 != 0) {
+                balances.put(voterId, voterId * 37 % 1000);
+            }
+        }
+        // voters without an account row have only a public key and zero balance
+        when(accountService.getAccount(anyLong(), eq(HEIGHT))).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            Long balance = balances.get(id);
+            return balance == null ? new Account(id, HEIGHT) : new Account(id, balance, balance, 0, 0, HEIGHT);
+        });
+        when(accountService.getAccounts(anyList(), eq(HEIGHT))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(balances::containsKey)
+                .map(id -> new Account(id, balances.get(id), balances.get(id), 0, 0, HEIGHT))
+                .collect(Collectors.toList());
+        });
+        when(accountAssetService.getAssetBalanceATU(anyLong(), eq(HOLDING_ID), eq(HEIGHT)))
+            .thenAnswer(invocation -> balances.getOrDefault(invocation.<Long>getArgument(0), 0L));
+        when(accountAssetService.getAssetsByAccounts(anyList(), eq(HOLDING_ID), eq(HEIGHT))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(balances::containsKey)
+                .map(id -> new AccountAsset(id, HOLDING_ID, balances.get(id), balances.get(id), HEIGHT))
+                .collect(Collectors.toList());
+        });
+        when(accountCurrencyService.getCurrencyUnits(anyLong(), eq(HOLDING_ID), eq(HEIGHT)))
+            .thenAnswer(invocation -> balances.getOrDefault(invocation.<Long>getArgument(0), 0L));
+        when(accountCurrencyService.getCurrenciesByAccounts(anyList(), eq(HOLDING_ID), eq(HEIGHT))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(balances::containsKey)
+                .map(id -> new AccountCurrency(id, HOLDING_ID, balances.get(id), balances.get(id), HEIGHT))
+                .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    void testCalcWeightsForAccountModel() {
+        verifyCalcWeights(VoteWeighting.VotingModel.ACCOUNT, 0, VoteWeighting.MinBalanceModel.NONE);
+        verifyCalcWeights(VoteWeighting.VotingModel.ACCOUNT, MIN_BALANCE, VoteWeighting.MinBalanceModel.ATM);
+        verifyCalcWeights(VoteWeighting.VotingModel.ACCOUNT, MIN_BALANCE, VoteWeighting.MinBalanceModel.ASSET);
+        verifyCalcWeights(VoteWeighting.VotingModel.ACCOUNT, MIN_BALANCE, VoteWeighting.MinBalanceModel.CURRENCY);
+    }
+
+    @Test
+    void testCalcWeightsForAtmModel() {
+        verifyCalcWeights(VoteWeighting.VotingModel.ATM, 0, VoteWeighting.MinBalanceModel.NONE);
+        verifyCalcWeights(VoteWeighting.VotingModel.ATM, MIN_BALANCE, VoteWeighting.MinBalanceModel.ATM);
+    }
+
+    @Test
+    void testCalcWeightsForAssetModel() {
+        verifyCalcWeights(VoteWeighting.VotingModel.ASSET, 0, VoteWeighting.MinBalanceModel.NONE);
+        verifyCalcWeights(VoteWeighting.VotingModel.ASSET, MIN_BALANCE, VoteWeighting.MinBalanceModel.ASSET);
+    }
+
+    @Test
+    void testCalcWeightsForCurrencyModel() {
+        verifyCalcWeights(VoteWeighting.VotingModel.CURRENCY, 0, VoteWeighting.MinBalanceModel.NONE);
+        verifyCalcWeights(VoteWeighting.VotingModel.CURRENCY, MIN_BALANCE, VoteWeighting.MinBalanceModel.CURRENCY);
+    }
+
+    @Test
+    void testGetBalances() {
+        for (VoteWeighting.MinBalanceModel model : List.of(VoteWeighting.MinBalanceModel.ATM, VoteWeighting.MinBalanceModel.ASSET, VoteWeighting.MinBalanceModel.CURRENCY)) {
+            VoteWeighting voteWeighting = new VoteWeighting(VoteWeighting.VotingModel.ACCOUNT, HOLDING_ID, MIN_BALANCE, model);
+
+            Map<Long, Long> bulkBalances = model.getBalances(voteWeighting, voterIds, HEIGHT);
+
+            for (long voterId : voterIds) {
+                assertEquals(model.getBalance(voteWeighting, voterId, HEIGHT), (long) bulkBalances.getOrDefault(voterId, 0L),
+                    "Balance mismatch for voter " + voterId + " and min balance model " + model);
+            }
+        }
+    }
+
+    private void verifyCalcWeights(VoteWeighting.VotingModel votingModel, long minBalance, VoteWeighting.MinBalanceModel minBalanceModel) {
+        VoteWeighting voteWeighting = new VoteWeighting(votingModel, HOLDING_ID, minBalance, minBalanceModel);
+
+        Map<Long, Long> weights = votingModel.calcWeights(voteWeighting, voterIds, HEIGHT);
+
+        long total = 0;
+        for (long voterId : voterIds) {
+            long expected = votingModel.calcWeight(voteWeighting, voterId, HEIGHT);
+            assertEquals(expected, (long) weights.getOrDefault(voterId, 0L),
+                "Weight mismatch for voter " + voterId + " and " + voteWeighting);
+            total += expected;
+        }
+        assertTrue(total > 0);
+    }
+}
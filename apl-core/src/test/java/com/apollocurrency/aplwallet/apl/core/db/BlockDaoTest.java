@@ -2,12 +2,15 @@ package com.apollocurrency.aplwallet.apl.core.db;
 
 import com.apollocurrency.aplwallet.apl.core.alias.service.AliasService;
 import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.BlockNotFoundException;
 import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
 import com.apollocurrency.aplwallet.apl.core.app.BlockchainImpl;
 import com.apollocurrency.aplwallet.apl.core.app.CollectionUtil;
 import com.apollocurrency.aplwallet.apl.core.app.TimeService;
 import com.apollocurrency.aplwallet.apl.core.app.Transaction;
 import com.apollocurrency.aplwallet.apl.core.app.TransactionDaoImpl;
+import com.apollocurrency.aplwallet.apl.core.cache.BlockCacheConfig;
+import com.apollocurrency.aplwallet.apl.core.cache.BlockHeightCacheConfig;
 import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
 import com.apollocurrency.aplwallet.apl.core.message.PrunableMessageService;
 import com.apollocurrency.aplwallet.apl.core.phasing.PhasingPollService;
@@ -17,6 +20,10 @@ import com.apollocurrency.aplwallet.apl.data.TransactionTestData;
 import com.apollocurrency.aplwallet.apl.extension.DbExtension;
 import com.apollocurrency.aplwallet.apl.extension.TemporaryFolderExtension;
 import com.apollocurrency.aplwallet.apl.testutil.DbUtils;
+import com.apollocurrency.aplwallet.apl.util.cache.CacheConfiguration;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheConfigurator;
+import com.apollocurrency.aplwallet.apl.util.cache.InMemoryCacheManager;
+import com.google.common.cache.CacheStats;
 import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import org.jboss.weld.junit.MockBean;
 import org.jboss.weld.junit5.EnableWeld;
@@ -51,7 +58,10 @@ import static com.apollocurrency.aplwallet.apl.data.BlockTestData.GENESIS_BLOCK_
 import static com.apollocurrency.aplwallet.apl.data.BlockTestData.GENESIS_BLOCK_TIMESTAMP;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -79,6 +89,7 @@ class BlockDaoTest {
     private TransactionDaoImpl transactionDao;
     private BlockTestData td;
     private TransactionTestData txd;
+    private InMemoryCacheManager cacheManager;
 
     private Path createPath(String fileName) {
         try {
@@ -338,4 +349,104 @@ class BlockDaoTest {
         assertEquals(0, block.getNextBlockId());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testFindBlockFromCache() {
+        BlockDaoImpl cachedBlockDao = createCachedBlockDao();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+
+        Block block = cachedBlockDao.findBlock(BLOCK_7_ID, dataSource);
+        assertEquals(block, cachedBlockDao.findBlock(BLOCK_7_ID, dataSource));
+        assertEquals(block, cachedBlockDao.findBlockAtHeight(BLOCK_7_HEIGHT, dataSource));
+        assertEquals(BLOCK_7_ID, cachedBlockDao.findBlockIdAtHeight(BLOCK_7_HEIGHT, dataSource));
+        assertTrue(cachedBlockDao.hasBlock(BLOCK_7_ID, BLOCK_7_HEIGHT, dataSource));
+        assertFalse(cachedBlockDao.hasBlock(BLOCK_7_ID, BLOCK_7_HEIGHT - 1, dataSource));
+
+        CacheStats stats = cacheManager.getStats(BlockCacheConfig.BLOCK_CACHE_NAME);
+        assertEquals(1, stats.missCount());
+        assertEquals(5, stats.hitCount());
+    }
+
+    @Test
+    void testCachedBlockIsNotChangedByCaller() {
+        BlockDaoImpl cachedBlockDao = createCachedBlockDao();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        Block loaded = cachedBlockDao.findBlock(BLOCK_7_ID, dataSource);
+        long nextBlockId = loaded.getNextBlockId();
+
+        loaded.setNextBlockId(nextBlockId + 1);
+        Block cached = cachedBlockDao.findBlock(BLOCK_7_ID, dataSource);
+        assertNotSame(loaded, cached);
+        assertEquals(nextBlockId, cached.getNextBlockId());
+
+        cached.setNextBlockId(nextBlockId + 1);
+        assertEquals(nextBlockId, cachedBlockDao.findBlockAtHeight(BLOCK_7_HEIGHT, dataSource).getNextBlockId());
+    }
+
+    @Test
+    void testCacheInvalidatedOnDeleteBlocksFrom() {
+        BlockDaoImpl cachedBlockDao = createCachedBlockDao();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        cachedBlockDao.findBlock(td.BLOCK_5.getId(), dataSource);
+        cachedBlockDao.findBlock(td.BLOCK_6.getId(), dataSource);
+        cachedBlockDao.findBlockAtHeight(td.BLOCK_7.getHeight(), dataSource);
+
+        cachedBlockDao.deleteBlocksFrom(td.BLOCK_6.getId());
+
+        assertNull(cachedBlockDao.findBlock(td.BLOCK_6.getId(), dataSource));
+        assertFalse(cachedBlockDao.hasBlock(td.BLOCK_7.getId(), Integer.MAX_VALUE, dataSource));
+        assertThrows(BlockNotFoundException.class, () -> cachedBlockDao.findBlockAtHeight(td.BLOCK_7.getHeight(), dataSource));
+        assertEquals(0, cachedBlockDao.findBlock(td.BLOCK_5.getId(), dataSource).getNextBlockId());
+    }
+
+    @Test
+    void testCacheInvalidatedOnDeleteAll() {
+        BlockDaoImpl cachedBlockDao = createCachedBlockDao();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        cachedBlockDao.findBlock(BLOCK_0_ID, dataSource);
+
+        cachedBlockDao.deleteAll();
+
+        assertNull(cachedBlockDao.findBlock(BLOCK_0_ID, dataSource));
+    }
+
+    @Test
+    void testCachedPreviousBlockUpdatedAfterSaveBlock() {
+        BlockDaoImpl cachedBlockDao = createCachedBlockDao();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        cachedBlockDao.findBlock(td.LAST_BLOCK.getId(), dataSource);
+
+        DbUtils.inTransaction(extension, (con) -> {
+            cachedBlockDao.saveBlock(con, td.NEW_BLOCK);
+            cachedBlockDao.commit(td.NEW_BLOCK);
+        });
+
+        Block block = cachedBlockDao.findBlock(td.LAST_BLOCK.getId(), dataSource);
+        assertEquals(td.NEW_BLOCK.getId(), block.getNextBlockId());
+    }
+
+    @Test
+    void testBlockLoadedInTransactionIsNotCached() {
+        BlockDaoImpl cachedBlockDao = createCachedBlockDao();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+
+        DbUtils.inTransaction(extension, (con) -> cachedBlockDao.findBlock(BLOCK_7_ID, dataSource));
+        cachedBlockDao.findBlock(BLOCK_7_ID, dataSource);
+
+        assertEquals(0, cacheManager.getStats(BlockCacheConfig.BLOCK_CACHE_NAME).hitCount());
+    }
+
+    private BlockDaoImpl createCachedBlockDao() {
+        cacheManager = new InMemoryCacheManager(new InMemoryCacheConfigurator() {
+            @Override
+            public long getAvailableMemory() {
+                return 32 * 1024 * 1024;
+            }
+
+            @Override
+            public List<CacheConfiguration> getConfiguredCaches() {
+                return List.of(new BlockCacheConfig(10), new BlockHeightCacheConfig(1));
+            }
+        });
+        return new BlockDaoImpl(extension.getDatabaseManager(), cacheManager);
+    }
+}
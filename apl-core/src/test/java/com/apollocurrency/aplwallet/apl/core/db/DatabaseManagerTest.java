@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -40,7 +41,6 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.spy;
-import static org.mockito.Mockito.verify;
 
 
 class DatabaseManagerTest {
@@ -143,6 +143,20 @@ class DatabaseManagerTest {
         assertTrue(iterator.next().getUrl().contains("shard-2"), "Second datasource should represent full shard with id 2 (sorted by shard id desc)");
     }
 
+    @Test
+    void testFullDataSourcesIteratorLeasesDataSources() {
+        try (ShardDataSourceIterator iterator = databaseManager.getAllFullDataSourcesIterator()) {
+            assertTrue(iterator.next().getUrl().contains("shard-3"));
+            assertTrue(iterator.next().getUrl().contains("shard-2"));
+            ShardDataSourcePoolStats stats = databaseManager.getShardDataSourcePoolStats();
+            assertEquals(2, stats.getOpenShards());
+            assertEquals(2, stats.getLeasedShards());
+        }
+        assertEquals(0, databaseManager.getShardDataSourcePoolStats().getLeasedShards());
+        assertEquals(2, databaseManager.closeAllShardDataSources());
+        assertEquals(0, databaseManager.getShardDataSourcePoolStats().getOpenShards());
+    }
+
     @Test
     void testGetOrInitFullShardDataSourceForShardWhichNotExist() {
         TransactionalDataSource dataSource = ((ShardManagement) databaseManager).getOrInitFullShardDataSourceById(0L);
@@ -280,8 +294,35 @@ class DatabaseManagerTest {
         for (int i = 0; i < 20; i++) {
             futures.get(i).get();
         }
-        verify(spyDbManager).createOrUpdateShard(1L, new ShardInitTableSchemaVersion());
+        assertEquals(1, spyDbManager.getShardDataSourcePoolStats().getOpenedShards());
+
+    }
+
+    @Test
+    void testDoNotEvictShardUnderCreationUntilAddedAsFull() {
+        databaseManager.shutdown();
+        PropertiesHolder holder = new PropertiesHolder();
+        Properties properties = new Properties();
+        properties.put("apl.maxOpenShards", "1");
+        holder.init(properties);
+        databaseManager = new DatabaseManagerImpl(baseDbProperties, holder, new JdbiHandleFactory());
+
+        TransactionalDataSource createdShard = databaseManager.createOrUpdateShard(1L, new ShardInitTableSchemaVersion());
+        TransactionalDataSource secondShard = databaseManager.getOrCreateShardDataSourceById(2L);
+        TransactionalDataSource thirdShard = databaseManager.getOrCreateShardDataSourceById(3L);
+
+        assertFalse(createdShard.isShutdown());
+        assertSame(createdShard, databaseManager.getShardDataSourceById(1L));
+        assertTrue(secondShard.isShutdown());
+        assertEquals(2, databaseManager.getShardDataSourcePoolStats().getOpenShards());
+
+        databaseManager.addFullShard(1L);
+        databaseManager.getOrCreateShardDataSourceById(2L);
 
+        assertTrue(createdShard.isShutdown());
+        assertTrue(thirdShard.isShutdown());
+        assertNull(databaseManager.getShardDataSourceById(1L));
+        assertEquals(1, databaseManager.getShardDataSourcePoolStats().getOpenShards());
     }
 
 }
\ No newline at end of file
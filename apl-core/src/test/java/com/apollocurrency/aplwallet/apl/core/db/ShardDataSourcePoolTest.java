@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db;
+
+import com.apollocurrency.aplwallet.apl.core.shard.ShardManagement;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class ShardDataSourcePoolTest {
+    private final AtomicLong time = new AtomicLong(1000);
+    private final ShardDataSourcePool pool = new ShardDataSourcePool(2, 100, time::get);
+
+    @Test
+    void testEvictLeastRecentlyUsedWhenLimitExceeded() {
+        TransactionalDataSource first = dataSource(0);
+        TransactionalDataSource second = dataSource(0);
+        TransactionalDataSource third = dataSource(0);
+        pool.put(1, first, true);
+        pool.put(2, second, true);
+        pool.get(1);
+
+        List<TransactionalDataSource> evicted = pool.put(3, third, true);
+
+        assertEquals(List.of(second), evicted);
+        assertNull(pool.get(2));
+        assertSame(first, pool.get(1));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testDoNotEvictLeasedBusyAndNotEvictable() {
+        TransactionalDataSource leased = dataSource(0);
+        TransactionalDataSource busy = dataSource(1);
+        TransactionalDataSource temporary = dataSource(0);
+        pool.put(1, leased, true);
+        pool.put(2, busy, true);
+        pool.lease(1);
+
+        assertEquals(List.of(), pool.put(ShardManagement.TEMP_DB_IDENTITY, temporary, false));
+        assertEquals(3, pool.size());
+
+        pool.release(1, leased);
+        time.addAndGet(100);
+
+        assertEquals(List.of(leased), pool.evictIdle());
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void testDoNotEvictPinned() {
+        TransactionalDataSource pinned = dataSource(0);
+        TransactionalDataSource second = dataSource(0);
+        TransactionalDataSource third = dataSource(0);
+        pool.put(1, pinned, true);
+        pool.put(2, second, true);
+
+        assertSame(pinned, pool.pin(1));
+        assertNull(pool.pin(3));
+
+        assertEquals(List.of(second), pool.put(3, third, true));
+        time.addAndGet(100);
+        assertEquals(List.of(third), pool.evictIdle());
+        assertSame(pinned, pool.get(1));
+    }
+
+    @Test
+    void testEvictUnpinned() {
+        TransactionalDataSource underCreation = dataSource(0);
+        TransactionalDataSource second = dataSource(0);
+        pool.put(1, underCreation, false);
+        pool.put(2, second, true);
+        time.addAndGet(100);
+
+        assertEquals(List.of(second), pool.evictIdle());
+
+        pool.unpin(1);
+        pool.unpin(3);
+
+        assertEquals(List.of(), pool.evictIdle());
+        time.addAndGet(100);
+        assertEquals(List.of(underCreation), pool.evictIdle());
+    }
+
+    @Test
+    void testEvictIdle() {
+        TransactionalDataSource first = dataSource(0);
+        TransactionalDataSource second = dataSource(0);
+        pool.put(1, first, true);
+        time.addAndGet(50);
+        pool.put(2, second, true);
+        time.addAndGet(50);
+
+        assertEquals(List.of(first), pool.evictIdle());
+        assertSame(second, pool.get(2));
+        time.addAndGet(99);
+        assertEquals(List.of(), pool.evictIdle());
+    }
+
+    @Test
+    void testStats() {
+        TransactionalDataSource first = dataSource(2);
+        TransactionalDataSource second = dataSource(1);
+        TransactionalDataSource third = dataSource(0);
+        pool.put(1, first, true);
+        pool.put(2, second, true);
+        pool.lease(2);
+        pool.put(3, third, true);
+        time.addAndGet(100);
+        pool.evictIdle();
+
+        assertEquals(new ShardDataSourcePoolStats(2, 1, 2, 3, 4, 3, 1), pool.getStats());
+
+        assertEquals(List.of(first, second), pool.removeAll());
+        assertEquals(0, pool.size());
+    }
+
+    private TransactionalDataSource dataSource(int activeConnections) {
+        TransactionalDataSource dataSource = mock(TransactionalDataSource.class);
+        HikariPoolMXBean jmxBean = mock(HikariPoolMXBean.class);
+        doReturn(activeConnections).when(jmxBean).getActiveConnections();
+        doReturn(2).when(jmxBean).getIdleConnections();
+        doReturn(jmxBean).when(dataSource).getJmxBean();
+        return dataSource;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db.derived;
+
+import com.apollocurrency.aplwallet.apl.core.account.model.AccountAsset;
+import com.apollocurrency.aplwallet.apl.core.db.DbKey;
+import com.apollocurrency.aplwallet.apl.core.db.LongKey;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionCallback;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class VersionedEntityCacheTest {
+    private final DbKey key1 = new LongKey(1);
+    private final DbKey key2 = new LongKey(2);
+    private TransactionalDataSource dataSource = mock(TransactionalDataSource.class);
+    private VersionedEntityCache<AccountAsset> cache;
+
+    @BeforeEach
+    void setUp() {
+        doReturn(true).when(dataSource).isInTransaction();
+        cache = new VersionedEntityCache<>("account_asset", 100, AccountAsset::getHeight, AccountAsset::new);
+    }
+
+    @Test
+    void testGetReturnsCopyOfLatestVersion() {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        cache.put(key1, asset(1, 200, 20), dataSource);
+
+        AccountAsset cached = cache.get(key1, dataSource);
+        cached.setQuantityATU(0);
+
+        assertEquals(200, cache.get(key1, dataSource).getQuantityATU());
+        assertNotSame(cached, cache.get(key1, dataSource));
+    }
+
+    @Test
+    void testRollbackRestoresPreviousVersions() {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        cache.put(key2, asset(2, 50, 10), dataSource);
+        cache.put(key1, asset(1, 200, 20), dataSource);
+        cache.delete(key2, 21, dataSource);
+        cache.put(key1, asset(1, 300, 30), dataSource);
+
+        cache.rollback(25, dataSource);
+        assertEquals(200, cache.get(key1, dataSource).getQuantityATU());
+        assertNull(cache.get(key2, dataSource));
+
+        cache.rollback(20, dataSource);
+        assertEquals(200, cache.get(key1, dataSource).getQuantityATU());
+        assertEquals(50, cache.get(key2, dataSource).getQuantityATU());
+
+        cache.rollback(5, dataSource);
+        assertNull(cache.get(key1, dataSource));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testVersionAtTheSameHeightIsReplaced() {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        cache.put(key1, asset(1, 200, 20), dataSource);
+        cache.put(key1, asset(1, 250, 20), dataSource);
+
+        cache.rollback(19, dataSource);
+
+        assertEquals(100, cache.get(key1, dataSource).getQuantityATU());
+    }
+
+    @Test
+    void testTrimKeepsVersionRequiredForRollback() {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        cache.put(key1, asset(1, 200, 20), dataSource);
+        cache.put(key1, asset(1, 300, 30), dataSource);
+
+        cache.trim(25);
+        cache.rollback(25, dataSource);
+
+        assertEquals(200, cache.get(key1, dataSource).getQuantityATU());
+    }
+
+    @Test
+    void testTrimEvictsDeletedEntity() {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        cache.delete(key1, 20, dataSource);
+
+        cache.trim(30);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testUncommittedChangesAreNotVisibleForOtherThreads() throws Exception {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        TransactionCallback callback = registeredCallback();
+
+        assertNull(getInOtherThread(key1));
+        assertEquals(100, cache.get(key1, dataSource).getQuantityATU());
+
+        callback.commit();
+
+        assertEquals(100, getInOtherThread(key1).getQuantityATU());
+    }
+
+    @Test
+    void testTransactionRollbackEvictsChangedKeys() {
+        doReturn(false).when(dataSource).isInTransaction();
+        cache.putLoaded(key1, asset(1, 100, 10), cache.getGeneration(), dataSource);
+        doReturn(true).when(dataSource).isInTransaction();
+        cache.put(key1, asset(1, 200, 20), dataSource);
+        cache.put(key2, asset(2, 50, 20), dataSource);
+
+        registeredCallback().rollback();
+
+        assertNull(cache.get(key1, dataSource));
+        assertNull(cache.get(key2, dataSource));
+    }
+
+    @Test
+    void testLoadedEntityIsNotCachedAfterConcurrentChange() {
+        long generation = cache.getGeneration();
+        cache.put(key1, asset(1, 200, 20), dataSource);
+        registeredCallback().commit();
+
+        cache.putLoaded(key1, asset(1, 100, 10), generation, dataSource);
+        cache.putLoaded(key2, asset(2, 100, 10), generation, dataSource);
+
+        assertEquals(200, cache.get(key1, dataSource).getQuantityATU());
+        assertNull(cache.get(key2, dataSource));
+    }
+
+    @Test
+    void testCacheIsClearedForAnotherDataSource() {
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        TransactionalDataSource otherDataSource = mock(TransactionalDataSource.class);
+
+        assertNull(cache.get(key1, otherDataSource));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedKeysAreEvicted() {
+        cache = new VersionedEntityCache<>("account_asset", 2, AccountAsset::getHeight, AccountAsset::new);
+        cache.put(key1, asset(1, 100, 10), dataSource);
+        cache.put(key2, asset(2, 100, 10), dataSource);
+        cache.get(key1, dataSource);
+
+        cache.put(new LongKey(3), asset(3, 100, 10), dataSource);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(key2, dataSource));
+        assertEquals(100, cache.get(key1, dataSource).getQuantityATU());
+    }
+
+    private TransactionCallback registeredCallback() {
+        ArgumentCaptor<TransactionCallback> captor = ArgumentCaptor.forClass(TransactionCallback.class);
+        verify(dataSource).registerCallback(captor.capture());
+        return captor.getValue();
+    }
+
+    private AccountAsset getInOtherThread(DbKey dbKey) throws Exception {
+        return CompletableFuture.supplyAsync(() -> cache.get(dbKey, dataSource)).get();
+    }
+
+    private AccountAsset asset(long accountId, long quantity, int height) {
+        return new AccountAsset(accountId, 10, quantity, quantity, height);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.db.fulltext;
+
+import com.apollocurrency.aplwallet.apl.util.NtpTime;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class LuceneFullTextSearchEngineTest {
+    private final TableData tableData = new TableData(0, "currency", "public", List.of("DB_ID", "NAME"),
+        List.of(Types.BIGINT, Types.VARCHAR), List.of(1));
+    @TempDir
+    Path indexDir;
+    private LuceneFullTextSearchEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testCommitRowIsSearchableAfterCommit() throws Exception {
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir);
+        engine.init();
+
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        assertEquals(0, count(engine.search("public", "currency", "apollo", 10, 0)));
+
+        engine.commitIndex();
+        assertEquals(1, count(engine.search("public", "currency", "apollo", 10, 0)));
+        assertTrue(isSynchronized());
+    }
+
+    @Test
+    void testNrtCommitRowIsSearchableAfterRefresh() throws Exception {
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, true, 10, 60_000);
+        engine.init();
+
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        engine.commitRow(null, new Object[]{2L, "apollo currency"}, tableData);
+        engine.commitIndex();
+
+        assertEquals(2, awaitCount("apollo", 2));
+    }
+
+    @Test
+    void testNrtBackgroundCommitMarksIndexNotSynchronized() throws Exception {
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, true, 10, 10);
+        engine.init();
+        assertTrue(isSynchronized());
+
+        engine.commitRow(null, new Object[]{1L, "apollo"}, tableData);
+        awaitCount("apollo", 1);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (isSynchronized() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(isSynchronized());
+
+        engine.shutdown();
+        assertTrue(isSynchronized());
+        engine.init();
+        assertFalse(engine.isIndexOutdated());
+        assertEquals(1, count(engine.search("public", "currency", "apollo", 10, 0)));
+    }
+
+    @Test
+    void testIndexNotCommittedOnShutdownIsOutdated() throws Exception {
+        try (Directory directory = FSDirectory.open(indexDir);
+             IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+            writer.commit();
+        }
+        engine = new LuceneFullTextSearchEngine(mock(NtpTime.class), indexDir, true, 10, 10);
+        engine.init();
+
+        assertTrue(engine.isIndexOutdated());
+
+        engine.clearIndex();
+
+        assertFalse(engine.isIndexOutdated());
+    }
+
+    private int awaitCount(String query, int expected) throws SQLException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        int count;
+        while ((count = count(engine.search("public", "currency", query, 10, 0))) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return count;
+    }
+
+    private boolean isSynchronized() throws IOException {
+        try (Directory directory = FSDirectory.open(indexDir)) {
+            return Boolean.parseBoolean(SegmentInfos.readLatestCommit(directory).getUserData().get("_SYNCHRONIZED"));
+        }
+    }
+
+    private int count(ResultSet rs) throws SQLException {
+        int count = 0;
+        while (rs.next()) {
+            count++;
+        }
+        return count;
+    }
+}
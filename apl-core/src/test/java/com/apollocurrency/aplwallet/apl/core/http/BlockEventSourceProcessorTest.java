@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountAssetService;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountCurrencyService;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountInfoService;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
+import com.apollocurrency.aplwallet.apl.core.alias.service.AliasService;
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.Transaction;
+import com.apollocurrency.aplwallet.apl.core.dgs.DGSService;
+import org.json.simple.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class BlockEventSourceProcessorTest {
+    Blockchain blockchain = mock(Blockchain.class);
+    Map<Long, Integer> loads = new HashMap<>();
+    BlockEventSourceProcessor processor = new BlockEventSourceProcessor(blockchain, mock(AliasService.class), mock(DGSService.class),
+        mock(AccountService.class), mock(AccountInfoService.class), mock(AccountAssetService.class), mock(AccountCurrencyService.class)) {
+        @Override
+        protected JSONObject getBlockchainData(long accountId) {
+            JSONObject json = new JSONObject();
+            json.put("version", loads.merge(accountId, 1, Integer::sum));
+            return json;
+        }
+
+        @Override
+        protected String getBlockData(Block block) {
+            return String.valueOf(block.getHeight());
+        }
+    };
+    BlockEventSource first = eventSource(1L);
+    BlockEventSource second = eventSource(1L);
+    BlockEventSource other = eventSource(2L);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Block lastBlock = block(10);
+        doReturn(lastBlock).when(blockchain).getLastBlock();
+        processor.register(first);
+        processor.register(second);
+        processor.register(other);
+    }
+
+    @Test
+    void testRegister() {
+        verify(first).emitEvent("{\"version\":1,\"block\":10}");
+        verify(second).emitEvent("{\"version\":1,\"block\":10}");
+        verify(other).emitEvent("{\"version\":1,\"block\":10}");
+        assertEquals(Map.of(1L, 1, 2L, 1), loads);
+    }
+
+    @Test
+    void testReloadOnlyAccountsOfBlockTransactions() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(1L).when(transaction).getSenderId();
+        doReturn(3L).when(transaction).getRecipientId();
+
+        processor.onBlockPushed(block(11, transaction));
+
+        verify(first).emitEvent("{\"version\":2,\"block\":11}");
+        verify(second).emitEvent("{\"version\":2,\"block\":11}");
+        verify(other).emitEvent("{\"version\":1,\"block\":11}");
+        assertEquals(Map.of(1L, 2, 2L, 1), loads);
+    }
+
+    @Test
+    void testReloadAccountsWithChangedBalance() {
+        processor.onAccountBalance(new Account(2L, 10));
+
+        processor.onBlockPushed(block(11));
+
+        verify(first).emitEvent("{\"version\":1,\"block\":11}");
+        verify(other).emitEvent("{\"version\":2,\"block\":11}");
+    }
+
+    @Test
+    void testReloadAllAccountsAfterPopOff() {
+        processor.onBlockPopped(block(10));
+
+        processor.onBlockPushed(block(10));
+
+        verify(first).emitEvent("{\"version\":2,\"block\":10}");
+        verify(other).emitEvent("{\"version\":2,\"block\":10}");
+    }
+
+    @Test
+    void testUnregister() {
+        processor.unregister(first);
+        processor.unregister(second);
+
+        processor.onBlockPushed(block(11));
+
+        verify(first, never()).emitEvent("{\"version\":1,\"block\":11}");
+        verify(other).emitEvent("{\"version\":1,\"block\":11}");
+
+        processor.register(first);
+
+        verify(first).emitEvent("{\"version\":2,\"block\":10}");
+    }
+
+    private BlockEventSource eventSource(long accountId) {
+        BlockEventSource eventSource = mock(BlockEventSource.class);
+        doReturn(accountId).when(eventSource).getAccountId();
+        return eventSource;
+    }
+
+    private Block block(int height, Transaction... transactions) {
+        Block block = mock(Block.class);
+        doReturn(height).when(block).getHeight();
+        doReturn(List.of(transactions)).when(block).getOrLoadTransactions();
+        return block;
+    }
+}
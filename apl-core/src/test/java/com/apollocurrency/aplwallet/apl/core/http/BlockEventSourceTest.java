@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.http;
+
+import org.eclipse.jetty.servlets.EventSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+class BlockEventSourceTest {
+    List<Runnable> tasks = new ArrayList<>();
+    BlockEventSourceProcessor processor = mock(BlockEventSourceProcessor.class);
+    EventSource.Emitter emitter = mock(EventSource.Emitter.class);
+    BlockEventSource eventSource = new BlockEventSource(tasks::add, processor, 1L);
+
+    @Test
+    void testSendOnlyLatestMessage() throws IOException {
+        eventSource.onOpen(emitter);
+        verify(processor).register(eventSource);
+
+        eventSource.emitEvent("first");
+        eventSource.emitEvent("second");
+
+        assertEquals(1, tasks.size());
+        verifyZeroInteractions(emitter);
+        tasks.remove(0).run();
+        verify(emitter).data("second");
+        assertTrue(tasks.isEmpty());
+
+        eventSource.emitEvent("third");
+
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    void testCloseOnSendingError() throws IOException {
+        eventSource.onOpen(emitter);
+        doThrow(new IOException()).when(emitter).data("first");
+
+        eventSource.emitEvent("first");
+        tasks.remove(0).run();
+
+        assertTrue(eventSource.isShutdown());
+        verify(processor).unregister(eventSource);
+        eventSource.emitEvent("second");
+        assertTrue(tasks.isEmpty());
+    }
+}
@@ -5,6 +5,9 @@ import com.apollocurrency.aplwallet.apl.core.app.TimeService;
 import com.apollocurrency.aplwallet.apl.core.rest.converter.ExchangeContractToDTOConverter;
 import com.apollocurrency.aplwallet.apl.data.DexTestData;
 import com.apollocurrency.aplwallet.apl.eth.service.EthereumWalletService;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookLevel;
 import com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContract;
 import com.apollocurrency.aplwallet.apl.exchange.service.DexEthService;
 import com.apollocurrency.aplwallet.apl.exchange.service.DexOrderTransactionCreator;
@@ -23,11 +26,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URISyntaxException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 @ExtendWith(MockitoExtension.class)
 public class DexControllerTest {
@@ -108,4 +114,30 @@ public class DexControllerTest {
         assertEquals(converter.convert(contracts), responseErrors);
     }
 
+    @Test
+    void testGetOrderBook() throws URISyntaxException, IOException {
+        DexOrderBookDepth depth = new DexOrderBookDepth(DexCurrency.PAX,
+            List.of(new DexOrderBookLevel(new BigDecimal("0.15"), 100000L, 1)),
+            List.of(new DexOrderBookLevel(new BigDecimal("0.16"), 200000L, 2), new DexOrderBookLevel(new BigDecimal("0.2"), 500L, 1)));
+        doReturn(depth).when(service).getOrderBookDepth(DexCurrency.PAX, 5);
+
+        MockHttpRequest request = MockHttpRequest.get("/dex/order-book?pairCurrency=2&depth=5").contentType(MediaType.APPLICATION_JSON_TYPE);
+        MockHttpResponse response = new MockHttpResponse();
+        dispatcher.invoke(request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(depth, mapper.readValue(response.getContentAsString(), DexOrderBookDepth.class));
+    }
+
+    @Test
+    void testGetOrderBookForAplPairCurrency() throws URISyntaxException, IOException {
+        MockHttpRequest request = MockHttpRequest.get("/dex/order-book?pairCurrency=0").contentType(MediaType.APPLICATION_JSON_TYPE);
+        MockHttpResponse response = new MockHttpResponse();
+        dispatcher.invoke(request, response);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("errorCode"));
+        verifyZeroInteractions(service);
+    }
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.rest.service;
+
+import com.apollocurrency.aplwallet.apl.core.account.model.Account;
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.GenesisImporter;
+import com.apollocurrency.aplwallet.apl.core.app.GlobalSync;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AccountStatisticsIndexTest {
+    private static final long CREATOR_ID = 100L;
+
+    private final AccountService accountService = mock(AccountService.class);
+    private final Blockchain blockchain = mock(Blockchain.class);
+    private final AccountStatisticsIndex index = new AccountStatisticsIndex(accountService, blockchain, mock(GlobalSync.class), 2, 3);
+    private long creatorId;
+
+    @BeforeEach
+    void setUp() {
+        creatorId = GenesisImporter.CREATOR_ID;
+        GenesisImporter.CREATOR_ID = CREATOR_ID;
+        doReturn(10).when(blockchain).getHeight();
+        doReturn(1000L).when(accountService).getTotalSupply();
+        doReturn(10L).when(accountService).getTotalNumberOfAccounts();
+        doReturn(List.of(account(1, 500), account(2, 400), account(3, 300))).when(accountService).getTopHolders(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        GenesisImporter.CREATOR_ID = creatorId;
+    }
+
+    @Test
+    void testLoadOnFirstRequest() {
+        AccountStatisticsIndex.AccountStatistics statistics = index.getStatistics(2);
+
+        assertStatistics(statistics, 10, 1000, 10, List.of(1L, 2L, 3L));
+        assertEquals(900, statistics.getTotalAmountOnTopAccounts(2));
+        assertEquals(List.of(1L, 2L), ids(statistics.getTopHolders(2)));
+
+        index.getStatistics(3);
+        verify(accountService, times(1)).getTopHolders(3);
+    }
+
+    @Test
+    void testUpdateByAcceptedBlock() {
+        index.getStatistics(2);
+
+        acceptBlock();
+
+        AccountStatisticsIndex.AccountStatistics statistics = index.getStatistics(2);
+        // account 3 is evicted by the account 4, account 1 is dropped below the floor
+        assertStatistics(statistics, 11, 1200, 11, List.of(4L, 2L));
+        assertEquals(1000, statistics.getTotalAmountOnTopAccounts(2));
+        verify(accountService, times(1)).getTopHolders(3);
+    }
+
+    @Test
+    void testRevertPoppedBlock() {
+        index.getStatistics(2);
+        acceptBlock();
+
+        index.onBlockPopped(block(11));
+
+        assertStatistics(index.getStatistics(2), 10, 1000, 10, List.of(1L, 2L));
+        verify(accountService, times(1)).getTopHolders(3);
+    }
+
+    @Test
+    void testReloadWhenNotEnoughTopHolders() {
+        index.getStatistics(2);
+        index.onAccountBalance(account(2, 50));
+        doReturn(List.of(account(2, 400))).when(accountService).getAccounts(List.of(2L), 10);
+        doReturn(List.of(account(2, 50))).when(accountService).getAccounts(List.of(2L), 11);
+        index.onBlockAccepted(block(11));
+        assertEquals(List.of(1L, 3L), ids(index.getStatistics(2).getTopHolders(2)));
+
+        doReturn(11).when(blockchain).getHeight();
+        index.getStatistics(3);
+
+        verify(accountService, times(2)).getTopHolders(3);
+    }
+
+    @Test
+    void testRefreshUnconfirmedBalanceOfTopHolder() {
+        index.getStatistics(2);
+
+        index.onAccountUnconfirmedBalance(new Account(2, 300, 250, 20, 0, 10));
+        index.onAccountUnconfirmedBalance(new Account(7, 50, 40, 0, 0, 10));
+
+        AccountStatisticsIndex.AccountStatistics statistics = index.getStatistics(2);
+        assertStatistics(statistics, 10, 1000, 10, List.of(1L, 2L, 3L));
+        AccountStatisticsIndex.Holder holder = statistics.getTopHolders(2).get(1);
+        assertEquals(400, holder.getBalanceATM());
+        assertEquals(250, holder.getUnconfirmedBalanceATM());
+        assertEquals(20, holder.getForgedBalanceATM());
+        verify(accountService, times(1)).getTopHolders(3);
+    }
+
+    @Test
+    void testDropWhenBlockCanNotBeReverted() {
+        index.getStatistics(2);
+
+        index.onBlockPopped(block(10));
+        index.getStatistics(2);
+
+        verify(accountService, times(2)).getTopHolders(3);
+    }
+
+    @Test
+    void testDropOnBlockchainScan() {
+        index.getStatistics(2);
+
+        index.onBlockchainScanStarted(block(0));
+        index.onBlockAccepted(block(11));
+        index.getStatistics(2);
+
+        verify(accountService, times(2)).getTopHolders(3);
+    }
+
+    private void acceptBlock() {
+        index.onBlockAcceptStarted(block(11));
+        index.onAccountBalance(account(4, 600));
+        index.onAccountBalance(account(1, 50));
+        index.onAccountBalance(account(5, 200));
+        index.onAccountBalance(account(CREATOR_ID, -1200));
+        List<Long> ids = List.of(4L, 1L, 5L, CREATOR_ID);
+        doReturn(List.of(account(4, 100), account(1, 500), account(CREATOR_ID, -1000))).when(accountService).getAccounts(ids, 10);
+        doReturn(List.of(account(4, 600), account(1, 50), account(5, 200), account(CREATOR_ID, -1200))).when(accountService).getAccounts(ids, 11);
+        index.onBlockAccepted(block(11));
+    }
+
+    private void assertStatistics(AccountStatisticsIndex.AccountStatistics statistics, int height, long totalSupply,
+                                  long totalNumberOfAccounts, List<Long> topHolderIds) {
+        assertEquals(height, statistics.getHeight());
+        assertEquals(totalSupply, statistics.getTotalSupply());
+        assertEquals(totalNumberOfAccounts, statistics.getTotalNumberOfAccounts());
+        assertEquals(topHolderIds, ids(statistics.getTopHolders(Integer.MAX_VALUE)));
+    }
+
+    private List<Long> ids(List<AccountStatisticsIndex.Holder> holders) {
+        return holders.stream().map(AccountStatisticsIndex.Holder::getId).collect(Collectors.toList());
+    }
+
+    private Account account(long id, long balanceATM) {
+        return new Account(id, balanceATM, balanceATM, 0, 0, 10);
+    }
+
+    private Block block(int height) {
+        Block block = mock(Block.class);
+        doReturn(height).when(block).getHeight();
+        return block;
+    }
+}
@@ -93,6 +93,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -550,17 +551,32 @@ class ShardEngineTest {
         MigrateState state = shardEngine.exportCsv(paramInfo);
 
         assertEquals(MigrateState.FAILED, state);
+        assertFalse(Files.exists(dataExportDirPath.resolve(tableToCsvFile(BLOCK_TABLE_NAME))));
+        // tables are exported concurrently, so set of the tables exported before failure is not determined
+        ShardRecovery latestShardRecovery = shardRecoveryDaoJdbc.getLatestShardRecovery(extension.getDatabaseManager().getDataSource());
+        List<String> exportedTables = List.of(Objects.requireNonNullElse(latestShardRecovery.getProcessedObject(), "").split(","));
+        assertFalse(exportedTables.contains(BLOCK_TABLE_NAME));
+        for (String exportedTable : List.of(SHARD_TABLE_NAME, TRANSACTION_INDEX_TABLE_NAME, TRANSACTION_TABLE_NAME)) {
+            if (exportedTables.contains(exportedTable)) {
+                assertTrue(Files.exists(dataExportDirPath.resolve(tableToCsvFile(exportedTable))));
+            }
+        }
+
+        doReturn(1L).when(csvExporter).exportBlock(snaphotBlockHeight);
+        state = shardEngine.exportCsv(paramInfo);
 
+        assertEquals(MigrateState.CSV_EXPORT_FINISHED, state);
         assertEquals(4, Files.readAllLines(dataExportDirPath.resolve(tableToCsvFile(SHARD_TABLE_NAME))).size());
         assertEquals(5, Files.readAllLines(dataExportDirPath.resolve(tableToCsvFile(TRANSACTION_INDEX_TABLE_NAME))).size());
         assertEquals(3, Files.readAllLines(dataExportDirPath.resolve(tableToCsvFile(TRANSACTION_TABLE_NAME))).size());
-        assertFalse(Files.exists(dataExportDirPath.resolve(tableToCsvFile(BLOCK_TABLE_NAME))));
-        assertFalse(Files.exists(dataExportDirPath.resolve(tableToCsvFile(BLOCK_INDEX_TABLE_NAME))));
-        verify(csvExporter, never()).exportBlockIndex(snaphotBlockHeight, batchLimit);
-        verify(csvExporter, never()).exportDerivedTable(goodsTable, snaphotBlockHeight, batchLimit);
-        verify(csvExporter, never()).exportDerivedTable(phasingPollTable, snaphotBlockHeight, batchLimit);
-        ShardRecovery latestShardRecovery = shardRecoveryDaoJdbc.getLatestShardRecovery(extension.getDatabaseManager().getDataSource());
-        assertEquals(String.join(",", SHARD_TABLE_NAME, TRANSACTION_INDEX_TABLE_NAME, TRANSACTION_TABLE_NAME), latestShardRecovery.getProcessedObject());
+        assertTrue(Files.exists(dataExportDirPath.resolve(tableToCsvFile(BLOCK_INDEX_TABLE_NAME))));
+        // tables exported before failure should not be exported again
+        verify(csvExporter, times(1)).exportShardTable(snaphotBlockHeight, batchLimit);
+        verify(csvExporter, times(1)).exportTransactionIndex(snaphotBlockHeight, batchLimit);
+        verify(csvExporter, times(1)).exportBlockIndex(snaphotBlockHeight, batchLimit);
+        verify(csvExporter, times(2)).exportBlock(snaphotBlockHeight);
+        latestShardRecovery = shardRecoveryDaoJdbc.getLatestShardRecovery(extension.getDatabaseManager().getDataSource());
+        assertEquals(MigrateState.CSV_EXPORT_FINISHED, latestShardRecovery.getState());
     }
 
     @Test
@@ -31,6 +31,7 @@ import com.apollocurrency.aplwallet.apl.testutil.DbUtils;
 import com.apollocurrency.aplwallet.apl.util.ChunkedFileOps;
 import com.apollocurrency.aplwallet.apl.util.Zip;
 import com.apollocurrency.aplwallet.apl.util.env.config.Chain;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
 import org.jboss.weld.junit.MockBean;
 import org.jboss.weld.junit5.EnableWeld;
 import org.jboss.weld.junit5.WeldInitiator;
@@ -51,7 +52,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -61,11 +66,18 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -129,7 +141,8 @@ class ShardImporterTest {
     void setUp() {
         csvImporter = new CsvImporterImpl(folder.newFolder("csv-import").toPath(), extension.getDatabaseManager(), aplAppStatus, parser, translator);
         shardImporter = spy(new ShardImporter(shardDao, blockchainConfig, genesisImporter,
-            blockchain, derivedTablesRegistry, csvImporter, zipComponent, dataTagDao, downloadableFilesManager, aplAppStatus));
+            blockchain, derivedTablesRegistry, csvImporter, zipComponent, dataTagDao, downloadableFilesManager, aplAppStatus,
+            extension.getDatabaseManager(), mock(PropertiesHolder.class)));
     }
 
     @Test
@@ -232,7 +245,7 @@ class ShardImporterTest {
         doReturn(true).when(zipComponent).extract(Paths.get("").toAbsolutePath().toString(), csvImporter.getDataExportPath().toAbsolutePath().toString(), true);
         doNothing().when(genesisImporter).importGenesisJson(true);
         doReturn(null).when(aplAppStatus).durableTaskUpdate(null, 50.0, "Public keys were imported");
-        doThrow(new IllegalArgumentException()).when(aplAppStatus).durableTaskUpdate(null, "Loading 'shard'", 0.6);
+        doThrow(new IllegalArgumentException()).when(aplAppStatus).durableTaskUpdate(null, "Imported 'shard'", 0.6);
 
         assertThrows(RuntimeException.class, () -> shardImporter.importShard(
             new ShardPresentData(null, "fileId", List.of()), List.of())
@@ -338,6 +351,69 @@ class ShardImporterTest {
         verify(aplAppStatus).durableTaskFinished(null, true, "Shard data import");
     }
 
+    @Test
+    void testCancelNotStartedTableImportsOnFailure() throws Exception {
+        doReturn(Paths.get("")).when(downloadableFilesManager).mapFileIdToLocalPath("fileId");
+        CsvImporter failingImporter = mock(CsvImporter.class);
+        doReturn(csvImporter.getDataExportPath()).when(failingImporter).getDataExportPath();
+        doReturn(true).when(zipComponent).extract(Paths.get("").toAbsolutePath().toString(), csvImporter.getDataExportPath().toAbsolutePath().toString(), true);
+        List<String> tables = List.of(ShardConstants.GOODS_TABLE_NAME, ShardConstants.PHASING_POLL_TABLE_NAME,
+            ShardConstants.DEX_ORDER_TABLE_NAME, ShardConstants.DATA_TAG_TABLE_NAME, ShardConstants.GENESIS_PK_TABLE_NAME);
+        doReturn(tables).when(derivedTablesRegistry).getDerivedTableNames();
+        doThrow(new IllegalStateException("Test")).when(failingImporter).importCsv(ShardConstants.GOODS_TABLE_NAME, 100, true);
+        lenient().doAnswer(invocation -> {
+            // import started by the released worker, while not started imports are cancelled
+            TimeUnit.MILLISECONDS.sleep(200);
+            return 1L;
+        }).when(failingImporter).importCsv(argThat(table -> !ShardConstants.GOODS_TABLE_NAME.equals(table)), eq(100), eq(true));
+        PropertiesHolder propertiesHolder = mock(PropertiesHolder.class);
+        doReturn(1).when(propertiesHolder).getIntProperty("apl.shardImportThreads", 0);
+        ShardImporter shardImporter = new ShardImporter(shardDao, blockchainConfig, genesisImporter, blockchain, derivedTablesRegistry,
+            failingImporter, zipComponent, dataTagDao, downloadableFilesManager, aplAppStatus, extension.getDatabaseManager(), propertiesHolder);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> shardImporter.importShard(new ShardPresentData(null, "fileId", List.of()),
+            List.of(ShardConstants.SHARD_TABLE_NAME, ShardConstants.BLOCK_TABLE_NAME, ShardConstants.TRANSACTION_TABLE_NAME,
+                ShardConstants.TRANSACTION_INDEX_TABLE_NAME, ShardConstants.BLOCK_INDEX_TABLE_NAME)));
+
+        assertEquals("Test", ex.getCause().getMessage());
+        verify(failingImporter, atMost(1)).importCsv(ShardConstants.PHASING_POLL_TABLE_NAME, 100, true);
+        for (String table : tables.subList(2, tables.size())) {
+            verify(failingImporter, never()).importCsv(table, 100, true);
+        }
+        verify(aplAppStatus).durableTaskFinished(null, true, "Shard data import");
+        verify(aplAppStatus, never()).durableTaskFinished(null, false, "Shard data import");
+    }
+
+    @Test
+    void testImportTaggedDataTagsOnWorkerThread() throws IOException {
+        doReturn(Paths.get("")).when(downloadableFilesManager).mapFileIdToLocalPath("fileId");
+        doReturn(true).when(zipComponent).extract(Paths.get("").toAbsolutePath().toString(), csvImporter.getDataExportPath().toAbsolutePath().toString(), true);
+        doReturn(List.of(ShardConstants.GOODS_TABLE_NAME, ShardConstants.TAGGED_DATA_TABLE_NAME)).when(derivedTablesRegistry).getDerivedTableNames();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        DbUtils.inTransaction(dataSource, (con) -> dataTagDao.truncate());
+        Files.copy(Objects.requireNonNull(getClass().getClassLoader().getResourceAsStream("tagged_data.csv")),
+            csvImporter.getDataExportPath().resolve("tagged_data.csv"));
+        DataTagDao dataTagDaoSpy = spy(dataTagDao);
+        Set<String> tagThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            tagThreads.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(dataTagDaoSpy).add(any(String[].class), anyInt());
+        PropertiesHolder propertiesHolder = mock(PropertiesHolder.class);
+        doReturn(2).when(propertiesHolder).getIntProperty("apl.shardImportThreads", 0);
+        ShardImporter shardImporter = new ShardImporter(shardDao, blockchainConfig, genesisImporter, blockchain, derivedTablesRegistry,
+            csvImporter, zipComponent, dataTagDaoSpy, downloadableFilesManager, aplAppStatus, extension.getDatabaseManager(), propertiesHolder);
+
+        shardImporter.importShard(new ShardPresentData(null, "fileId", List.of()), List.of(ShardConstants.SHARD_TABLE_NAME));
+
+        assertFalse(tagThreads.isEmpty());
+        tagThreads.forEach(name -> assertTrue(name.startsWith("ShardImporter:csvImport-"), name));
+        // tags are committed by the worker, not by the calling thread
+        assertEquals(List.of(dataTag_1, dataTag_2, dataTag_3, dataTag_4, dataTag_5, dataTag_6),
+            CollectionUtil.toList(dataTagDao.getAllTags(0, Integer.MAX_VALUE)));
+        verify(aplAppStatus).durableTaskFinished(null, false, "Shard data import");
+    }
+
     @Test
     void testImportByFileId() {
         doReturn(Paths.get("")).when(downloadableFilesManager).mapFileIdToLocalPath("fileId");
@@ -0,0 +1,113 @@
+/*
+ *  Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.core.shard.hash;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class MerkleRootAccumulatorTest {
+
+    @Test
+    void testEmptyAccumulator() {
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(sha256());
+
+        Assertions.assertNull(accumulator.getRoot());
+        Assertions.assertEquals(0, accumulator.size());
+    }
+
+    @Test
+    void testRootEqualsToMerkleTreeRoot() {
+        List<byte[]> data = randomData(1100);
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(sha256());
+        MerkleTree appendedTree = new MerkleTree(sha256());
+        for (int i = 0; i < data.size(); i++) {
+            accumulator.appendLeaf(data.get(i));
+            appendedTree.appendLeaf(data.get(i));
+            Assertions.assertArrayEquals(appendedTree.getRoot().getValue(), accumulator.getRoot(), "Root mismatch for " + (i + 1) + " leaves");
+        }
+        MerkleTree builtTree = new MerkleTree(sha256(), data);
+        Assertions.assertArrayEquals(builtTree.getRoot().getValue(), accumulator.getRoot());
+    }
+
+    @Test
+    void testGetLeafIndex() {
+        Assertions.assertEquals(0, MerkleRootAccumulator.getLeafIndex(1, 0));
+        int[] expected = {0, 4, 2, 5, 1, 6, 3, 7};
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertEquals(expected[i], MerkleRootAccumulator.getLeafIndex(8, i));
+        }
+    }
+
+    @Test
+    void testTruncate() {
+        List<byte[]> data = randomData(37);
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(sha256());
+        data.forEach(accumulator::appendLeaf);
+
+        accumulator.truncate(21);
+
+        Assertions.assertEquals(21, accumulator.size());
+        Assertions.assertArrayEquals(new MerkleTree(sha256(), data.subList(0, 21)).getRoot().getValue(), accumulator.getRoot());
+    }
+
+    @Test
+    void testRemoveFirst() {
+        List<byte[]> data = randomData(37);
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(sha256());
+        data.forEach(accumulator::appendLeaf);
+
+        accumulator.removeFirst(10);
+
+        Assertions.assertEquals(27, accumulator.size());
+        Assertions.assertArrayEquals(sha256().digest(data.get(10)), accumulator.getLeaf(0));
+        Assertions.assertArrayEquals(new MerkleTree(sha256(), data.subList(10, 37)).getRoot().getValue(), accumulator.getRoot());
+    }
+
+    @Test
+    void testAppendLeavesOfAnotherAccumulator() {
+        List<byte[]> data = randomData(50);
+        MerkleRootAccumulator source = new MerkleRootAccumulator(sha256());
+        data.subList(20, 50).forEach(source::appendLeaf);
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(sha256(), 1);
+        data.subList(0, 20).forEach(accumulator::appendLeaf);
+
+        accumulator.appendLeaves(source, 0, 25);
+
+        Assertions.assertEquals(45, accumulator.size());
+        Assertions.assertArrayEquals(new MerkleTree(sha256(), data.subList(0, 45)).getRoot().getValue(), accumulator.getRoot());
+    }
+
+    @Test
+    void testAppendHashedLeafOfWrongLength() {
+        MerkleRootAccumulator accumulator = new MerkleRootAccumulator(sha256());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> accumulator.appendHashedLeaf(new byte[16]));
+    }
+
+    private List<byte[]> randomData(int size) {
+        Random random = new Random(size);
+        List<byte[]> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[64];
+            random.nextBytes(bytes);
+            data.add(bytes);
+        }
+        return data;
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e.toString(), e);
+        }
+    }
+}
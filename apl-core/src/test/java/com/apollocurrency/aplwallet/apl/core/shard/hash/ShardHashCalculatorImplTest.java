@@ -46,10 +46,15 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @EnableWeld
@@ -151,6 +156,107 @@ public class ShardHashCalculatorImplTest {
         Assertions.assertThrows(IllegalArgumentException.class, () -> new ShardHashCalculatorImpl(mock(Blockchain.class), mock(BlockchainConfig.class), mock(ShardDao.class), 0));
     }
 
+    @Test
+    void testCalculateHashUsingPushedBlocks() {
+        List<byte[]> signatures = generateSignatures(300);
+        Blockchain blockchainMock = mockBlockchain(signatures);
+        ShardHashCalculatorImpl calculator = createCalculatorWithShardingEnabled(blockchainMock);
+        byte[] expectedHash = hash(signatures.subList(50, 280), signatures.get(0));
+
+        for (int height = 100; height < signatures.size(); height++) {
+            calculator.onBlockPushed(mockBlock(height, signatures.get(height)));
+        }
+        byte[] hash = calculator.calculateHash(50, 280);
+
+        assertArrayEquals(expectedHash, hash);
+        // only blocks pushed before accumulation and two blocks for consistency check were selected
+        verify(blockchainMock, times(3)).getBlockSignaturesFrom(anyInt(), anyInt());
+    }
+
+    @Test
+    void testCalculateHashUsingPushedBlocksAfterPopOff() {
+        List<byte[]> signatures = generateSignatures(300);
+        Blockchain blockchainMock = mockBlockchain(signatures);
+        ShardHashCalculatorImpl calculator = createCalculatorWithShardingEnabled(blockchainMock);
+        byte[] expectedHash = hash(signatures.subList(0, 300), signatures.get(0));
+
+        for (int height = 0; height < signatures.size(); height++) {
+            calculator.onBlockPushed(mockBlock(height, height < 250 ? signatures.get(height) : new byte[64]));
+        }
+        for (int height = signatures.size() - 1; height >= 250; height--) {
+            calculator.onBlockPopped(mockBlock(height, new byte[64]));
+        }
+        for (int height = 250; height < signatures.size(); height++) {
+            calculator.onBlockPushed(mockBlock(height, signatures.get(height)));
+        }
+        byte[] hash = calculator.calculateHash(0, 300);
+
+        assertArrayEquals(expectedHash, hash);
+    }
+
+    @Test
+    void testCalculateHashWhenPushedBlocksDoNotMatchStoredBlocks() {
+        List<byte[]> signatures = generateSignatures(300);
+        Blockchain blockchainMock = mockBlockchain(signatures);
+        ShardHashCalculatorImpl calculator = createCalculatorWithShardingEnabled(blockchainMock);
+        byte[] expectedHash = hash(signatures.subList(0, 300), signatures.get(0));
+
+        for (int height = 0; height < signatures.size(); height++) {
+            calculator.onBlockPushed(mockBlock(height, new byte[64]));
+        }
+        byte[] hash = calculator.calculateHash(0, 300);
+
+        assertArrayEquals(expectedHash, hash);
+    }
+
+    private ShardHashCalculatorImpl createCalculatorWithShardingEnabled(Blockchain blockchainMock) {
+        Mockito.doReturn(true).when(heightConfig).isShardingEnabled();
+        Mockito.doReturn(1000).when(heightConfig).getShardingFrequency();
+        return new ShardHashCalculatorImpl(blockchainMock, blockchainConfig, mock(ShardDao.class), 100);
+    }
+
+    private Blockchain mockBlockchain(List<byte[]> signatures) {
+        Blockchain blockchainMock = mock(Blockchain.class);
+        Mockito.doAnswer(invocation -> {
+            int from = invocation.getArgument(0);
+            int to = invocation.getArgument(1);
+            return new ArrayList<>(signatures.subList(Math.min(from, signatures.size()), Math.min(to, signatures.size())));
+        }).when(blockchainMock).getBlockSignaturesFrom(anyInt(), anyInt());
+        Block genesisBlock = mockBlock(0, signatures.get(0));
+        Mockito.doReturn(signatures.get(0)).when(genesisBlock).getGenerationSignature();
+        Mockito.doReturn(genesisBlock).when(blockchainMock).getBlockAtHeight(0);
+        return blockchainMock;
+    }
+
+    private Block mockBlock(int height, byte[] signature) {
+        Block block = mock(Block.class);
+        Mockito.doReturn(height).when(block).getHeight();
+        Mockito.doReturn(signature).when(block).getBlockSignature();
+        return block;
+    }
+
+    private List<byte[]> generateSignatures(int count) {
+        Random random = new Random(count);
+        List<byte[]> signatures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] signature = new byte[64];
+            random.nextBytes(signature);
+            signatures.add(signature);
+        }
+        return signatures;
+    }
+
+    private byte[] hash(List<byte[]> signatures, byte[] prevHash) {
+        try {
+            MerkleTree merkleTree = new MerkleTree(MessageDigest.getInstance(SHA_256));
+            signatures.forEach(merkleTree::appendLeaf);
+            merkleTree.appendLeaf(prevHash);
+            return merkleTree.getRoot().getValue();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 //    @Test
 //    public void testCalculateShardingHashFromMainDb() {
 //        DbProperties dbFileProperties = DbTestData.getDbFileProperties(Paths.get("unit-test-db").resolve(Constants.APPLICATION_DIR_NAME).toAbsolutePath().toString());
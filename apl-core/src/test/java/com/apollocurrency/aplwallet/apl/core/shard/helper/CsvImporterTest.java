@@ -90,6 +90,7 @@ import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
@@ -213,6 +214,19 @@ class CsvImporterTest {
         });
     }
 
+    @Test
+    void testImportCsvOutsideOfTransaction() throws Exception {
+        ResourceFileLoader resourceFileLoader = new ResourceFileLoader();
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        csvImporter = new CsvImporterImpl(resourceFileLoader.getResourcePath(), extension.getDatabaseManager(), null, valueParser, translator);
+
+        long result = csvImporter.importCsv("account_control_phasing", 3, true);
+
+        assertEquals(4, result);
+        assertFalse(dataSource.isInTransaction());
+        verifyCount(dataSource, "account_control_phasing", 4);
+    }
+
     @Test
     void testImportAccountControlPhasingCsvWithArrayOfLongs() {
         ResourceFileLoader resourceFileLoader = new ResourceFileLoader();
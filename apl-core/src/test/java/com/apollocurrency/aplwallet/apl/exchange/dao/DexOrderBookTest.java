@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.dao;
+
+import com.apollocurrency.aplwallet.apl.eth.utils.EthUtil;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookLevel;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderStatus;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DexOrderBookTest {
+    private final DexOrderBook book = new DexOrderBook();
+
+    @Test
+    void testGetOrdersInTimeOrder() {
+        book.update(order(1L, OrderType.SELL, "0.001", 100, 20, 1000));
+        book.update(order(2L, OrderType.SELL, "0.001", 100, 10, 1000));
+        book.update(order(3L, OrderType.SELL, "0.001", 200, 5, 1000));
+        book.update(order(4L, OrderType.SELL, "0.002", 100, 5, 1000));
+        book.update(order(5L, OrderType.BUY, "0.001", 100, 5, 1000));
+        book.update(order(6L, OrderType.SELL, "0.001", 100, 10, 500));
+
+        assertEquals(List.of(2L, 6L, 1L), ids(book.getOrders(OrderType.SELL, DexCurrency.APL, DexCurrency.ETH, gwei("0.001"), 100, 0)));
+        assertEquals(List.of(2L, 1L), ids(book.getOrders(OrderType.SELL, DexCurrency.APL, DexCurrency.ETH, gwei("0.001"), 100, 500)));
+        assertEquals(List.of(), ids(book.getOrders(OrderType.SELL, DexCurrency.APL, DexCurrency.PAX, gwei("0.001"), 100, 0)));
+        assertEquals(List.of(), ids(book.getOrders(OrderType.SELL, DexCurrency.APL, DexCurrency.ETH, gwei("0.003"), 100, 0)));
+    }
+
+    @Test
+    void testUpdateRemovesNotOpenOrders() {
+        book.update(order(1L, OrderType.BUY, "0.001", 100, 10, 1000));
+        book.update(order(2L, OrderType.BUY, "0.001", 100, 20, 1000));
+        DexOrder closed = order(1L, OrderType.BUY, "0.001", 100, 30, 1000);
+        closed.setStatus(OrderStatus.CLOSED);
+
+        book.update(closed);
+
+        assertEquals(List.of(2L), ids(book.getOrders(OrderType.BUY, DexCurrency.APL, DexCurrency.ETH, gwei("0.001"), 100, 0)));
+        assertEquals(1, book.size());
+        book.update(order(2L, OrderType.BUY, "0.002", 100, 40, 1000));
+        assertEquals(List.of(), ids(book.getOrders(OrderType.BUY, DexCurrency.APL, DexCurrency.ETH, gwei("0.001"), 100, 0)));
+        assertEquals(1, book.getDepth(DexCurrency.APL, DexCurrency.ETH, 10, 0).getBids().size());
+    }
+
+    @Test
+    void testGetDepth() {
+        book.update(order(1L, OrderType.BUY, "0.001", 100, 10, 1000));
+        book.update(order(2L, OrderType.BUY, "0.003", 100, 10, 1000));
+        book.update(order(3L, OrderType.BUY, "0.002", 100, 10, 1000));
+        book.update(order(4L, OrderType.BUY, "0.002", 300, 10, 1000));
+        book.update(order(5L, OrderType.BUY, "0.003", 300, 10, 500));
+        book.update(order(6L, OrderType.SELL, "0.005", 100, 10, 1000));
+        book.update(order(7L, OrderType.SELL, "0.004", 100, 10, 1000));
+
+        DexOrderBookDepth depth = book.getDepth(DexCurrency.APL, DexCurrency.ETH, 2, 500);
+
+        assertEquals(List.of(gwei("0.003"), gwei("0.002")), rates(depth.getBids()));
+        assertEquals(List.of(100L, 400L), depth.getBids().stream().map(DexOrderBookLevel::getOrderAmount).collect(Collectors.toList()));
+        assertEquals(List.of(1, 2), depth.getBids().stream().map(DexOrderBookLevel::getOrders).collect(Collectors.toList()));
+        assertEquals(List.of(gwei("0.004"), gwei("0.005")), rates(depth.getAsks()));
+        assertEquals(List.of(), book.getDepth(DexCurrency.APL, DexCurrency.PAX, 2, 500).getBids());
+    }
+
+    private List<Long> rates(List<DexOrderBookLevel> levels) {
+        return levels.stream().map(l -> EthUtil.ethToGwei(l.getPairRate())).collect(Collectors.toList());
+    }
+
+    private DexOrder order(long id, OrderType type, String rate, long amount, int height, int finishTime) {
+        return new DexOrder(null, id, type, 100L, DexCurrency.APL, amount, DexCurrency.ETH, new BigDecimal(rate),
+            finishTime, OrderStatus.OPEN, height, null, null);
+    }
+
+    private long gwei(String eth) {
+        return EthUtil.ethToGwei(new BigDecimal(eth));
+    }
+
+    private List<Long> ids(List<DexOrder> orders) {
+        return orders.stream().map(DexOrder::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.dao;
+
+import com.apollocurrency.aplwallet.apl.core.app.BlockchainImpl;
+import com.apollocurrency.aplwallet.apl.core.app.TimeServiceImpl;
+import com.apollocurrency.aplwallet.apl.core.app.TransactionDaoImpl;
+import com.apollocurrency.aplwallet.apl.core.cache.NullCacheProducerForTests;
+import com.apollocurrency.aplwallet.apl.core.chainid.BlockchainConfig;
+import com.apollocurrency.aplwallet.apl.core.config.DaoConfig;
+import com.apollocurrency.aplwallet.apl.core.db.BlockDaoImpl;
+import com.apollocurrency.aplwallet.apl.core.db.DatabaseManager;
+import com.apollocurrency.aplwallet.apl.core.db.DerivedDbTablesRegistryImpl;
+import com.apollocurrency.aplwallet.apl.core.db.TransactionalDataSource;
+import com.apollocurrency.aplwallet.apl.core.db.cdi.transaction.JdbiHandleFactory;
+import com.apollocurrency.aplwallet.apl.core.db.fulltext.FullTextConfigImpl;
+import com.apollocurrency.aplwallet.apl.core.shard.BlockIndexServiceImpl;
+import com.apollocurrency.aplwallet.apl.data.DexTestData;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookDepth;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderBookLevel;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderStatus;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
+import com.apollocurrency.aplwallet.apl.extension.DbExtension;
+import com.apollocurrency.aplwallet.apl.testutil.DbUtils;
+import com.apollocurrency.aplwallet.apl.util.NtpTime;
+import com.apollocurrency.aplwallet.apl.util.injectable.PropertiesHolder;
+import org.jboss.weld.junit.MockBean;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.inject.Inject;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+@EnableWeld
+class DexOrderTableTest {
+
+    @RegisterExtension
+    DbExtension extension = new DbExtension();
+
+    @WeldSetup
+    public WeldInitiator weld = WeldInitiator.from(
+        PropertiesHolder.class, BlockchainConfig.class, BlockchainImpl.class, DaoConfig.class,
+        JdbiHandleFactory.class,
+        FullTextConfigImpl.class,
+        DexOrderTable.class,
+        DerivedDbTablesRegistryImpl.class,
+        TimeServiceImpl.class, BlockDaoImpl.class, TransactionDaoImpl.class,
+        BlockIndexServiceImpl.class, NullCacheProducerForTests.class)
+        .addBeans(MockBean.of(extension.getDatabaseManager(), DatabaseManager.class))
+        .addBeans(MockBean.of(extension.getDatabaseManager().getJdbi(), Jdbi.class))
+        .addBeans(MockBean.of(mock(NtpTime.class), NtpTime.class))
+        .build();
+    @Inject
+    DexOrderTable table;
+    DexTestData dtd;
+
+    @BeforeEach
+    void setUp() {
+        dtd = new DexTestData();
+    }
+
+    @Test
+    void testGetOrdersForMatching() {
+        List<DexOrder> orders = getMatching(dtd.ORDER_BEA_4, 10000);
+
+        assertEquals(List.of(dtd.ORDER_BEA_4.getId()), ids(orders));
+        assertEquals(List.of(), ids(getMatching(dtd.ORDER_BEA_4, dtd.ORDER_BEA_4.getFinishTime())));
+        assertEquals(List.of(), ids(getMatching(dtd.ORDER_BEA_1, 0)));
+    }
+
+    @Test
+    void testInsertUpdatesOrderBook() {
+        DexOrder order = newOrder(11L, 125, OrderStatus.OPEN);
+        DexOrder laterOrder = newOrder(12L, 126, OrderStatus.OPEN);
+
+        DbUtils.inTransaction(extension, con -> {
+            table.insert(laterOrder);
+            table.insert(order);
+        });
+
+        assertEquals(List.of(dtd.ORDER_BEA_4.getId(), 11L, 12L), ids(getMatching(dtd.ORDER_BEA_4, 10000)));
+
+        order.setStatus(OrderStatus.CLOSED);
+        DbUtils.inTransaction(extension, con -> table.insert(order));
+
+        assertEquals(List.of(dtd.ORDER_BEA_4.getId(), 12L), ids(getMatching(dtd.ORDER_BEA_4, 10000)));
+    }
+
+    @Test
+    void testNotCommittedOrderIsVisibleOnlyInTransaction() throws Exception {
+        assertEquals(1, getMatching(dtd.ORDER_BEA_4, 10000).size());
+        TransactionalDataSource dataSource = extension.getDatabaseManager().getDataSource();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection con = dataSource.begin()) {
+            table.insert(newOrder(11L, 125, OrderStatus.OPEN));
+
+            assertEquals(2, getMatching(dtd.ORDER_BEA_4, 10000).size());
+            assertEquals(1, executor.submit(() -> getMatching(dtd.ORDER_BEA_4, 10000)).get().size());
+            dataSource.rollback();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(List.of(dtd.ORDER_BEA_4.getId()), ids(getMatching(dtd.ORDER_BEA_4, 10000)));
+    }
+
+    @Test
+    void testRollback() {
+        DexOrder order = newOrder(11L, 125, OrderStatus.OPEN);
+        DbUtils.inTransaction(extension, con -> table.insert(order));
+        DexOrder closed = newOrder(11L, 126, OrderStatus.CLOSED);
+        DbUtils.inTransaction(extension, con -> table.insert(closed));
+        assertEquals(List.of(dtd.ORDER_BEA_4.getId()), ids(getMatching(dtd.ORDER_BEA_4, 10000)));
+
+        DbUtils.inTransaction(extension, con -> table.rollback(125));
+
+        assertEquals(List.of(dtd.ORDER_BEA_4.getId(), 11L), ids(getMatching(dtd.ORDER_BEA_4, 10000)));
+
+        DbUtils.inTransaction(extension, con -> table.rollback(dtd.ORDER_BEA_4.getHeight() - 1));
+
+        assertEquals(List.of(), ids(getMatching(dtd.ORDER_BEA_4, 10000)));
+    }
+
+    @Test
+    void testGetOrderBookDepth() {
+        DbUtils.inTransaction(extension, con -> {
+            table.insert(newOrder(11L, 125, OrderStatus.OPEN));
+            table.insert(new DexOrder(null, 12L, OrderType.BUY, 300L, DexCurrency.APL, 100000L, DexCurrency.ETH,
+                BigDecimal.valueOf(0.002), 20000, OrderStatus.OPEN, 125, null, null));
+            table.insert(new DexOrder(null, 13L, OrderType.SELL, 300L, DexCurrency.APL, 100000L, DexCurrency.ETH,
+                BigDecimal.valueOf(0.003), 20000, OrderStatus.OPEN, 125, null, null));
+        });
+
+        DexOrderBookDepth depth = table.getOrderBookDepth(DexCurrency.ETH, 10, 10000);
+
+        assertEquals(DexCurrency.ETH, depth.getPairCurrency());
+        assertEquals(List.of(new DexOrderBookLevel(new BigDecimal("0.002"), 100000L, 1),
+            new DexOrderBookLevel(new BigDecimal("0.001"), 1200000L, 2)), depth.getBids());
+        assertEquals(List.of(new DexOrderBookLevel(new BigDecimal("0.003"), 100000L, 1)), depth.getAsks());
+        assertEquals(1, table.getOrderBookDepth(DexCurrency.ETH, 1, 10000).getBids().size());
+        assertEquals(List.of(new DexOrderBookLevel(new BigDecimal("0.15"), 100000L, 1)),
+            table.getOrderBookDepth(DexCurrency.PAX, 10, 0).getBids());
+    }
+
+    private DexOrder newOrder(long id, int height, OrderStatus status) {
+        DexOrder order = new DexOrder(dtd.ORDER_BEA_4);
+        order.setId(id);
+        order.setAccountId(300L);
+        order.setHeight(height);
+        order.setStatus(status);
+        return order;
+    }
+
+    private List<DexOrder> getMatching(DexOrder order, int currentTime) {
+        return table.getOrdersForMatching(order.getType(), order.getPairCurrency(), order.getPairRate(), order.getOrderAmount(), currentTime);
+    }
+
+    private List<Long> ids(List<DexOrder> orders) {
+        return orders.stream().map(DexOrder::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.service;
+
+import com.apollocurrency.aplwallet.apl.core.account.service.AccountService;
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.TimeService;
+import com.apollocurrency.aplwallet.apl.core.app.service.SecureStorageService;
+import com.apollocurrency.aplwallet.apl.core.phasing.PhasingPollService;
+import com.apollocurrency.aplwallet.apl.core.task.TaskDispatchManager;
+import com.apollocurrency.aplwallet.apl.core.transaction.TransactionValidator;
+import com.apollocurrency.aplwallet.apl.eth.service.EthereumWalletService;
+import com.apollocurrency.aplwallet.apl.exchange.DexConfig;
+import com.apollocurrency.aplwallet.apl.exchange.dao.MandatoryTransactionDao;
+import com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContractStatus.STEP_1;
+import static com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContractStatus.STEP_2;
+import static com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContractStatus.STEP_3;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DexOrderProcessorTest {
+    private static final List<Long> STORED_ACCOUNTS = List.of(1L, 2L, 3L, 4L, 5L);
+    private final DexService dexService = mock(DexService.class);
+    private DexOrderProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new DexOrderProcessor(mock(SecureStorageService.class), mock(TransactionValidator.class), dexService,
+            mock(DexOrderTransactionCreator.class), mock(DexValidationServiceImpl.class), mock(DexSmartContractService.class),
+            mock(EthereumWalletService.class), mock(MandatoryTransactionDao.class), mock(TaskDispatchManager.class),
+            mock(AccountService.class), mock(TimeService.class), mock(Blockchain.class), mock(PhasingPollService.class),
+            mock(DexOperationService.class), false, 60, 3, mock(DexConfig.class));
+    }
+
+    @Test
+    void testSelectAllAccountsOnFirstTick() {
+        doReturn(Set.of(2L)).when(dexService).pollChangedAccounts();
+
+        Set<Long> accounts = processor.selectAccountsToProcess(STORED_ACCOUNTS);
+
+        assertEquals(Set.copyOf(STORED_ACCOUNTS), accounts);
+    }
+
+    @Test
+    void testSelectChangedAccountsAndContractParties() {
+        doReturn(Set.of()).when(dexService).pollChangedAccounts();
+        processor.selectAccountsToProcess(STORED_ACCOUNTS);
+        doReturn(Set.of(2L, 10L)).when(dexService).pollChangedAccounts();
+        ExchangeContract contract = ExchangeContract.builder().sender(4L).recipient(11L).contractStatus(STEP_2).build();
+        doReturn(List.of(contract)).when(dexService).getDexContracts(any(), any());
+
+        Set<Long> accounts = processor.selectAccountsToProcess(STORED_ACCOUNTS);
+
+        assertEquals(Set.of(2L, 4L), accounts);
+        verify(dexService).getDexContracts(any(), eq(List.of(STEP_1, STEP_2, STEP_3)));
+    }
+
+    @Test
+    void testSelectAllAccountsPeriodicallyAndAfterPopOff() {
+        doReturn(Set.of()).when(dexService).pollChangedAccounts();
+        doReturn(List.of()).when(dexService).getDexContracts(any(), any());
+        processor.selectAccountsToProcess(STORED_ACCOUNTS);
+
+        assertEquals(Set.of(), processor.selectAccountsToProcess(STORED_ACCOUNTS));
+        assertEquals(Set.of(), processor.selectAccountsToProcess(STORED_ACCOUNTS));
+        assertEquals(Set.copyOf(STORED_ACCOUNTS), processor.selectAccountsToProcess(STORED_ACCOUNTS));
+        assertEquals(Set.of(), processor.selectAccountsToProcess(STORED_ACCOUNTS));
+
+        processor.onBlockPopped(mock(Block.class));
+
+        assertEquals(Set.copyOf(STORED_ACCOUNTS), processor.selectAccountsToProcess(STORED_ACCOUNTS));
+    }
+}
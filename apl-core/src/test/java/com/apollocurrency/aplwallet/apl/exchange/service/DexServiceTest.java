@@ -30,6 +30,7 @@ import com.apollocurrency.aplwallet.apl.exchange.model.ExchangeContractStatus;
 import com.apollocurrency.aplwallet.apl.exchange.model.OrderFreezing;
 import com.apollocurrency.aplwallet.apl.exchange.model.OrderStatus;
 import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
+import com.apollocurrency.aplwallet.apl.exchange.service.graph.DexCandlestickCache;
 import com.google.common.cache.LoadingCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,7 +39,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -88,6 +91,8 @@ class DexServiceTest {
     DexConfig dexConfig;
     @Mock
     AccountService accountService;
+    @Mock
+    DexCandlestickCache candlestickCache;
 
     DexOrder order = new DexOrder(2L, 100L, "from-address", "to-address", OrderType.BUY, OrderStatus.OPEN, DexCurrency.APL, 127_000_000L, DexCurrency.ETH, BigDecimal.valueOf(0.0001), 500);
     DexOrder order1 = new DexOrder(1L, 2L, OrderType.BUY, 100L, DexCurrency.APL, 10000L, DexCurrency.PAX, BigDecimal.ONE, 90, OrderStatus.OPEN, 259, "", "");
@@ -106,7 +111,29 @@ class DexServiceTest {
     void setUp() {
         dexService = new DexService(ethWalletService, dexOrderDao, dexOrderTable, transactionProcessor, dexSmartContractService, secureStorageService,
             dexContractTable, dexOrderTransactionCreator, timeService, dexContractDao, blockchain, phasingPollService, dexMatcherService,
-            approvedResultTable, mandatoryTransactionDao, accountService, blockchainConfig, cache, dexConfig);
+            approvedResultTable, mandatoryTransactionDao, accountService, blockchainConfig, cache, dexConfig, candlestickCache);
+    }
+
+    @Test
+    void testDoNotRecordChangedAccountsWhenTrackingDisabled() {
+        dexService.saveOrder(order);
+
+        assertEquals(Set.of(), dexService.pollChangedAccounts());
+    }
+
+    @Test
+    void testRecordChangedAccountsWhenTrackingEnabled() {
+        dexService.setChangedAccountsTracking(true);
+        dexService.saveOrder(order);
+        dexService.saveDexContract(contract);
+
+        assertEquals(new HashSet<>(List.of(order.getAccountId(), contract.getSender(), contract.getRecipient())), dexService.pollChangedAccounts());
+        assertEquals(Set.of(), dexService.pollChangedAccounts());
+
+        dexService.saveOrder(order);
+        dexService.setChangedAccountsTracking(false);
+
+        assertEquals(Set.of(), dexService.pollChangedAccounts());
     }
 
     @Test
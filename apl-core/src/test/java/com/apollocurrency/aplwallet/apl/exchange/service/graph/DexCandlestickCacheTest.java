@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.exchange.service.graph;
+
+import com.apollocurrency.aplwallet.apl.core.app.Block;
+import com.apollocurrency.aplwallet.apl.core.app.Blockchain;
+import com.apollocurrency.aplwallet.apl.core.app.GenesisImporter;
+import com.apollocurrency.aplwallet.apl.exchange.dao.DexOrderDao;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCandlestick;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
+import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderDbIdPaginationDbRequest;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderStatus;
+import com.apollocurrency.aplwallet.apl.exchange.model.OrderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickTestUtil.apl;
+import static com.apollocurrency.aplwallet.apl.exchange.service.graph.CandlestickTestUtil.dec;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DexCandlestickCacheTest {
+    private static final int DAY = 86_400;
+
+    DexOrderDao orderDao = mock(DexOrderDao.class);
+    Blockchain blockchain = mock(Blockchain.class);
+
+    DexCandlestickCache cache;
+
+    @BeforeEach
+    void setUp() {
+        GenesisImporter.EPOCH_BEGINNING = 0;
+        cache = new DexCandlestickCache(true, 2, orderDao, blockchain, 2);
+        // +1 for order and block time to cope with fromEpochTime/toEpochTime offset (500ms)
+        doReturn(2 * DAY + 1001).when(blockchain).getLastBlockTimestamp();
+        doReturn(List.of(order(1, 1, DAY + 101, "1", 100, 5), order(2, 2, DAY + 1001, "2", 200, 5)))
+            .when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(0));
+        doReturn(List.of()).when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(2));
+    }
+
+    @Test
+    void testLoadCandlesticksForAllTimeFrames() {
+        List<DexCandlestick> quarters = cache.getCandlesticks(DexCurrency.ETH, TimeFrame.QUARTER, DAY, 3 * DAY);
+        List<DexCandlestick> hours = cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY);
+
+        assertEquals(List.of(
+            candlestick("1", "1", "1", "1", "100", "100", DAY, DAY + 100, DAY + 100),
+            candlestick("2", "2", "2", "2", "200", "400", DAY + 900, DAY + 1000, DAY + 1000)), quarters);
+        assertEquals(List.of(candlestick("1", "2", "1", "2", "300", "500", DAY, DAY + 100, DAY + 1001)), hours);
+        verify(orderDao, times(2)).getOrdersFromDbIdBetweenTimestamps(org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void testUpdateOnBlockAcceptAndRollbackOnPopOff() {
+        cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY);
+
+        cache.onOrderClosed(order(0, 3, DAY + 2001, "3", 100, 10));
+        cache.onOrderClosed(new DexOrder(0L, 4L, OrderType.SELL, 1L, DexCurrency.APL, apl(100), DexCurrency.ETH, dec("5"), DAY + 2001, OrderStatus.CLOSED, 10, null, null));
+        cache.onBlockAccepted(block(10, 2 * DAY + 1001));
+
+        assertEquals(List.of(candlestick("1", "3", "1", "3", "400", "800", DAY, DAY + 100, DAY + 2001)),
+            cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY));
+
+        cache.onBlockPopped(block(10, 2 * DAY + 1001));
+
+        assertEquals(List.of(candlestick("1", "2", "1", "2", "300", "500", DAY, DAY + 100, DAY + 1001)),
+            cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY));
+    }
+
+    @Test
+    void testOrdersOfFailedBlockAreSkipped() {
+        cache.getCandlesticks(DexCurrency.ETH, TimeFrame.DAY, DAY, 3 * DAY);
+
+        cache.onOrderClosed(order(0, 3, DAY + 2001, "3", 100, 10));
+        cache.onBlockAcceptStarted(block(10, 2 * DAY + 1001));
+        cache.onBlockAccepted(block(10, 2 * DAY + 1001));
+
+        assertEquals(List.of(candlestick("1", "2", "1", "2", "300", "500", DAY, DAY + 100, DAY + 1001)),
+            cache.getCandlesticks(DexCurrency.ETH, TimeFrame.DAY, DAY, 3 * DAY));
+    }
+
+    @Test
+    void testEvictOldCandlesticksOnNextDay() {
+        cache.getCandlesticks(DexCurrency.ETH, TimeFrame.QUARTER, DAY, 3 * DAY);
+
+        cache.onBlockAccepted(block(20, 3 * DAY + 1));
+
+        assertNull(cache.getCandlesticks(DexCurrency.ETH, TimeFrame.QUARTER, DAY, 3 * DAY));
+        assertEquals(List.of(), cache.getCandlesticks(DexCurrency.ETH, TimeFrame.QUARTER, 2 * DAY, 4 * DAY));
+    }
+
+    @Test
+    void testMergeOrdersAcceptedDuringLoading() {
+        doAnswer(invocation -> {
+            // order was committed after the first page and block is accepted, while the last page is loaded
+            cache.onOrderClosed(order(3, 3, DAY + 2001, "3", 100, 10));
+            cache.onBlockAccepted(block(10, 2 * DAY + 1001));
+            return List.of();
+        }).when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(2));
+
+        assertEquals(List.of(candlestick("1", "3", "1", "3", "400", "800", DAY, DAY + 100, DAY + 2001)),
+            cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY));
+        verify(orderDao, times(2)).getOrdersFromDbIdBetweenTimestamps(org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void testDropDataLoadedDuringPopOff() {
+        doAnswer(invocation -> {
+            cache.onBlockPopped(block(2, 2 * DAY + 1001));
+            return List.of();
+        }).when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(2));
+
+        assertNull(cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY));
+
+        doReturn(List.of()).when(orderDao).getOrdersFromDbIdBetweenTimestamps(request(2));
+
+        assertEquals(List.of(candlestick("1", "2", "1", "2", "300", "500", DAY, DAY + 100, DAY + 1001)),
+            cache.getCandlesticks(DexCurrency.ETH, TimeFrame.HOUR, DAY, 3 * DAY));
+        verify(orderDao, times(4)).getOrdersFromDbIdBetweenTimestamps(org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void testNotCoveredRange() {
+        assertNull(cache.getCandlesticks(DexCurrency.ETH, TimeFrame.QUARTER, DAY - 900, 3 * DAY));
+        assertNull(new DexCandlestickCache(false, 2, orderDao, blockchain, 2).getCandlesticks(DexCurrency.ETH, TimeFrame.QUARTER, DAY, 3 * DAY));
+    }
+
+    private DexOrder order(long dbId, long id, int finishTime, String rate, long amount, int height) {
+        return new DexOrder(dbId, id, OrderType.BUY, 1L, DexCurrency.APL, apl(amount), DexCurrency.ETH, dec(rate), finishTime, OrderStatus.CLOSED, height, null, null);
+    }
+
+    private DexCandlestick candlestick(String min, String max, String open, String close, String fromVolume, String toVolume, int timestamp, int openTime, int closeTime) {
+        return new DexCandlestick(DexCurrency.ETH, dec(min), dec(max), dec(open), dec(close), new BigDecimal(fromVolume),
+            new BigDecimal(toVolume), timestamp, openTime, closeTime);
+    }
+
+    private Block block(int height, int timestamp) {
+        Block block = mock(Block.class);
+        doReturn(height).when(block).getHeight();
+        doReturn(timestamp).when(block).getTimestamp();
+        return block;
+    }
+
+    private OrderDbIdPaginationDbRequest request(long fromDbId) {
+        return OrderDbIdPaginationDbRequest.builder()
+            .fromDbId(fromDbId)
+            .coin(DexCurrency.ETH)
+            .fromTime(DAY)
+            .toTime(Integer.MAX_VALUE)
+            .limit(2)
+            .build();
+    }
+}
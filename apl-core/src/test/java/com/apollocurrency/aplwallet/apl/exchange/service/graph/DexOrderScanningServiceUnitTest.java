@@ -10,7 +10,6 @@ import com.apollocurrency.aplwallet.apl.exchange.model.DBSortOrder;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexCandlestick;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexCurrency;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrder;
-import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBMatchingRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequest;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderDBRequestForTrading;
 import com.apollocurrency.aplwallet.apl.exchange.model.DexOrderSortBy;
@@ -223,11 +222,6 @@ class DexOrderScanningServiceUnitTest {
             throw new UnsupportedOperationException();
         }
 
-        @Override
-        public List<DexOrder> getOffersForMatchingPure(DexOrderDBMatchingRequest dexOrderDBMatchingRequest, String orderBy) {
-            throw new UnsupportedOperationException();
-        }
-
         @Override
         public List<DexOrder> getClosedOrdersFromDbId(HeightDbIdRequest heightDbIdRequest) {
             return orders.stream()
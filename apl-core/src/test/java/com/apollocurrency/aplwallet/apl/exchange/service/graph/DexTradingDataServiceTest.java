@@ -33,6 +33,8 @@ class DexTradingDataServiceTest {
 
     DexOrderDao orderDao = mock(DexOrderDao.class);
 
+    DexCandlestickCache candlestickCache = mock(DexCandlestickCache.class);
+
     DexTradingDataService service;
     DexTradingTestData td = new DexTradingTestData();
 
@@ -40,7 +42,7 @@ class DexTradingDataServiceTest {
     @BeforeEach
     void setUp() {
         GenesisImporter.EPOCH_BEGINNING = 0;
-        service = new DexTradingDataService(true, false, candlestickDao, orderDao, 2);
+        service = new DexTradingDataService(true, candlestickDao, orderDao, candlestickCache, 2);
     }
 
     @Test
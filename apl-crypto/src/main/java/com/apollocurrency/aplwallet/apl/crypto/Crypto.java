@@ -188,6 +188,19 @@ public final class Crypto {
     }
 
     public static boolean verify(byte[] signature, byte[] message, byte[] publicKey) {
+        return verifyHash(signature, sha256().digest(message), publicKey);
+    }
+
+    /**
+     * Verify signature of the message, which was already hashed by sha256, so that the message bytes can be hashed
+     * in parts without copying them into the single array
+     *
+     * @param signature   signature to verify
+     * @param messageHash sha256 hash of the signed message
+     * @param publicKey   public key of the signer
+     * @return true if signature is valid
+     */
+    public static boolean verifyHash(byte[] signature, byte[] messageHash, byte[] publicKey) {
         try {
             if (signature.length != 64) {
                 return false;
@@ -207,11 +220,10 @@ public final class Crypto {
             System.arraycopy(signature, 0, v, 0, 32);
             byte[] h = new byte[32];
             System.arraycopy(signature, 32, h, 0, 32);
-            Curve25519.verify(Y, v, h, publicKey);
+            Curve25519Verifier.verify(Y, v, h, publicKey);
 
             MessageDigest digest = Crypto.sha256();
-            byte[] m = digest.digest(message);
-            digest.update(m);
+            digest.update(messageHash);
             byte[] h2 = digest.digest(Y);
 
             return Arrays.equals(h, h2);
@@ -368,7 +368,7 @@ final class Curve25519 {
      * requires t > 0 && d[t-1] != 0
      * requires that r[-1] and d[-1] are valid memory locations
      * q may overlap with r+t */
-    private static void divmod(byte[] q, byte[] r, int n, byte[] d, int t) {
+    static void divmod(byte[] q, byte[] r, int n, byte[] d, int t) {
         int rn = 0;
         int dt = ((d[t - 1] & 0xFF) << 8);
         if (t > 1) {
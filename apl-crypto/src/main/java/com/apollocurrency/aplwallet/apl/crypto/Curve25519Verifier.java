@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.crypto;
+
+/* Fast replacement of the Curve25519.verify, calculates exactly the same Y = X(v abs(P) + h G).
+ *
+ * Curve25519.verify runs a Montgomery ladder over v and h bits using only X coordinates.
+ * Here both points are mapped to the birationally equivalent twisted Edwards curve
+ *   -x^2 + y^2 = 1 + d x^2 y^2,   x = sqrt(-486664) X / Y,   y = (X - 1) / (X + 1)
+ * where complete addition formulas allow to use
+ *   - comb tables of precomputed multiples of G for h G, so no doublings are needed for it;
+ *   - sliding window over odd multiples of P for v P;
+ * and the X coordinate of the sum is mapped back as X = (1 + y) / (1 - y).
+ * abs(P) is the point with the even Y coordinate, G used by the Curve25519 has even Y too.
+ *
+ * The ladder does not calculate the sum for the public keys, which are not on the curve,
+ * and for the keys, for which one of the differences P, P + G, P - G used by the ladder
+ * is the point at infinity or (0, 0). Such keys are passed to the Curve25519.verify, which
+ * keeps results bit-for-bit the same for all the inputs.
+ *
+ * All the temporaries are allocated once per thread.
+ */
+final class Curve25519Verifier {
+
+    private static final int[] A = {486662, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    /* 2 * d, d = -121665 / 121666 */
+    private static final int[] D2 = {
+        45281625, 27714825, 36363642, 13898781, 229458,
+        15978800, 54557047, 27058993, 29715967, 9444199
+    };
+    private static final int[] SQRT_M1 = {
+        34513072, 25610706, 9377949, 3500415, 12389472,
+        33281959, 41962654, 31548777, 326685, 11406482
+    };
+    private static final int[] SQRT_M486664 = {
+        54885894, 25242303, 55597453, 9067496, 51808079,
+        33312638, 25456129, 14121551, 54921728, 3972023
+    };
+    private static final byte[] BASE_X = {
+        9, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+        0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+    /* X(G + (0, 0)) = 1/9, P - G or P + G is (0, 0) for such P */
+    private static final byte[] INVERSE_9 = {
+        (byte) 18, (byte) 199, (byte) 113, (byte) 28, (byte) 199, (byte) 113, (byte) 28, (byte) 199,
+        (byte) 113, (byte) 28, (byte) 199, (byte) 113, (byte) 28, (byte) 199, (byte) 113, (byte) 28,
+        (byte) 199, (byte) 113, (byte) 28, (byte) 199, (byte) 113, (byte) 28, (byte) 199, (byte) 113,
+        (byte) 28, (byte) 199, (byte) 113, (byte) 28, (byte) 199, (byte) 113, (byte) 28, (byte) 71
+    };
+
+    /* sliding window width for v P, table holds P, 3P, .. 15P */
+    private static final int WINDOW_SIZE = 8;
+    private static final int SLIDE_LENGTH = 257;
+
+    /* BASE[i][j] = (j + 1) 256^i G */
+    private static final Precomp[][] BASE = createBaseTable();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private Curve25519Verifier() {
+    }
+
+    /* Signature verification primitive, calculates Y = vP + hG, same as Curve25519.verify
+     *   Y  [out] signature public key
+     *   v  [in]  signature value
+     *   h  [in]  signature hash
+     *   P  [in]  public key
+     */
+    static void verify(byte[] Y, byte[] v, byte[] h, byte[] P) {
+        Scratch s = SCRATCH.get();
+        if (!isRegularPublicKey(P, s) || !toEdwards(s.p, P, s)) {
+            Curve25519.verify(Y, v, h, P);
+            return;
+        }
+        /* G has prime order, so h can be reduced, while P may have a small order component */
+        System.arraycopy(h, 0, s.hReduced, 0, Curve25519.KEY_SIZE);
+        Curve25519.divmod(s.quotient, s.hReduced, Curve25519.KEY_SIZE, Curve25519.ORDER, Curve25519.KEY_SIZE);
+        scalarMultBase(s.hG, s.hReduced, s);
+        scalarMult(s.vP, v, s.p, s);
+
+        toCached(s.cached, s.hG);
+        add(s.sum, s.vP, s.cached, s.t0);
+
+        /* X = (1 + y) / (1 - y) = (Z + Y) / (Z - Y), 0 for the neutral point */
+        toP2(s.vP, s.sum);
+        Field25519.add(s.t1, s.vP.Z, s.vP.Y);
+        Field25519.sub(s.t2, s.vP.Z, s.vP.Y);
+        Field25519.invert(s.t3, s.t2, s.t0, s.t4, s.t5, s.t6);
+        Field25519.mul(s.t1, s.t1, s.t3);
+        Field25519.toBytes(Y, s.t1);
+    }
+
+    /* canonical, not 0, not X(G) and not X(G + (0, 0)) */
+    private static boolean isRegularPublicKey(byte[] P, Scratch s) {
+        Field25519.fromBytes(s.t0, P);
+        Field25519.toBytes(s.bytes, s.t0);
+        boolean zero = true;
+        for (int i = 0; i < Curve25519.KEY_SIZE; i++) {
+            if (s.bytes[i] != P[i]) {
+                return false;
+            }
+            zero &= P[i] == 0;
+        }
+        return !zero && !equals(P, BASE_X) && !equals(P, INVERSE_9);
+    }
+
+    /* r = point with X coordinate x and even Y, mapped to the Edwards curve;
+     * false, when x is not on the curve */
+    private static boolean toEdwards(P3 r, byte[] x, Scratch s) {
+        int[] u = s.t0, y2 = s.t1, root = s.t2, t = s.t3;
+        Field25519.fromBytes(u, x);
+
+        /* y2 = X^3 + 486662 X^2 + X */
+        Field25519.add(t, u, A);
+        Field25519.mul(t, t, u);
+        t[0]++;
+        Field25519.mul(y2, t, u);
+
+        /* root = y2^((p+3)/8) is a square root of y2 or -y2 */
+        Field25519.pow22523(root, y2, s.t4, s.t5, s.t6);
+        Field25519.mul(root, root, y2);
+        Field25519.sq(t, root);
+        if (!Field25519.equal(t, y2, s.bytes, s.bytes2)) {
+            Field25519.neg(y2, y2);
+            if (!Field25519.equal(t, y2, s.bytes, s.bytes2)) {
+                return false;
+            }
+            Field25519.mul(root, root, SQRT_M1);
+        }
+        if (Field25519.isNegative(root, s.bytes)) {
+            Field25519.neg(root, root);
+        }
+
+        /* x = sqrt(-486664) X (X + 1) / (Y (X + 1)), y = (X - 1) Y / (Y (X + 1)) */
+        int[] xNum = s.t4, yNum = s.t5, den = s.t6;
+        Field25519.copy(t, u);
+        t[0]++;
+        Field25519.mul(xNum, u, t);
+        Field25519.mul(xNum, xNum, SQRT_M486664);
+        Field25519.mul(den, root, t);
+        t[0] -= 2;
+        Field25519.mul(yNum, t, root);
+
+        Field25519.mul(r.X, xNum, den);
+        Field25519.mul(r.Y, yNum, den);
+        Field25519.sq(r.Z, den);
+        Field25519.mul(r.T, xNum, yNum);
+        return true;
+    }
+
+    /* r = a G, a < 2^255, a[31] <= 127 */
+    private static void scalarMultBase(P3 r, byte[] a, Scratch s) {
+        byte[] e = s.radix16;
+        for (int i = 0; i < 32; i++) {
+            e[2 * i] = (byte) (a[i] & 15);
+            e[2 * i + 1] = (byte) ((a[i] >> 4) & 15);
+        }
+        /* each e[i] is between 0 and 15, make them between -8 and 8 */
+        int carry = 0;
+        for (int i = 0; i < 63; i++) {
+            e[i] += carry;
+            carry = (e[i] + 8) >> 4;
+            e[i] -= carry << 4;
+        }
+        e[63] += carry;
+
+        setNeutral(r);
+        for (int i = 1; i < 64; i += 2) {
+            maddDigit(r, i / 2, e[i], s);
+        }
+
+        dbl(s.sum, r, s.t0);
+        toP2(r, s.sum);
+        dbl(s.sum, r, s.t0);
+        toP2(r, s.sum);
+        dbl(s.sum, r, s.t0);
+        toP2(r, s.sum);
+        dbl(s.sum, r, s.t0);
+        toP3(r, s.sum);
+
+        for (int i = 0; i < 64; i += 2) {
+            maddDigit(r, i / 2, e[i], s);
+        }
+    }
+
+    private static void maddDigit(P3 r, int position, int digit, Scratch s) {
+        if (digit > 0) {
+            madd(s.sum, r, BASE[position][digit - 1], s.t0);
+            toP3(r, s.sum);
+        } else if (digit < 0) {
+            msub(s.sum, r, BASE[position][-digit - 1], s.t0);
+            toP3(r, s.sum);
+        }
+    }
+
+    /* r = a p */
+    private static void scalarMult(P3 r, byte[] a, P3 p, Scratch s) {
+        byte[] slide = s.slide;
+        slide(slide, a);
+
+        /* odd[i] = (2i + 1) p, r is used as a temporary */
+        Cached[] odd = s.odd;
+        toCached(odd[0], p);
+        dbl(s.sum, p, s.t0);
+        toP3(s.tmp, s.sum);
+        for (int i = 1; i < WINDOW_SIZE; i++) {
+            add(s.sum, s.tmp, odd[i - 1], s.t0);
+            toP3(r, s.sum);
+            toCached(odd[i], r);
+        }
+
+        int i = SLIDE_LENGTH - 1;
+        while (i >= 0 && slide[i] == 0) {
+            i--;
+        }
+        setNeutral(r);
+        for (; i >= 0; i--) {
+            dbl(s.sum, r, s.t0);
+            if (slide[i] > 0) {
+                toP3(s.tmp, s.sum);
+                add(s.sum, s.tmp, odd[slide[i] / 2], s.t0);
+            } else if (slide[i] < 0) {
+                toP3(s.tmp, s.sum);
+                sub(s.sum, s.tmp, odd[-slide[i] / 2], s.t0);
+            }
+            /* the next doubling does not need T */
+            if (i > 0) {
+                toP2(r, s.sum);
+            } else {
+                toP3(r, s.sum);
+            }
+        }
+    }
+
+    /* signed digits r[i] of a = sum(r[i] 2^i), r[i] is 0 or odd between -15 and 15 */
+    private static void slide(byte[] r, byte[] a) {
+        for (int i = 0; i < 256; i++) {
+            r[i] = (byte) (1 & (a[i >> 3] >> (i & 7)));
+        }
+        r[256] = 0;
+        for (int i = 0; i < SLIDE_LENGTH; i++) {
+            if (r[i] == 0) {
+                continue;
+            }
+            for (int b = 1; b <= 6 && i + b < SLIDE_LENGTH; b++) {
+                if (r[i + b] == 0) {
+                    continue;
+                }
+                if (r[i] + (r[i + b] << b) <= 15) {
+                    r[i] += r[i + b] << b;
+                    r[i + b] = 0;
+                } else if (r[i] - (r[i + b] << b) >= -15) {
+                    r[i] -= r[i + b] << b;
+                    for (int k = i + b; k < SLIDE_LENGTH; k++) {
+                        if (r[k] == 0) {
+                            r[k] = 1;
+                            break;
+                        }
+                        r[k] = 0;
+                    }
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static Precomp[][] createBaseTable() {
+        Scratch s = new Scratch();
+        P3 base = new P3();
+        P3 multiple = new P3();
+        Cached cached = new Cached();
+        toEdwards(base, BASE_X, s);
+
+        Precomp[][] table = new Precomp[32][8];
+        for (int i = 0; i < 32; i++) {
+            toCached(cached, base);
+            multiple.set(base);
+            for (int j = 0; j < 8; j++) {
+                if (j > 0) {
+                    add(s.sum, multiple, cached, s.t0);
+                    toP3(multiple, s.sum);
+                }
+                table[i][j] = toPrecomp(multiple, s);
+            }
+            for (int j = 0; j < 8; j++) {
+                dbl(s.sum, base, s.t0);
+                toP3(base, s.sum);
+            }
+        }
+        return table;
+    }
+
+    private static Precomp toPrecomp(P3 p, Scratch s) {
+        Precomp r = new Precomp();
+        int[] zInv = s.t1, x = s.t2, y = s.t3;
+        Field25519.invert(zInv, p.Z, s.t4, s.t5, s.t6, s.t7);
+        Field25519.mul(x, p.X, zInv);
+        Field25519.mul(y, p.Y, zInv);
+        Field25519.add(r.yPlusX, y, x);
+        Field25519.sub(r.yMinusX, y, x);
+        Field25519.mul(r.xy2d, x, y);
+        Field25519.mul(r.xy2d, r.xy2d, D2);
+        return r;
+    }
+
+    /********************* Edwards curve, extended coordinates *********************/
+
+    private static boolean equals(byte[] a, byte[] b) {
+        for (int i = 0; i < Curve25519.KEY_SIZE; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setNeutral(P3 r) {
+        Field25519.zero(r.X);
+        Field25519.one(r.Y);
+        Field25519.one(r.Z);
+        Field25519.zero(r.T);
+    }
+
+    private static void toCached(Cached r, P3 p) {
+        Field25519.add(r.yPlusX, p.Y, p.X);
+        Field25519.sub(r.yMinusX, p.Y, p.X);
+        Field25519.copy(r.Z, p.Z);
+        Field25519.mul(r.t2d, p.T, D2);
+    }
+
+    /* completed to projective, T is not calculated */
+    private static void toP2(P3 r, P1P1 p) {
+        Field25519.mul(r.X, p.X, p.T);
+        Field25519.mul(r.Y, p.Y, p.Z);
+        Field25519.mul(r.Z, p.Z, p.T);
+    }
+
+    private static void toP3(P3 r, P1P1 p) {
+        Field25519.mul(r.X, p.X, p.T);
+        Field25519.mul(r.Y, p.Y, p.Z);
+        Field25519.mul(r.Z, p.Z, p.T);
+        Field25519.mul(r.T, p.X, p.Y);
+    }
+
+    /* r = 2 p, uses only X, Y, Z of p */
+    private static void dbl(P1P1 r, P3 p, int[] t0) {
+        Field25519.sq(r.X, p.X);
+        Field25519.sq(r.Z, p.Y);
+        Field25519.sq2(r.T, p.Z);
+        Field25519.add(r.Y, p.X, p.Y);
+        Field25519.sq(t0, r.Y);
+        Field25519.add(r.Y, r.Z, r.X);
+        Field25519.sub(r.Z, r.Z, r.X);
+        Field25519.sub(r.X, t0, r.Y);
+        Field25519.sub(r.T, r.T, r.Z);
+    }
+
+    /* r = p + q */
+    private static void add(P1P1 r, P3 p, Cached q, int[] t0) {
+        Field25519.add(r.X, p.Y, p.X);
+        Field25519.sub(r.Y, p.Y, p.X);
+        Field25519.mul(r.Z, r.X, q.yPlusX);
+        Field25519.mul(r.Y, r.Y, q.yMinusX);
+        Field25519.mul(r.T, q.t2d, p.T);
+        Field25519.mul(r.X, p.Z, q.Z);
+        Field25519.add(t0, r.X, r.X);
+        Field25519.sub(r.X, r.Z, r.Y);
+        Field25519.add(r.Y, r.Z, r.Y);
+        Field25519.add(r.Z, t0, r.T);
+        Field25519.sub(r.T, t0, r.T);
+    }
+
+    /* r = p - q */
+    private static void sub(P1P1 r, P3 p, Cached q, int[] t0) {
+        Field25519.add(r.X, p.Y, p.X);
+        Field25519.sub(r.Y, p.Y, p.X);
+        Field25519.mul(r.Z, r.X, q.yMinusX);
+        Field25519.mul(r.Y, r.Y, q.yPlusX);
+        Field25519.mul(r.T, q.t2d, p.T);
+        Field25519.mul(r.X, p.Z, q.Z);
+        Field25519.add(t0, r.X, r.X);
+        Field25519.sub(r.X, r.Z, r.Y);
+        Field25519.add(r.Y, r.Z, r.Y);
+        Field25519.sub(r.Z, t0, r.T);
+        Field25519.add(r.T, t0, r.T);
+    }
+
+    /* r = p + q, q is affine */
+    private static void madd(P1P1 r, P3 p, Precomp q, int[] t0) {
+        Field25519.add(r.X, p.Y, p.X);
+        Field25519.sub(r.Y, p.Y, p.X);
+        Field25519.mul(r.Z, r.X, q.yPlusX);
+        Field25519.mul(r.Y, r.Y, q.yMinusX);
+        Field25519.mul(r.T, q.xy2d, p.T);
+        Field25519.add(t0, p.Z, p.Z);
+        Field25519.sub(r.X, r.Z, r.Y);
+        Field25519.add(r.Y, r.Z, r.Y);
+        Field25519.add(r.Z, t0, r.T);
+        Field25519.sub(r.T, t0, r.T);
+    }
+
+    /* r = p - q, q is affine */
+    private static void msub(P1P1 r, P3 p, Precomp q, int[] t0) {
+        Field25519.add(r.X, p.Y, p.X);
+        Field25519.sub(r.Y, p.Y, p.X);
+        Field25519.mul(r.Z, r.X, q.yMinusX);
+        Field25519.mul(r.Y, r.Y, q.yPlusX);
+        Field25519.mul(r.T, q.xy2d, p.T);
+        Field25519.add(t0, p.Z, p.Z);
+        Field25519.sub(r.X, r.Z, r.Y);
+        Field25519.add(r.Y, r.Z, r.Y);
+        Field25519.sub(r.Z, t0, r.T);
+        Field25519.add(r.T, t0, r.T);
+    }
+
+    /* extended (X:Y:Z:T), x = X/Z, y = Y/Z, xy = T/Z; also projective (X:Y:Z) when T is not needed */
+    private static final class P3 {
+        final int[] X = Field25519.create();
+        final int[] Y = Field25519.create();
+        final int[] Z = Field25519.create();
+        final int[] T = Field25519.create();
+
+        void set(P3 p) {
+            Field25519.copy(X, p.X);
+            Field25519.copy(Y, p.Y);
+            Field25519.copy(Z, p.Z);
+            Field25519.copy(T, p.T);
+        }
+    }
+
+    /* completed ((X:Z), (Y:T)), x = X/Z, y = Y/T */
+    private static final class P1P1 {
+        final int[] X = Field25519.create();
+        final int[] Y = Field25519.create();
+        final int[] Z = Field25519.create();
+        final int[] T = Field25519.create();
+    }
+
+    /* (Y + X, Y - X, Z, 2dT) of the extended point */
+    private static final class Cached {
+        final int[] yPlusX = Field25519.create();
+        final int[] yMinusX = Field25519.create();
+        final int[] Z = Field25519.create();
+        final int[] t2d = Field25519.create();
+    }
+
+    /* (y + x, y - x, 2dxy) of the affine point */
+    private static final class Precomp {
+        final int[] yPlusX = Field25519.create();
+        final int[] yMinusX = Field25519.create();
+        final int[] xy2d = Field25519.create();
+    }
+
+    private static final class Scratch {
+        final int[] t0 = Field25519.create();
+        final int[] t1 = Field25519.create();
+        final int[] t2 = Field25519.create();
+        final int[] t3 = Field25519.create();
+        final int[] t4 = Field25519.create();
+        final int[] t5 = Field25519.create();
+        final int[] t6 = Field25519.create();
+        final int[] t7 = Field25519.create();
+        final byte[] bytes = new byte[Curve25519.KEY_SIZE];
+        final byte[] bytes2 = new byte[Curve25519.KEY_SIZE];
+        final byte[] hReduced = new byte[Curve25519.KEY_SIZE];
+        final byte[] quotient = new byte[Curve25519.KEY_SIZE];
+        final byte[] radix16 = new byte[64];
+        final byte[] slide = new byte[SLIDE_LENGTH];
+        final P3 p = new P3();
+        final P3 hG = new P3();
+        final P3 vP = new P3();
+        final P3 tmp = new P3();
+        final P1P1 sum = new P1P1();
+        final Cached cached = new Cached();
+        final Cached[] odd = new Cached[WINDOW_SIZE];
+
+        Scratch() {
+            for (int i = 0; i < WINDOW_SIZE; i++) {
+                odd[i] = new Cached();
+            }
+        }
+    }
+}
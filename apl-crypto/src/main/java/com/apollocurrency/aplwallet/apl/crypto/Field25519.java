@@ -0,0 +1,374 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.crypto;
+
+/* GF(2^255-19) arithmetic for the Curve25519Verifier.
+ * Elements are int[10] in the same radix 2^25.5 as in Curve25519: limbs
+ * alternate between 26 and 25 bits. Operations do not allocate, the caller
+ * provides all the outputs and temporaries, outputs may alias inputs.
+ * Results of mul, sq, sq2, fromBytes are reduced, results of add, sub, neg are not.
+ * mul and sq accept the sum or difference of at most three reduced elements,
+ * toBytes, isNegative and equal accept only reduced elements.
+ * Based on the public domain ref10 implementation by D. J. Bernstein,
+ * N. Duif, T. Lange, P. Schwabe and B.-Y. Yang.
+ */
+final class Field25519 {
+
+    static final int SIZE = 10;
+
+    private Field25519() {
+    }
+
+    static int[] create() {
+        return new int[SIZE];
+    }
+
+    static void zero(int[] h) {
+        for (int i = 0; i < SIZE; i++) {
+            h[i] = 0;
+        }
+    }
+
+    static void one(int[] h) {
+        zero(h);
+        h[0] = 1;
+    }
+
+    static void copy(int[] h, int[] f) {
+        System.arraycopy(f, 0, h, 0, SIZE);
+    }
+
+    /* h = f + g, no carry */
+    static void add(int[] h, int[] f, int[] g) {
+        for (int i = 0; i < SIZE; i++) {
+            h[i] = f[i] + g[i];
+        }
+    }
+
+    /* h = f - g, no carry */
+    static void sub(int[] h, int[] f, int[] g) {
+        for (int i = 0; i < SIZE; i++) {
+            h[i] = f[i] - g[i];
+        }
+    }
+
+    /* h = -f, no carry */
+    static void neg(int[] h, int[] f) {
+        for (int i = 0; i < SIZE; i++) {
+            h[i] = -f[i];
+        }
+    }
+
+    /* h = f, ignores the top bit of the little-endian input */
+    static void fromBytes(int[] h, byte[] s) {
+        long h0 = load4(s, 0);
+        long h1 = load3(s, 4) << 6;
+        long h2 = load3(s, 7) << 5;
+        long h3 = load3(s, 10) << 3;
+        long h4 = load3(s, 13) << 2;
+        long h5 = load4(s, 16);
+        long h6 = load3(s, 20) << 7;
+        long h7 = load3(s, 23) << 5;
+        long h8 = load3(s, 26) << 4;
+        long h9 = (load3(s, 29) & 0x7FFFFF) << 2;
+        long carry;
+
+        carry = (h9 + (1 << 24)) >> 25; h0 += carry * 19; h9 -= carry << 25;
+        carry = (h1 + (1 << 24)) >> 25; h2 += carry; h1 -= carry << 25;
+        carry = (h3 + (1 << 24)) >> 25; h4 += carry; h3 -= carry << 25;
+        carry = (h5 + (1 << 24)) >> 25; h6 += carry; h5 -= carry << 25;
+        carry = (h7 + (1 << 24)) >> 25; h8 += carry; h7 -= carry << 25;
+
+        carry = (h0 + (1 << 25)) >> 26; h1 += carry; h0 -= carry << 26;
+        carry = (h2 + (1 << 25)) >> 26; h3 += carry; h2 -= carry << 26;
+        carry = (h4 + (1 << 25)) >> 26; h5 += carry; h4 -= carry << 26;
+        carry = (h6 + (1 << 25)) >> 26; h7 += carry; h6 -= carry << 26;
+        carry = (h8 + (1 << 25)) >> 26; h9 += carry; h8 -= carry << 26;
+
+        h[0] = (int) h0;
+        h[1] = (int) h1;
+        h[2] = (int) h2;
+        h[3] = (int) h3;
+        h[4] = (int) h4;
+        h[5] = (int) h5;
+        h[6] = (int) h6;
+        h[7] = (int) h7;
+        h[8] = (int) h8;
+        h[9] = (int) h9;
+    }
+
+    /* s = h fully reduced to 0 .. 2^255-20, little-endian */
+    static void toBytes(byte[] s, int[] h) {
+        int h0 = h[0], h1 = h[1], h2 = h[2], h3 = h[3], h4 = h[4];
+        int h5 = h[5], h6 = h[6], h7 = h[7], h8 = h[8], h9 = h[9];
+        int q, carry;
+
+        q = (19 * h9 + (1 << 24)) >> 25;
+        q = (h0 + q) >> 26;
+        q = (h1 + q) >> 25;
+        q = (h2 + q) >> 26;
+        q = (h3 + q) >> 25;
+        q = (h4 + q) >> 26;
+        q = (h5 + q) >> 25;
+        q = (h6 + q) >> 26;
+        q = (h7 + q) >> 25;
+        q = (h8 + q) >> 26;
+        q = (h9 + q) >> 25;
+
+        /* goal: output h - (2^255-19) q, which is between 0 and 2^255-20 */
+        h0 += 19 * q;
+
+        carry = h0 >> 26; h1 += carry; h0 -= carry << 26;
+        carry = h1 >> 25; h2 += carry; h1 -= carry << 25;
+        carry = h2 >> 26; h3 += carry; h2 -= carry << 26;
+        carry = h3 >> 25; h4 += carry; h3 -= carry << 25;
+        carry = h4 >> 26; h5 += carry; h4 -= carry << 26;
+        carry = h5 >> 25; h6 += carry; h5 -= carry << 25;
+        carry = h6 >> 26; h7 += carry; h6 -= carry << 26;
+        carry = h7 >> 25; h8 += carry; h7 -= carry << 25;
+        carry = h8 >> 26; h9 += carry; h8 -= carry << 26;
+        carry = h9 >> 25; h9 -= carry << 25;
+
+        s[0] = (byte) h0;
+        s[1] = (byte) (h0 >> 8);
+        s[2] = (byte) (h0 >> 16);
+        s[3] = (byte) ((h0 >> 24) | (h1 << 2));
+        s[4] = (byte) (h1 >> 6);
+        s[5] = (byte) (h1 >> 14);
+        s[6] = (byte) ((h1 >> 22) | (h2 << 3));
+        s[7] = (byte) (h2 >> 5);
+        s[8] = (byte) (h2 >> 13);
+        s[9] = (byte) ((h2 >> 21) | (h3 << 5));
+        s[10] = (byte) (h3 >> 3);
+        s[11] = (byte) (h3 >> 11);
+        s[12] = (byte) ((h3 >> 19) | (h4 << 6));
+        s[13] = (byte) (h4 >> 2);
+        s[14] = (byte) (h4 >> 10);
+        s[15] = (byte) (h4 >> 18);
+        s[16] = (byte) h5;
+        s[17] = (byte) (h5 >> 8);
+        s[18] = (byte) (h5 >> 16);
+        s[19] = (byte) ((h5 >> 24) | (h6 << 1));
+        s[20] = (byte) (h6 >> 7);
+        s[21] = (byte) (h6 >> 15);
+        s[22] = (byte) ((h6 >> 23) | (h7 << 3));
+        s[23] = (byte) (h7 >> 5);
+        s[24] = (byte) (h7 >> 13);
+        s[25] = (byte) ((h7 >> 21) | (h8 << 4));
+        s[26] = (byte) (h8 >> 4);
+        s[27] = (byte) (h8 >> 12);
+        s[28] = (byte) ((h8 >> 20) | (h9 << 6));
+        s[29] = (byte) (h9 >> 2);
+        s[30] = (byte) (h9 >> 10);
+        s[31] = (byte) (h9 >> 18);
+    }
+
+    /* h = f * g */
+    static void mul(int[] h, int[] f, int[] g) {
+        int f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        int f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9];
+        int g0 = g[0], g1 = g[1], g2 = g[2], g3 = g[3], g4 = g[4];
+        int g5 = g[5], g6 = g[6], g7 = g[7], g8 = g[8], g9 = g[9];
+        int g1_19 = 19 * g1, g2_19 = 19 * g2, g3_19 = 19 * g3, g4_19 = 19 * g4, g5_19 = 19 * g5;
+        int g6_19 = 19 * g6, g7_19 = 19 * g7, g8_19 = 19 * g8, g9_19 = 19 * g9;
+        int f1_2 = 2 * f1, f3_2 = 2 * f3, f5_2 = 2 * f5, f7_2 = 2 * f7, f9_2 = 2 * f9;
+
+        long h0 = f0 * (long) g0 + f1_2 * (long) g9_19 + f2 * (long) g8_19 + f3_2 * (long) g7_19 + f4 * (long) g6_19
+            + f5_2 * (long) g5_19 + f6 * (long) g4_19 + f7_2 * (long) g3_19 + f8 * (long) g2_19 + f9_2 * (long) g1_19;
+        long h1 = f0 * (long) g1 + f1 * (long) g0 + f2 * (long) g9_19 + f3 * (long) g8_19 + f4 * (long) g7_19
+            + f5 * (long) g6_19 + f6 * (long) g5_19 + f7 * (long) g4_19 + f8 * (long) g3_19 + f9 * (long) g2_19;
+        long h2 = f0 * (long) g2 + f1_2 * (long) g1 + f2 * (long) g0 + f3_2 * (long) g9_19 + f4 * (long) g8_19
+            + f5_2 * (long) g7_19 + f6 * (long) g6_19 + f7_2 * (long) g5_19 + f8 * (long) g4_19 + f9_2 * (long) g3_19;
+        long h3 = f0 * (long) g3 + f1 * (long) g2 + f2 * (long) g1 + f3 * (long) g0 + f4 * (long) g9_19
+            + f5 * (long) g8_19 + f6 * (long) g7_19 + f7 * (long) g6_19 + f8 * (long) g5_19 + f9 * (long) g4_19;
+        long h4 = f0 * (long) g4 + f1_2 * (long) g3 + f2 * (long) g2 + f3_2 * (long) g1 + f4 * (long) g0
+            + f5_2 * (long) g9_19 + f6 * (long) g8_19 + f7_2 * (long) g7_19 + f8 * (long) g6_19 + f9_2 * (long) g5_19;
+        long h5 = f0 * (long) g5 + f1 * (long) g4 + f2 * (long) g3 + f3 * (long) g2 + f4 * (long) g1
+            + f5 * (long) g0 + f6 * (long) g9_19 + f7 * (long) g8_19 + f8 * (long) g7_19 + f9 * (long) g6_19;
+        long h6 = f0 * (long) g6 + f1_2 * (long) g5 + f2 * (long) g4 + f3_2 * (long) g3 + f4 * (long) g2
+            + f5_2 * (long) g1 + f6 * (long) g0 + f7_2 * (long) g9_19 + f8 * (long) g8_19 + f9_2 * (long) g7_19;
+        long h7 = f0 * (long) g7 + f1 * (long) g6 + f2 * (long) g5 + f3 * (long) g4 + f4 * (long) g3
+            + f5 * (long) g2 + f6 * (long) g1 + f7 * (long) g0 + f8 * (long) g9_19 + f9 * (long) g8_19;
+        long h8 = f0 * (long) g8 + f1_2 * (long) g7 + f2 * (long) g6 + f3_2 * (long) g5 + f4 * (long) g4
+            + f5_2 * (long) g3 + f6 * (long) g2 + f7_2 * (long) g1 + f8 * (long) g0 + f9_2 * (long) g9_19;
+        long h9 = f0 * (long) g9 + f1 * (long) g8 + f2 * (long) g7 + f3 * (long) g6 + f4 * (long) g5
+            + f5 * (long) g4 + f6 * (long) g3 + f7 * (long) g2 + f8 * (long) g1 + f9 * (long) g0;
+
+        reduce(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+    }
+
+    /* h = f * f */
+    static void sq(int[] h, int[] f) {
+        square(h, f, false);
+    }
+
+    /* h = 2 * f * f */
+    static void sq2(int[] h, int[] f) {
+        square(h, f, true);
+    }
+
+    private static void square(int[] h, int[] f, boolean twice) {
+        int f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        int f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9];
+        int f1_2 = 2 * f1, f2_2 = 2 * f2, f3_2 = 2 * f3, f4_2 = 2 * f4, f5_2 = 2 * f5;
+        int f6_2 = 2 * f6, f7_2 = 2 * f7, f8_2 = 2 * f8, f9_2 = 2 * f9;
+        int f5_38 = 38 * f5, f6_19 = 19 * f6, f7_38 = 38 * f7, f8_19 = 19 * f8, f9_38 = 38 * f9;
+
+        long h0 = f0 * (long) f0 + f1_2 * (long) f9_38 + f2_2 * (long) f8_19 + f3_2 * (long) f7_38 + f4_2 * (long) f6_19
+            + f5 * (long) f5_38;
+        long h1 = f0 * (long) f1_2 + f2 * (long) f9_38 + f3_2 * (long) f8_19 + f4 * (long) f7_38 + f5_2 * (long) f6_19;
+        long h2 = f0 * (long) f2_2 + f1 * (long) f1_2 + f3_2 * (long) f9_38 + f4_2 * (long) f8_19 + f5_2 * (long) f7_38
+            + f6 * (long) f6_19;
+        long h3 = f0 * (long) f3_2 + f1 * (long) f2_2 + f4 * (long) f9_38 + f5_2 * (long) f8_19 + f6 * (long) f7_38;
+        long h4 = f0 * (long) f4_2 + f1_2 * (long) f3_2 + f2 * (long) f2 + f5_2 * (long) f9_38 + f6_2 * (long) f8_19
+            + f7 * (long) f7_38;
+        long h5 = f0 * (long) f5_2 + f1 * (long) f4_2 + f2 * (long) f3_2 + f6 * (long) f9_38 + f7_2 * (long) f8_19;
+        long h6 = f0 * (long) f6_2 + f1_2 * (long) f5_2 + f2 * (long) f4_2 + f3 * (long) f3_2 + f7_2 * (long) f9_38
+            + f8 * (long) f8_19;
+        long h7 = f0 * (long) f7_2 + f1 * (long) f6_2 + f2 * (long) f5_2 + f3 * (long) f4_2 + f8 * (long) f9_38;
+        long h8 = f0 * (long) f8_2 + f1_2 * (long) f7_2 + f2 * (long) f6_2 + f3_2 * (long) f5_2 + f4 * (long) f4
+            + f9 * (long) f9_38;
+        long h9 = f0 * (long) f9_2 + f1 * (long) f8_2 + f2 * (long) f7_2 + f3 * (long) f6_2 + f4 * (long) f5_2;
+
+        if (twice) {
+            h0 += h0;
+            h1 += h1;
+            h2 += h2;
+            h3 += h3;
+            h4 += h4;
+            h5 += h5;
+            h6 += h6;
+            h7 += h7;
+            h8 += h8;
+            h9 += h9;
+        }
+        reduce(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+    }
+
+    private static void reduce(int[] h, long h0, long h1, long h2, long h3, long h4,
+                               long h5, long h6, long h7, long h8, long h9) {
+        long carry;
+
+        carry = (h0 + (1 << 25)) >> 26; h1 += carry; h0 -= carry << 26;
+        carry = (h4 + (1 << 25)) >> 26; h5 += carry; h4 -= carry << 26;
+
+        carry = (h1 + (1 << 24)) >> 25; h2 += carry; h1 -= carry << 25;
+        carry = (h5 + (1 << 24)) >> 25; h6 += carry; h5 -= carry << 25;
+
+        carry = (h2 + (1 << 25)) >> 26; h3 += carry; h2 -= carry << 26;
+        carry = (h6 + (1 << 25)) >> 26; h7 += carry; h6 -= carry << 26;
+
+        carry = (h3 + (1 << 24)) >> 25; h4 += carry; h3 -= carry << 25;
+        carry = (h7 + (1 << 24)) >> 25; h8 += carry; h7 -= carry << 25;
+
+        carry = (h4 + (1 << 25)) >> 26; h5 += carry; h4 -= carry << 26;
+        carry = (h8 + (1 << 25)) >> 26; h9 += carry; h8 -= carry << 26;
+
+        carry = (h9 + (1 << 24)) >> 25; h0 += carry * 19; h9 -= carry << 25;
+
+        carry = (h0 + (1 << 25)) >> 26; h1 += carry; h0 -= carry << 26;
+
+        h[0] = (int) h0;
+        h[1] = (int) h1;
+        h[2] = (int) h2;
+        h[3] = (int) h3;
+        h[4] = (int) h4;
+        h[5] = (int) h5;
+        h[6] = (int) h6;
+        h[7] = (int) h7;
+        h[8] = (int) h8;
+        h[9] = (int) h9;
+    }
+
+    /* out = z^(2^255-21) = 1/z, 0 for z = 0
+     * t0, t1, t2, t3 are temporaries */
+    static void invert(int[] out, int[] z, int[] t0, int[] t1, int[] t2, int[] t3) {
+        sq(t0, z);                  /* 2 */
+        sq(t1, t0);
+        sq(t1, t1);                 /* 8 */
+        mul(t1, z, t1);             /* 9 */
+        mul(t0, t0, t1);            /* 11 */
+        sq(t2, t0);                 /* 22 */
+        mul(t1, t1, t2);            /* 2^5 - 2^0 */
+        sqTimes(t2, t1, 5);
+        mul(t1, t2, t1);            /* 2^10 - 2^0 */
+        sqTimes(t2, t1, 10);
+        mul(t2, t2, t1);            /* 2^20 - 2^0 */
+        sqTimes(t3, t2, 20);
+        mul(t2, t3, t2);            /* 2^40 - 2^0 */
+        sqTimes(t2, t2, 10);
+        mul(t1, t2, t1);            /* 2^50 - 2^0 */
+        sqTimes(t2, t1, 50);
+        mul(t2, t2, t1);            /* 2^100 - 2^0 */
+        sqTimes(t3, t2, 100);
+        mul(t2, t3, t2);            /* 2^200 - 2^0 */
+        sqTimes(t2, t2, 50);
+        mul(t1, t2, t1);            /* 2^250 - 2^0 */
+        sqTimes(t1, t1, 5);         /* 2^255 - 2^5 */
+        mul(out, t1, t0);           /* 2^255 - 21 */
+    }
+
+    /* out = z^(2^252-3) = z^((p-5)/8), used for square roots
+     * t0, t1, t2 are temporaries */
+    static void pow22523(int[] out, int[] z, int[] t0, int[] t1, int[] t2) {
+        sq(t0, z);                  /* 2 */
+        sq(t1, t0);
+        sq(t1, t1);                 /* 8 */
+        mul(t1, z, t1);             /* 9 */
+        mul(t0, t0, t1);            /* 11 */
+        sq(t0, t0);                 /* 22 */
+        mul(t0, t1, t0);            /* 2^5 - 2^0 */
+        sqTimes(t1, t0, 5);
+        mul(t0, t1, t0);            /* 2^10 - 2^0 */
+        sqTimes(t1, t0, 10);
+        mul(t1, t1, t0);            /* 2^20 - 2^0 */
+        sqTimes(t2, t1, 20);
+        mul(t1, t2, t1);            /* 2^40 - 2^0 */
+        sqTimes(t1, t1, 10);
+        mul(t0, t1, t0);            /* 2^50 - 2^0 */
+        sqTimes(t1, t0, 50);
+        mul(t1, t1, t0);            /* 2^100 - 2^0 */
+        sqTimes(t2, t1, 100);
+        mul(t1, t2, t1);            /* 2^200 - 2^0 */
+        sqTimes(t1, t1, 50);
+        mul(t0, t1, t0);            /* 2^250 - 2^0 */
+        sqTimes(t0, t0, 2);         /* 2^252 - 2^2 */
+        mul(out, t0, z);            /* 2^252 - 3 */
+    }
+
+    private static void sqTimes(int[] h, int[] f, int n) {
+        sq(h, f);
+        for (int i = 1; i < n; i++) {
+            sq(h, h);
+        }
+    }
+
+    /* checks if fully reduced f is odd, s is a 32-byte temporary */
+    static boolean isNegative(int[] f, byte[] s) {
+        toBytes(s, f);
+        return (s[0] & 1) != 0;
+    }
+
+    /* checks if f = g mod p, s and t are 32-byte temporaries */
+    static boolean equal(int[] f, int[] g, byte[] s, byte[] t) {
+        toBytes(s, f);
+        toBytes(t, g);
+        for (int i = 0; i < 32; i++) {
+            if (s[i] != t[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long load3(byte[] in, int offset) {
+        return (in[offset] & 0xFF) | (in[offset + 1] & 0xFF) << 8 | (long) (in[offset + 2] & 0xFF) << 16;
+    }
+
+    private static long load4(byte[] in, int offset) {
+        return (in[offset] & 0xFF) | (in[offset + 1] & 0xFF) << 8 | (in[offset + 2] & 0xFF) << 16
+            | (long) (in[offset + 3] & 0xFF) << 24;
+    }
+}
@@ -171,6 +171,19 @@ public class CryptoTest extends TestsCommons {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of verifyHash method, of class Crypto.
+     */
+    @Test
+    public void testVerifyHash() {
+        byte[] signature = Convert.parseHexString("f565212c53a668006fbdb12c512e51f7add8118e6573d5c7261e9f58944e5c0b0ae76275210b795915a3017852fe8bca1a3cd2d2b02b32a51e0e03b18e6335f8");
+        byte[] messageHash = Crypto.sha256().digest(plain_data);
+        byte[] publicKey = Crypto.getPublicKey(secretPhraseA);
+        assertEquals(true, Crypto.verifyHash(signature, messageHash, publicKey));
+        messageHash[0]++;
+        assertEquals(false, Crypto.verifyHash(signature, messageHash, publicKey));
+    }
+
     /**
      * Test of getSharedKey method, of class Crypto.
      */
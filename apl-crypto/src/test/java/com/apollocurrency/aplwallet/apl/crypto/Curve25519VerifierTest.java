@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2018-2020 Apollo Foundation
+ */
+
+package com.apollocurrency.aplwallet.apl.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Curve25519VerifierTest {
+    private static final int CORPUS_SIZE = 10_000;
+    private final Random random = new Random(25519);
+
+    @Test
+    void testSignaturesOfValidKeys() {
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            byte[] keySeed = randomBytes();
+            byte[] message = randomBytes();
+            byte[] publicKey = Crypto.getPublicKey(keySeed);
+            byte[] signature = Crypto.sign(message, keySeed);
+
+            assertSameY(Arrays.copyOfRange(signature, 0, 32), Arrays.copyOfRange(signature, 32, 64), publicKey);
+            assertTrue(Crypto.verify(signature, message, publicKey));
+        }
+    }
+
+    @Test
+    void testRandomValuesOfValidKeys() {
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            assertSameY(randomBytes(), randomBytes(), Crypto.getPublicKey(randomBytes()));
+        }
+    }
+
+    /**
+     * Half of random canonical keys are not on the curve, most of the rest have a small order component
+     */
+    @Test
+    void testRandomValuesOfRandomKeys() {
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            byte[] publicKey = randomBytes();
+            publicKey[31] &= 0x7F;
+            assertSameY(randomBytes(), randomBytes(), publicKey);
+        }
+    }
+
+    @Test
+    void testSpecialKeysAndValues() {
+        byte[] order = Curve25519.ORDER;
+        byte[] max = new byte[32];
+        Arrays.fill(max, (byte) 0xFF);
+        byte[] one = new byte[32];
+        one[0] = 1;
+        byte[] minusOne = Curve25519.PRIME.clone();
+        minusOne[0]--;
+        byte[] nine = new byte[32];
+        nine[0] = 9;
+        byte[][] keys = {Curve25519.ZERO, one, minusOne, nine, Curve25519.PRIME, max, Crypto.getPublicKey(randomBytes()),
+            Convert.parseHexString("12c7711cc7711cc7711cc7711cc7711cc7711cc7711cc7711cc7711cc7711c47")};
+        byte[][] values = {Curve25519.ZERO, one, order, max, randomBytes()};
+        for (byte[] key : keys) {
+            for (byte[] v : values) {
+                for (byte[] h : values) {
+                    assertSameY(v, h, key);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testModifiedSignatureIsNotValid() {
+        byte[] keySeed = randomBytes();
+        byte[] message = randomBytes();
+        byte[] signature = Crypto.sign(message, keySeed);
+        signature[40]++;
+
+        assertFalse(Crypto.verify(signature, message, Crypto.getPublicKey(keySeed)));
+    }
+
+    private void assertSameY(byte[] v, byte[] h, byte[] publicKey) {
+        byte[] expected = new byte[32];
+        Curve25519.verify(expected, v, h, publicKey);
+        byte[] actual = new byte[32];
+        Curve25519Verifier.verify(actual, v, h, publicKey);
+
+        assertArrayEquals(expected, actual, () -> "v=" + Convert.toHexString(v) + ", h=" + Convert.toHexString(h)
+            + ", P=" + Convert.toHexString(publicKey));
+    }
+
+    private byte[] randomBytes() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
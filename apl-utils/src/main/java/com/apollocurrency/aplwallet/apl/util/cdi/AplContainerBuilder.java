@@ -27,6 +27,8 @@ public class AplContainerBuilder {
 
     private List<Class<?>> interceptors;
 
+    private List<Class<?>> beanClasses;
+
     private boolean concurrentDeploymentDisabled = false;
 
 //    private List<Class<?>> recursiveScanPackages;
@@ -66,6 +68,16 @@ public class AplContainerBuilder {
         return this;
     }
 
+    /**
+     * Explicitly add bean classes, useful together with {@link #disableDiscovery()}
+     */
+    public AplContainerBuilder beanClasses(Class<?>... beanClasses) {
+        if (beanClasses != null && beanClasses.length > 0) {
+            this.beanClasses = Arrays.stream(beanClasses).collect(Collectors.toList());
+        }
+        return this;
+    }
+
 //    public AplContainerBuilder recursiveScanPackages(Class<?>... recursiveScanPackages) {
 //        if (recursiveScanPackages != null && recursiveScanPackages.length > 0) {
 //            this.recursiveScanPackages = Arrays.stream(recursiveScanPackages).collect(Collectors.toList());
@@ -93,6 +105,10 @@ public class AplContainerBuilder {
             interceptors.forEach(weld::addInterceptor);
         }
 
+        if (beanClasses != null && !beanClasses.isEmpty()) {
+            beanClasses.forEach(weld::addBeanClass);
+        }
+
         if (devMode) {
             weld.enableDevMode();
         }